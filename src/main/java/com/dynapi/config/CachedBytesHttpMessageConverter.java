@@ -0,0 +1,48 @@
+package com.dynapi.config;
+
+import com.dynapi.infrastructure.cache.CachedBytes;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes already serialized JSON responses as they are, directly to the response output stream.
+ */
+@Component
+public class CachedBytesHttpMessageConverter extends AbstractHttpMessageConverter<CachedBytes> {
+
+    public CachedBytesHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CachedBytes.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CachedBytes readInternal(Class<? extends CachedBytes> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Cached responses cannot be read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(CachedBytes body, MediaType contentType) {
+        return body.length();
+    }
+
+    @Override
+    protected void writeInternal(CachedBytes body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
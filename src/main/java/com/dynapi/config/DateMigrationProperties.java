@@ -0,0 +1,24 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.date-migration")
+public class DateMigrationProperties {
+    private boolean enabled = true;
+    /**
+     * Delay between scans for DATE values still stored as strings.
+     */
+    private Duration interval = Duration.ofMinutes(10);
+    /**
+     * Records read and converted per round-trip.
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,31 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.memory-resident")
+public class MemoryResidentProperties {
+    /**
+     * Entities whose active records are held in memory and queried there, typically small
+     * reference data read on every page load.
+     */
+    private Set<String> entities = new HashSet<>();
+    /**
+     * Largest collection that is loaded; bigger ones are queried in Mongo as usual.
+     */
+    private int maxRecords = 10_000;
+    /**
+     * Writes through this instance replace the snapshot on the next query; the refresh interval
+     * bounds staleness for writes made by other instances.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+}
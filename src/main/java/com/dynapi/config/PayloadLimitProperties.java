@@ -0,0 +1,40 @@
+package com.dynapi.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits of form submission and record mutation bodies, checked while they are read.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.payload-limits")
+public class PayloadLimitProperties {
+    private DataSize maxBytes = DataSize.ofMegabytes(1);
+    /**
+     * Deepest nesting of objects and arrays in {@code data}, which is itself at depth 1.
+     */
+    private int maxDepth = 16;
+    private int maxKeysPerObject = 500;
+    private int maxArrayLength = 5_000;
+    /**
+     * Limits of single entities. Unset values fall back to the ones above.
+     */
+    private Map<String, EntityLimits> entities = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class EntityLimits {
+        private DataSize maxBytes;
+        private Integer maxDepth;
+        private Integer maxKeysPerObject;
+        private Integer maxArrayLength;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.batch")
+public class QueryBatchProperties {
+    private int maxQueries = 10;
+    /**
+     * Queries of one batch that may run at the same time; the rest wait for a free slot.
+     */
+    private int maxConcurrency = 4;
+    /**
+     * Time limit of each query once it started; a query over the limit is cancelled and reported
+     * as timed out without failing the rest of the batch.
+     */
+    private Duration queryTimeout = Duration.ofSeconds(10);
+}
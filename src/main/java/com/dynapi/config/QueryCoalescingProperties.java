@@ -0,0 +1,25 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.coalescing")
+public class QueryCoalescingProperties {
+    private boolean enabled = true;
+    /**
+     * How long a finished result keeps answering identical requests. Zero shares only in-flight
+     * executions.
+     */
+    private Duration resultTtl = Duration.ZERO;
+    /**
+     * Upper bound of finished results kept for {@link #resultTtl}; beyond it results are not kept.
+     */
+    private int maxRetainedResults = 1_000;
+}
@@ -1,5 +1,7 @@
 package com.dynapi.config;
 
+import java.time.Duration;
+
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -13,4 +15,42 @@ public class QueryGuardrailProperties {
     private int maxPageSize = 100;
     private int maxFilterDepth = 3;
     private int maxRuleCount = 20;
+    /**
+     * Server-side time limit (maxTimeMS) applied to both the find and the count of a query.
+     */
+    private Duration maxTime = Duration.ofSeconds(5);
+    /**
+     * When enabled, each query shape is explained before it runs and rejected if its plan is a
+     * collection scan over more than {@link #maxScannedDocuments} documents.
+     */
+    private boolean costCheckEnabled = false;
+    private long maxScannedDocuments = 100_000;
+    /**
+     * How long a cost estimate is reused for the same entity and query shape.
+     */
+    private Duration costCheckTtl = Duration.ofMinutes(1);
+    private int maxSortFields = 4;
+    /**
+     * What to do when a sorted query has no index that serves the sort, so Mongo would sort in
+     * memory. Detected with a query planner explain, cached like cost estimates.
+     */
+    private UnindexedSortPolicy unindexedSort = UnindexedSortPolicy.WARN;
+    private int maxGroupByFields = 3;
+    private int maxAggregationMetrics = 10;
+    /**
+     * Aggregations producing more groups than this are rejected instead of returned.
+     */
+    private int maxAggregationGroups = 1_000;
+    private int maxFacetPaths = 10;
+    private int maxFacetValues = 100;
+    /**
+     * Records sampled per facet request in approximate mode.
+     */
+    private int facetSampleSize = 10_000;
+
+    public enum UnindexedSortPolicy {
+        ALLOW,
+        WARN,
+        REJECT
+    }
 }
@@ -0,0 +1,18 @@
+package com.dynapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.plan-cache")
+public class QueryPlanCacheProperties {
+    private boolean enabled = true;
+    /**
+     * Upper bound of cached plans across all entities; the least recently used plan is evicted.
+     */
+    private int maxEntries = 1_000;
+}
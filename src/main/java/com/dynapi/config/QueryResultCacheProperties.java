@@ -0,0 +1,50 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.result-cache")
+public class QueryResultCacheProperties {
+    /**
+     * Entities whose query responses are cached, typically rarely written reference data.
+     */
+    private Set<String> entities = new HashSet<>();
+    /**
+     * Upper bound of cached response bytes; the least recently used responses are evicted.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+    /**
+     * How long a cached response is served after it was stored. Writes through this instance make
+     * entries unreachable at once; the TTL bounds how stale a response can be after writes made
+     * through other instances or directly in Mongo. 0 keeps responses until they are evicted.
+     */
+    private Duration ttl = Duration.ofMinutes(1);
+    /**
+     * Where responses are kept. OFF_HEAP stores them in direct memory slabs outside the Java heap,
+     * which counts against {@code -XX:MaxDirectMemorySize}.
+     */
+    private Store store = Store.HEAP;
+    /**
+     * Direct memory allocated at once when the off-heap store grows.
+     */
+    private DataSize slabSize = DataSize.ofMegabytes(4);
+    /**
+     * Allocation unit of the off-heap store; a response occupies whole blocks.
+     */
+    private DataSize blockSize = DataSize.ofKilobytes(4);
+
+    public enum Store {
+        HEAP,
+        OFF_HEAP
+    }
+}
@@ -0,0 +1,37 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.stats")
+public class QueryStatsProperties {
+    private boolean enabled = true;
+    /**
+     * Upper bound of distinct shapes tracked per entity. New shapes beyond it are counted as dropped.
+     */
+    private int maxShapesPerEntity = 200;
+    /**
+     * How many of the most frequent shapes per entity are explained on each advisor run.
+     */
+    private int explainTopShapes = 5;
+    private Duration explainInterval = Duration.ofMinutes(5);
+    /**
+     * Server-side time limit ({@code maxTimeMS}) of each explain; a shape that hits it keeps its previous verdict.
+     */
+    private Duration explainMaxTime = Duration.ofSeconds(5);
+    /**
+     * Plans examining more than this many documents per returned document are flagged.
+     */
+    private double maxDocsExaminedRatio = 10.0;
+    /**
+     * Shapes seen fewer times than this are not considered for index recommendations.
+     */
+    private long minRecommendationCount = 10;
+}
@@ -0,0 +1,47 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.query.subscriptions")
+public class QuerySubscriptionProperties {
+    /**
+     * Where record writes come from. CHANGE_STREAM needs a replica set and sees every writer;
+     * IN_PROCESS works on a standalone server but only sees writes made through this instance.
+     */
+    private Source source = Source.CHANGE_STREAM;
+    /**
+     * How long a subscription stays open before the client has to subscribe again.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+    /**
+     * Interval of the keep-alive comment sent to every subscriber, which also detects clients that
+     * went away.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    /**
+     * Events queued for one subscriber before it is considered too slow and disconnected.
+     */
+    private int maxPendingEvents = 1_000;
+    /**
+     * Records announced to one subscriber that are remembered, so that a later write making one of
+     * them stop matching is sent as a {@code leave} event.
+     */
+    private int maxTrackedRecords = 10_000;
+    /**
+     * How long a change stream waits for new events before checking whether it was closed.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    public enum Source {
+        CHANGE_STREAM,
+        IN_PROCESS
+    }
+}
@@ -0,0 +1,25 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.cache")
+public class RecordCacheProperties {
+    private boolean enabled = true;
+    /**
+     * Upper bound of cached records across all entities; the least recently read is evicted.
+     */
+    private int maxEntries = 10_000;
+    /**
+     * Writes through this instance invalidate immediately; the TTL bounds staleness for writes
+     * made by other instances.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
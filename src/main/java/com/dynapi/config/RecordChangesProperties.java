@@ -0,0 +1,22 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.changes")
+public class RecordChangesProperties {
+    private int defaultLimit = 100;
+    private int maxLimit = 1_000;
+    /**
+     * Changes younger than this are left for the next sync, so that a write stamped just before a
+     * read but saved just after it is not skipped by the watermark.
+     */
+    private Duration settleTime = Duration.ofSeconds(1);
+}
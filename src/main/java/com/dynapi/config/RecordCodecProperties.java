@@ -0,0 +1,23 @@
+package com.dynapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.codec")
+public class RecordCodecProperties {
+    /**
+     * How NUMBER fields are stored. NATIVE keeps the smallest of int32, int64 and double that holds
+     * the value exactly; DECIMAL128 stores every number as an exact decimal.
+     */
+    private NumberStorage numberStorage = NumberStorage.NATIVE;
+
+    public enum NumberStorage {
+        NATIVE,
+        DECIMAL128
+    }
+}
@@ -0,0 +1,76 @@
+package com.dynapi.config;
+
+import com.dynapi.dto.FormSubmissionRequest;
+import com.dynapi.dto.RecordMutationRequest;
+import com.dynapi.service.RecordPayloadReader;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+import tools.jackson.core.JacksonException;
+
+/**
+ * Reads form submissions and record mutations with a streaming parser instead of generic data
+ * binding, so that record data is validated and encoded token by token (see
+ * {@link RecordPayloadReader}) and payload limits are enforced before the body is held in memory.
+ * Record mutations are read against the entity in the request path.
+ */
+@Component
+public class RecordPayloadHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    private final RecordPayloadReader payloadReader;
+
+    public RecordPayloadHttpMessageConverter(RecordPayloadReader payloadReader) {
+        super(MediaType.APPLICATION_JSON);
+        this.payloadReader = payloadReader;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FormSubmissionRequest.class == clazz || RecordMutationRequest.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        try {
+            return clazz == FormSubmissionRequest.class
+                    ? payloadReader.readSubmission(inputMessage.getBody(), contentLength)
+                    : payloadReader.readMutation(
+                            inputMessage.getBody(), contentLength, pathVariable("entity"));
+        } catch (JacksonException ex) {
+            throw new HttpMessageNotReadableException(
+                    "JSON parse error: " + ex.getOriginalMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Request payloads are not written");
+    }
+
+    private static String pathVariable(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object variables =
+                attributes.getAttribute(
+                        HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return variables instanceof Map<?, ?> map ? (String) map.get(name) : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.dynapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.validation")
+public class RecordValidationProperties {
+    /**
+     * Virtual threads validating stored records of one scan in parallel.
+     */
+    private int workers = 4;
+    /**
+     * Records read from the cursor but not yet validated; reading waits while the queue is full.
+     */
+    private int queueCapacity = 1000;
+    /**
+     * Documents fetched per cursor round-trip.
+     */
+    private int cursorBatchSize = 500;
+    /**
+     * Largest random sample a dry-run publish may ask for.
+     */
+    private int maxSampleSize = 100000;
+    /**
+     * Record ids kept as examples per violated path and rule.
+     */
+    private int maxExamples = 5;
+    /**
+     * Records a revalidation job reads per second at most; 0 leaves reading unthrottled.
+     */
+    private int maxRecordsPerSecond = 2000;
+    /**
+     * Invalid-record reports a revalidation job inserts per write.
+     */
+    private int reportBatchSize = 500;
+    /**
+     * Finished revalidation jobs kept, with their reports, before the oldest are dropped.
+     */
+    private int retainedJobs = 20;
+}
@@ -0,0 +1,28 @@
+package com.dynapi.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dynapi.records.schema-migration")
+public class SchemaMigrationProperties {
+    private boolean enabled = true;
+    /**
+     * Delay between scans for records stamped with a schema version older than their migrations.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+    /**
+     * Records read and rewritten per bulk write.
+     */
+    private int batchSize = 500;
+    /**
+     * Pause after each full batch, bounding the write load the migration adds.
+     */
+    private Duration batchPause = Duration.ofMillis(100);
+}
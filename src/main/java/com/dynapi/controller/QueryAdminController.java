@@ -0,0 +1,112 @@
+package com.dynapi.controller;
+
+import com.dynapi.dto.ApiResponse;
+import com.dynapi.dto.CacheStats;
+import com.dynapi.dto.CoalescingStats;
+import com.dynapi.dto.IndexRecommendation;
+import com.dynapi.dto.QueryShapeStats;
+import com.dynapi.dto.SchemaIndexSyncResult;
+import com.dynapi.dto.WeightedCacheStats;
+import com.dynapi.service.IndexAdvisorService;
+import com.dynapi.service.QueryCoalescer;
+import com.dynapi.service.QueryPlanCache;
+import com.dynapi.service.QueryResultCache;
+import com.dynapi.service.QueryShapeStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/admin/query", version = "1")
+@RequiredArgsConstructor
+public class QueryAdminController {
+    private final QueryShapeStatsService queryShapeStatsService;
+    private final IndexAdvisorService indexAdvisorService;
+    private final QueryPlanCache queryPlanCache;
+    private final QueryCoalescer queryCoalescer;
+    private final QueryResultCache queryResultCache;
+
+    @GetMapping("/entities/{entity}/shapes")
+    @Operation(
+            summary = "Query Shape Statistics",
+            description = "Lists recorded query shapes with frequency, latency histogram and plan verdict.")
+    public ApiResponse<List<QueryShapeStats>> listShapes(@PathVariable String entity) {
+        return ApiResponse.success(queryShapeStatsService.snapshot(entity), "Fetched");
+    }
+
+    @PostMapping("/entities/{entity}/shapes/explain")
+    @Operation(
+            summary = "Explain Top Query Shapes",
+            description = "Runs explain() on the most frequent shapes now instead of waiting for the job.")
+    public ApiResponse<List<QueryShapeStats>> explainShapes(@PathVariable String entity) {
+        return ApiResponse.success(queryShapeStatsService.explainTopShapes(entity), "Explained");
+    }
+
+    @GetMapping("/entities/{entity}/index-recommendations")
+    @Operation(
+            summary = "Index Recommendations",
+            description = "Recommends single or compound indexes for frequent, badly planned shapes.")
+    public ApiResponse<List<IndexRecommendation>> recommendIndexes(@PathVariable String entity) {
+        return ApiResponse.success(indexAdvisorService.recommend(entity), "Fetched");
+    }
+
+    @PostMapping("/entities/{entity}/index-recommendations/apply")
+    @Operation(
+            summary = "Apply Index Recommendations",
+            description =
+                    "Declares recommendations as compound indexes of the published schema and syncs them.")
+    public ApiResponse<SchemaIndexSyncResult> applyRecommendations(
+            @PathVariable String entity, @RequestParam(defaultValue = "false") boolean dryRun) {
+        SchemaIndexSyncResult result = indexAdvisorService.apply(entity, dryRun);
+        return ApiResponse.success(result, dryRun ? "Index plan computed" : "Indexes synced");
+    }
+
+    @GetMapping("/plan-cache")
+    @Operation(
+            summary = "Query Plan Cache Statistics",
+            description = "Returns size, hits, misses, evictions and hit rate of the query plan cache.")
+    public ApiResponse<CacheStats> planCacheStats() {
+        return ApiResponse.success(queryPlanCache.stats(), "Fetched");
+    }
+
+    @GetMapping("/coalescing")
+    @Operation(
+            summary = "Query Coalescing Statistics",
+            description =
+                    "Returns how many queries were answered by an identical in-flight or just finished query"
+                            + " instead of running their own.")
+    public ApiResponse<CoalescingStats> coalescingStats() {
+        return ApiResponse.success(queryCoalescer.stats(), "Fetched");
+    }
+
+    @DeleteMapping("/plan-cache")
+    @Operation(summary = "Clear Query Plan Cache", description = "Drops all cached query plans.")
+    public ApiResponse<CacheStats> clearPlanCache() {
+        queryPlanCache.clear();
+        return ApiResponse.success(queryPlanCache.stats(), "Cleared");
+    }
+
+    @GetMapping("/result-cache")
+    @Operation(
+            summary = "Query Result Cache Statistics",
+            description = "Returns entries, bytes used, hits, misses, evictions and hit rate of the result cache.")
+    public ApiResponse<WeightedCacheStats> resultCacheStats() {
+        return ApiResponse.success(queryResultCache.stats(), "Fetched");
+    }
+
+    @DeleteMapping("/result-cache")
+    @Operation(summary = "Clear Query Result Cache", description = "Drops all cached query responses.")
+    public ApiResponse<WeightedCacheStats> clearResultCache() {
+        queryResultCache.clear();
+        return ApiResponse.success(queryResultCache.stats(), "Cleared");
+    }
+}
@@ -1,32 +1,140 @@
 package com.dynapi.controller;
 
+import com.dynapi.dto.AggregationRequest;
+import com.dynapi.dto.AggregationResponse;
 import com.dynapi.dto.ApiResponse;
+import com.dynapi.dto.BatchQueryRequest;
+import com.dynapi.dto.BatchQueryResponse;
+import com.dynapi.dto.FacetRequest;
+import com.dynapi.dto.FacetResponse;
 import com.dynapi.dto.DynamicQueryRequest;
 import com.dynapi.dto.FormRecordDto;
 import com.dynapi.dto.PaginatedResponse;
-import com.dynapi.service.DynamicQueryService;
+import com.dynapi.infrastructure.cache.CachedBytes;
+import com.dynapi.service.AggregationService;
+import com.dynapi.service.BatchQueryService;
+import com.dynapi.service.QueryExecution;
+import com.dynapi.service.QueryExecutionService;
+import com.dynapi.service.QueryResultCache;
+import com.dynapi.service.QuerySubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+
+import java.util.concurrent.CompletionException;
+
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping(path = "/query", version = "1")
 @RequiredArgsConstructor
 public class QueryController {
-    private final DynamicQueryService dynamicQueryService;
+    private final QueryExecutionService queryExecutionService;
+    private final AggregationService aggregationService;
+    private final BatchQueryService batchQueryService;
+    private final QueryResultCache queryResultCache;
+    private final QuerySubscriptionService querySubscriptionService;
+
+    @PostMapping
+    @Operation(
+            summary = "Batch Query Dynamic Records",
+            description =
+                    "Runs several entity queries concurrently in one request. Each query has its own time"
+                            + " limit and its own result or error; one failing query does not fail the batch.")
+    public ApiResponse<BatchQueryResponse> batch(@RequestBody @Valid BatchQueryRequest request) {
+        return ApiResponse.success(batchQueryService.execute(request), "Batch query completed");
+    }
 
     @PostMapping("/{entity}")
     @Operation(
             summary = "Query Dynamic Records",
-            description = "Queries records for an entity using filters, pagination, and sorting.")
-    public ApiResponse<PaginatedResponse<FormRecordDto>> query(
+            description =
+                    "Queries records for an entity using filters, pagination, and sorting. The server-side"
+                            + " query is cancelled when the client disconnects. Entities with a result cache"
+                            + " are answered from it until their next write.")
+    public DeferredResult<ResponseEntity<?>> query(
+            @PathVariable String entity, @RequestBody @Valid DynamicQueryRequest request) {
+        DeferredResult<ResponseEntity<?>> response = new DeferredResult<>();
+        QueryResultCache.Lookup lookup =
+                queryResultCache.isEnabled(entity) ? queryResultCache.lookup(entity, request) : null;
+        if (lookup != null && lookup.isHit()) {
+            response.onCompletion(lookup.body()::release);
+            response.setResult(cachedResponse(lookup.body()));
+            return response;
+        }
+
+        QueryExecution execution =
+                lookup == null
+                        ? queryExecutionService.submit(entity, request)
+                        : queryExecutionService.submit(entity, lookup.publishedSchema(), request);
+        response.onTimeout(execution::cancel);
+        response.onError(error -> execution.cancel());
+        execution
+                .result()
+                .whenComplete(
+                        (result, error) -> {
+                            if (error == null) {
+                                ApiResponse<PaginatedResponse<FormRecordDto>> body =
+                                        ApiResponse.success(result, "Query successful");
+                                response.setResult(
+                                        lookup == null
+                                                ? ResponseEntity.ok(body)
+                                                : cachedResponse(queryResultCache.store(lookup, body)));
+                            } else {
+                                response.setErrorResult(
+                                        error instanceof CompletionException && error.getCause() != null
+                                                ? error.getCause()
+                                                : error);
+                            }
+                        });
+        return response;
+    }
+
+    @PostMapping(path = "/{entity}/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Subscribe To Dynamic Records",
+            description =
+                    "Streams records matching the filters as Server-Sent Events while they are written:"
+                            + " 'upsert' for inserts and updates, 'delete' for soft-deletes, and 'leave' when a"
+                            + " record announced on this stream stops matching. Records only returned by the"
+                            + " client's own query get no 'leave' event. Subscribe first, then query for the"
+                            + " current records.")
+    public SseEmitter subscribe(
             @PathVariable String entity, @RequestBody @Valid DynamicQueryRequest request) {
-        PaginatedResponse<FormRecordDto> result = dynamicQueryService.query(entity, request);
-        return ApiResponse.success(result, "Query successful");
+        return querySubscriptionService.subscribe(entity, request);
+    }
+
+    @PostMapping("/{entity}/aggregate")
+    @Operation(
+            summary = "Aggregate Dynamic Records",
+            description =
+                    "Groups records matching the filters by schema paths and returns count/sum/avg/min/max"
+                            + " per group, computed by the database.")
+    public ApiResponse<AggregationResponse> aggregate(
+            @PathVariable String entity, @RequestBody @Valid AggregationRequest request) {
+        return ApiResponse.success(aggregationService.aggregate(entity, request), "Aggregation successful");
+    }
+
+    @PostMapping("/{entity}/facets")
+    @Operation(
+            summary = "Facet Counts",
+            description =
+                    "Returns the most frequent values of STRING, BOOLEAN or NUMBER fields among the records"
+                            + " matching the filters, computed in a single pipeline.")
+    public ApiResponse<FacetResponse> facets(
+            @PathVariable String entity, @RequestBody @Valid FacetRequest request) {
+        return ApiResponse.success(aggregationService.facets(entity, request), "Facets successful");
+    }
+
+    private ResponseEntity<CachedBytes> cachedResponse(CachedBytes body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
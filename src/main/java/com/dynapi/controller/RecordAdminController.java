@@ -0,0 +1,90 @@
+package com.dynapi.controller;
+
+import com.dynapi.domain.model.MigrationCheckpoint;
+import com.dynapi.dto.ApiResponse;
+import com.dynapi.dto.PayloadRejectionStats;
+import com.dynapi.dto.RevalidationFinding;
+import com.dynapi.dto.RevalidationJobStatus;
+import com.dynapi.service.PayloadLimiter;
+import com.dynapi.service.RecordRevalidationService;
+import com.dynapi.service.SchemaDataMigration;
+import io.swagger.v3.oas.annotations.Operation;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/admin/records", version = "1")
+@RequiredArgsConstructor
+public class RecordAdminController {
+    private final PayloadLimiter payloadLimiter;
+    private final SchemaDataMigration schemaDataMigration;
+    private final RecordRevalidationService recordRevalidationService;
+
+    @GetMapping("/payload-rejections")
+    @Operation(
+            summary = "Payload Rejection Statistics",
+            description =
+                    "Counts form submissions and record mutations rejected for exceeding payload limits, per"
+                            + " limit and per entity.")
+    public ApiResponse<PayloadRejectionStats> payloadRejections() {
+        return ApiResponse.success(payloadLimiter.stats(), "Fetched");
+    }
+
+    @GetMapping("/migrations")
+    @Operation(
+            summary = "Schema Migration Progress",
+            description =
+                    "Checkpoints of the background migration of each entity's records to its published schema"
+                            + " version.")
+    public ApiResponse<List<MigrationCheckpoint>> migrations() {
+        return ApiResponse.success(schemaDataMigration.checkpoints(), "Fetched");
+    }
+
+    @PostMapping("/{entity}/revalidations")
+    @Operation(
+            summary = "Start Record Revalidation",
+            description =
+                    "Validates the stored records of the entity against its published schema in the background,"
+                            + " reporting invalid records. batchSize overrides the cursor batch size.")
+    public ApiResponse<RevalidationJobStatus> startRevalidation(
+            @PathVariable String entity, @RequestParam(required = false) Integer batchSize) {
+        return ApiResponse.success(recordRevalidationService.start(entity, batchSize), "Started");
+    }
+
+    @GetMapping("/revalidations")
+    @Operation(summary = "List Record Revalidations", description = "Running and recently finished revalidation jobs.")
+    public ApiResponse<List<RevalidationJobStatus>> revalidations() {
+        return ApiResponse.success(recordRevalidationService.jobs(), "Fetched");
+    }
+
+    @GetMapping("/revalidations/{jobId}")
+    @Operation(
+            summary = "Record Revalidation Progress",
+            description = "Records scanned and found invalid, throughput and violations by path and rule.")
+    public ApiResponse<RevalidationJobStatus> revalidation(@PathVariable String jobId) {
+        return ApiResponse.success(recordRevalidationService.status(jobId), "Fetched");
+    }
+
+    @PostMapping("/revalidations/{jobId}/cancel")
+    @Operation(summary = "Cancel Record Revalidation", description = "Stops a running revalidation job.")
+    public ApiResponse<RevalidationJobStatus> cancelRevalidation(@PathVariable String jobId) {
+        return ApiResponse.success(recordRevalidationService.cancel(jobId), "Cancelled");
+    }
+
+    @GetMapping("/revalidations/{jobId}/invalid-records")
+    @Operation(
+            summary = "Invalid Records of a Revalidation",
+            description = "Ids of the invalid records a revalidation job reported, with their first violation.")
+    public ApiResponse<List<RevalidationFinding>> invalidRecords(
+            @PathVariable String jobId, @RequestParam(defaultValue = "100") int limit) {
+        return ApiResponse.success(recordRevalidationService.findings(jobId, limit), "Fetched");
+    }
+}
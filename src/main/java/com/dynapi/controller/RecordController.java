@@ -2,18 +2,28 @@ package com.dynapi.controller;
 
 import com.dynapi.dto.ApiResponse;
 import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.RecordChangesResponse;
 import com.dynapi.dto.RecordMutationRequest;
+import com.dynapi.service.CachedRecord;
 import com.dynapi.service.DynamicRecordService;
+import com.dynapi.service.RecordChangesService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+
+import java.time.Instant;
+
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -21,6 +31,38 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class RecordController {
     private final DynamicRecordService dynamicRecordService;
+    private final RecordChangesService recordChangesService;
+
+    @GetMapping("/{entity}/_changes")
+    @Operation(
+            summary = "Record Changes Since",
+            description =
+                    "Returns records created, updated or soft-deleted after 'since', oldest first, paged"
+                            + " with 'cursor'. The last page carries the watermark to send as 'since' on the"
+                            + " next sync. The leading underscore keeps the path apart from record ids.")
+    public ApiResponse<RecordChangesResponse> changes(
+            @PathVariable String entity,
+            @RequestParam(required = false) Instant since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ApiResponse.success(
+                recordChangesService.changes(entity, since, cursor, limit), "Changes fetched successfully");
+    }
+
+    @GetMapping("/{entity}/{id}")
+    @Operation(
+            summary = "Get Dynamic Record",
+            description =
+                    "Returns an active record by id with an ETag. Send it back in If-None-Match to get 304"
+                            + " Not Modified while the record is unchanged.")
+    public ResponseEntity<ApiResponse<FormRecordDto>> getRecord(
+            @PathVariable String entity, @PathVariable String id) {
+        CachedRecord record = dynamicRecordService.get(entity, id);
+        return ResponseEntity.ok()
+                .eTag(record.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(record.record(), "Record fetched successfully"));
+    }
 
     @PatchMapping("/{entity}/{id}")
     @Operation(
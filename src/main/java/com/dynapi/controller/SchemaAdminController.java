@@ -4,9 +4,12 @@ import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldGroup;
 import com.dynapi.domain.model.SchemaVersion;
 import com.dynapi.dto.ApiResponse;
+import com.dynapi.dto.SchemaDryRunReport;
 import com.dynapi.dto.SchemaIndexSyncResult;
+import com.dynapi.dto.SchemaPublishRequest;
 import com.dynapi.repository.FieldDefinitionRepository;
 import com.dynapi.repository.FieldGroupRepository;
+import com.dynapi.service.SchemaDryRunService;
 import com.dynapi.service.SchemaIndexService;
 import com.dynapi.service.SchemaLifecycleService;
 
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -32,6 +36,7 @@ public class SchemaAdminController {
     private final FieldGroupRepository fieldGroupRepository;
     private final SchemaLifecycleService schemaLifecycleService;
     private final SchemaIndexService schemaIndexService;
+    private final SchemaDryRunService schemaDryRunService;
 
     // FieldDefinition CRUD
     @PostMapping("/field-definitions")
@@ -102,11 +107,23 @@ public class SchemaAdminController {
     }
 
     @PostMapping("/field-groups/{groupId}/publish")
-    public ApiResponse<SchemaVersion> publishFieldGroup(@PathVariable String groupId) {
-        SchemaVersion published = schemaLifecycleService.publish(groupId);
+    public ApiResponse<SchemaVersion> publishFieldGroup(
+            @PathVariable String groupId, @RequestBody(required = false) SchemaPublishRequest request) {
+        SchemaVersion published =
+                schemaLifecycleService.publish(groupId, request == null ? null : request.migrations());
         return ApiResponse.success(published, "Published");
     }
 
+    @PostMapping("/field-groups/{groupId}/publish/dry-run")
+    public ApiResponse<SchemaDryRunReport> dryRunPublish(
+            @PathVariable String groupId,
+            @RequestParam(required = false) Integer sample,
+            @RequestBody(required = false) SchemaPublishRequest request) {
+        SchemaDryRunReport report =
+                schemaDryRunService.dryRun(groupId, request == null ? null : request.migrations(), sample);
+        return ApiResponse.success(report, "Validated");
+    }
+
     @PostMapping("/entities/{entity}/deprecate")
     public ApiResponse<SchemaVersion> deprecateEntity(@PathVariable String entity) {
         SchemaVersion deprecated = schemaLifecycleService.deprecate(entity);
@@ -125,9 +142,10 @@ public class SchemaAdminController {
     }
 
     @PostMapping("/entities/{entity}/indexes/sync")
-    public ApiResponse<SchemaIndexSyncResult> syncEntityIndexes(@PathVariable String entity) {
-        SchemaIndexSyncResult result = schemaIndexService.syncIndexes(entity);
-        return ApiResponse.success(result, "Indexes synced");
+    public ApiResponse<SchemaIndexSyncResult> syncEntityIndexes(
+            @PathVariable String entity, @RequestParam(defaultValue = "false") boolean dryRun) {
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes(entity, dryRun);
+        return ApiResponse.success(result, dryRun ? "Index plan computed" : "Indexes synced");
     }
 
     private Optional<FieldDefinition> findFieldDefinitionByName(String fieldName) {
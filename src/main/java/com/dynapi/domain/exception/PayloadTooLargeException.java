@@ -0,0 +1,19 @@
+package com.dynapi.domain.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PayloadTooLargeException extends RuntimeException {
+    /**
+     * Name of the exceeded limit, as configured: max-bytes, max-depth, max-keys-per-object or
+     * max-array-length.
+     */
+    private final String limit;
+    private final long maxValue;
+
+    public PayloadTooLargeException(String message, String limit, long maxValue) {
+        super(message);
+        this.limit = limit;
+        this.maxValue = maxValue;
+    }
+}
@@ -0,0 +1,15 @@
+package com.dynapi.domain.exception;
+
+import lombok.Getter;
+
+@Getter
+public class QueryCostExceededException extends RuntimeException {
+    private final long estimatedDocuments;
+    private final long maxDocuments;
+
+    public QueryCostExceededException(String message, long estimatedDocuments, long maxDocuments) {
+        super(message);
+        this.estimatedDocuments = estimatedDocuments;
+        this.maxDocuments = maxDocuments;
+    }
+}
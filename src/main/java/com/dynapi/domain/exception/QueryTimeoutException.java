@@ -0,0 +1,7 @@
+package com.dynapi.domain.exception;
+
+public class QueryTimeoutException extends RuntimeException {
+    public QueryTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,23 @@
+package com.dynapi.domain.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class CompoundIndexDefinition {
+    private String name; // Optional, derived from keys when blank
+    @NotEmpty
+    private List<IndexKey> keys;
+    private boolean unique;
+
+    @Data
+    public static class IndexKey {
+        @NotBlank
+        private String field;
+        private String direction = "ASC"; // ASC, DESC
+    }
+}
@@ -21,6 +21,7 @@ public class FieldDefinition {
     private boolean required;
     private boolean unique;
     private boolean indexed;
+    private boolean searchable; // Covered by the entity text index, queryable with "search"
     private Double min;
     private Double max;
     private String regex;
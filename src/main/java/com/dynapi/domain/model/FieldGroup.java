@@ -14,6 +14,7 @@ public class FieldGroup {
     private String name;
     private String entity;
     private List<String> fieldNames;
+    private List<CompoundIndexDefinition> compoundIndexes;
     private Integer version; // Schema versioning
     private List<String> permissions; // Field-level permissions
 }
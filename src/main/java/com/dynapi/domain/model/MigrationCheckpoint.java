@@ -0,0 +1,25 @@
+package com.dynapi.domain.model;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Progress of the background migration of an entity's records to a schema version, saved after
+ * every batch so that a restarted migration resumes after {@code lastId}.
+ */
+@Data
+@Document(collection = "record_migration_checkpoints")
+public class MigrationCheckpoint {
+    @Id
+    private String entity;
+    private Integer targetVersion;
+    private Object lastId; // _id of the last record read
+    private long migrated;
+    private long skipped; // Changed by a concurrent write after they were read
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
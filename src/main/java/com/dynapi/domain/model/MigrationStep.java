@@ -0,0 +1,24 @@
+package com.dynapi.domain.model;
+
+import lombok.Data;
+
+/**
+ * One declarative change applied to records written under an earlier schema version. Paths are
+ * dotted; steps under an ARRAY field apply to every item.
+ */
+@Data
+public class MigrationStep {
+    private Operation operation;
+    private String field; // Path the step applies to
+    private String to; // RENAME: new name in the same object; MOVE: target path
+    private Object value; // DEFAULT: value set where the field is missing or null
+    private FieldType type; // COERCE: scalar type the value is converted to
+
+    public enum Operation {
+        RENAME,
+        MOVE,
+        DEFAULT,
+        DROP,
+        COERCE
+    }
+}
@@ -0,0 +1,14 @@
+package com.dynapi.domain.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * The steps that upgrade records written under earlier schema versions to {@code version}.
+ */
+@Data
+public class SchemaMigration {
+    private Integer version;
+    private List<MigrationStep> steps;
+}
@@ -17,6 +17,9 @@ public class SchemaVersion {
     private Integer version;
     private SchemaLifecycleStatus status;
     private List<FieldDefinition> fields;
+    private List<CompoundIndexDefinition> compoundIndexes;
+    private List<CompoundIndexDefinition> appliedCompoundIndexes; // Added to a published version, not declared by the group
+    private List<SchemaMigration> migrations; // Every migration declared up to this version, oldest first
     private LocalDateTime publishedAt;
     private LocalDateTime deprecatedAt;
     private String createdBy;
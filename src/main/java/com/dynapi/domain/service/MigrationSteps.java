@@ -0,0 +1,235 @@
+package com.dynapi.domain.service;
+
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaMigration;
+import com.dynapi.domain.validation.DateValues;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Applies declared {@link MigrationStep}s to record data in place. Every step is a no-op where
+ * its source is absent, so records already in the new shape pass through unchanged. Values that
+ * a COERCE step cannot convert are left as they are.
+ */
+public final class MigrationSteps {
+    private MigrationSteps() {
+    }
+
+    /**
+     * The highest version of {@code migrations} that declares steps, or 0 when none does.
+     */
+    public static int latestVersion(List<SchemaMigration> migrations) {
+        int latest = 0;
+        if (migrations != null) {
+            for (SchemaMigration migration : migrations) {
+                if (migration.getVersion() != null
+                        && migration.getSteps() != null
+                        && !migration.getSteps().isEmpty()) {
+                    latest = Math.max(latest, migration.getVersion());
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Applies the steps of every migration newer than {@code fromVersion} and not newer than
+     * {@code toVersion} to {@code record}, oldest first, and returns whether any applied.
+     */
+    public static boolean upgrade(
+            Map<String, Object> record, List<SchemaMigration> migrations, int fromVersion, int toVersion) {
+        if (migrations == null) {
+            return false;
+        }
+        boolean applied = false;
+        for (SchemaMigration migration : migrations) {
+            Integer version = migration.getVersion();
+            if (version == null
+                    || version <= fromVersion
+                    || version > toVersion
+                    || migration.getSteps() == null) {
+                continue;
+            }
+            for (MigrationStep step : migration.getSteps()) {
+                apply(record, step);
+                applied = true;
+            }
+        }
+        return applied;
+    }
+
+    public static void apply(Map<String, Object> record, MigrationStep step) {
+        String[] path = step.getField().split("\\.");
+        switch (step.getOperation()) {
+            case RENAME ->
+                    forEachParent(
+                            record,
+                            path,
+                            0,
+                            (parent, name) -> {
+                                if (parent.containsKey(name)) {
+                                    parent.put(step.getTo(), parent.remove(name));
+                                }
+                            });
+            case MOVE -> move(record, path, step.getTo().split("\\."));
+            case DEFAULT ->
+                    forEachParent(
+                            record,
+                            path,
+                            0,
+                            (parent, name) -> {
+                                if (parent.get(name) == null) {
+                                    parent.put(name, copy(step.getValue()));
+                                }
+                            });
+            case DROP -> forEachParent(record, path, 0, Map::remove);
+            case COERCE ->
+                    forEachParent(
+                            record,
+                            path,
+                            0,
+                            (parent, name) -> {
+                                Object value = parent.get(name);
+                                if (value != null) {
+                                    parent.put(name, coerce(value, step.getType()));
+                                }
+                            });
+        }
+    }
+
+    /**
+     * A copy of {@code data} whose nested objects and arrays are copies as well, so that steps
+     * applied to it leave {@code data} untouched.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> deepCopy(Map<String, Object> data) {
+        return (Map<String, Object>) copy(data);
+    }
+
+    /**
+     * Calls {@code action} with every object that holds the last segment of {@code path}, visiting
+     * each item of the arrays on the way.
+     */
+    @SuppressWarnings("unchecked")
+    private static void forEachParent(
+            Object node, String[] path, int index, BiConsumer<Map<String, Object>, String> action) {
+        if (node instanceof List<?> items) {
+            for (Object item : items) {
+                forEachParent(item, path, index, action);
+            }
+            return;
+        }
+        if (!(node instanceof Map<?, ?> map)) {
+            return;
+        }
+        Map<String, Object> parent = (Map<String, Object>) map;
+        if (index == path.length - 1) {
+            action.accept(parent, path[index]);
+            return;
+        }
+        forEachParent(parent.get(path[index]), path, index + 1, action);
+    }
+
+    private static void move(Map<String, Object> record, String[] from, String[] to) {
+        Map<String, Object> source = parentOf(record, from, false);
+        String name = from[from.length - 1];
+        if (source == null || !source.containsKey(name)) {
+            return;
+        }
+        Object value = source.remove(name);
+        Map<String, Object> target = parentOf(record, to, true);
+        if (target == null) {
+            // The target path runs through a value that is not an object: keep the field.
+            source.put(name, value);
+            return;
+        }
+        target.put(to[to.length - 1], value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parentOf(Map<String, Object> record, String[] path, boolean create) {
+        Map<String, Object> current = record;
+        for (int i = 0; i < path.length - 1; i++) {
+            Object next = current.get(path[i]);
+            if (next == null && create) {
+                next = new LinkedHashMap<String, Object>();
+                current.put(path[i], next);
+            }
+            if (!(next instanceof Map<?, ?>)) {
+                return null;
+            }
+            current = (Map<String, Object>) next;
+        }
+        return current;
+    }
+
+    private static Object coerce(Object value, FieldType type) {
+        return switch (type) {
+            case STRING -> {
+                if (value instanceof Date date) {
+                    yield date.toInstant().toString();
+                }
+                if (value instanceof BigDecimal decimal) {
+                    yield decimal.toPlainString();
+                }
+                yield value instanceof Number || value instanceof Boolean ? String.valueOf(value) : value;
+            }
+            case NUMBER -> {
+                if (value instanceof Boolean flag) {
+                    yield flag ? 1 : 0;
+                }
+                if (value instanceof String text) {
+                    try {
+                        yield new BigDecimal(text.trim());
+                    } catch (NumberFormatException ex) {
+                        yield value;
+                    }
+                }
+                yield value;
+            }
+            case BOOLEAN -> {
+                if (value instanceof String text
+                        && ("true".equalsIgnoreCase(text.trim()) || "false".equalsIgnoreCase(text.trim()))) {
+                    yield Boolean.parseBoolean(text.trim());
+                }
+                if (value instanceof Number number) {
+                    try {
+                        yield new BigDecimal(number.toString()).signum() != 0;
+                    } catch (NumberFormatException ex) {
+                        yield value;
+                    }
+                }
+                yield value;
+            }
+            case DATE -> {
+                if (value instanceof String text) {
+                    Date date = DateValues.parse(text.trim());
+                    yield date == null ? value : date;
+                }
+                yield value instanceof Number number ? new Date(number.longValue()) : value;
+            }
+            default -> value;
+        };
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(String.valueOf(key), copy(item)));
+            return copy;
+        }
+        if (value instanceof List<?> items) {
+            List<Object> copy = new ArrayList<>(items.size());
+            items.forEach(item -> copy.add(copy(item)));
+            return copy;
+        }
+        return value;
+    }
+}
@@ -17,5 +17,10 @@ public interface SchemaVersionService {
 
     void deprecateVersion(String entityName, Integer version);
 
-    Map<String, Object> migrateData(Map<String, Object> data, Integer fromVersion, Integer toVersion);
+    /**
+     * Returns a copy of {@code data}, written under {@code fromVersion} of {@code entityName} (0 or
+     * null when unstamped), upgraded by the migrations declared up to {@code toVersion}.
+     */
+    Map<String, Object> migrateData(
+            String entityName, Map<String, Object> data, Integer fromVersion, Integer toVersion);
 }
@@ -4,6 +4,7 @@ import com.dynapi.domain.event.DomainEvent;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.SchemaLifecycleStatus;
 import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.service.MigrationSteps;
 import com.dynapi.domain.service.SchemaVersionService;
 import com.dynapi.infrastructure.messaging.EventPublisher;
 
@@ -115,14 +116,15 @@ public class SchemaVersionServiceImpl implements SchemaVersionService {
 
     @Override
     public Map<String, Object> migrateData(
-            Map<String, Object> data, Integer fromVersion, Integer toVersion) {
-        // This is a simplified migration that just copies the data
-        // In a real implementation, you would:
-        // 1. Compare field definitions between versions
-        // 2. Apply transformation rules
-        // 3. Handle removed fields
-        // 4. Handle new required fields
-        // 5. Validate the migrated data
-        return new HashMap<>(data);
+            String entityName, Map<String, Object> data, Integer fromVersion, Integer toVersion) {
+        SchemaVersion target = getVersion(entityName, toVersion);
+        if (target == null) {
+            throw new IllegalArgumentException(
+                    "Schema version not found for entity '" + entityName + "' and version " + toVersion);
+        }
+        Map<String, Object> migrated = MigrationSteps.deepCopy(data);
+        MigrationSteps.upgrade(
+                migrated, target.getMigrations(), fromVersion == null ? 0 : fromVersion, toVersion);
+        return migrated;
     }
 }
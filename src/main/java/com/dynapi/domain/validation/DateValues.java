@@ -0,0 +1,50 @@
+package com.dynapi.domain.validation;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.util.Date;
+
+/**
+ * Parses DATE field values. Accepted are ISO-8601 dates ({@code 2026-05-01}) and date-times with
+ * or without seconds, fraction and offset ({@code 2026-05-01T10:00}, {@code 2026-05-01T10:00:00Z},
+ * {@code 2026-05-01T12:00:00.250+02:00}). A missing time is midnight and a missing offset is UTC,
+ * so every accepted value is one instant and orders correctly as a BSON date.
+ */
+public final class DateValues {
+    private static final DateTimeFormatter FORMAT =
+            new DateTimeFormatterBuilder()
+                    .append(DateTimeFormatter.ISO_LOCAL_DATE)
+                    .optionalStart()
+                    .appendLiteral('T')
+                    .append(DateTimeFormatter.ISO_LOCAL_TIME)
+                    .optionalStart()
+                    .appendOffsetId()
+                    .optionalEnd()
+                    .optionalEnd()
+                    .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                    .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                    .parseDefaulting(ChronoField.OFFSET_SECONDS, 0)
+                    .toFormatter()
+                    .withResolverStyle(ResolverStyle.STRICT);
+
+    private DateValues() {
+    }
+
+    /**
+     * Returns the instant {@code text} denotes, or null when it is not an accepted date.
+     */
+    public static Date parse(String text) {
+        if (text == null || text.length() < 10) {
+            return null;
+        }
+        try {
+            return Date.from(OffsetDateTime.parse(text, FORMAT).toInstant());
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.dynapi.domain.model.FieldType;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -84,10 +85,16 @@ public class DynamicValidator {
                 }
             }
             case DATE -> {
-                if (!(value instanceof String)) {
+                // Stored records hold dates; submitted ones are ISO-8601 strings.
+                if (value instanceof Date) {
+                    return;
+                }
+                if (!(value instanceof String text)) {
                     throw new ValidationException(fieldPath, "Must be a date string");
                 }
-                // Additional date parsing logic can be added here
+                if (DateValues.parse(text) == null) {
+                    throw new ValidationException(fieldPath, "Must be an ISO-8601 date or date-time");
+                }
             }
             case OBJECT -> {
                 if (!(value instanceof Map<?, ?>)) {
@@ -0,0 +1,22 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "AggregationMetric", description = "One metric computed per group.")
+public record AggregationMetric(
+        @Schema(
+                description = "Metric operator.",
+                example = "avg",
+                allowableValues = {"count", "sum", "avg", "min", "max"})
+        String operator,
+        @Schema(
+                description = "NUMBER field path from published schema. Not used by count.",
+                example = "priority",
+                nullable = true)
+        String field,
+        @Schema(
+                description = "Name of the metric in the result rows. Defaults to operator_field.",
+                example = "avgPriority",
+                nullable = true)
+        String alias) {
+}
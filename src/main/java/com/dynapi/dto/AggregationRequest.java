@@ -0,0 +1,29 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+@Schema(
+        name = "AggregationRequest",
+        description =
+                "Groups the records matching the filters by schema paths and computes metrics per group"
+                        + " on the database.")
+public record AggregationRequest(
+        @ArraySchema(
+                arraySchema = @Schema(description = "Filter tree, same DSL as DynamicQueryRequest."),
+                schema = @Schema(implementation = FilterRule.class))
+        List<FilterRule> filters,
+        @ArraySchema(
+                arraySchema =
+                @Schema(description = "Field paths to group by. Empty or null aggregates all matches."),
+                schema = @Schema(example = "status"))
+        List<String> groupBy,
+        @ArraySchema(
+                arraySchema = @Schema(description = "Metrics computed per group."),
+                schema = @Schema(implementation = AggregationMetric.class))
+        @NotEmpty(message = "metrics must not be empty")
+        List<AggregationMetric> metrics) {
+}
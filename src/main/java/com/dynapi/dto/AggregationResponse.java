@@ -0,0 +1,12 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "AggregationResponse", description = "Aggregated rows, ordered by group key.")
+public record AggregationResponse(
+        @Schema(example = "tasks") String entity,
+        @Schema(description = "Group-by paths in request order.") List<String> groupBy,
+        List<AggregationRow> rows) {
+}
@@ -0,0 +1,13 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(name = "AggregationRow", description = "Group key and metric values of one group.")
+public record AggregationRow(
+        @Schema(description = "Group-by path to value.", example = "{\"status\":\"open\"}")
+        Map<String, Object> group,
+        @Schema(description = "Metric alias to value.", example = "{\"count\":42,\"avgPriority\":2.5}")
+        Map<String, Object> metrics) {
+}
@@ -0,0 +1,19 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(name = "BatchQueryItem", description = "One entity query of a batch.")
+public record BatchQueryItem(
+        @Schema(
+                description = "Client-chosen id echoed in the result. Defaults to the item index.",
+                example = "openTasks")
+        String id,
+        @Schema(description = "Entity to query.", example = "tasks")
+        @NotBlank(message = "entity is required")
+        String entity,
+        @Schema(description = "Query for the entity, as accepted by POST /query/{entity}.")
+        @Valid
+        DynamicQueryRequest query) {
+}
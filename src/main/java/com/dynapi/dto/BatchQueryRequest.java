@@ -0,0 +1,17 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+@Schema(name = "BatchQueryRequest", description = "Independent entity queries executed concurrently.")
+public record BatchQueryRequest(
+        @ArraySchema(
+                arraySchema = @Schema(description = "Queries, answered in the same order."),
+                schema = @Schema(implementation = BatchQueryItem.class))
+        @NotEmpty(message = "queries must not be empty")
+        List<@Valid BatchQueryItem> queries) {
+}
@@ -0,0 +1,12 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "BatchQueryResponse", description = "Per-query results of a batch, in request order.")
+public record BatchQueryResponse(
+        List<BatchQueryResult> results,
+        @Schema(example = "2") int succeeded,
+        @Schema(example = "0") int failed) {
+}
@@ -0,0 +1,15 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "BatchQueryResult", description = "Outcome of one query of a batch.")
+public record BatchQueryResult(
+        @Schema(example = "openTasks") String id,
+        @Schema(example = "tasks") String entity,
+        @Schema(description = "HTTP status the query would have had on its own.", example = "200")
+        int status,
+        @Schema(description = "Result page; null when the query failed.", nullable = true)
+        PaginatedResponse<FormRecordDto> result,
+        @Schema(description = "Error message; null when the query succeeded.", nullable = true)
+        String error) {
+}
@@ -0,0 +1,14 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "CacheStats", description = "Size and effectiveness counters of a bounded in-memory cache.")
+public record CacheStats(
+        @Schema(example = "412") long size,
+        @Schema(example = "1000") long maxEntries,
+        @Schema(example = "98211") long hits,
+        @Schema(example = "1433") long misses,
+        @Schema(example = "12") long evictions,
+        @Schema(description = "hits / (hits + misses), 0 before the first lookup.", example = "0.9856")
+        double hitRate) {
+}
@@ -0,0 +1,16 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "CoalescingStats", description = "Counters of the single-flight query layer.")
+public record CoalescingStats(
+        @Schema(description = "Queries that reached the single-flight layer.", example = "1200") long requests,
+        @Schema(description = "Queries actually run against Mongo.", example = "140") long executions,
+        @Schema(description = "Requests that joined an identical in-flight query.", example = "1010")
+        long coalesced,
+        @Schema(description = "Requests answered by a finished result within its TTL.", example = "50")
+        long resultHits,
+        @Schema(example = "3") int inFlight,
+        @Schema(description = "(coalesced + resultHits) / requests, 0 before the first request.", example = "0.8833")
+        double coalescingRatio) {
+}
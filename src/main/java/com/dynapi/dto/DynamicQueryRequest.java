@@ -2,6 +2,7 @@ package com.dynapi.dto;
 
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -24,12 +25,28 @@ public record DynamicQueryRequest(
         @Schema(description = "Page size.", example = "10", defaultValue = "10")
         @Positive(message = "size must be greater than 0")
         Integer size,
-        @Schema(description = "Sortable field path from published schema.", example = "profile.age")
+        @Schema(
+                description = "Sortable field path from published schema. Shorthand for a one-key `sort`.",
+                example = "profile.age")
         String sortBy,
         @Schema(
                 description = "Sort direction.",
                 example = "ASC",
                 allowableValues = {"ASC", "DESC"})
         @Pattern(regexp = "(?i)ASC|DESC", message = "sortDirection must be ASC or DESC")
-        String sortDirection) {
+        String sortDirection,
+        @ArraySchema(
+                arraySchema =
+                        @Schema(
+                                description =
+                                        "Ordered sort keys, most significant first. Cannot be combined"
+                                                + " with sortBy. An `_id` tie-breaker is appended unless"
+                                                + " `_id` is listed."),
+                schema = @Schema(implementation = SortRule.class))
+        List<@Valid SortRule> sort) {
+
+    public DynamicQueryRequest(
+            List<FilterRule> filters, Integer page, Integer size, String sortBy, String sortDirection) {
+        this(filters, page, size, sortBy, sortDirection, null);
+    }
 }
@@ -0,0 +1,31 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+@Schema(
+        name = "FacetRequest",
+        description = "Counts the most frequent values of several fields among the records matching the filters.")
+public record FacetRequest(
+        @ArraySchema(
+                arraySchema = @Schema(description = "Filter tree, same DSL as DynamicQueryRequest."),
+                schema = @Schema(implementation = FilterRule.class))
+        List<FilterRule> filters,
+        @ArraySchema(
+                arraySchema = @Schema(description = "STRING, BOOLEAN or NUMBER field paths to count values of."),
+                schema = @Schema(example = "status"))
+        @NotEmpty(message = "facets must not be empty")
+        List<String> facets,
+        @Schema(description = "Values returned per facet, most frequent first.", example = "10", defaultValue = "10")
+        @Positive(message = "limit must be greater than 0")
+        Integer limit,
+        @Schema(
+                description =
+                        "Count values in a random sample of the matching records instead of all of them.",
+                defaultValue = "false")
+        Boolean approximate) {
+}
@@ -0,0 +1,20 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+@Schema(name = "FacetResponse", description = "Top values per facet path.")
+public record FacetResponse(
+        @Schema(example = "tasks") String entity,
+        @Schema(description = "Facet path to its most frequent values, in request order.")
+        Map<String, List<FacetValue>> facets,
+        @Schema(description = "True when counts come from a random sample of the matching records.")
+        boolean approximate,
+        @Schema(
+                description = "Number of sampled records in approximate mode, null otherwise.",
+                example = "10000",
+                nullable = true)
+        Long sampledRecords) {
+}
@@ -0,0 +1,7 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "FacetValue", description = "One value of a facet and how many records have it.")
+public record FacetValue(@Schema(example = "open") Object value, @Schema(example = "42") long count) {
+}
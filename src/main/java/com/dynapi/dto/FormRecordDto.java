@@ -2,11 +2,20 @@ package com.dynapi.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.time.Instant;
 import java.util.Map;
 
 @Schema(name = "FormRecordDto", description = "Dynamic record returned by query endpoints.")
 public record FormRecordDto(
         @Schema(description = "Record identifier.", example = "67bc267ab69ba95ca3407540") String id,
         @Schema(description = "Dynamic record payload.", example = "{\"name\":\"Alice\",\"age\":30}")
-        Map<String, Object> data) {
+        Map<String, Object> data,
+        @Schema(description = "When the record was created; null for records written before timestamps.")
+        Instant createdAt,
+        @Schema(description = "When the record was last written; null for records written before timestamps.")
+        Instant updatedAt) {
+
+    public FormRecordDto(String id, Map<String, Object> data) {
+        this(id, data, null, null);
+    }
 }
@@ -0,0 +1,17 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "IndexRecommendation",
+        description = "Index suggested by the query-shape advisor (equality, sort, range key order).")
+public record IndexRecommendation(
+        @Schema(example = "COMPOUND", allowableValues = {"SINGLE", "COMPOUND"}) String type,
+        @Schema(example = "[\"status:ASC\",\"priority:DESC\"]") List<String> keys,
+        @Schema(description = "Executions of the shapes served by this index.", example = "1520")
+        long frequency,
+        @Schema(example = "[\"priority:gte,status:eq|sort:priority:DESC\"]") List<String> shapes,
+        @Schema(example = "COLLSCAN") String reason) {
+}
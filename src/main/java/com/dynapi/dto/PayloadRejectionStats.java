@@ -0,0 +1,16 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(name = "PayloadRejectionStats", description = "Request bodies rejected for exceeding payload limits.")
+public record PayloadRejectionStats(
+        @Schema(example = "12") long rejected,
+        @Schema(description = "Rejections per exceeded limit.", example = "{\"max-bytes\": 9, \"max-depth\": 3}")
+        Map<String, Long> byLimit,
+        @Schema(
+                description = "Rejections per entity, for bodies whose entity was known when they were rejected.",
+                example = "{\"tasks\": 4}")
+        Map<String, Long> byEntity) {
+}
@@ -0,0 +1,23 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(
+        name = "QueryPlanVerdict",
+        description = "Outcome of the latest explain() run for a query shape.")
+public record QueryPlanVerdict(
+        @Schema(example = "[\"LIMIT\",\"FETCH\",\"IXSCAN\"]") List<String> stages,
+        @Schema(example = "[\"dynapi_tasks_priority_idx\"]") List<String> indexesUsed,
+        @Schema(example = "120") long docsExamined,
+        @Schema(example = "120") long keysExamined,
+        @Schema(example = "10") long returned,
+        @Schema(example = "12.0") double docsExaminedRatio,
+        @Schema(
+                description = "Problems found in the plan.",
+                example = "[\"COLLSCAN\",\"IN_MEMORY_SORT\",\"HIGH_DOCS_EXAMINED_RATIO\"]")
+        List<String> flags,
+        @Schema(description = "When the plan was explained.") Instant explainedAt) {
+}
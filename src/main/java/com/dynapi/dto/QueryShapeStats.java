@@ -0,0 +1,21 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(
+        name = "QueryShapeStats",
+        description =
+                "Execution statistics of one normalized query shape (fields, operators and sort, without"
+                        + " values).")
+public record QueryShapeStats(
+        @Schema(example = "priority:gte,status:eq|sort:priority:DESC") String shape,
+        @Schema(example = "1520") long count,
+        @Schema(example = "4.2") double avgMillis,
+        @Schema(example = "87.5") double maxMillis,
+        @Schema(description = "Execution count per latency bucket.", example = "{\"<=1ms\":12,\"<=5ms\":900}")
+        Map<String, Long> latencyHistogram,
+        @Schema(description = "Latest explain verdict, null until the shape has been explained.", nullable = true)
+        QueryPlanVerdict plan) {
+}
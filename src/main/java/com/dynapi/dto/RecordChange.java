@@ -0,0 +1,16 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Schema(name = "RecordChange", description = "A record written or soft-deleted since the requested watermark.")
+public record RecordChange(
+        @Schema(example = "67bc267ab69ba95ca3407540") String id,
+        @Schema(description = "True when the record was soft-deleted; data is then null.") boolean deleted,
+        Instant createdAt,
+        Instant updatedAt,
+        @Schema(description = "Current record payload.", example = "{\"name\":\"Alice\"}")
+        Map<String, Object> data) {
+}
@@ -0,0 +1,17 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(name = "RecordChangesResponse", description = "One page of record changes, oldest first.")
+public record RecordChangesResponse(
+        List<RecordChange> changes,
+        @Schema(description = "Opaque cursor of the next page; null on the last page.") String nextCursor,
+        boolean hasMore,
+        @Schema(
+                description = "Set on the last page: pass it as 'since' on the next sync.",
+                example = "2026-03-01T12:00:00Z")
+        Instant watermark) {
+}
@@ -0,0 +1,10 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "RevalidationFinding", description = "Stored record found invalid by a revalidation job.")
+public record RevalidationFinding(
+        @Schema(example = "665f1c2e9b1d8a3f4c2b7a10") String recordId,
+        @Schema(description = "Field path of the record's first violation.", example = "items[0].qty") String path,
+        @Schema(description = "Validation message of the rule.", example = "Must be a number") String rule) {
+}
@@ -0,0 +1,26 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(
+        name = "RevalidationJobStatus",
+        description = "Progress of a background job validating an entity's stored records against its published schema.")
+public record RevalidationJobStatus(
+        @Schema(example = "0f8e6c1a-3b2d-4c5e-9f7a-1b2c3d4e5f60") String id,
+        @Schema(example = "tasks") String entity,
+        @Schema(description = "Published schema version the records are validated against.", example = "3")
+        Integer schemaVersion,
+        @Schema(example = "RUNNING", allowableValues = {"RUNNING", "COMPLETED", "CANCELLED", "FAILED"}) String state,
+        @Schema(example = "120000") long scanned,
+        @Schema(example = "42") long invalid,
+        @Schema(description = "Records validated per second since the job started.", example = "1995.4")
+        double recordsPerSecond,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        @Schema(description = "Why the job failed.", example = "Query timed out") String error,
+        @Schema(description = "Violations by path and rule, most frequent first; each record counts its first only.")
+        List<SchemaViolationSummary> violations) {
+}
@@ -0,0 +1,20 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "SchemaDryRunReport",
+        description = "Stored records of an entity validated against a schema snapshot that was not published.")
+public record SchemaDryRunReport(
+        @Schema(example = "tasks") String entity,
+        @Schema(description = "Version the snapshot would be published as.", example = "3") Integer candidateVersion,
+        @Schema(description = "True when a random sample was validated instead of every record.", example = "false")
+        boolean sampled,
+        @Schema(example = "120000") long scanned,
+        @Schema(example = "42") long invalid,
+        @Schema(example = "850") long elapsedMillis,
+        @Schema(description = "Violations by path and rule, most frequent first; each record counts its first only.")
+        List<SchemaViolationSummary> violations) {
+}
@@ -0,0 +1,16 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "SchemaIndexPlanAction",
+        description = "Single step of an index reconciliation plan.")
+public record SchemaIndexPlanAction(
+        @Schema(example = "CREATE", allowableValues = {"CREATE", "KEEP", "DROP"}) String action,
+        @Schema(example = "dynapi_tasks_priority_idx") String name,
+        @Schema(example = "[\"status:ASC\",\"priority:DESC\"]") List<String> keys,
+        @Schema(example = "false") boolean unique,
+        @Schema(example = "Field is no longer indexed in published schema") String reason) {
+}
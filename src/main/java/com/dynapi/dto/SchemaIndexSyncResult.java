@@ -13,5 +13,31 @@ public record SchemaIndexSyncResult(
         @Schema(example = "3") int requestedIndexes,
         @Schema(example = "3") int ensuredIndexes,
         @Schema(example = "[\"email\",\"profile.phone\"]") List<String> uniqueFields,
-        @Schema(example = "[\"priority\",\"profile.city\"]") List<String> indexedFields) {
+        @Schema(example = "[\"priority\",\"profile.city\"]") List<String> indexedFields,
+        @Schema(example = "[\"dynapi_tasks_status_priority_cidx\"]") List<String> compoundIndexes,
+        @Schema(description = "Paths covered by the entity text index.", example = "[\"title\",\"notes\"]")
+        List<String> searchableFields,
+        @Schema(description = "True when the plan was computed but not executed.", example = "false")
+        boolean dryRun,
+        @Schema(description = "Reconciliation plan in execution order.")
+        List<SchemaIndexPlanAction> plan) {
+    public SchemaIndexSyncResult(
+            String entity,
+            Integer schemaVersion,
+            int requestedIndexes,
+            int ensuredIndexes,
+            List<String> uniqueFields,
+            List<String> indexedFields) {
+        this(
+                entity,
+                schemaVersion,
+                requestedIndexes,
+                ensuredIndexes,
+                uniqueFields,
+                indexedFields,
+                List.of(),
+                List.of(),
+                false,
+                List.of());
+    }
 }
@@ -0,0 +1,16 @@
+package com.dynapi.dto;
+
+import com.dynapi.domain.model.MigrationStep;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(
+        name = "SchemaPublishRequest",
+        description = "Optional publish payload declaring how records of the previous version are upgraded.")
+public record SchemaPublishRequest(
+        @Schema(
+                description = "Steps applied, in order, to records written under earlier versions.",
+                example = "[{\"operation\":\"RENAME\",\"field\":\"fullName\",\"to\":\"name\"}]")
+        List<MigrationStep> migrations) {
+}
@@ -0,0 +1,14 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "SchemaViolationSummary", description = "Stored records failing one rule at one field path.")
+public record SchemaViolationSummary(
+        @Schema(description = "Field path; array indexes are collapsed to [].", example = "items[].qty") String path,
+        @Schema(description = "Validation message of the rule.", example = "Must be a number") String rule,
+        @Schema(example = "42") long count,
+        @Schema(description = "Ids of some of the records.", example = "[\"665f1c2e9b1d8a3f4c2b7a10\"]")
+        List<String> exampleIds) {
+}
@@ -0,0 +1,19 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+@Schema(name = "SortRule", description = "One key of an ordered, multi-field sort.")
+public record SortRule(
+        @Schema(description = "Field path from published schema, or `_id`.", example = "priority")
+        @NotBlank(message = "sort field is required")
+        String field,
+        @Schema(
+                description = "Sort direction.",
+                example = "DESC",
+                defaultValue = "ASC",
+                allowableValues = {"ASC", "DESC"})
+        @Pattern(regexp = "(?i)ASC|DESC", message = "sort direction must be ASC or DESC")
+        String direction) {
+}
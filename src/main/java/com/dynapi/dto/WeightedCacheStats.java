@@ -0,0 +1,17 @@
+package com.dynapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+        name = "WeightedCacheStats",
+        description = "Size and effectiveness counters of an in-memory cache bounded by total weight (bytes).")
+public record WeightedCacheStats(
+        @Schema(example = "85") long size,
+        @Schema(description = "Current total weight, in bytes for byte caches.", example = "1048576") long weight,
+        @Schema(example = "33554432") long maxWeight,
+        @Schema(example = "98211") long hits,
+        @Schema(example = "1433") long misses,
+        @Schema(example = "12") long evictions,
+        @Schema(description = "hits / (hits + misses), 0 before the first lookup.", example = "0.9856")
+        double hitRate) {
+}
@@ -1,6 +1,9 @@
 package com.dynapi.exception;
 
 import com.dynapi.domain.exception.EntityNotFoundException;
+import com.dynapi.domain.exception.PayloadTooLargeException;
+import com.dynapi.domain.exception.QueryCostExceededException;
+import com.dynapi.domain.exception.QueryTimeoutException;
 import com.dynapi.domain.exception.ValidationException;
 
 import java.util.LinkedHashMap;
@@ -53,6 +56,32 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(problem, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(QueryCostExceededException.class)
+    public ResponseEntity<ProblemDetail> handleQueryCostExceededException(
+            QueryCostExceededException ex) {
+        ProblemDetail problem =
+                problemDetail(HttpStatus.UNPROCESSABLE_CONTENT, ex.getMessage(), "Query Too Expensive", null);
+        problem.setProperty("estimatedDocuments", ex.getEstimatedDocuments());
+        problem.setProperty("maxDocuments", ex.getMaxDocuments());
+        return new ResponseEntity<>(problem, HttpStatus.UNPROCESSABLE_CONTENT);
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ProblemDetail> handlePayloadTooLargeException(PayloadTooLargeException ex) {
+        ProblemDetail problem =
+                problemDetail(HttpStatus.CONTENT_TOO_LARGE, ex.getMessage(), "Payload Too Large", null);
+        problem.setProperty("limit", ex.getLimit());
+        problem.setProperty("maxValue", ex.getMaxValue());
+        return new ResponseEntity<>(problem, HttpStatus.CONTENT_TOO_LARGE);
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ProblemDetail> handleQueryTimeoutException(QueryTimeoutException ex) {
+        ProblemDetail problem =
+                problemDetail(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), "Query Timeout", null);
+        return new ResponseEntity<>(problem, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ProblemDetail> handleIllegalArgumentException(IllegalArgumentException ex) {
         ProblemDetail problem =
@@ -0,0 +1,19 @@
+package com.dynapi.infrastructure.cache;
+
+import com.dynapi.dto.WeightedCacheStats;
+
+/**
+ * Cache of serialized values bounded by their total size in bytes.
+ */
+public interface ByteStore<K> {
+    /**
+     * Returns the cached bytes or {@code null}. The caller must {@link CachedBytes#release()} them.
+     */
+    CachedBytes get(K key);
+
+    void put(K key, byte[] value);
+
+    void clear();
+
+    WeightedCacheStats stats();
+}
@@ -0,0 +1,33 @@
+package com.dynapi.infrastructure.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Serialized bytes handed out by a {@link ByteStore}. Bytes held outside the heap stay valid until
+ * {@link #release()}; callers release every instance once it has been written.
+ */
+public interface CachedBytes {
+    long length();
+
+    void writeTo(OutputStream out) throws IOException;
+
+    default void release() {
+    }
+
+    static CachedBytes of(byte[] bytes) {
+        return new HeapBytes(bytes);
+    }
+
+    record HeapBytes(byte[] bytes) implements CachedBytes {
+        @Override
+        public long length() {
+            return bytes.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(bytes);
+        }
+    }
+}
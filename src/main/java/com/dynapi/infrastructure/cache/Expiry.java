@@ -0,0 +1,28 @@
+package com.dynapi.infrastructure.cache;
+
+import java.time.Duration;
+
+/**
+ * Expire-after-write deadlines on the {@link System#nanoTime()} clock; a deadline of 0 never
+ * expires.
+ */
+final class Expiry {
+    private Expiry() {
+    }
+
+    static long nanos(Duration ttl) {
+        return ttl == null || ttl.isNegative() ? 0 : ttl.toNanos();
+    }
+
+    static long deadline(long ttlNanos) {
+        if (ttlNanos <= 0) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + ttlNanos;
+        return deadline == 0 ? 1 : deadline;
+    }
+
+    static boolean expired(long deadline) {
+        return deadline != 0 && deadline - System.nanoTime() <= 0;
+    }
+}
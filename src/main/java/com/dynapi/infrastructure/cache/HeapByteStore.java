@@ -0,0 +1,47 @@
+package com.dynapi.infrastructure.cache;
+
+import com.dynapi.dto.WeightedCacheStats;
+
+import java.time.Duration;
+
+/**
+ * {@link ByteStore} keeping values as heap byte arrays in a {@link WeightedLruCache}. With a
+ * positive {@code ttl}, values expire that long after they were put.
+ */
+public class HeapByteStore<K> implements ByteStore<K> {
+    private final WeightedLruCache<K, Entry> cache;
+    private final long ttlNanos;
+
+    public HeapByteStore(long maxBytes) {
+        this(maxBytes, Duration.ZERO);
+    }
+
+    public HeapByteStore(long maxBytes, Duration ttl) {
+        this.cache = new WeightedLruCache<>(maxBytes, entry -> entry.bytes().length);
+        this.ttlNanos = Expiry.nanos(ttl);
+    }
+
+    @Override
+    public CachedBytes get(K key) {
+        Entry entry = cache.get(key, candidate -> !Expiry.expired(candidate.expiresAtNanos()));
+        return entry == null ? null : CachedBytes.of(entry.bytes());
+    }
+
+    @Override
+    public void put(K key, byte[] value) {
+        cache.put(key, new Entry(value, Expiry.deadline(ttlNanos)));
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public WeightedCacheStats stats() {
+        return cache.stats();
+    }
+
+    private record Entry(byte[] bytes, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.dynapi.infrastructure.cache;
+
+import com.dynapi.dto.WeightedCacheStats;
+import jakarta.servlet.ServletOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ByteStore} keeping values outside the Java heap. Memory is taken from direct buffer slabs
+ * in fixed-size blocks, slabs are allocated on demand up to {@code maxBytes} and never returned.
+ * Each value occupies a list of blocks, and the least recently used values are evicted when a new
+ * value does not fit.
+ *
+ * <p>Blocks of a value handed out by {@link #get} are pinned until the handle is released, so an
+ * eviction never reuses memory that is still being written to a client. A servlet output stream
+ * is written straight from the direct buffers. With a positive {@code ttl}, values expire that long
+ * after they were put.
+ */
+public class OffHeapSlabStore<K> implements ByteStore<K> {
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final int maxBlocks;
+    private final long ttlNanos;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final Map<K, Segment> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int[] freeBlocks = new int[64];
+    private int freeCount;
+    private int carvedBlocks;
+    private long storedBytes;
+
+    public OffHeapSlabStore(long maxBytes, int slabSize, int blockSize) {
+        this(maxBytes, slabSize, blockSize, Duration.ZERO);
+    }
+
+    public OffHeapSlabStore(long maxBytes, int slabSize, int blockSize, Duration ttl) {
+        if (blockSize <= 0 || slabSize < blockSize) {
+            throw new IllegalArgumentException("blockSize must be > 0 and not larger than slabSize");
+        }
+        if (maxBytes < blockSize) {
+            throw new IllegalArgumentException("maxBytes must hold at least one block");
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSlab = slabSize / blockSize;
+        this.maxBlocks = (int) Math.min(Integer.MAX_VALUE, maxBytes / blockSize);
+        this.ttlNanos = Expiry.nanos(ttl);
+    }
+
+    @Override
+    public CachedBytes get(K key) {
+        Segment segment;
+        synchronized (this) {
+            segment = entries.get(key);
+            if (segment != null && Expiry.expired(segment.expiresAtNanos)) {
+                entries.remove(key);
+                retire(segment);
+                segment = null;
+            }
+            if (segment != null) {
+                segment.pins++;
+            }
+        }
+        if (segment == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new Handle(segment);
+    }
+
+    @Override
+    public void put(K key, byte[] value) {
+        int needed = (value.length + blockSize - 1) / blockSize;
+        synchronized (this) {
+            retire(entries.remove(key));
+            if (needed > maxBlocks) {
+                return;
+            }
+            Iterator<Segment> eldest = entries.values().iterator();
+            while (availableBlocks() < needed && eldest.hasNext()) {
+                Segment evicted = eldest.next();
+                eldest.remove();
+                retire(evicted);
+                evictions.increment();
+            }
+            if (availableBlocks() < needed) {
+                // Everything left is pinned by in-flight responses.
+                return;
+            }
+            int[] blocks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                blocks[i] = allocateBlock();
+                int offset = i * blockSize;
+                slab(blocks[i])
+                        .put(slabOffset(blocks[i]), value, offset, Math.min(blockSize, value.length - offset));
+            }
+            entries.put(key, new Segment(blocks, value.length, Expiry.deadline(ttlNanos)));
+            storedBytes += value.length;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.values().forEach(this::retire);
+        entries.clear();
+    }
+
+    @Override
+    public WeightedCacheStats stats() {
+        int size;
+        long bytes;
+        synchronized (this) {
+            size = entries.size();
+            bytes = storedBytes;
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new WeightedCacheStats(
+                size,
+                bytes,
+                (long) maxBlocks * blockSize,
+                hitCount,
+                missCount,
+                evictions.sum(),
+                lookups == 0 ? 0 : (double) hitCount / lookups);
+    }
+
+    private int availableBlocks() {
+        return freeCount + (maxBlocks - carvedBlocks);
+    }
+
+    private int allocateBlock() {
+        if (freeCount > 0) {
+            return freeBlocks[--freeCount];
+        }
+        if (carvedBlocks % blocksPerSlab == 0) {
+            int remaining = maxBlocks - carvedBlocks;
+            slabs.add(ByteBuffer.allocateDirect(Math.min(blocksPerSlab, remaining) * blockSize));
+        }
+        return carvedBlocks++;
+    }
+
+    private void retire(Segment segment) {
+        if (segment == null || segment.retired) {
+            return;
+        }
+        segment.retired = true;
+        storedBytes -= segment.length;
+        freeIfUnpinned(segment);
+    }
+
+    private synchronized void unpin(Segment segment) {
+        segment.pins--;
+        freeIfUnpinned(segment);
+    }
+
+    private void freeIfUnpinned(Segment segment) {
+        if (!segment.retired || segment.pins > 0) {
+            return;
+        }
+        if (freeCount + segment.blocks.length > freeBlocks.length) {
+            int[] grown = new int[Math.max(freeBlocks.length * 2, freeCount + segment.blocks.length)];
+            System.arraycopy(freeBlocks, 0, grown, 0, freeCount);
+            freeBlocks = grown;
+        }
+        for (int block : segment.blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    private ByteBuffer slab(int block) {
+        return slabs.get(block / blocksPerSlab);
+    }
+
+    private int slabOffset(int block) {
+        return (block % blocksPerSlab) * blockSize;
+    }
+
+    private static final class Segment {
+        private final int[] blocks;
+        private final int length;
+        private final long expiresAtNanos;
+        private int pins;
+        private boolean retired;
+
+        private Segment(int[] blocks, int length, long expiresAtNanos) {
+            this.blocks = blocks;
+            this.length = length;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final class Handle implements CachedBytes {
+        private final Segment segment;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Handle(Segment segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        public long length() {
+            return segment.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (released.get()) {
+                throw new IllegalStateException("Cached bytes were already released");
+            }
+            ByteBuffer[] views = new ByteBuffer[segment.blocks.length];
+            synchronized (OffHeapSlabStore.this) {
+                // Slab list reads must not race with a concurrent slab allocation.
+                for (int i = 0; i < views.length; i++) {
+                    int block = segment.blocks[i];
+                    int length = Math.min(blockSize, segment.length - i * blockSize);
+                    views[i] = slab(block).slice(slabOffset(block), length);
+                }
+            }
+            if (out instanceof ServletOutputStream servletOut) {
+                for (ByteBuffer view : views) {
+                    servletOut.write(view);
+                }
+                return;
+            }
+            byte[] chunk = new byte[Math.min(blockSize, segment.length)];
+            for (ByteBuffer view : views) {
+                int length = view.remaining();
+                view.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                unpin(segment);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.dynapi.infrastructure.cache;
+
+import com.dynapi.dto.WeightedCacheStats;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe least-recently-used cache bounded by the total weight of its values (for example
+ * their size in bytes) rather than by their number. Values heavier than the whole budget are not
+ * stored.
+ */
+public class WeightedLruCache<K, V> {
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final Map<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be > 0");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key) {
+        return get(key, value -> true);
+    }
+
+    /**
+     * Returns the value of {@code key} if {@code fresh} accepts it; a value it rejects is removed
+     * and counted as a miss.
+     */
+    public V get(K key, Predicate<? super V> fresh) {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+            if (value != null && !fresh.test(value)) {
+                release(entries.remove(key));
+                value = null;
+            }
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        synchronized (entries) {
+            release(entries.remove(key));
+            if (valueWeight > maxWeight) {
+                return;
+            }
+            entries.put(key, value);
+            weight += valueWeight;
+            Iterator<V> eldest = entries.values().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                V evicted = eldest.next();
+                eldest.remove();
+                weight -= weigher.applyAsLong(evicted);
+                evictions.increment();
+            }
+        }
+    }
+
+    public V remove(K key) {
+        synchronized (entries) {
+            V removed = entries.remove(key);
+            release(removed);
+            return removed;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public WeightedCacheStats stats() {
+        int size;
+        long currentWeight;
+        synchronized (entries) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new WeightedCacheStats(
+                size,
+                currentWeight,
+                maxWeight,
+                hitCount,
+                missCount,
+                evictions.sum(),
+                lookups == 0 ? 0 : (double) hitCount / lookups);
+    }
+
+    private void release(V value) {
+        if (value != null) {
+            weight -= weigher.applyAsLong(value);
+        }
+    }
+}
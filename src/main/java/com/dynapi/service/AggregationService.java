@@ -0,0 +1,336 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.domain.exception.QueryTimeoutException;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.AggregationMetric;
+import com.dynapi.dto.AggregationRequest;
+import com.dynapi.dto.AggregationResponse;
+import com.dynapi.dto.AggregationRow;
+import com.dynapi.dto.FacetRequest;
+import com.dynapi.dto.FacetResponse;
+import com.dynapi.dto.FacetValue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.stereotype.Service;
+
+/**
+ * Compiles aggregation and facet requests to Mongo aggregation pipelines, so that only the
+ * aggregated rows leave the database. Filters are validated and planned by
+ * {@link DynamicQueryService}. Decimal128 metrics and keys, as produced from NUMBER fields stored
+ * as decimals, are returned as {@link java.math.BigDecimal} like the records themselves.
+ */
+@Service
+@RequiredArgsConstructor
+public class AggregationService {
+    private static final Set<String> METRIC_OPERATORS = Set.of("count", "sum", "avg", "min", "max");
+    private static final Set<FieldType> GROUPABLE_TYPES =
+            Set.of(FieldType.STRING, FieldType.NUMBER, FieldType.BOOLEAN, FieldType.DATE);
+    private static final Pattern ALIAS_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+    private static final Set<FieldType> FACETABLE_TYPES =
+            Set.of(FieldType.STRING, FieldType.BOOLEAN, FieldType.NUMBER);
+    private static final String GROUP_KEY_PREFIX = "g";
+    private static final String FACET_KEY_PREFIX = "f";
+    private static final String SAMPLED_FACET_KEY = "sampled";
+    private static final int DEFAULT_FACET_LIMIT = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final DynamicQueryService dynamicQueryService;
+    private final QueryGuardrailProperties guardrailProperties;
+
+    public AggregationResponse aggregate(String entity, AggregationRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Aggregation request is required");
+        }
+        SchemaVersion publishedSchema = schemaLifecycleService.latestPublished(entity);
+        Map<String, FieldType> fieldTypes = SchemaPaths.fieldTypesByPath(publishedSchema.getFields());
+
+        List<String> groupBy = resolveGroupBy(request.groupBy(), fieldTypes);
+        Map<String, Document> accumulators = resolveMetrics(request.metrics(), fieldTypes);
+        Document filter = dynamicQueryService.filter(entity, publishedSchema, request.filters());
+
+        Document groupId = null;
+        if (!groupBy.isEmpty()) {
+            groupId = new Document();
+            for (int i = 0; i < groupBy.size(); i++) {
+                groupId.append(GROUP_KEY_PREFIX + i, "$" + groupBy.get(i));
+            }
+        }
+        Document group = new Document("_id", groupId);
+        group.putAll(accumulators);
+
+        int maxGroups = guardrailProperties.getMaxAggregationGroups();
+        List<Document> results =
+                run(
+                        entity,
+                        "Aggregation",
+                        new Document("$match", filter),
+                        new Document("$group", group),
+                        new Document("$sort", new Document("_id", 1)),
+                        new Document("$limit", maxGroups + 1));
+
+        if (results.size() > maxGroups) {
+            throw new IllegalArgumentException(
+                    "Aggregation on '"
+                            + entity
+                            + "' produces more than "
+                            + maxGroups
+                            + " groups; narrow the filters or group by fewer fields");
+        }
+
+        List<AggregationRow> rows = new ArrayList<>(results.size());
+        for (Document result : results) {
+            Map<String, Object> key = new LinkedHashMap<>();
+            Document resultId = result.get("_id") instanceof Document id ? id : new Document();
+            for (int i = 0; i < groupBy.size(); i++) {
+                key.put(groupBy.get(i), RecordCodec.decodeNumber(resultId.get(GROUP_KEY_PREFIX + i)));
+            }
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            for (String alias : accumulators.keySet()) {
+                metrics.put(alias, RecordCodec.decodeNumber(result.get(alias)));
+            }
+            rows.add(new AggregationRow(key, metrics));
+        }
+        return new AggregationResponse(entity, groupBy, rows);
+    }
+
+    /**
+     * Counts the most frequent values of each facet path in one {@code $facet} pipeline. In
+     * approximate mode the matching records are first reduced to a random {@code $sample}.
+     */
+    public FacetResponse facets(String entity, FacetRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Facet request is required");
+        }
+        SchemaVersion publishedSchema = schemaLifecycleService.latestPublished(entity);
+        Map<String, FieldType> fieldTypes = SchemaPaths.fieldTypesByPath(publishedSchema.getFields());
+
+        List<String> paths = resolveFacetPaths(request.facets(), fieldTypes);
+        int limit = resolveFacetLimit(request.limit());
+        boolean approximate = Boolean.TRUE.equals(request.approximate());
+        Document filter = dynamicQueryService.filter(entity, publishedSchema, request.filters());
+
+        Document facets = new Document();
+        for (int i = 0; i < paths.size(); i++) {
+            String path = paths.get(i);
+            facets.append(
+                    FACET_KEY_PREFIX + i,
+                    List.of(
+                            new Document("$match", new Document(path, new Document("$ne", null))),
+                            new Document(
+                                    "$group",
+                                    new Document("_id", "$" + path).append("count", new Document("$sum", 1))),
+                            new Document("$sort", new Document("count", -1).append("_id", 1)),
+                            new Document("$limit", limit)));
+        }
+
+        List<Document> stages = new ArrayList<>();
+        stages.add(new Document("$match", filter));
+        if (approximate) {
+            stages.add(
+                    new Document(
+                            "$sample", new Document("size", guardrailProperties.getFacetSampleSize())));
+            facets.append(SAMPLED_FACET_KEY, List.of(new Document("$count", "records")));
+        }
+        stages.add(new Document("$facet", facets));
+
+        List<Document> results = run(entity, "Facet query", stages.toArray(new Document[0]));
+        Document result = results.isEmpty() ? new Document() : results.getFirst();
+
+        Map<String, List<FacetValue>> values = new LinkedHashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            List<FacetValue> facetValues = new ArrayList<>();
+            for (Document bucket : result.getList(FACET_KEY_PREFIX + i, Document.class, List.of())) {
+                facetValues.add(
+                        new FacetValue(
+                                RecordCodec.decodeNumber(bucket.get("_id")), longValue(bucket.get("count"))));
+            }
+            values.put(paths.get(i), facetValues);
+        }
+
+        Long sampledRecords = null;
+        if (approximate) {
+            List<Document> sampled = result.getList(SAMPLED_FACET_KEY, Document.class, List.of());
+            sampledRecords = sampled.isEmpty() ? 0L : longValue(sampled.getFirst().get("records"));
+        }
+        return new FacetResponse(entity, values, approximate, sampledRecords);
+    }
+
+    private List<Document> run(String entity, String description, Document... stages) {
+        List<AggregationOperation> operations = new ArrayList<>(stages.length);
+        for (Document stage : stages) {
+            operations.add(context -> stage);
+        }
+
+        AggregationOptions.Builder options = Aggregation.newAggregationOptions().allowDiskUse(true);
+        Duration maxTime = guardrailProperties.getMaxTime();
+        if (maxTime != null && !maxTime.isZero() && !maxTime.isNegative()) {
+            options.maxTime(maxTime);
+        }
+
+        try {
+            return mongoTemplate
+                    .aggregate(
+                            Aggregation.newAggregation(operations).withOptions(options.build()),
+                            entity,
+                            Document.class)
+                    .getMappedResults();
+        } catch (RuntimeException ex) {
+            if (DynamicQueryService.isExecutionTimeout(ex)) {
+                throw new QueryTimeoutException(
+                        description
+                                + " on '"
+                                + entity
+                                + "' exceeded the time limit of "
+                                + maxTime.toMillis()
+                                + " ms",
+                        ex);
+            }
+            throw ex;
+        }
+    }
+
+    private List<String> resolveFacetPaths(List<String> facets, Map<String, FieldType> fieldTypes) {
+        if (facets == null || facets.isEmpty()) {
+            throw new IllegalArgumentException("At least one facet is required");
+        }
+        if (facets.size() > guardrailProperties.getMaxFacetPaths()) {
+            throw new IllegalArgumentException(
+                    "Facet count exceeds max: " + guardrailProperties.getMaxFacetPaths());
+        }
+
+        Set<String> paths = new LinkedHashSet<>();
+        for (String rawPath : facets) {
+            String path = rawPath == null ? "" : rawPath.trim();
+            FieldType fieldType = fieldTypes.get(path);
+            if (fieldType == null) {
+                throw new IllegalArgumentException("Facet on field is not allowed: " + path);
+            }
+            if (!FACETABLE_TYPES.contains(fieldType)) {
+                throw new IllegalArgumentException(
+                        "Facet on field '" + path + "' of type " + fieldType + " is not supported");
+            }
+            if (!paths.add(path)) {
+                throw new IllegalArgumentException("Duplicate facet field: " + path);
+            }
+        }
+        return List.copyOf(paths);
+    }
+
+    private int resolveFacetLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_FACET_LIMIT;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Facet limit must be > 0");
+        }
+        if (limit > guardrailProperties.getMaxFacetValues()) {
+            throw new IllegalArgumentException(
+                    "Facet limit exceeds max: " + guardrailProperties.getMaxFacetValues());
+        }
+        return limit;
+    }
+
+    private long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private List<String> resolveGroupBy(List<String> groupBy, Map<String, FieldType> fieldTypes) {
+        if (groupBy == null || groupBy.isEmpty()) {
+            return List.of();
+        }
+        if (groupBy.size() > guardrailProperties.getMaxGroupByFields()) {
+            throw new IllegalArgumentException(
+                    "Group-by field count exceeds max: " + guardrailProperties.getMaxGroupByFields());
+        }
+
+        Set<String> paths = new LinkedHashSet<>();
+        for (String rawPath : groupBy) {
+            String path = rawPath == null ? "" : rawPath.trim();
+            FieldType fieldType = fieldTypes.get(path);
+            if (fieldType == null) {
+                throw new IllegalArgumentException("Grouping by field is not allowed: " + path);
+            }
+            if (!GROUPABLE_TYPES.contains(fieldType)) {
+                throw new IllegalArgumentException(
+                        "Grouping by field '" + path + "' of type " + fieldType + " is not supported");
+            }
+            if (!paths.add(path)) {
+                throw new IllegalArgumentException("Duplicate group-by field: " + path);
+            }
+        }
+        return List.copyOf(paths);
+    }
+
+    private Map<String, Document> resolveMetrics(
+            List<AggregationMetric> metrics, Map<String, FieldType> fieldTypes) {
+        if (metrics == null || metrics.isEmpty()) {
+            throw new IllegalArgumentException("At least one metric is required");
+        }
+        if (metrics.size() > guardrailProperties.getMaxAggregationMetrics()) {
+            throw new IllegalArgumentException(
+                    "Metric count exceeds max: " + guardrailProperties.getMaxAggregationMetrics());
+        }
+
+        Map<String, Document> accumulators = new LinkedHashMap<>();
+        for (AggregationMetric metric : metrics) {
+            if (metric == null) {
+                throw new IllegalArgumentException("Metric cannot be null");
+            }
+            String operator = metric.operator() == null ? "" : metric.operator().trim().toLowerCase();
+            if (!METRIC_OPERATORS.contains(operator)) {
+                throw new IllegalArgumentException("Unsupported metric operator: " + metric.operator());
+            }
+
+            String field = metric.field() == null || metric.field().isBlank() ? null : metric.field().trim();
+            Document accumulator;
+            if ("count".equals(operator)) {
+                if (field != null) {
+                    throw new IllegalArgumentException("count metric does not take a field");
+                }
+                accumulator = new Document("$sum", 1);
+            } else {
+                if (field == null) {
+                    throw new IllegalArgumentException(operator + " metric requires a field");
+                }
+                if (fieldTypes.get(field) != FieldType.NUMBER) {
+                    throw new IllegalArgumentException(
+                            operator + " metric requires a NUMBER field: " + field);
+                }
+                accumulator = new Document("$" + operator, "$" + field);
+            }
+
+            String alias =
+                    metric.alias() == null || metric.alias().isBlank()
+                            ? defaultAlias(operator, field)
+                            : metric.alias().trim();
+            if (!ALIAS_PATTERN.matcher(alias).matches()) {
+                throw new IllegalArgumentException("Invalid metric alias: " + alias);
+            }
+            if (accumulators.putIfAbsent(alias, accumulator) != null) {
+                throw new IllegalArgumentException("Duplicate metric alias: " + alias);
+            }
+        }
+        return accumulators;
+    }
+
+    private String defaultAlias(String operator, String field) {
+        return field == null ? operator : operator + "_" + field.replace('.', '_');
+    }
+}
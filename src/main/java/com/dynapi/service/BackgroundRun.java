@@ -0,0 +1,57 @@
+package com.dynapi.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a recurring background job on a virtual thread of its own, so that the {@code @Scheduled}
+ * method only triggers it: the scheduler thread, shared by every scheduled task, never waits on
+ * Mongo or on a pause between batches. A trigger while the previous run is still going is skipped.
+ */
+@Slf4j
+final class BackgroundRun {
+    private final String name;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    BackgroundRun(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts {@code job} unless a run is in progress; returns the started run, or null.
+     */
+    Future<?> trigger(Runnable job) {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Skipping {}: the previous run is still going", name);
+            return null;
+        }
+        try {
+            return executor.submit(
+                    () -> {
+                        try {
+                            job.run();
+                        } catch (RuntimeException ex) {
+                            log.warn("{} failed: {}", name, ex.getMessage());
+                        } finally {
+                            running.set(false);
+                        }
+                    });
+        } catch (RuntimeException ex) {
+            running.set(false);
+            throw ex;
+        }
+    }
+
+    boolean isRunning() {
+        return running.get();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,168 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryBatchProperties;
+import com.dynapi.domain.exception.EntityNotFoundException;
+import com.dynapi.domain.exception.QueryCostExceededException;
+import com.dynapi.domain.exception.QueryTimeoutException;
+import com.dynapi.domain.exception.ValidationException;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.BatchQueryItem;
+import com.dynapi.dto.BatchQueryRequest;
+import com.dynapi.dto.BatchQueryResponse;
+import com.dynapi.dto.BatchQueryResult;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the queries of a batch concurrently on virtual threads. Each entity's published schema is
+ * resolved once per batch, at most {@code maxConcurrency} queries of a batch run at a time, and
+ * each query has its own timeout and its own success or error in the response.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchQueryService {
+    private final QueryExecutionService queryExecutionService;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final QueryBatchProperties properties;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchQueryResponse execute(BatchQueryRequest request) {
+        List<BatchQueryItem> items =
+                request == null || request.queries() == null ? List.of() : request.queries();
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Batch requires at least one query");
+        }
+        if (items.size() > properties.getMaxQueries()) {
+            throw new IllegalArgumentException("Batch exceeds max queries: " + properties.getMaxQueries());
+        }
+
+        Map<String, CompletableFuture<SchemaVersion>> schemas = new HashMap<>();
+        Semaphore permits = new Semaphore(Math.max(1, properties.getMaxConcurrency()));
+        List<Future<BatchQueryResult>> pending = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchQueryItem item = items.get(i);
+            String id = item.id() == null || item.id().isBlank() ? String.valueOf(i) : item.id();
+            String entity = item.entity() == null ? null : item.entity().trim();
+            if (entity == null || entity.isEmpty()) {
+                pending.add(
+                        CompletableFuture.completedFuture(
+                                failure(id, null, new IllegalArgumentException("Batch query requires an entity"))));
+                continue;
+            }
+
+            CompletableFuture<SchemaVersion> schema = schemas.computeIfAbsent(entity, this::resolveSchema);
+            if (schema.isCompletedExceptionally()) {
+                pending.add(CompletableFuture.completedFuture(failure(id, entity, schema.exceptionNow())));
+                continue;
+            }
+            SchemaVersion publishedSchema = schema.join();
+            pending.add(executor.submit(() -> run(id, entity, publishedSchema, item, permits)));
+        }
+
+        List<BatchQueryResult> results = new ArrayList<>(pending.size());
+        for (Future<BatchQueryResult> result : pending) {
+            results.add(await(result));
+        }
+        int succeeded = (int) results.stream().filter(result -> result.error() == null).count();
+        return new BatchQueryResponse(List.copyOf(results), succeeded, results.size() - succeeded);
+    }
+
+    private CompletableFuture<SchemaVersion> resolveSchema(String entity) {
+        try {
+            return CompletableFuture.completedFuture(schemaLifecycleService.latestPublished(entity));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private BatchQueryResult run(
+            String id, String entity, SchemaVersion publishedSchema, BatchQueryItem item, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return failure(id, entity, new QueryTimeoutException("Batch was cancelled", ex));
+        }
+
+        Duration timeout = properties.getQueryTimeout();
+        QueryExecution execution = queryExecutionService.submit(entity, publishedSchema, item.query());
+        try {
+            PaginatedResponse<FormRecordDto> page =
+                    execution.result().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return new BatchQueryResult(id, entity, HttpStatus.OK.value(), page, null);
+        } catch (TimeoutException ex) {
+            execution.cancel();
+            return failure(
+                    id,
+                    entity,
+                    new QueryTimeoutException(
+                            "Query on '" + entity + "' exceeded the batch time limit of " + timeout.toMillis() + " ms",
+                            ex));
+        } catch (ExecutionException ex) {
+            return failure(id, entity, ex.getCause() == null ? ex : ex.getCause());
+        } catch (InterruptedException ex) {
+            execution.cancel();
+            Thread.currentThread().interrupt();
+            return failure(id, entity, new QueryTimeoutException("Batch was cancelled", ex));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private BatchQueryResult await(Future<BatchQueryResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Batch query failed unexpectedly", ex.getCause());
+        }
+    }
+
+    private BatchQueryResult failure(String id, String entity, Throwable error) {
+        HttpStatus status =
+                switch (error) {
+                    case IllegalArgumentException ignored -> HttpStatus.BAD_REQUEST;
+                    case ValidationException ignored -> HttpStatus.BAD_REQUEST;
+                    case EntityNotFoundException ignored -> HttpStatus.NOT_FOUND;
+                    case QueryCostExceededException ignored -> HttpStatus.UNPROCESSABLE_CONTENT;
+                    case QueryTimeoutException ignored -> HttpStatus.GATEWAY_TIMEOUT;
+                    default -> HttpStatus.INTERNAL_SERVER_ERROR;
+                };
+        String message = error.getMessage();
+        if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+            log.warn("Batch query '{}' on entity '{}' failed", id, entity, error);
+            message = "Query failed";
+        }
+        return new BatchQueryResult(id, entity, status.value(), null, message);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,9 @@
+package com.dynapi.service;
+
+import com.dynapi.dto.FormRecordDto;
+
+/**
+ * A record as served by GET together with its strong ETag.
+ */
+public record CachedRecord(FormRecordDto record, String etag) {
+}
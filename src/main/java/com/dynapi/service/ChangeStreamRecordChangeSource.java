@@ -0,0 +1,69 @@
+package com.dynapi.service;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * One Mongo change stream per watch, with the current document looked up for updates. The stream
+ * is opened before {@link #watch} returns, so writes made after a subscription is accepted are
+ * never missed; it is then drained by a virtual thread. Requires a replica set.
+ */
+final class ChangeStreamRecordChangeSource implements RecordChangeSource {
+    private static final List<Bson> PIPELINE =
+            List.of(Aggregates.match(Filters.in("operationType", "insert", "update", "replace")));
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration pollInterval;
+
+    ChangeStreamRecordChangeSource(MongoTemplate mongoTemplate, Duration pollInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public Watch watch(
+            String entity, Consumer<Map<String, Object>> listener, Consumer<Throwable> onError) {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+                mongoTemplate
+                        .getCollection(entity)
+                        .watch(PIPELINE)
+                        .fullDocument(FullDocument.UPDATE_LOOKUP)
+                        .maxAwaitTime(pollInterval.toMillis(), TimeUnit.MILLISECONDS)
+                        .cursor();
+        AtomicBoolean open = new AtomicBoolean(true);
+        Thread.ofVirtual()
+                .name("change-stream-" + entity)
+                .start(
+                        () -> {
+                            // The cursor is only used by this thread; close() just flags it.
+                            try (cursor) {
+                                while (open.get()) {
+                                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                                    // Updates of documents deleted since have nothing to look up.
+                                    if (change != null && change.getFullDocument() != null) {
+                                        listener.accept(change.getFullDocument());
+                                    }
+                                }
+                            } catch (RuntimeException ex) {
+                                if (open.get()) {
+                                    onError.accept(ex);
+                                }
+                            }
+                        });
+        return () -> open.set(false);
+    }
+}
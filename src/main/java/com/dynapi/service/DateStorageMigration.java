@@ -0,0 +1,166 @@
+package com.dynapi.service;
+
+import com.dynapi.config.DateMigrationProperties;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaLifecycleStatus;
+import com.dynapi.domain.model.SchemaVersion;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converts DATE values that records still hold as strings, written before dates were stored as
+ * BSON dates, in the background. Records are read in {@code _id} order in batches and each
+ * converted field is set only if it still holds the value that was read, so concurrent writes
+ * win. {@code updatedAt} is left alone: the values denote the same dates as before.
+ *
+ * <p>An entity is scanned once per published schema version. Strings that are not ISO-8601
+ * dates are left as they are and counted in the log.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DateStorageMigration {
+    private final MongoTemplate mongoTemplate;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final RecordCodecs recordCodecs;
+    private final RecordCache recordCache;
+    private final EntityWriteGenerations writeGenerations;
+    private final DateMigrationProperties properties;
+
+    private final Map<String, Integer> migratedVersions = new ConcurrentHashMap<>();
+    private final BackgroundRun runs = new BackgroundRun("date migration");
+
+    /**
+     * Starts a pass over every entity with a published schema on a thread of its own, see
+     * {@link BackgroundRun}.
+     */
+    @Scheduled(
+            initialDelayString = "${dynapi.records.date-migration.interval:PT10M}",
+            fixedDelayString = "${dynapi.records.date-migration.interval:PT10M}")
+    public void migrate() {
+        if (properties.isEnabled()) {
+            runs.trigger(this::migrateAll);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runs.shutdown();
+    }
+
+    private void migrateAll() {
+        Query published = new Query(Criteria.where("status").is(SchemaLifecycleStatus.PUBLISHED));
+        List<String> entities =
+                mongoTemplate.findDistinct(published, "entityName", SchemaVersion.class, String.class);
+        for (String entity : entities) {
+            try {
+                migrate(entity);
+            } catch (RuntimeException ex) {
+                log.warn("Date migration failed for entity '{}': {}", entity, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Converts the string-stored DATE values of {@code entity} and returns how many records were
+     * changed.
+     */
+    public long migrate(String entity) {
+        SchemaVersion schema = schemaLifecycleService.latestPublished(entity);
+        if (Objects.equals(schema.getVersion(), migratedVersions.get(entity))) {
+            return 0;
+        }
+        List<String> datePaths =
+                SchemaPaths.fieldTypesByPath(schema.getFields()).entrySet().stream()
+                        .filter(entry -> entry.getValue() == FieldType.DATE)
+                        .map(Map.Entry::getKey)
+                        .toList();
+        long converted = 0;
+        long skipped = 0;
+        if (!datePaths.isEmpty()) {
+            Set<String> roots = new LinkedHashSet<>();
+            List<Criteria> stringPaths = new ArrayList<>();
+            for (String path : datePaths) {
+                roots.add(path.split("\\.")[0]);
+                stringPaths.add(Criteria.where(path).type(JsonSchemaObject.Type.stringType()));
+            }
+            Criteria stringDates = new Criteria().orOperator(stringPaths);
+            RecordCodec codec = recordCodecs.forSchema(schema);
+            int batchSize = Math.max(1, properties.getBatchSize());
+            Object lastId = null;
+            List<Document> batch;
+            do {
+                Criteria criteria =
+                        lastId == null
+                                ? stringDates
+                                : new Criteria()
+                                        .andOperator(stringDates, Criteria.where(SchemaPaths.ID_PATH).gt(lastId));
+                Query query =
+                        new Query(criteria).with(Sort.by(SchemaPaths.ID_PATH)).limit(batchSize);
+                batch = mongoTemplate.find(query, Document.class, entity);
+                for (Document document : batch) {
+                    if (convert(entity, document, roots, codec)) {
+                        converted++;
+                    } else {
+                        skipped++;
+                    }
+                    lastId = document.get(SchemaPaths.ID_PATH);
+                }
+            } while (batch.size() == batchSize);
+        }
+
+        if (converted > 0) {
+            writeGenerations.bump(entity);
+            log.info("Converted string DATE values of {} records of entity '{}'", converted, entity);
+        }
+        if (skipped > 0) {
+            log.warn(
+                    "{} records of entity '{}' keep string DATE values: not ISO-8601 or changed meanwhile",
+                    skipped,
+                    entity);
+        }
+        migratedVersions.put(entity, schema.getVersion());
+        return converted;
+    }
+
+    private boolean convert(String entity, Document document, Set<String> roots, RecordCodec codec) {
+        Object id = document.get(SchemaPaths.ID_PATH);
+        Document encoded = codec.encode(document);
+        Query current = new Query(Criteria.where(SchemaPaths.ID_PATH).is(id));
+        Update update = new Update();
+        boolean changed = false;
+        for (String root : roots) {
+            Object stored = document.get(root);
+            Object converted = encoded.get(root);
+            if (!Objects.equals(stored, converted)) {
+                current.addCriteria(Criteria.where(root).is(stored));
+                update.set(root, converted);
+                changed = true;
+            }
+        }
+        if (!changed || mongoTemplate.updateFirst(current, update, entity).getModifiedCount() == 0) {
+            return false;
+        }
+        recordCache.invalidate(entity, String.valueOf(id));
+        return true;
+    }
+}
@@ -1,25 +1,34 @@
 package com.dynapi.service;
 
 import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.domain.exception.QueryTimeoutException;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
 import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.validation.DateValues;
 import com.dynapi.dto.DynamicQueryRequest;
 import com.dynapi.dto.FilterRule;
 import com.dynapi.dto.FormRecordDto;
 import com.dynapi.dto.PaginatedResponse;
+import com.dynapi.dto.SortRule;
+import com.mongodb.MongoExecutionTimeoutException;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -36,7 +45,10 @@ public class DynamicQueryService {
     private static final Set<String> DATE_OPERATORS =
             Set.of("eq", "ne", "gt", "lt", "gte", "lte", "in", "nin", "exists");
     private static final Set<String> STRING_OPERATORS =
-            Set.of("eq", "ne", "in", "nin", "regex", "exists");
+            Set.of("eq", "ne", "in", "nin", "regex", "exists", "search");
+    private static final String SEARCH_OPERATOR = "search";
+    private static final Document TEXT_SCORE_SORT =
+            new Document("score", new Document("$meta", "textScore")).append(SchemaPaths.ID_PATH, 1);
     private static final Set<String> BOOLEAN_OPERATORS =
             Set.of("eq", "ne", "in", "nin", "exists");
     private static final Set<String> OBJECT_ARRAY_OPERATORS = Set.of("eq", "ne", "exists");
@@ -44,49 +56,315 @@ public class DynamicQueryService {
     private final MongoTemplate mongoTemplate;
     private final SchemaLifecycleService schemaLifecycleService;
     private final QueryGuardrailProperties guardrailProperties;
+    private final QueryShapeStatsService queryShapeStatsService;
+    private final QueryCostGuard queryCostGuard;
+    private final QueryPlanCache queryPlanCache;
+    private final QueryCoalescer queryCoalescer;
+    private final EntityWriteGenerations writeGenerations;
+    private final RecordCodecs recordCodecs;
 
     public PaginatedResponse<FormRecordDto> query(String entity, DynamicQueryRequest request) {
+        return query(entity, request, null);
+    }
+
+    /**
+     * Runs the query with {@code operationId} attached as the Mongo comment of the find and the
+     * count, so that {@link QueryExecutionService} can locate and kill them if the client goes away.
+     */
+    public PaginatedResponse<FormRecordDto> query(
+            String entity, DynamicQueryRequest request, String operationId) {
+        return query(entity, schemaLifecycleService.latestPublished(entity), request, operationId);
+    }
+
+    /**
+     * Same as {@link #query(String, DynamicQueryRequest, String)} against an already resolved
+     * published schema, so that callers running several queries look each schema up once.
+     */
+    public PaginatedResponse<FormRecordDto> query(
+            String entity, SchemaVersion publishedSchema, DynamicQueryRequest request, String operationId) {
+        PreparedQuery prepared = prepare(entity, publishedSchema, request);
+        RecordCodec codec = recordCodecs.forSchema(publishedSchema);
+        return queryCoalescer.execute(
+                prepared.key(),
+                () ->
+                        execute(
+                                entity,
+                                prepared.query(),
+                                prepared.shape(),
+                                prepared.page(),
+                                prepared.size(),
+                                operationId,
+                                prepared.request(),
+                                codec));
+    }
+
+    /**
+     * Validates and binds {@code request} like {@link #query} and returns the key its execution is
+     * shared under. Requests that bind to the same filter, sort and page get the same key, however
+     * their field names, operators or rules were spelled.
+     */
+    public String resultKey(String entity, SchemaVersion publishedSchema, DynamicQueryRequest request) {
+        return prepare(entity, publishedSchema, request).key();
+    }
+
+    private PreparedQuery prepare(String entity, SchemaVersion publishedSchema, DynamicQueryRequest request) {
         DynamicQueryRequest safeRequest =
                 request == null ? new DynamicQueryRequest(null, null, null, null, null) : request;
         int page = resolvePage(safeRequest.page());
         int size = resolveSize(safeRequest.size());
-        Map<String, FieldType> allowedFieldTypes = loadFieldTypesByEntity(entity);
-        List<FilterNode> filterNodes = toFilterNodes(safeRequest.filters());
+        BoundPlan boundPlan = bind(entity, publishedSchema, safeRequest);
+        QueryPlan plan = boundPlan.plan();
+
+        BasicQuery query = new BasicQuery(boundPlan.filter());
+        if (plan.sort().isSorted()) {
+            query.with(plan.sort());
+        } else if (plan.textSearch()) {
+            query.setSortObject(new Document(TEXT_SCORE_SORT));
+        }
+        query.with(PageRequest.of(page, size));
+        String key =
+                coalescingKey(
+                        entity,
+                        publishedSchema,
+                        query.getQueryObject(),
+                        query.getSortObject(),
+                        page,
+                        size,
+                        safeRequest);
+        return new PreparedQuery(query, plan.shape(), page, size, safeRequest, key);
+    }
+
+    private PaginatedResponse<FormRecordDto> execute(
+            String entity,
+            BasicQuery query,
+            QueryShape shape,
+            int page,
+            int size,
+            String operationId,
+            DynamicQueryRequest request,
+            RecordCodec codec) {
+        Document filter = query.getQueryObject();
+        Document sort = query.getSortObject();
+        queryCostGuard.check(entity, shape, filter, sort);
+
+        Duration maxTime = guardrailProperties.getMaxTime();
+        if (maxTime != null && !maxTime.isZero() && !maxTime.isNegative()) {
+            query.maxTime(maxTime);
+        }
+        if (operationId != null) {
+            query.comment(operationId);
+        }
+
+        long startedAt = System.nanoTime();
+        List<Document> results;
+        long total;
+        try {
+            results = mongoTemplate.find(query, Document.class, entity);
+            total = mongoTemplate.count(query.skip(-1).limit(-1), entity);
+        } catch (RuntimeException ex) {
+            if (isExecutionTimeout(ex)) {
+                throw new QueryTimeoutException(
+                        "Query on '" + entity + "' exceeded the time limit of " + maxTime.toMillis() + " ms",
+                        ex);
+            }
+            throw ex;
+        }
+
+        List<FormRecordDto> content =
+                results.stream().map(result -> RecordDocuments.toDto(codec.decode(result))).toList();
 
-        validateSort(safeRequest.sortBy(), safeRequest.sortDirection(), allowedFieldTypes);
+        queryShapeStatsService.recordExecution(
+                entity, shape, filter, sort, size, System.nanoTime() - startedAt);
+
+        return new PaginatedResponse<>(
+                page, size, total, content, request.sortBy(), request.sortDirection());
+    }
+
+    /**
+     * Identical requests share one execution: same entity, schema version and write generation,
+     * same bound filter and sort, same page, and the same sort echo in the response.
+     */
+    private String coalescingKey(
+            String entity,
+            SchemaVersion publishedSchema,
+            Document filter,
+            Document sort,
+            int page,
+            int size,
+            DynamicQueryRequest request) {
+        StringBuilder key = new StringBuilder();
+        appendToken(key, entity);
+        appendToken(key, String.valueOf(publishedSchema.getVersion()));
+        appendToken(key, String.valueOf(writeGenerations.current(entity)));
+        appendToken(key, filter.toJson());
+        appendToken(key, sort.toJson());
+        key.append(page).append(':').append(size);
+        appendToken(key, request.sortBy());
+        appendToken(key, request.sortDirection());
+        return key.toString();
+    }
+
+    /**
+     * Validates {@code filters} against {@code publishedSchema} and returns the Mongo filter,
+     * including the soft-delete exclusion. Used by pipelines that reuse the query filter DSL.
+     */
+    Document filter(String entity, SchemaVersion publishedSchema, List<FilterRule> filters) {
+        return bind(entity, publishedSchema, new DynamicQueryRequest(filters, null, null, null, null))
+                .filter();
+    }
+
+    /**
+     * Validates {@code filters} against {@code publishedSchema} like a query would and compiles the
+     * optimized filter tree into a predicate over record data, for callers that evaluate it in
+     * memory instead of in Mongo. SEARCH needs the text index and is rejected.
+     */
+    public Predicate<Map<String, Object>> inMemoryPredicate(
+            String entity, SchemaVersion publishedSchema, List<FilterRule> filters) {
+        Map<String, FieldType> allowedFieldTypes = loadFieldTypes(entity, publishedSchema);
+        List<FilterNode> filterNodes = toFilterNodes(filters);
         validateFilters(filterNodes, allowedFieldTypes);
+        if (containsSearch(filterNodes)) {
+            throw new IllegalArgumentException("SEARCH operator is not supported here");
+        }
+        return FilterPredicateCompiler.compile(
+                FilterTreeOptimizer.optimize(filterNodes), allowedFieldTypes);
+    }
 
-        Query query = new Query();
-        query.addCriteria(Criteria.where("deleted").ne(true));
-        if (!filterNodes.isEmpty()) {
-            query.addCriteria(buildCriteria(filterNodes));
+    /**
+     * Validates a whole request like {@link #query} does and resolves what an in-memory execution
+     * needs: the compiled filter, the value lookups it implies, the sort with its {@code _id}
+     * tie-breaker, and the page. Returns null for requests with SEARCH, which only Mongo's text
+     * index can answer.
+     */
+    InMemoryQuery inMemoryQuery(
+            String entity, SchemaVersion publishedSchema, DynamicQueryRequest request) {
+        DynamicQueryRequest safeRequest =
+                request == null ? new DynamicQueryRequest(null, null, null, null, null) : request;
+        int page = resolvePage(safeRequest.page());
+        int size = resolveSize(safeRequest.size());
+        Map<String, FieldType> allowedFieldTypes = loadFieldTypes(entity, publishedSchema);
+        List<FilterNode> filterNodes = toFilterNodes(safeRequest.filters());
+        Sort sort = resolveSort(safeRequest, allowedFieldTypes);
+        validateFilters(filterNodes, allowedFieldTypes);
+        if (containsSearch(filterNodes)) {
+            return null;
         }
+        List<FilterNode> optimized = FilterTreeOptimizer.optimize(filterNodes);
+        return new InMemoryQuery(
+                FilterPredicateCompiler.compile(optimized, allowedFieldTypes),
+                FilterPredicateCompiler.lookups(optimized, allowedFieldTypes),
+                sort,
+                page,
+                size);
+    }
 
-        if (safeRequest.sortBy() != null && !safeRequest.sortBy().isBlank()) {
-            Sort.Direction dir = resolveSortDirection(safeRequest.sortDirection());
-            query.with(Sort.by(dir, safeRequest.sortBy().trim()));
+    private boolean containsSearch(List<FilterNode> filters) {
+        for (FilterNode filter : filters) {
+            boolean search =
+                    switch (filter) {
+                        case FilterLeafNode leafNode -> SEARCH_OPERATOR.equals(leafNode.operator());
+                        case FilterGroupNode groupNode -> containsSearch(groupNode.rules());
+                        case FilterRangeNode ignored -> false;
+                    };
+            if (search) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        query.with(PageRequest.of(page, size));
+    private BoundPlan bind(String entity, SchemaVersion publishedSchema, DynamicQueryRequest request) {
+        StringBuilder signature = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+        describeFilters(request.filters(), signature, values);
+        signature.append("|sort:");
+        appendToken(signature, request.sortBy() == null ? null : request.sortBy().trim());
+        appendToken(signature, request.sortDirection());
+        List<SortRule> sortRules = request.sort() == null ? List.of() : request.sort();
+        signature.append(sortRules.size());
+        for (SortRule sortRule : sortRules) {
+            appendToken(signature, sortRule == null || sortRule.field() == null ? null : sortRule.field().trim());
+            appendToken(signature, sortRule == null ? null : sortRule.direction());
+        }
+
+        QueryPlan plan =
+                queryPlanCache.get(
+                        entity,
+                        publishedSchema.getVersion(),
+                        signature.toString(),
+                        () -> plan(entity, publishedSchema, request));
+        RecordCodec codec = recordCodecs.forSchema(publishedSchema);
+        if (plan.reoptimize()) {
+            List<FilterNode> bound = FilterTreeOptimizer.optimize(plan.bindFilters(values, codec));
+            return new BoundPlan(plan, filterDocument(bound));
+        }
+        return new BoundPlan(plan, plan.bind(values, codec));
+    }
 
-        List<Map> results = mongoTemplate.find(query, Map.class, entity);
-        List<FormRecordDto> content =
-                results.stream()
-                        .map(
-                                result -> {
-                                    String id = result.get("_id") != null ? result.get("_id").toString() : null;
-                                    @SuppressWarnings("unchecked")
-                                    Map<String, Object> data = new HashMap<>((Map<String, Object>) result);
-                                    data.remove("_id");
-                                    data.remove("_class");
-                                    return new FormRecordDto(id, data);
-                                })
-                        .toList();
-
-        long total = mongoTemplate.count(query.skip(-1).limit(-1), entity);
+    /**
+     * Validates and optimizes the request filters once per signature. Values are replaced with
+     * {@link QueryParameter}s in request order, the same order {@link #describeFilters} collects
+     * them in, so the resulting plan can be bound to any request with that signature. Rewrites
+     * that depend on the values are left to binding, for plans where the optimizer could make any.
+     */
+    private QueryPlan plan(String entity, SchemaVersion publishedSchema, DynamicQueryRequest request) {
+        Map<String, FieldType> allowedFieldTypes = loadFieldTypes(entity, publishedSchema);
+        List<FilterNode> filterNodes = toFilterNodes(request.filters());
+
+        Sort sortSpec = resolveSort(request, allowedFieldTypes);
+        validateFilters(filterNodes, allowedFieldTypes);
+        int searches =
+                validateSearches(
+                        filterNodes, true, SchemaPaths.searchablePaths(publishedSchema.getFields()));
+        if (searches > 1) {
+            throw new IllegalArgumentException("Only one SEARCH filter is allowed per query");
+        }
+
+        AtomicInteger parameterCount = new AtomicInteger();
+        List<FilterNode> parameterizedNodes = new ArrayList<>();
+        for (FilterNode filterNode : filterNodes) {
+            parameterizedNodes.add(parameterize(filterNode, parameterCount, allowedFieldTypes));
+        }
+        List<FilterNode> optimizedFilters = FilterTreeOptimizer.optimize(parameterizedNodes);
+
+        return new QueryPlan(
+                QueryShape.of(optimizedFilters, sortSpec),
+                filterDocument(optimizedFilters),
+                optimizedFilters,
+                FilterTreeOptimizer.comparesValues(optimizedFilters),
+                sortSpec,
+                searches > 0,
+                parameterCount.get());
+    }
 
-        return new PaginatedResponse<>(
-                page, size, total, content, safeRequest.sortBy(), safeRequest.sortDirection());
+    /**
+     * The Mongo filter of optimized {@code filters}, including the soft-delete exclusion.
+     */
+    private Document filterDocument(List<FilterNode> filters) {
+        Query query = new Query();
+        query.addCriteria(Criteria.where("deleted").ne(true));
+        // $text has to stay at the top level of the filter.
+        List<FilterNode> remainingFilters = new ArrayList<>();
+        for (FilterNode filterNode : filters) {
+            if (filterNode instanceof FilterLeafNode leafNode && SEARCH_OPERATOR.equals(leafNode.operator())) {
+                query.addCriteria(buildCriteria(leafNode));
+            } else {
+                remainingFilters.add(filterNode);
+            }
+        }
+        if (!remainingFilters.isEmpty()) {
+            query.addCriteria(buildCriteria(remainingFilters));
+        }
+        return query.getQueryObject();
+    }
+
+    static boolean isExecutionTimeout(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof MongoExecutionTimeoutException) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private int resolvePage(Integer page) {
@@ -127,55 +405,66 @@ public class DynamicQueryService {
         throw new IllegalArgumentException("Unsupported sort direction: " + sortDirection);
     }
 
-    private Map<String, FieldType> loadFieldTypesByEntity(String entity) {
-        SchemaVersion publishedSchema = schemaLifecycleService.latestPublished(entity);
+    private Map<String, FieldType> loadFieldTypes(String entity, SchemaVersion publishedSchema) {
         List<FieldDefinition> definitions = publishedSchema.getFields();
 
         if (definitions == null || definitions.isEmpty()) {
             throw new IllegalArgumentException("Published schema has no fields for entity: " + entity);
         }
 
-        Map<String, FieldType> fieldTypeByPath = new HashMap<>();
-        for (FieldDefinition definition : definitions) {
-            registerFieldPaths(definition, "", fieldTypeByPath);
-        }
-        return fieldTypeByPath;
+        return SchemaPaths.fieldTypesByPath(definitions);
     }
 
-    private void registerFieldPaths(
-            FieldDefinition definition, String parentPath, Map<String, FieldType> fieldTypeByPath) {
-        String path =
-                parentPath.isEmpty()
-                        ? definition.getFieldName()
-                        : parentPath + "." + definition.getFieldName();
-
-        fieldTypeByPath.put(path, definition.getType());
-        if ((definition.getType() == FieldType.OBJECT || definition.getType() == FieldType.ARRAY)
-                && definition.getSubFields() != null
-                && !definition.getSubFields().isEmpty()) {
-            for (FieldDefinition subField : definition.getSubFields()) {
-                registerFieldPaths(subField, path, fieldTypeByPath);
-            }
+    /**
+     * Resolves {@code sortBy}/{@code sortDirection} or the {@code sort} list into sort orders. Any
+     * non-empty sort gets an {@code _id} tie-breaker in the direction of its last key, so that
+     * pages are stable and a compound index ending in {@code _id} can serve the whole sort.
+     */
+    private Sort resolveSort(DynamicQueryRequest request, Map<String, FieldType> fieldTypes) {
+        List<SortRule> sortRules = request.sort() == null ? List.of() : request.sort();
+        boolean hasSortBy = request.sortBy() != null && !request.sortBy().isBlank();
+        if (hasSortBy && !sortRules.isEmpty()) {
+            throw new IllegalArgumentException("Use either sortBy/sortDirection or sort, not both");
+        }
+        if (!hasSortBy && request.sortDirection() != null && !request.sortDirection().isBlank()) {
+            throw new IllegalArgumentException("sortDirection requires sortBy");
+        }
+        if (sortRules.size() > guardrailProperties.getMaxSortFields()) {
+            throw new IllegalArgumentException(
+                    "Sort exceeds max sort fields: " + guardrailProperties.getMaxSortFields());
         }
-    }
 
-    private void validateSort(
-            String sortBy, String sortDirection, Map<String, FieldType> fieldTypes) {
-        if (sortBy == null || sortBy.isBlank()) {
-            if (sortDirection != null && !sortDirection.isBlank()) {
-                throw new IllegalArgumentException("sortDirection requires sortBy");
+        List<Sort.Order> orders = new ArrayList<>();
+        if (hasSortBy) {
+            orders.add(sortOrder(request.sortBy(), request.sortDirection(), fieldTypes));
+        }
+        Set<String> sortedFields = new LinkedHashSet<>();
+        for (SortRule sortRule : sortRules) {
+            if (sortRule == null || sortRule.field() == null || sortRule.field().isBlank()) {
+                throw new IllegalArgumentException("Sort field is required");
             }
-            return;
+            Sort.Order order = sortOrder(sortRule.field(), sortRule.direction(), fieldTypes);
+            if (!sortedFields.add(order.getProperty())) {
+                throw new IllegalArgumentException("Duplicate sort field: " + order.getProperty());
+            }
+            orders.add(order);
         }
 
-        String normalizedSortBy = sortBy.trim();
-        if (!fieldTypes.containsKey(normalizedSortBy)) {
-            throw new IllegalArgumentException("Sorting by field is not allowed: " + normalizedSortBy);
+        if (orders.isEmpty()) {
+            return Sort.unsorted();
+        }
+        if (orders.stream().noneMatch(order -> SchemaPaths.ID_PATH.equals(order.getProperty()))) {
+            orders.add(new Sort.Order(orders.getLast().getDirection(), SchemaPaths.ID_PATH));
         }
+        return Sort.by(orders);
+    }
 
-        if (sortDirection != null && !sortDirection.isBlank()) {
-            resolveSortDirection(sortDirection);
+    private Sort.Order sortOrder(String field, String direction, Map<String, FieldType> fieldTypes) {
+        String path = field.trim();
+        if (!SchemaPaths.ID_PATH.equals(path) && !fieldTypes.containsKey(path)) {
+            throw new IllegalArgumentException("Sorting by field is not allowed: " + path);
         }
+        return new Sort.Order(resolveSortDirection(direction), path);
     }
 
     private void validateFilters(List<FilterNode> filters, Map<String, FieldType> fieldTypes) {
@@ -185,6 +474,37 @@ public class DynamicQueryService {
         }
     }
 
+    /**
+     * Checks SEARCH rules, which compile to {@code $text}: only on searchable paths and never below
+     * OR or NOT. Returns how many were found.
+     */
+    private int validateSearches(List<FilterNode> filters, boolean conjunctive, Set<String> searchablePaths) {
+        int searches = 0;
+        for (FilterNode filter : filters) {
+            switch (filter) {
+                case FilterLeafNode leafNode when SEARCH_OPERATOR.equals(leafNode.operator()) -> {
+                    if (!conjunctive) {
+                        throw new IllegalArgumentException("SEARCH operator cannot be nested under OR or NOT");
+                    }
+                    if (!searchablePaths.contains(leafNode.field())) {
+                        throw new IllegalArgumentException("Field is not searchable: " + leafNode.field());
+                    }
+                    searches++;
+                }
+                case FilterGroupNode groupNode ->
+                        searches +=
+                                validateSearches(
+                                        groupNode.rules(),
+                                        conjunctive && "and".equals(groupNode.operator()),
+                                        searchablePaths);
+                default -> {
+                    // Other leaves are checked by validateNode.
+                }
+            }
+        }
+        return searches;
+    }
+
     private void validateNode(
             FilterNode rule, int depth, AtomicInteger ruleCount, Map<String, FieldType> fieldTypes) {
         if (depth > guardrailProperties.getMaxFilterDepth()) {
@@ -209,23 +529,36 @@ public class DynamicQueryService {
                     validateNode(nestedRule, depth + 1, ruleCount, fieldTypes);
                 }
             }
-            case FilterLeafNode leafNode -> {
-                if (leafNode.field() == null) {
-                    throw new IllegalArgumentException("Filter field is required");
+            case FilterLeafNode leafNode ->
+                    validateLeaf(leafNode.field(), leafNode.operator(), leafNode.value(), fieldTypes);
+            case FilterRangeNode rangeNode -> {
+                if (rangeNode.lowerOperator() != null) {
+                    validateLeaf(
+                            rangeNode.field(), rangeNode.lowerOperator(), rangeNode.lowerValue(), fieldTypes);
                 }
-
-                FieldType fieldType = fieldTypes.get(leafNode.field());
-                if (fieldType == null) {
-                    throw new IllegalArgumentException(
-                            "Filtering by field is not allowed: " + leafNode.field());
+                if (rangeNode.upperOperator() != null) {
+                    validateLeaf(
+                            rangeNode.field(), rangeNode.upperOperator(), rangeNode.upperValue(), fieldTypes);
                 }
-
-                validateOperatorForType(leafNode.field(), leafNode.operator(), fieldType);
-                validateOperatorValue(leafNode.field(), leafNode.operator(), fieldType, leafNode.value());
             }
         }
     }
 
+    private void validateLeaf(
+            String field, String operator, Object value, Map<String, FieldType> fieldTypes) {
+        if (field == null) {
+            throw new IllegalArgumentException("Filter field is required");
+        }
+
+        FieldType fieldType = fieldTypes.get(field);
+        if (fieldType == null) {
+            throw new IllegalArgumentException("Filtering by field is not allowed: " + field);
+        }
+
+        validateOperatorForType(field, operator, fieldType);
+        validateOperatorValue(field, operator, fieldType, value);
+    }
+
     private void validateOperatorForType(String field, String operator, FieldType fieldType) {
         Set<String> allowedOperators = allowedOperatorsFor(fieldType);
         if (!allowedOperators.contains(operator)) {
@@ -268,6 +601,14 @@ public class DynamicQueryService {
             return;
         }
 
+        if (SEARCH_OPERATOR.equals(operator)) {
+            if (!(value instanceof String text) || text.isBlank()) {
+                throw new IllegalArgumentException(
+                        "SEARCH operator requires non-blank string value for field: " + field);
+            }
+            return;
+        }
+
         if ("regex".equals(operator)) {
             if (!(value instanceof String)) {
                 throw new IllegalArgumentException(
@@ -287,14 +628,12 @@ public class DynamicQueryService {
             }
         }
 
-        if (fieldType == FieldType.DATE
-                && ("gt".equals(operator)
-                || "lt".equals(operator)
-                || "gte".equals(operator)
-                || "lte".equals(operator))) {
-            if (!(value instanceof String)) {
+        if (fieldType == FieldType.DATE && !isDate(value)) {
+            // eq/ne null compares with missing values; ordering needs an actual date.
+            boolean nullable = "eq".equals(operator) || "ne".equals(operator);
+            if (!nullable || value != null) {
                 throw new IllegalArgumentException(
-                        "Operator '" + operator + "' requires date-string value for field: " + field);
+                        "Operator '" + operator + "' requires ISO-8601 date value for field: " + field);
             }
         }
     }
@@ -315,7 +654,13 @@ public class DynamicQueryService {
                                 operator.toUpperCase() + " operator requires boolean list for field: " + field);
                     }
                 }
-                case DATE, STRING -> {
+                case DATE -> {
+                    if (!isDate(item)) {
+                        throw new IllegalArgumentException(
+                                operator.toUpperCase() + " operator requires ISO-8601 date list for field: " + field);
+                    }
+                }
+                case STRING -> {
                     if (!(item instanceof String)) {
                         throw new IllegalArgumentException(
                                 operator.toUpperCase() + " operator requires string list for field: " + field);
@@ -327,6 +672,10 @@ public class DynamicQueryService {
         }
     }
 
+    private boolean isDate(Object value) {
+        return value instanceof String text && DateValues.parse(text) != null;
+    }
+
     private String normalizeOperator(String operator) {
         if (operator == null || operator.isBlank()) {
             return "eq";
@@ -372,13 +721,165 @@ public class DynamicQueryService {
                     case "lt" -> Criteria.where(leafNode.field()).lt(leafNode.value());
                     case "gte" -> Criteria.where(leafNode.field()).gte(leafNode.value());
                     case "lte" -> Criteria.where(leafNode.field()).lte(leafNode.value());
-                    case "in" -> Criteria.where(leafNode.field()).in((Collection<?>) leafNode.value());
-                    case "nin" -> Criteria.where(leafNode.field()).nin((Collection<?>) leafNode.value());
-                    case "regex" -> Criteria.where(leafNode.field()).regex((String) leafNode.value());
+                    case "in" -> Criteria.where(leafNode.field()).in(listValue(leafNode.value()));
+                    case "nin" -> Criteria.where(leafNode.field()).nin(listValue(leafNode.value()));
+                    // A parameter, or the pattern it was bound to, is compared as-is.
+                    case "regex" ->
+                            leafNode.value() instanceof String pattern
+                                    ? Criteria.where(leafNode.field()).regex(pattern)
+                                    : Criteria.where(leafNode.field()).is(leafNode.value());
                     case "exists" -> Criteria.where(leafNode.field()).exists((Boolean) leafNode.value());
+                    // $text searches all paths of the entity text index, not only this field.
+                    case SEARCH_OPERATOR ->
+                            Criteria.where("$text").is(new Document("$search", leafNode.value()));
                     default -> Criteria.where(leafNode.field()).is(leafNode.value());
                 };
             }
+            case FilterRangeNode rangeNode -> {
+                Criteria criteria = Criteria.where(rangeNode.field());
+                if ("gte".equals(rangeNode.lowerOperator())) {
+                    criteria = criteria.gte(rangeNode.lowerValue());
+                } else if ("gt".equals(rangeNode.lowerOperator())) {
+                    criteria = criteria.gt(rangeNode.lowerValue());
+                }
+                if ("lte".equals(rangeNode.upperOperator())) {
+                    criteria = criteria.lte(rangeNode.upperValue());
+                } else if ("lt".equals(rangeNode.upperOperator())) {
+                    criteria = criteria.lt(rangeNode.upperValue());
+                }
+                yield criteria;
+            }
+        };
+    }
+
+    private Collection<?> listValue(Object value) {
+        // A list parameter is spliced into the enclosing list when the plan is bound.
+        return value instanceof Collection<?> collection ? collection : List.of(value);
+    }
+
+    private FilterNode parameterize(
+            FilterNode node, AtomicInteger nextIndex, Map<String, FieldType> fieldTypes) {
+        return switch (node) {
+            case FilterGroupNode groupNode -> {
+                List<FilterNode> rules = new ArrayList<>();
+                for (FilterNode rule : groupNode.rules()) {
+                    rules.add(parameterize(rule, nextIndex, fieldTypes));
+                }
+                yield new FilterGroupNode(groupNode.operator(), rules);
+            }
+            case FilterLeafNode leafNode -> {
+                if (isLiteral(leafNode.operator(), leafNode.value())) {
+                    yield leafNode;
+                }
+                yield new FilterLeafNode(
+                        leafNode.field(),
+                        leafNode.operator(),
+                        new QueryParameter(
+                                nextIndex.getAndIncrement(),
+                                parameterKind(
+                                        leafNode.operator(),
+                                        leafNode.value(),
+                                        fieldTypes.get(leafNode.field()))));
+            }
+            case FilterRangeNode rangeNode -> rangeNode;
+        };
+    }
+
+    private QueryParameter.Kind parameterKind(String operator, Object value, FieldType fieldType) {
+        if ("regex".equals(operator)) {
+            return QueryParameter.Kind.PATTERN;
+        }
+        if (SEARCH_OPERATOR.equals(operator)) {
+            return QueryParameter.Kind.SEARCH;
+        }
+        if (value instanceof Collection<?>) {
+            return switch (fieldType) {
+                case DATE -> QueryParameter.Kind.DATE_LIST;
+                case NUMBER -> QueryParameter.Kind.NUMBER_LIST;
+                default -> QueryParameter.Kind.LIST;
+            };
+        }
+        if (fieldType == FieldType.DATE) {
+            return QueryParameter.Kind.DATE;
+        }
+        if (fieldType == FieldType.NUMBER) {
+            return QueryParameter.Kind.NUMBER;
+        }
+        if (value instanceof Map<?, ?>) {
+            return QueryParameter.Kind.DOCUMENT;
+        }
+        return QueryParameter.Kind.SCALAR;
+    }
+
+    /**
+     * Values the optimizer rewrites on ({@code exists} flags, empty lists) stay in the plan and are
+     * part of the signature; every other value becomes a parameter.
+     */
+    private boolean isLiteral(String operator, Object value) {
+        return ("exists".equals(operator) && value instanceof Boolean)
+                || (value instanceof Collection<?> collection && collection.isEmpty());
+    }
+
+    /**
+     * Appends the plan-relevant description of {@code filters} to {@code signature}: structure,
+     * fields, operators and value kinds, since those alone decide validation and optimization.
+     * Parameter values are collected into {@code values}.
+     */
+    private void describeFilters(List<FilterRule> filters, StringBuilder signature, List<Object> values) {
+        if (filters == null) {
+            return;
+        }
+        for (FilterRule rule : filters) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Filter rule cannot be null");
+            }
+
+            String operator = normalizeOperator(rule.operator());
+            if (COMBINATOR_OPERATORS.contains(operator)) {
+                signature.append(operator).append('(');
+                describeFilters(rule.rules(), signature, values);
+                signature.append(')');
+                continue;
+            }
+
+            if (rule.rules() != null && !rule.rules().isEmpty()) {
+                throw new IllegalArgumentException("Leaf filter operators cannot include nested rules");
+            }
+
+            appendToken(signature, normalizeField(rule.field()));
+            appendToken(signature, operator);
+            if (isLiteral(operator, rule.value())) {
+                signature.append('=').append(rule.value());
+            } else {
+                signature.append(valueKind(rule.value()));
+                values.add(rule.value());
+            }
+            signature.append(';');
+        }
+    }
+
+    private void appendToken(StringBuilder signature, String token) {
+        // Length-prefixed, so that user-supplied names cannot forge another signature.
+        if (token == null) {
+            signature.append("~");
+        } else {
+            signature.append(token.length()).append(':').append(token);
+        }
+    }
+
+    private String valueKind(Object value) {
+        return switch (value) {
+            case null -> "null";
+            case Boolean ignored -> "bool";
+            case Number ignored -> "num";
+            case String ignored -> "str";
+            case Map<?, ?> ignored -> "doc";
+            case Collection<?> collection ->
+                    "list<"
+                            + String.join(
+                            ",", collection.stream().map(this::valueKind).distinct().sorted().toList())
+                            + ">";
+            default -> value.getClass().getName();
         };
     }
 
@@ -409,16 +910,18 @@ public class DynamicQueryService {
         return new FilterLeafNode(normalizeField(rule.field()), operator, rule.value());
     }
 
-    private sealed interface FilterNode permits FilterLeafNode, FilterGroupNode {
+    record InMemoryQuery(
+            Predicate<Map<String, Object>> filter,
+            List<FilterPredicateCompiler.ValueLookup> lookups,
+            Sort sort,
+            int page,
+            int size) {
     }
 
-    private record FilterLeafNode(String field, String operator, Object value)
-            implements FilterNode {
+    private record BoundPlan(QueryPlan plan, Document filter) {
     }
 
-    private record FilterGroupNode(String operator, List<FilterNode> rules) implements FilterNode {
-        private FilterGroupNode {
-            rules = rules == null ? List.of() : List.copyOf(rules);
-        }
+    private record PreparedQuery(
+            BasicQuery query, QueryShape shape, int page, int size, DynamicQueryRequest request, String key) {
     }
 }
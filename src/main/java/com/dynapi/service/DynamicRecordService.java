@@ -7,15 +7,15 @@ import com.dynapi.domain.validation.DynamicValidator;
 import com.dynapi.dto.FormRecordDto;
 import com.dynapi.dto.RecordMutationRequest;
 
-import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -25,56 +25,112 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class DynamicRecordService {
-    private static final Set<String> RESERVED_FIELDS =
-            Set.of("_id", "_class", "deleted", "deletedAt", "deletedBy");
-
     private final MongoTemplate mongoTemplate;
     private final SchemaLifecycleService schemaLifecycleService;
     private final DynamicValidator dynamicValidator;
     private final UniqueFieldConstraintService uniqueFieldConstraintService;
+    private final RecordCache recordCache;
+    private final EntityWriteGenerations writeGenerations;
+    private final RecordCodecs recordCodecs;
+
+    /**
+     * Reads an active record by id, served from the near-cache when possible. Only entities with a
+     * published schema can be read.
+     */
+    public CachedRecord get(String entity, String id) {
+        CachedRecord cached = recordCache.get(entity, id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = recordCache.generation();
+        RecordCodec codec = recordCodecs.forSchema(loadPublishedSchema(entity));
+        Map<String, Object> existing = loadActiveRecord(entity, id);
+        String etag = RecordCache.etag(existing);
+        CachedRecord record = new CachedRecord(toRecordDto(codec.decode(existing)), etag);
+        recordCache.put(entity, id, record, generation);
+        return record;
+    }
 
     public FormRecordDto patch(String entity, String id, RecordMutationRequest request, Locale locale) {
         Map<String, Object> existing = loadActiveRecord(entity, id);
-        Map<String, Object> patchData = sanitizeInput(request.data());
-        Map<String, Object> merged = deepMerge(extractData(existing), patchData);
-        List<FieldDefinition> schema = loadPublishedSchema(entity);
+        Map<String, Object> patchData = checkInput(request.data());
+        SchemaVersion published = payloadOrPublishedSchema(entity, patchData);
+        RecordCodec codec = recordCodecs.forSchema(published);
+        codec.decode(existing);
+        Map<String, Object> merged = deepMerge(RecordDocuments.data(existing), patchData);
+        List<FieldDefinition> schema = published.getFields();
 
         dynamicValidator.validate(merged, schema, locale);
         uniqueFieldConstraintService.validateForUpdate(entity, existing.get("_id"), merged, schema);
 
-        Map<String, Object> saved = saveRecord(entity, existing.get("_id"), merged);
+        Map<String, Object> saved = saveRecord(entity, existing, merged, codec);
+        invalidate(entity, id, existing);
         return toRecordDto(saved);
     }
 
     public FormRecordDto replace(String entity, String id, RecordMutationRequest request, Locale locale) {
         Map<String, Object> existing = loadActiveRecord(entity, id);
-        Map<String, Object> replacement = sanitizeInput(request.data());
-        List<FieldDefinition> schema = loadPublishedSchema(entity);
+        Map<String, Object> replacement = checkInput(request.data());
+        SchemaVersion published = payloadOrPublishedSchema(entity, replacement);
+        RecordCodec codec = recordCodecs.forSchema(published);
+        List<FieldDefinition> schema = published.getFields();
 
         dynamicValidator.validate(replacement, schema, locale);
         uniqueFieldConstraintService.validateForUpdate(
                 entity, existing.get("_id"), replacement, schema);
 
-        Map<String, Object> saved = saveRecord(entity, existing.get("_id"), replacement);
+        Map<String, Object> saved = saveRecord(entity, existing, replacement, codec);
+        invalidate(entity, id, existing);
         return toRecordDto(saved);
     }
 
+    /**
+     * The published schema that request payloads for {@code entity} are read against, or null when
+     * the entity has none.
+     */
+    public SchemaVersion payloadSchema(String entity) {
+        if (entity == null || entity.isBlank()) {
+            return null;
+        }
+        try {
+            return loadPublishedSchema(entity);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
     public void softDelete(String entity, String id) {
         Map<String, Object> existing = loadActiveRecord(entity, id);
+        Date now = new Date();
         existing.put("deleted", true);
-        existing.put("deletedAt", LocalDateTime.now().toString());
+        existing.put("deletedAt", now);
+        existing.put(RecordDocuments.UPDATED_AT, now);
 
         mongoTemplate.save(existing, entity);
+        invalidate(entity, id, existing);
     }
 
-    private Map<String, Object> saveRecord(String entity, Object id, Map<String, Object> data) {
-        Map<String, Object> document = new LinkedHashMap<>(data);
-        document.put("_id", id);
-        document.remove("_class");
-        document.remove("deleted");
-        document.remove("deletedAt");
-        document.remove("deletedBy");
-        return mongoTemplate.save(document, entity);
+    private void invalidate(String entity, String id, Map<String, Object> existing) {
+        writeGenerations.bump(entity);
+        recordCache.invalidate(entity, id);
+        String storedId = String.valueOf(existing.get("_id"));
+        if (!storedId.equals(id)) {
+            recordCache.invalidate(entity, storedId);
+        }
+    }
+
+    private Map<String, Object> saveRecord(
+            String entity, Map<String, Object> existing, Map<String, Object> data, RecordCodec codec) {
+        // System fields are rejected in payloads and stripped from the stored data merged with them.
+        Document document = codec.encode(data);
+        document.put("_id", existing.get("_id"));
+        if (existing.get(RecordDocuments.CREATED_AT) != null) {
+            document.put(RecordDocuments.CREATED_AT, existing.get(RecordDocuments.CREATED_AT));
+        }
+        document.put(RecordDocuments.UPDATED_AT, new Date());
+        document.put(RecordDocuments.SCHEMA_VERSION, codec.version());
+        return codec.decode(mongoTemplate.save(document, entity));
     }
 
     private Map<String, Object> loadActiveRecord(String entity, String id) {
@@ -82,7 +138,7 @@ public class DynamicRecordService {
         query.addCriteria(buildIdCriteria(id));
         query.addCriteria(Criteria.where("deleted").ne(true));
 
-        Map<String, Object> existing = mongoTemplate.findOne(query, Map.class, entity);
+        Map<String, Object> existing = mongoTemplate.findOne(query, Document.class, entity);
         if (existing == null) {
             throw new EntityNotFoundException(
                     "Record not found for entity '" + entity + "' and id '" + id + "'");
@@ -101,61 +157,55 @@ public class DynamicRecordService {
                 .orOperator(Criteria.where("_id").is(new ObjectId(id)), Criteria.where("_id").is(id));
     }
 
-    private List<FieldDefinition> loadPublishedSchema(String entity) {
+    private SchemaVersion payloadOrPublishedSchema(String entity, Map<String, Object> data) {
+        SchemaVersion ingested = IngestedDocument.schemaFor(entity, data);
+        return ingested == null ? loadPublishedSchema(entity) : ingested;
+    }
+
+    private SchemaVersion loadPublishedSchema(String entity) {
         SchemaVersion published = schemaLifecycleService.latestPublished(entity);
         List<FieldDefinition> schema = published.getFields();
         if (schema == null || schema.isEmpty()) {
             throw new IllegalArgumentException("Published schema has no fields for entity: " + entity);
         }
-        return schema;
+        return published;
     }
 
-    private Map<String, Object> sanitizeInput(Map<String, Object> data) {
+    /**
+     * Rejects blank and reserved field names and non-string nested keys. The data is checked in
+     * place, not copied: it is either encoded into a new document or already is one.
+     */
+    private Map<String, Object> checkInput(Map<String, Object> data) {
         if (data == null) {
             throw new IllegalArgumentException("Record data must not be null");
         }
 
-        Map<String, Object> sanitized = new LinkedHashMap<>();
         for (Map.Entry<String, Object> entry : data.entrySet()) {
             String key = entry.getKey();
             if (key == null || key.isBlank()) {
                 throw new IllegalArgumentException("Record field name must not be blank");
             }
-            if (RESERVED_FIELDS.contains(key)) {
+            if (RecordDocuments.SYSTEM_FIELDS.contains(key)) {
                 throw new IllegalArgumentException("Reserved field is not allowed in payload: " + key);
             }
-            sanitized.put(key, sanitizeValue(entry.getValue()));
+            if (!(data instanceof Document)) {
+                checkValue(entry.getValue());
+            }
         }
-        return sanitized;
+        return data;
     }
 
-    private Object sanitizeValue(Object value) {
+    private void checkValue(Object value) {
         if (value instanceof Map<?, ?> mapValue) {
-            Map<String, Object> converted = new LinkedHashMap<>();
             for (Map.Entry<?, ?> entry : mapValue.entrySet()) {
-                if (!(entry.getKey() instanceof String key)) {
+                if (!(entry.getKey() instanceof String)) {
                     throw new IllegalArgumentException("Nested object keys must be strings");
                 }
-                converted.put(key, sanitizeValue(entry.getValue()));
+                checkValue(entry.getValue());
             }
-            return converted;
+        } else if (value instanceof Collection<?> collectionValue) {
+            collectionValue.forEach(this::checkValue);
         }
-
-        if (value instanceof Collection<?> collectionValue) {
-            return collectionValue.stream().map(this::sanitizeValue).toList();
-        }
-
-        return value;
-    }
-
-    private Map<String, Object> extractData(Map<String, Object> document) {
-        Map<String, Object> data = new LinkedHashMap<>(document);
-        data.remove("_id");
-        data.remove("_class");
-        data.remove("deleted");
-        data.remove("deletedAt");
-        data.remove("deletedBy");
-        return data;
     }
 
     private Map<String, Object> deepMerge(Map<String, Object> base, Map<String, Object> patch) {
@@ -187,8 +237,6 @@ public class DynamicRecordService {
     }
 
     private FormRecordDto toRecordDto(Map<String, Object> document) {
-        String id = document.get("_id") == null ? null : document.get("_id").toString();
-        Map<String, Object> data = extractData(document);
-        return new FormRecordDto(id, data);
+        return RecordDocuments.toDto(document);
     }
 }
@@ -0,0 +1,25 @@
+package com.dynapi.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-entity counter bumped after every write to the entity's records. Caches include the current
+ * generation in their keys, so entries written before a change stop matching immediately.
+ */
+@Component
+public class EntityWriteGenerations {
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public long current(String entity) {
+        AtomicLong generation = generations.get(entity);
+        return generation == null ? 0 : generation.get();
+    }
+
+    public void bump(String entity) {
+        generations.computeIfAbsent(entity, ignored -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,59 @@
+package com.dynapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+
+/**
+ * Stages and indexes of the winning plan in an {@code explain()} result. Handles both the classic
+ * plan tree and the slot-based engine output, which nests it under {@code queryPlan}.
+ */
+record ExplainPlan(List<String> stages, List<String> indexes) {
+
+    static ExplainPlan of(Document explain) {
+        Document queryPlanner = explain == null ? null : explain.get("queryPlanner", Document.class);
+        Document winningPlan =
+                queryPlanner == null ? null : queryPlanner.get("winningPlan", Document.class);
+        if (winningPlan != null && winningPlan.get("queryPlan") instanceof Document queryPlan) {
+            winningPlan = queryPlan;
+        }
+
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        collect(winningPlan, stages, indexes);
+        return new ExplainPlan(List.copyOf(stages), List.copyOf(indexes));
+    }
+
+    boolean collectionScan() {
+        return stages.contains("COLLSCAN");
+    }
+
+    boolean inMemorySort() {
+        return stages.contains("SORT");
+    }
+
+    private static void collect(Document stage, List<String> stages, List<String> indexes) {
+        if (stage == null) {
+            return;
+        }
+        String name = stage.getString("stage");
+        if (name != null) {
+            stages.add(name);
+        }
+        String indexName = stage.getString("indexName");
+        if (indexName != null && !indexes.contains(indexName)) {
+            indexes.add(indexName);
+        }
+        if (stage.get("inputStage") instanceof Document inputStage) {
+            collect(inputStage, stages, indexes);
+        }
+        if (stage.get("inputStages") instanceof List<?> inputStages) {
+            for (Object inputStage : inputStages) {
+                if (inputStage instanceof Document document) {
+                    collect(document, stages, indexes);
+                }
+            }
+        }
+    }
+}
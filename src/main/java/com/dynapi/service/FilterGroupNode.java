@@ -0,0 +1,9 @@
+package com.dynapi.service;
+
+import java.util.List;
+
+record FilterGroupNode(String operator, List<FilterNode> rules) implements FilterNode {
+    FilterGroupNode {
+        rules = rules == null ? List.of() : List.copyOf(rules);
+    }
+}
@@ -0,0 +1,4 @@
+package com.dynapi.service;
+
+record FilterLeafNode(String field, String operator, Object value) implements FilterNode {
+}
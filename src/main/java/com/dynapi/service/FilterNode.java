@@ -0,0 +1,8 @@
+package com.dynapi.service;
+
+/**
+ * Normalized filter tree built from {@link com.dynapi.dto.FilterRule} input. Operators are
+ * lower-cased and field paths trimmed before a node is created.
+ */
+sealed interface FilterNode permits FilterLeafNode, FilterGroupNode, FilterRangeNode {
+}
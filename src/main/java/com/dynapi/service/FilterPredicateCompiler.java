@@ -0,0 +1,415 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.validation.DateValues;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles a validated filter tree into a {@link Predicate} over a record's data, for evaluating
+ * filters in memory with the same results Mongo gives for the query. Everything that does not
+ * depend on the record is done once: paths are split, {@code in}/{@code nin} lists become hash
+ * sets, regexes are compiled, and each field's {@link FieldType} picks the comparison up front.
+ *
+ * <p>Mongo semantics that are reproduced:
+ *
+ * <ul>
+ *   <li>a path through an array is matched against every document in it, a numeric segment also
+ *       selects the array element at that index;
+ *   <li>a value on an array matches the array itself or any of its elements;
+ *   <li>a missing path equals {@code null}, so {@code eq null} and {@code in [null]} match it, and
+ *       {@code ne}/{@code nin} match it unless they exclude {@code null};
+ *   <li>{@code ne}, {@code nin} and {@code exists false} hold only when no reachable value matches
+ *       the positive form;
+ *   <li>numbers compare by value across integer and floating point types;
+ *   <li>ordering operators only match values of the operand's kind (no cross-type ordering);
+ *   <li>operands of DATE fields are parsed into dates and only match stored dates.
+ * </ul>
+ *
+ * Embedded documents compare with {@link Map#equals}, which unlike Mongo ignores field order.
+ */
+final class FilterPredicateCompiler {
+    private static final Object MISSING = new Object();
+
+    private FilterPredicateCompiler() {
+    }
+
+    /**
+     * Compiles the implicit AND of {@code filters}. Paths absent from {@code fieldTypes} compare
+     * by the operand's own type.
+     */
+    static Predicate<Map<String, Object>> compile(
+            List<FilterNode> filters, Map<String, FieldType> fieldTypes) {
+        if (filters == null || filters.isEmpty()) {
+            return data -> true;
+        }
+        return and(filters.stream().map(filter -> compile(filter, fieldTypes)).toList());
+    }
+
+    /**
+     * The {@code eq} and {@code in} rules of the implicit AND of {@code filters} whose operands
+     * are non-null scalars; a record can only match when one of the operands is among the values
+     * its path reaches.
+     */
+    static List<ValueLookup> lookups(List<FilterNode> filters, Map<String, FieldType> fieldTypes) {
+        List<ValueLookup> lookups = new ArrayList<>();
+        if (filters != null) {
+            for (FilterNode filter : filters) {
+                addLookups(filter, fieldTypes, lookups);
+            }
+        }
+        return lookups;
+    }
+
+    private static void addLookups(
+            FilterNode node, Map<String, FieldType> fieldTypes, List<ValueLookup> lookups) {
+        if (node instanceof FilterGroupNode groupNode && "and".equals(groupNode.operator())) {
+            for (FilterNode rule : groupNode.rules()) {
+                addLookups(rule, fieldTypes, lookups);
+            }
+            return;
+        }
+        if (!(node instanceof FilterLeafNode leafNode)) {
+            return;
+        }
+        FieldType fieldType = fieldTypes.get(leafNode.field());
+        Object operand =
+                fieldType == FieldType.DATE ? dateOperand(leafNode.value()) : leafNode.value();
+        List<Object> operands =
+                switch (leafNode.operator()) {
+                    case "eq" -> Collections.singletonList(operand);
+                    case "in" -> operand instanceof Collection<?> collection ? new ArrayList<>(collection) : null;
+                    default -> null;
+                };
+        if (operands == null
+                || operands.isEmpty()
+                || !operands.stream().allMatch(FilterPredicateCompiler::isScalar)) {
+            return;
+        }
+        Set<Object> values = new HashSet<>();
+        for (Object item : operands) {
+            values.add(canonical(item, fieldType));
+        }
+        lookups.add(new ValueLookup(leafNode.field(), fieldType, Set.copyOf(values)));
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof String
+                || value instanceof Number
+                || value instanceof Boolean
+                || value instanceof Date;
+    }
+
+    private static Predicate<Map<String, Object>> compile(
+            FilterNode node, Map<String, FieldType> fieldTypes) {
+        return switch (node) {
+            case FilterGroupNode groupNode -> {
+                List<Predicate<Map<String, Object>>> rules =
+                        groupNode.rules().stream().map(rule -> compile(rule, fieldTypes)).toList();
+                yield switch (groupNode.operator()) {
+                    case "and" -> and(rules);
+                    case "or" -> or(rules);
+                    case "not" -> rules.get(0).negate();
+                    default -> throw new IllegalArgumentException(
+                            "Unsupported combinator operator: " + groupNode.operator());
+                };
+            }
+            case FilterLeafNode leafNode ->
+                    leaf(
+                            leafNode.field(),
+                            leafNode.operator(),
+                            leafNode.value(),
+                            fieldTypes.get(leafNode.field()));
+            case FilterRangeNode rangeNode -> {
+                FieldType fieldType = fieldTypes.get(rangeNode.field());
+                // Each bound may be met by a different array element, as in Mongo.
+                List<Predicate<Map<String, Object>>> bounds = new ArrayList<>();
+                if (rangeNode.lowerOperator() != null) {
+                    bounds.add(
+                            leaf(
+                                    rangeNode.field(),
+                                    rangeNode.lowerOperator(),
+                                    rangeNode.lowerValue(),
+                                    fieldType));
+                }
+                if (rangeNode.upperOperator() != null) {
+                    bounds.add(
+                            leaf(
+                                    rangeNode.field(),
+                                    rangeNode.upperOperator(),
+                                    rangeNode.upperValue(),
+                                    fieldType));
+                }
+                yield and(bounds);
+            }
+        };
+    }
+
+    private static Predicate<Map<String, Object>> leaf(
+            String field, String operator, Object rawOperand, FieldType fieldType) {
+        String[] path = field.split("\\.");
+        Object operand = fieldType == FieldType.DATE ? dateOperand(rawOperand) : rawOperand;
+        return switch (operator) {
+            case "eq" -> any(path, equalTo(operand, fieldType));
+            case "ne" -> any(path, equalTo(operand, fieldType)).negate();
+            case "in" -> any(path, memberOf(operand, fieldType));
+            case "nin" -> any(path, memberOf(operand, fieldType)).negate();
+            case "exists" -> {
+                Predicate<Map<String, Object>> present = any(path, value -> value != MISSING);
+                yield Boolean.TRUE.equals(operand) ? present : present.negate();
+            }
+            case "regex" -> {
+                Pattern pattern = Pattern.compile((String) operand);
+                yield any(path, value -> value instanceof String text && pattern.matcher(text).find());
+            }
+            case "gt" -> any(path, ordered(operand, fieldType, order -> order > 0));
+            case "gte" -> any(path, ordered(operand, fieldType, order -> order >= 0));
+            case "lt" -> any(path, ordered(operand, fieldType, order -> order < 0));
+            case "lte" -> any(path, ordered(operand, fieldType, order -> order <= 0));
+            default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+        };
+    }
+
+    private static Predicate<Object> equalTo(Object operand, FieldType fieldType) {
+        if (operand == null) {
+            return value -> value == MISSING || value == null;
+        }
+        Object expected = canonical(operand, fieldType);
+        return value -> value != MISSING && expected.equals(canonical(value, fieldType));
+    }
+
+    private static Predicate<Object> memberOf(Object operand, FieldType fieldType) {
+        Set<Object> members = new HashSet<>();
+        boolean matchesNull = false;
+        if (operand instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                if (item == null) {
+                    matchesNull = true;
+                } else {
+                    members.add(canonical(item, fieldType));
+                }
+            }
+        }
+        boolean includesNull = matchesNull;
+        return value ->
+                value == MISSING || value == null
+                        ? includesNull
+                        : members.contains(canonical(value, fieldType));
+    }
+
+    /**
+     * Applies {@code test} to the comparison with {@code operand} of values of the same kind;
+     * values of any other kind never satisfy a bound.
+     */
+    private static Predicate<Object> ordered(Object operand, FieldType fieldType, IntPredicate test) {
+        if (isNumeric(fieldType) && operand instanceof Number number) {
+            Object bound = canonical(number, fieldType);
+            return value -> value instanceof Number other && test.test(compareNumbers(other, bound));
+        }
+        if (operand instanceof String text) {
+            return value -> value instanceof String other && test.test(other.compareTo(text));
+        }
+        if (operand instanceof Boolean flag) {
+            return value -> value instanceof Boolean other && test.test(other.compareTo(flag));
+        }
+        if (operand instanceof Date date) {
+            return value -> value instanceof Date other && test.test(other.compareTo(date));
+        }
+        return value -> false;
+    }
+
+    /**
+     * DATE operands are date strings and compare as the dates they denote, like the stored
+     * values; a string that is not a date is left as it is.
+     */
+    private static Object dateOperand(Object operand) {
+        if (operand instanceof Collection<?> collection) {
+            List<Object> dates = new ArrayList<>(collection.size());
+            for (Object item : collection) {
+                dates.add(dateOperand(item));
+            }
+            return dates;
+        }
+        if (operand instanceof String text) {
+            Date date = DateValues.parse(text);
+            return date == null ? text : date;
+        }
+        return operand;
+    }
+
+    /**
+     * Calls {@code test} on every value {@code path} reaches in the record, stopping at the first
+     * match. Unreached paths are tested as {@link #MISSING}.
+     */
+    private static Predicate<Map<String, Object>> any(String[] path, Predicate<Object> test) {
+        return data -> any(data, path, 0, test);
+    }
+
+    private static boolean any(Object current, String[] path, int index, Predicate<Object> test) {
+        if (index == path.length) {
+            if (test.test(current)) {
+                return true;
+            }
+            if (current instanceof List<?> list) {
+                for (Object element : list) {
+                    if (test.test(element)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        String segment = path[index];
+        if (current instanceof Map<?, ?> map) {
+            Object next = map.get(segment);
+            if (next == null && !map.containsKey(segment)) {
+                return test.test(MISSING);
+            }
+            return any(next, path, index + 1, test);
+        }
+        if (current instanceof List<?> list) {
+            int position = arrayIndex(segment);
+            boolean reached = position >= 0 && position < list.size();
+            if (reached && any(list.get(position), path, index + 1, test)) {
+                return true;
+            }
+            for (Object element : list) {
+                if (element instanceof Map<?, ?>) {
+                    reached = true;
+                    if (any(element, path, index, test)) {
+                        return true;
+                    }
+                }
+            }
+            return !reached && test.test(MISSING);
+        }
+        return test.test(MISSING);
+    }
+
+    private static int arrayIndex(String segment) {
+        if (segment.isEmpty() || segment.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(segment);
+    }
+
+    /**
+     * Numbers of equal value share one representation: a {@code Long} when integral, otherwise a
+     * {@code Double}, so that equality and hash sets work across numeric types.
+     */
+    private static Object canonical(Object value, FieldType fieldType) {
+        if (!(value instanceof Number number) || !isNumeric(fieldType)) {
+            return value;
+        }
+        if (number instanceof Long
+                || number instanceof Integer
+                || number instanceof Short
+                || number instanceof Byte) {
+            return number.longValue();
+        }
+        if (number instanceof BigDecimal decimal) {
+            try {
+                return decimal.longValueExact();
+            } catch (ArithmeticException ex) {
+                return decimal.doubleValue();
+            }
+        }
+        double real = number.doubleValue();
+        if (real == Math.rint(real) && Math.abs(real) < 0x1p63) {
+            return (long) real;
+        }
+        return real;
+    }
+
+    /**
+     * Only STRING and DATE fields are known not to hold numbers; unknown paths are treated as
+     * possibly numeric.
+     */
+    private static boolean isNumeric(FieldType fieldType) {
+        return fieldType != FieldType.STRING && fieldType != FieldType.DATE;
+    }
+
+    private static int compareNumbers(Number value, Object bound) {
+        Object canonical = canonical(value, null);
+        if (canonical instanceof Long left && bound instanceof Long right) {
+            return Long.compare(left, right);
+        }
+        return Double.compare(((Number) canonical).doubleValue(), ((Number) bound).doubleValue());
+    }
+
+    private static Predicate<Map<String, Object>> and(List<Predicate<Map<String, Object>>> rules) {
+        if (rules.isEmpty()) {
+            return data -> true;
+        }
+        if (rules.size() == 1) {
+            return rules.get(0);
+        }
+        @SuppressWarnings("unchecked")
+        Predicate<Map<String, Object>>[] all = rules.toArray(new Predicate[0]);
+        return data -> {
+            for (Predicate<Map<String, Object>> rule : all) {
+                if (!rule.test(data)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<Map<String, Object>> or(List<Predicate<Map<String, Object>>> rules) {
+        if (rules.size() == 1) {
+            return rules.get(0);
+        }
+        @SuppressWarnings("unchecked")
+        Predicate<Map<String, Object>>[] any = rules.toArray(new Predicate[0]);
+        return data -> {
+            for (Predicate<Map<String, Object>> rule : any) {
+                if (rule.test(data)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Canonical operands of an {@code eq} or {@code in} rule on {@code field}, see
+     * {@link #lookups}.
+     */
+    record ValueLookup(String field, FieldType fieldType, Set<Object> values) {
+        /**
+         * The non-null values {@code field} reaches in {@code data}, canonicalized like the
+         * operands, so a record matching the rule is found under one of {@link #values()}.
+         */
+        Set<Object> reachable(Map<String, Object> data) {
+            Set<Object> reachable = new HashSet<>();
+            any(
+                    data,
+                    field.split("\\."),
+                    0,
+                    value -> {
+                        if (isScalar(value)) {
+                            reachable.add(canonical(value, fieldType));
+                        }
+                        return false;
+                    });
+            return reachable;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.dynapi.service;
+
+/**
+ * Lower and/or upper bound on one field, produced by {@link FilterTreeOptimizer} when several
+ * comparison rules of an AND group target the same path. A missing bound has a null operator.
+ */
+record FilterRangeNode(
+        String field, String lowerOperator, Object lowerValue, String upperOperator, Object upperValue)
+        implements FilterNode {
+}
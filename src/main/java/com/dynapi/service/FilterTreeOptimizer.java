@@ -0,0 +1,385 @@
+package com.dynapi.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites a validated filter tree into an equivalent, smaller one before it is translated to
+ * Mongo criteria:
+ *
+ * <ul>
+ *   <li>nested AND/OR groups are flattened into their parent when the operator matches;
+ *   <li>duplicate rules are removed;
+ *   <li>OR of {@code eq}/{@code in} on the same path becomes a single {@code in};
+ *   <li>{@code gt}/{@code gte}/{@code lt}/{@code lte} on the same path inside an AND become one
+ *       range predicate, keeping the tighter bound when numeric bounds overlap;
+ *   <li>NOT is pushed into leaves that have an exact complement and double negation is removed;
+ *   <li>always-true rules ({@code nin []}, {@code exists} true OR false on one path) are dropped.
+ * </ul>
+ *
+ * Rewrites never change which documents match, including documents where the path is missing.
+ * Values may be {@link QueryParameter}s; those are never compared, so bound-tightening and value
+ * de-duplication only apply to literal values. {@link #comparesValues} tells whether a
+ * parameterized tree would gain from optimizing it again once its values are bound.
+ */
+final class FilterTreeOptimizer {
+    private static final Set<String> LOWER_BOUND_OPERATORS = Set.of("gt", "gte");
+    private static final Set<String> UPPER_BOUND_OPERATORS = Set.of("lt", "lte");
+    private static final Map<String, String> COMPLEMENT_OPERATORS =
+            Map.of("eq", "ne", "ne", "eq", "in", "nin", "nin", "in");
+
+    private FilterTreeOptimizer() {
+    }
+
+    /**
+     * Optimizes the implicit AND of {@code filters}. An empty result matches every document.
+     */
+    static List<FilterNode> optimize(List<FilterNode> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return List.of();
+        }
+        FilterNode root = optimize(new FilterGroupNode("and", filters));
+        if (root == null) {
+            return List.of();
+        }
+        if (root instanceof FilterGroupNode groupNode && "and".equals(groupNode.operator())) {
+            return groupNode.rules();
+        }
+        return List.of(root);
+    }
+
+    /**
+     * Whether optimizing {@code filters} again with bound values could rewrite them further: an
+     * {@code in}/{@code nin} with parameter values may hold duplicates or a single value, and two
+     * rules on one path, or two groups of the same structure, inside one group may be duplicates
+     * or bounds to tighten.
+     */
+    static boolean comparesValues(List<FilterNode> filters) {
+        return comparesValues(new FilterGroupNode("and", filters));
+    }
+
+    private static boolean comparesValues(FilterNode node) {
+        return switch (node) {
+            case FilterLeafNode leafNode ->
+                    ("in".equals(leafNode.operator()) || "nin".equals(leafNode.operator()))
+                            && hasParameter(leafNode.value());
+            case FilterRangeNode ignored -> false;
+            case FilterGroupNode groupNode -> {
+                Set<String> structures = new LinkedHashSet<>();
+                for (FilterNode rule : groupNode.rules()) {
+                    if (!structures.add(structure(rule)) || comparesValues(rule)) {
+                        yield true;
+                    }
+                }
+                yield false;
+            }
+        };
+    }
+
+    private static boolean hasParameter(Object value) {
+        return value instanceof QueryParameter
+                || value instanceof Collection<?> values && values.stream().anyMatch(QueryParameter.class::isInstance);
+    }
+
+    /**
+     * The operators and paths of {@code node}, without its values and leaf operators.
+     */
+    private static String structure(FilterNode node) {
+        return switch (node) {
+            case FilterLeafNode leafNode -> leafNode.field();
+            case FilterRangeNode rangeNode -> rangeNode.field();
+            case FilterGroupNode groupNode ->
+                    groupNode.operator() + groupNode.rules().stream().map(FilterTreeOptimizer::structure).toList();
+        };
+    }
+
+    /**
+     * Returns the optimized node, or {@code null} when the node matches every document.
+     */
+    private static FilterNode optimize(FilterNode node) {
+        return switch (node) {
+            case FilterLeafNode leafNode -> optimizeLeaf(leafNode);
+            case FilterRangeNode rangeNode -> rangeNode;
+            case FilterGroupNode groupNode ->
+                    "not".equals(groupNode.operator()) ? optimizeNot(groupNode) : optimizeGroup(groupNode);
+        };
+    }
+
+    private static FilterNode optimizeLeaf(FilterLeafNode leafNode) {
+        if (!(leafNode.value() instanceof Collection<?> values)) {
+            return leafNode;
+        }
+        if ("nin".equals(leafNode.operator()) && values.isEmpty()) {
+            return null;
+        }
+        if ("in".equals(leafNode.operator()) || "nin".equals(leafNode.operator())) {
+            List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+            if (distinct.size() == 1 && isScalar(distinct.getFirst())) {
+                return new FilterLeafNode(
+                        leafNode.field(), "in".equals(leafNode.operator()) ? "eq" : "ne", distinct.getFirst());
+            }
+            if (distinct.size() != values.size()) {
+                return new FilterLeafNode(leafNode.field(), leafNode.operator(), distinct);
+            }
+        }
+        return leafNode;
+    }
+
+    private static FilterNode optimizeNot(FilterGroupNode groupNode) {
+        FilterNode child = optimize(groupNode.rules().getFirst());
+        if (child == null) {
+            // NOT of an always-true rule matches nothing; keep the original shape for Mongo.
+            return groupNode;
+        }
+        if (child instanceof FilterGroupNode nested && "not".equals(nested.operator())) {
+            return nested.rules().getFirst();
+        }
+        if (child instanceof FilterLeafNode leafNode) {
+            String complement = COMPLEMENT_OPERATORS.get(leafNode.operator());
+            if (complement != null) {
+                return new FilterLeafNode(leafNode.field(), complement, leafNode.value());
+            }
+            if ("exists".equals(leafNode.operator()) && leafNode.value() instanceof Boolean exists) {
+                return new FilterLeafNode(leafNode.field(), "exists", !exists);
+            }
+        }
+        return new FilterGroupNode("not", List.of(child));
+    }
+
+    private static FilterNode optimizeGroup(FilterGroupNode groupNode) {
+        String operator = groupNode.operator();
+        Set<FilterNode> children = new LinkedHashSet<>();
+        for (FilterNode rule : groupNode.rules()) {
+            FilterNode child = optimize(rule);
+            if (child == null) {
+                if ("or".equals(operator)) {
+                    return null;
+                }
+                continue;
+            }
+            if (child instanceof FilterGroupNode nested && operator.equals(nested.operator())) {
+                children.addAll(nested.rules());
+            } else {
+                children.add(child);
+            }
+        }
+
+        List<FilterNode> merged;
+        if ("or".equals(operator)) {
+            if (coversExistence(children)) {
+                return null;
+            }
+            merged = foldEqualities(new ArrayList<>(children));
+        } else {
+            merged = mergeRanges(new ArrayList<>(children));
+        }
+
+        if (merged.isEmpty()) {
+            return null;
+        }
+        if (merged.size() == 1) {
+            return merged.getFirst();
+        }
+        return new FilterGroupNode(operator, merged);
+    }
+
+    private static boolean coversExistence(Collection<FilterNode> children) {
+        Map<String, Set<Object>> existsValuesByField = new LinkedHashMap<>();
+        for (FilterNode child : children) {
+            if (child instanceof FilterLeafNode leafNode
+                    && "exists".equals(leafNode.operator())
+                    && leafNode.value() instanceof Boolean) {
+                existsValuesByField
+                        .computeIfAbsent(leafNode.field(), ignored -> new LinkedHashSet<>())
+                        .add(leafNode.value());
+            }
+        }
+        return existsValuesByField.values().stream().anyMatch(values -> values.size() == 2);
+    }
+
+    private static List<FilterNode> foldEqualities(List<FilterNode> children) {
+        Map<String, List<FilterLeafNode>> equalitiesByField = new LinkedHashMap<>();
+        for (FilterNode child : children) {
+            if (child instanceof FilterLeafNode leafNode && isFoldableEquality(leafNode)) {
+                equalitiesByField
+                        .computeIfAbsent(leafNode.field(), ignored -> new ArrayList<>())
+                        .add(leafNode);
+            }
+        }
+
+        List<FilterNode> result = new ArrayList<>();
+        Set<String> emitted = new LinkedHashSet<>();
+        for (FilterNode child : children) {
+            if (child instanceof FilterLeafNode leafNode
+                    && isFoldableEquality(leafNode)
+                    && equalitiesByField.get(leafNode.field()).size() > 1) {
+                if (emitted.add(leafNode.field())) {
+                    Set<Object> values = new LinkedHashSet<>();
+                    for (FilterLeafNode equality : equalitiesByField.get(leafNode.field())) {
+                        if (equality.value() instanceof Collection<?> collection) {
+                            values.addAll(collection);
+                        } else {
+                            values.add(equality.value());
+                        }
+                    }
+                    result.add(new FilterLeafNode(leafNode.field(), "in", new ArrayList<>(values)));
+                }
+                continue;
+            }
+            result.add(child);
+        }
+        return result;
+    }
+
+    private static boolean isFoldableEquality(FilterLeafNode leafNode) {
+        if ("eq".equals(leafNode.operator())) {
+            return isScalar(leafNode.value());
+        }
+        return "in".equals(leafNode.operator())
+                && (leafNode.value() instanceof Collection<?>
+                || leafNode.value() instanceof QueryParameter parameter && parameter.list());
+    }
+
+    private static List<FilterNode> mergeRanges(List<FilterNode> children) {
+        Map<String, RangeBuilder> rangesByField = new LinkedHashMap<>();
+        for (FilterNode child : children) {
+            switch (child) {
+                case FilterLeafNode leafNode when isBound(leafNode.operator()) ->
+                        rangesByField
+                                .computeIfAbsent(leafNode.field(), RangeBuilder::new)
+                                .add(leafNode.operator(), leafNode.value());
+                case FilterRangeNode rangeNode -> {
+                    RangeBuilder range = rangesByField.computeIfAbsent(rangeNode.field(), RangeBuilder::new);
+                    if (rangeNode.lowerOperator() != null) {
+                        range.add(rangeNode.lowerOperator(), rangeNode.lowerValue());
+                    }
+                    if (rangeNode.upperOperator() != null) {
+                        range.add(rangeNode.upperOperator(), rangeNode.upperValue());
+                    }
+                }
+                default -> {
+                    // Not a bound; kept as-is below.
+                }
+            }
+        }
+
+        List<FilterNode> result = new ArrayList<>();
+        Set<String> emitted = new LinkedHashSet<>();
+        for (FilterNode child : children) {
+            String field =
+                    switch (child) {
+                        case FilterLeafNode leafNode when isBound(leafNode.operator()) -> leafNode.field();
+                        case FilterRangeNode rangeNode -> rangeNode.field();
+                        default -> null;
+                    };
+            if (field == null) {
+                result.add(child);
+            } else if (emitted.add(field)) {
+                result.addAll(rangesByField.get(field).build());
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBound(String operator) {
+        return LOWER_BOUND_OPERATORS.contains(operator) || UPPER_BOUND_OPERATORS.contains(operator);
+    }
+
+    private static boolean isScalar(Object value) {
+        if (value == null) {
+            return true;
+        }
+        if (value instanceof QueryParameter parameter) {
+            return parameter.scalar();
+        }
+        return !(value instanceof Collection<?>)
+                && !(value instanceof Map<?, ?>)
+                && !value.getClass().isArray();
+    }
+
+    /**
+     * Collects the bounds of one path. Bounds that cannot be compared with the kept bound (for
+     * example two date strings) are emitted as separate leaves.
+     */
+    private static final class RangeBuilder {
+        private final String field;
+        private final List<FilterNode> leftovers = new ArrayList<>();
+        private String lowerOperator;
+        private Object lowerValue;
+        private String upperOperator;
+        private Object upperValue;
+        private int bounds;
+
+        private RangeBuilder(String field) {
+            this.field = field;
+        }
+
+        private void add(String operator, Object value) {
+            bounds++;
+            if (LOWER_BOUND_OPERATORS.contains(operator)) {
+                if (lowerOperator == null) {
+                    lowerOperator = operator;
+                    lowerValue = value;
+                    return;
+                }
+                Integer comparison = compare(value, lowerValue);
+                if (comparison == null) {
+                    leftovers.add(new FilterLeafNode(field, operator, value));
+                } else if (comparison > 0 || (comparison == 0 && "gt".equals(operator))) {
+                    lowerOperator = operator;
+                    lowerValue = value;
+                }
+                return;
+            }
+
+            if (upperOperator == null) {
+                upperOperator = operator;
+                upperValue = value;
+                return;
+            }
+            Integer comparison = compare(value, upperValue);
+            if (comparison == null) {
+                leftovers.add(new FilterLeafNode(field, operator, value));
+            } else if (comparison < 0 || (comparison == 0 && "lt".equals(operator))) {
+                upperOperator = operator;
+                upperValue = value;
+            }
+        }
+
+        private List<FilterNode> build() {
+            List<FilterNode> nodes = new ArrayList<>();
+            if (bounds == 1) {
+                nodes.add(
+                        lowerOperator != null
+                                ? new FilterLeafNode(field, lowerOperator, lowerValue)
+                                : new FilterLeafNode(field, upperOperator, upperValue));
+            } else if (lowerOperator != null && upperOperator != null) {
+                nodes.add(new FilterRangeNode(field, lowerOperator, lowerValue, upperOperator, upperValue));
+            } else if (lowerOperator != null) {
+                nodes.add(new FilterLeafNode(field, lowerOperator, lowerValue));
+            } else {
+                nodes.add(new FilterLeafNode(field, upperOperator, upperValue));
+            }
+            nodes.addAll(leftovers);
+            return nodes;
+        }
+
+        private static Integer compare(Object left, Object right) {
+            if (left instanceof Number leftNumber && right instanceof Number rightNumber) {
+                try {
+                    return new BigDecimal(leftNumber.toString())
+                            .compareTo(new BigDecimal(rightNumber.toString()));
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -7,11 +7,13 @@ import com.dynapi.dto.FormSubmissionRequest;
 import com.dynapi.repository.FieldGroupRepository;
 
 import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 import org.springframework.context.MessageSource;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,8 @@ public class FormSubmissionService {
     private final com.dynapi.domain.validation.DynamicValidator dynamicValidator;
     private final SchemaLifecycleService schemaLifecycleService;
     private final UniqueFieldConstraintService uniqueFieldConstraintService;
+    private final EntityWriteGenerations writeGenerations;
+    private final RecordCodecs recordCodecs;
 
     public void submitForm(FormSubmissionRequest request, Locale locale) {
         // 1. Load schema using group
@@ -35,7 +39,10 @@ public class FormSubmissionService {
         }
         FieldGroup group = groupOpt.get();
         // 2. Load latest published schema snapshot for this entity
-        SchemaVersion publishedSchema = schemaLifecycleService.latestPublished(group.getEntity());
+        SchemaVersion publishedSchema = IngestedDocument.schemaFor(group.getEntity(), request.data());
+        if (publishedSchema == null) {
+            publishedSchema = schemaLifecycleService.latestPublished(group.getEntity());
+        }
         List<FieldDefinition> schema = publishedSchema.getFields();
         if (schema == null || schema.isEmpty()) {
             throw new IllegalArgumentException(
@@ -46,7 +53,34 @@ public class FormSubmissionService {
         uniqueFieldConstraintService.validateForCreate(group.getEntity(), request.data(), schema);
         // 4. Save form data to collection by entity
         String collectionName = group.getEntity();
-        mongoTemplate.save(request.data(), collectionName);
+        RecordCodec codec = recordCodecs.forSchema(publishedSchema);
+        Document document = codec.encode(request.data());
+        Date now = new Date();
+        document.put(RecordDocuments.CREATED_AT, now);
+        document.put(RecordDocuments.UPDATED_AT, now);
+        document.put(RecordDocuments.SCHEMA_VERSION, codec.version());
+        mongoTemplate.save(document, collectionName);
+        writeGenerations.bump(collectionName);
+    }
+
+    /**
+     * The published schema that submissions to {@code groupIdOrName} are read against, or null when
+     * the group or its published schema does not exist.
+     */
+    public SchemaVersion payloadSchema(String groupIdOrName) {
+        if (groupIdOrName == null || groupIdOrName.isBlank()) {
+            return null;
+        }
+        Optional<FieldGroup> group = resolveGroup(groupIdOrName);
+        if (group.isEmpty()) {
+            return null;
+        }
+        try {
+            SchemaVersion published = schemaLifecycleService.latestPublished(group.get().getEntity());
+            return published.getFields() == null || published.getFields().isEmpty() ? null : published;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
     }
 
     private Optional<FieldGroup> resolveGroup(String groupIdOrName) {
@@ -0,0 +1,158 @@
+package com.dynapi.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Orders stored documents the way a Mongo {@code sort} does: values of different BSON types by
+ * type (null before numbers before strings, then embedded documents, arrays, ids, booleans and
+ * dates), an array by its smallest element ascending and its largest descending, and a missing
+ * path like {@code null}.
+ */
+final class InMemorySort {
+    private static final Object EMPTY_ARRAY = new Object();
+    private static final Comparator<Object> VALUES = InMemorySort::compareValues;
+
+    private InMemorySort() {
+    }
+
+    static Comparator<Map<String, Object>> comparator(Sort sort) {
+        Comparator<Map<String, Object>> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            String[] path = order.getProperty().split("\\.");
+            boolean ascending = order.isAscending();
+            Comparator<Map<String, Object>> byKey =
+                    Comparator.comparing(document -> sortKey(document, path, ascending), VALUES);
+            comparator = comparator.thenComparing(ascending ? byKey : byKey.reversed());
+        }
+        return comparator;
+    }
+
+    private static Object sortKey(Map<String, Object> document, String[] path, boolean ascending) {
+        List<Object> candidates = new ArrayList<>();
+        collect(document, path, 0, candidates);
+        Object key = candidates.getFirst();
+        for (Object candidate : candidates) {
+            int order = compareValues(candidate, key);
+            if (ascending ? order < 0 : order > 0) {
+                key = candidate;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Adds every value {@code path} reaches to {@code out}, elements of arrays at the end of the
+     * path individually, and {@code null} where it is not reached.
+     */
+    private static void collect(Object current, String[] path, int index, List<Object> out) {
+        if (index == path.length) {
+            if (current instanceof List<?> list) {
+                if (list.isEmpty()) {
+                    out.add(EMPTY_ARRAY);
+                } else {
+                    out.addAll(list);
+                }
+            } else {
+                out.add(current);
+            }
+            return;
+        }
+        if (current instanceof Map<?, ?> map) {
+            collect(map.get(path[index]), path, index + 1, out);
+            return;
+        }
+        if (current instanceof List<?> list) {
+            int size = out.size();
+            for (Object element : list) {
+                if (element instanceof Map<?, ?>) {
+                    collect(element, path, index, out);
+                }
+            }
+            if (out.size() > size) {
+                return;
+            }
+        }
+        out.add(null);
+    }
+
+    private static int compareValues(Object left, Object right) {
+        int rank = Integer.compare(rank(left), rank(right));
+        if (rank != 0) {
+            return rank;
+        }
+        return switch (left) {
+            case Number number -> compareNumbers(number, (Number) right);
+            case String text -> text.compareTo((String) right);
+            case Map<?, ?> map -> compareDocuments(map, (Map<?, ?>) right);
+            case List<?> list -> compareArrays(list, (List<?>) right);
+            case ObjectId id -> id.compareTo((ObjectId) right);
+            case Boolean flag -> flag.compareTo((Boolean) right);
+            case Date date -> date.compareTo((Date) right);
+            case null -> 0;
+            default -> left == EMPTY_ARRAY ? 0 : left.toString().compareTo(right.toString());
+        };
+    }
+
+    private static int rank(Object value) {
+        return switch (value) {
+            case null -> 1;
+            case Number ignored -> 2;
+            case String ignored -> 3;
+            case Map<?, ?> ignored -> 4;
+            case List<?> ignored -> 5;
+            case ObjectId ignored -> 7;
+            case Boolean ignored -> 8;
+            case Date ignored -> 9;
+            default -> value == EMPTY_ARRAY ? 0 : 10;
+        };
+    }
+
+    private static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        return Double.compare(left.doubleValue(), right.doubleValue());
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    /**
+     * Field by field in stored order, first by name and then by value; a prefix sorts first.
+     */
+    private static int compareDocuments(Map<?, ?> left, Map<?, ?> right) {
+        Iterator<? extends Map.Entry<?, ?>> leftFields = left.entrySet().iterator();
+        Iterator<? extends Map.Entry<?, ?>> rightFields = right.entrySet().iterator();
+        while (leftFields.hasNext() && rightFields.hasNext()) {
+            Map.Entry<?, ?> leftField = leftFields.next();
+            Map.Entry<?, ?> rightField = rightFields.next();
+            int order = String.valueOf(leftField.getKey()).compareTo(String.valueOf(rightField.getKey()));
+            if (order == 0) {
+                order = compareValues(leftField.getValue(), rightField.getValue());
+            }
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Boolean.compare(leftFields.hasNext(), rightFields.hasNext());
+    }
+
+    private static int compareArrays(List<?> left, List<?> right) {
+        for (int i = 0; i < Math.min(left.size(), right.size()); i++) {
+            int order = compareValues(left.get(i), right.get(i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(left.size(), right.size());
+    }
+}
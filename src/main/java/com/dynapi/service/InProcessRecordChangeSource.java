@@ -0,0 +1,28 @@
+package com.dynapi.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for change streams when Mongo runs without a replica set: only writes made through
+ * this instance are seen, as they are {@linkplain #publish published} after each save.
+ */
+final class InProcessRecordChangeSource implements RecordChangeSource {
+    private final Map<String, List<Consumer<Map<String, Object>>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public Watch watch(
+            String entity, Consumer<Map<String, Object>> listener, Consumer<Throwable> onError) {
+        listeners.computeIfAbsent(entity, ignored -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> listeners.getOrDefault(entity, List.of()).remove(listener);
+    }
+
+    void publish(String entity, Map<String, Object> document) {
+        for (Consumer<Map<String, Object>> listener : listeners.getOrDefault(entity, List.of())) {
+            listener.accept(document);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.domain.model.CompoundIndexDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.dto.IndexRecommendation;
+import com.dynapi.dto.QueryPlanVerdict;
+import com.dynapi.dto.SchemaIndexSyncResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns recorded query shapes into index recommendations. Keys follow the equality, sort, range
+ * rule; shapes whose latest explain found no problem, or that an existing index already serves,
+ * are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+public class IndexAdvisorService {
+    static final String ADVISOR_INDEX_PREFIX = "advisor_";
+
+    private static final Set<FieldType> INDEXABLE_TYPES =
+            Set.of(FieldType.STRING, FieldType.NUMBER, FieldType.BOOLEAN, FieldType.DATE);
+
+    private final QueryShapeStatsService queryShapeStatsService;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final SchemaIndexService schemaIndexService;
+    private final MongoTemplate mongoTemplate;
+    private final QueryStatsProperties properties;
+
+    public List<IndexRecommendation> recommend(String entity) {
+        Map<String, FieldType> fieldTypes =
+                SchemaPaths.fieldTypesByPath(schemaLifecycleService.latestPublished(entity).getFields());
+        List<IndexInfo> existingIndexes = mongoTemplate.indexOps(entity).getIndexInfo();
+
+        Map<List<Key>, Candidate> candidates = new LinkedHashMap<>();
+        for (QueryShapeStatsService.ShapeStats stats : queryShapeStatsService.trackedShapes(entity)) {
+            if (stats.count() < properties.getMinRecommendationCount()) {
+                continue;
+            }
+            QueryPlanVerdict verdict = stats.verdict();
+            if (verdict != null && verdict.flags().isEmpty()) {
+                continue;
+            }
+
+            List<Key> keys = indexKeys(stats.shape(), fieldTypes);
+            if (keys.isEmpty() || isServedByExistingIndex(keys, existingIndexes)) {
+                continue;
+            }
+
+            Candidate candidate = candidates.computeIfAbsent(keys, Candidate::new);
+            candidate.frequency += stats.count();
+            candidate.shapes.add(stats.shape().key());
+            candidate.reasons.addAll(verdict == null ? List.of("NOT_EXPLAINED") : verdict.flags());
+        }
+
+        return mergePrefixes(candidates.values()).stream()
+                .sorted(Comparator.comparingLong((Candidate candidate) -> candidate.frequency).reversed())
+                .map(Candidate::toDto)
+                .toList();
+    }
+
+    /**
+     * Publishes the current recommendations as compound indexes of a new schema version and syncs
+     * them. With {@code dryRun} only the resulting index plan is returned.
+     */
+    public SchemaIndexSyncResult apply(String entity, boolean dryRun) {
+        List<CompoundIndexDefinition> definitions =
+                recommend(entity).stream().map(this::toDefinition).toList();
+        if (dryRun) {
+            return schemaIndexService.syncIndexes(entity, true, definitions);
+        }
+        if (!definitions.isEmpty()) {
+            schemaLifecycleService.addCompoundIndexes(entity, definitions);
+        }
+        return schemaIndexService.syncIndexes(entity, false);
+    }
+
+    private List<Key> indexKeys(QueryShape shape, Map<String, FieldType> fieldTypes) {
+        List<Key> keys = new ArrayList<>();
+        for (String field : shape.equalityFields()) {
+            addKey(keys, field, Sort.Direction.ASC, fieldTypes);
+        }
+        for (QueryShape.SortField sortField : shape.sortFields()) {
+            addKey(keys, sortField.field(), sortField.direction(), fieldTypes);
+        }
+        for (String field : shape.rangeFields()) {
+            addKey(keys, field, Sort.Direction.ASC, fieldTypes);
+        }
+        return List.copyOf(keys);
+    }
+
+    private void addKey(
+            List<Key> keys, String field, Sort.Direction direction, Map<String, FieldType> fieldTypes) {
+        if (!SchemaPaths.ID_PATH.equals(field) && !INDEXABLE_TYPES.contains(fieldTypes.get(field))) {
+            return;
+        }
+        if (keys.stream().noneMatch(key -> key.field().equals(field))) {
+            keys.add(new Key(field, direction));
+        }
+    }
+
+    private boolean isServedByExistingIndex(List<Key> keys, List<IndexInfo> existingIndexes) {
+        if (existingIndexes == null) {
+            return false;
+        }
+        for (IndexInfo indexInfo : existingIndexes) {
+            List<IndexField> fields = indexInfo.getIndexFields();
+            if (indexInfo.getPartialFilterExpression() != null && !isManaged(indexInfo)) {
+                // Unknown partial filters may not match the query predicate.
+                continue;
+            }
+            if (fields == null
+                    || fields.size() < keys.size()
+                    || fields.stream().anyMatch(IndexField::isText)) {
+                continue;
+            }
+            boolean prefix = true;
+            for (int i = 0; i < keys.size() && prefix; i++) {
+                IndexField field = fields.get(i);
+                Key key = keys.get(i);
+                prefix =
+                        key.field().equals(field.getKey())
+                                && (keys.size() == 1 || key.direction() == field.getDirection());
+            }
+            if (prefix) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isManaged(IndexInfo indexInfo) {
+        return indexInfo.getName() != null
+                && indexInfo.getName().startsWith(SchemaIndexService.MANAGED_INDEX_PREFIX);
+    }
+
+    private List<Candidate> mergePrefixes(Iterable<Candidate> candidates) {
+        List<Candidate> ordered = new ArrayList<>();
+        candidates.forEach(ordered::add);
+        ordered.sort(Comparator.comparingInt((Candidate candidate) -> candidate.keys.size()).reversed());
+
+        List<Candidate> merged = new ArrayList<>();
+        for (Candidate candidate : ordered) {
+            Candidate covering =
+                    merged.stream()
+                            .filter(existing -> isPrefix(candidate.keys, existing.keys))
+                            .findFirst()
+                            .orElse(null);
+            if (covering == null) {
+                merged.add(candidate);
+            } else {
+                covering.frequency += candidate.frequency;
+                covering.shapes.addAll(candidate.shapes);
+                covering.reasons.addAll(candidate.reasons);
+            }
+        }
+        return merged;
+    }
+
+    private boolean isPrefix(List<Key> prefix, List<Key> keys) {
+        return prefix.size() <= keys.size() && keys.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private CompoundIndexDefinition toDefinition(IndexRecommendation recommendation) {
+        CompoundIndexDefinition definition = new CompoundIndexDefinition();
+        List<CompoundIndexDefinition.IndexKey> keys = new ArrayList<>();
+        for (String key : recommendation.keys()) {
+            int separator = key.lastIndexOf(':');
+            CompoundIndexDefinition.IndexKey indexKey = new CompoundIndexDefinition.IndexKey();
+            indexKey.setField(key.substring(0, separator));
+            indexKey.setDirection(key.substring(separator + 1));
+            keys.add(indexKey);
+        }
+        definition.setKeys(keys);
+        definition.setName(
+                ADVISOR_INDEX_PREFIX
+                        + keys.stream()
+                        .map(
+                                key ->
+                                        key.getField()
+                                                + ("DESC".equals(key.getDirection()) ? "_desc" : ""))
+                        .collect(Collectors.joining("_")));
+        return definition;
+    }
+
+    private record Key(String field, Sort.Direction direction) {
+    }
+
+    private static final class Candidate {
+        private final List<Key> keys;
+        private final Set<String> shapes = new TreeSet<>();
+        private final Set<String> reasons = new TreeSet<>();
+        private long frequency;
+
+        private Candidate(List<Key> keys) {
+            this.keys = keys;
+        }
+
+        private IndexRecommendation toDto() {
+            return new IndexRecommendation(
+                    keys.size() == 1 ? "SINGLE" : "COMPOUND",
+                    keys.stream().map(key -> key.field() + ":" + key.direction().name()).toList(),
+                    frequency,
+                    List.copyOf(shapes),
+                    String.join(",", reasons));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.model.SchemaVersion;
+
+import org.bson.Document;
+
+/**
+ * Record data read from a request body straight into its stored form by {@link RecordCodec#read}.
+ * It remembers the published schema it was read against so the write does not look it up, or
+ * encode the data, again.
+ */
+final class IngestedDocument extends Document {
+    private final transient RecordCodec codec;
+    private final transient SchemaVersion schema;
+
+    IngestedDocument(RecordCodec codec, SchemaVersion schema) {
+        this.codec = codec;
+        this.schema = schema;
+    }
+
+    RecordCodec codec() {
+        return codec;
+    }
+
+    SchemaVersion schema() {
+        return schema;
+    }
+
+    /**
+     * The schema {@code data} was read against when it was read for {@code entity}, otherwise null.
+     */
+    static SchemaVersion schemaFor(String entity, Object data) {
+        return data instanceof IngestedDocument ingested
+                        && entity != null
+                        && entity.equals(ingested.schema.getEntityName())
+                ? ingested.schema
+                : null;
+    }
+}
@@ -0,0 +1,278 @@
+package com.dynapi.service;
+
+import com.dynapi.config.MemoryResidentProperties;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+import com.dynapi.infrastructure.cache.BoundedLruCache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves queries of the entities listed in {@code dynapi.query.memory-resident.entities} from an
+ * immutable snapshot of their active records, with the validation, filter, sort and paging
+ * semantics of {@link DynamicQueryService}. A snapshot holds the records in {@code _id} order and
+ * keeps the orderings built for recent sorts, so repeated queries only filter and page. Queries
+ * with {@code eq} or {@code in} rules at the top level only filter the records found under their
+ * operands in a per-field value index, built on the first such lookup of a field; other queries
+ * scan every record.
+ *
+ * <p>A snapshot is replaced on the first query after a write to the entity, a publish of its
+ * schema, or {@code refreshInterval}. Queries with SEARCH, and entities with more than
+ * {@code maxRecords} active records, are left to Mongo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemoryResidentEntities {
+    private static final int MAX_ORDERINGS = 32;
+    private static final Comparator<Map<String, Object>> ID_ORDER =
+            InMemorySort.comparator(Sort.by(SchemaPaths.ID_PATH));
+
+    private final MongoTemplate mongoTemplate;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final DynamicQueryService dynamicQueryService;
+    private final EntityWriteGenerations writeGenerations;
+    private final MemoryResidentProperties properties;
+    private final RecordCodecs recordCodecs;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> loadLocks = new ConcurrentHashMap<>();
+
+    public boolean isEnabled(String entity) {
+        return properties.getEntities() != null && properties.getEntities().contains(entity);
+    }
+
+    /**
+     * Answers {@code request} from the entity's snapshot, loading it first if it is missing or
+     * stale. Returns null when the query has to run in Mongo instead.
+     */
+    public PaginatedResponse<FormRecordDto> query(String entity, DynamicQueryRequest request) {
+        Snapshot snapshot = snapshot(entity);
+        if (snapshot.records() == null) {
+            return null;
+        }
+        DynamicQueryService.InMemoryQuery query =
+                dynamicQueryService.inMemoryQuery(entity, snapshot.schema(), request);
+        if (query == null) {
+            return null;
+        }
+
+        long skip = (long) query.page() * query.size();
+        long total = 0;
+        List<FormRecordDto> content = new ArrayList<>();
+        for (Entry entry : snapshot.candidates(query.lookups(), query.sort())) {
+            if (!query.filter().test(entry.data())) {
+                continue;
+            }
+            if (total >= skip && content.size() < query.size()) {
+                content.add(entry.dto());
+            }
+            total++;
+        }
+        return new PaginatedResponse<>(
+                query.page(),
+                query.size(),
+                total,
+                content,
+                request == null ? null : request.sortBy(),
+                request == null ? null : request.sortDirection());
+    }
+
+    /**
+     * Drops the snapshot of an entity whose schema was saved, so the next query validates
+     * against the new version.
+     */
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        if (event.getSource() instanceof SchemaVersion schema && schema.getEntityName() != null) {
+            snapshots.remove(schema.getEntityName());
+        }
+    }
+
+    private Snapshot snapshot(String entity) {
+        Snapshot snapshot = snapshots.get(entity);
+        if (snapshot != null && isFresh(entity, snapshot)) {
+            return snapshot;
+        }
+        // Not synchronized: a virtual thread blocked on the Mongo read must not pin its carrier.
+        ReentrantLock lock = loadLocks.computeIfAbsent(entity, ignored -> new ReentrantLock());
+        lock.lock();
+        try {
+            snapshot = snapshots.get(entity);
+            if (snapshot == null || !isFresh(entity, snapshot)) {
+                snapshot = load(entity);
+                snapshots.put(entity, snapshot);
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isFresh(String entity, Snapshot snapshot) {
+        return snapshot.generation() == writeGenerations.current(entity)
+                && System.nanoTime() - snapshot.loadedAtNanos() < properties.getRefreshInterval().toNanos();
+    }
+
+    /**
+     * Reads the generation before the records, so a write that lands during the load makes the
+     * snapshot stale right away.
+     */
+    private Snapshot load(String entity) {
+        long generation = writeGenerations.current(entity);
+        long loadedAt = System.nanoTime();
+        SchemaVersion schema = schemaLifecycleService.latestPublished(entity);
+        int maxRecords = properties.getMaxRecords();
+        Query active = new Query(Criteria.where("deleted").ne(true)).limit(maxRecords + 1);
+        List<Document> documents = mongoTemplate.find(active, Document.class, entity);
+        if (documents.size() > maxRecords) {
+            log.warn(
+                    "Entity '{}' has more than {} active records and is queried in Mongo",
+                    entity,
+                    maxRecords);
+            return new Snapshot(schema, generation, loadedAt, null);
+        }
+
+        RecordCodec codec = recordCodecs.forSchema(schema);
+        List<Map<String, Object>> decoded = documents.stream().map(codec::decode).sorted(ID_ORDER).toList();
+        List<Entry> records = new ArrayList<>(decoded.size());
+        for (Map<String, Object> document : decoded) {
+            records.add(
+                    new Entry(
+                            records.size(),
+                            document,
+                            RecordDocuments.data(document),
+                            RecordDocuments.toDto(document)));
+        }
+        log.debug("Loaded {} records of entity '{}' into memory", records.size(), entity);
+        return new Snapshot(schema, generation, loadedAt, records);
+    }
+
+    private record Entry(
+            int position, Map<String, Object> document, Map<String, Object> data, FormRecordDto dto) {
+    }
+
+    /**
+     * Records in the order of a sort, with the rank of each record by its {@code _id} position.
+     */
+    private record Ordering(List<Entry> entries, int[] ranks) {
+    }
+
+    /**
+     * Records are null when the entity is too large to hold. Value indexes map, per field, the
+     * canonical values of {@link FilterPredicateCompiler.ValueLookup#reachable} to the records
+     * reaching them, in {@code _id} order.
+     */
+    private record Snapshot(
+            SchemaVersion schema,
+            long generation,
+            long loadedAtNanos,
+            List<Entry> records,
+            BoundedLruCache<Sort, Ordering> orderings,
+            Map<String, Map<Object, List<Entry>>> valueIndexes) {
+        private Snapshot(SchemaVersion schema, long generation, long loadedAtNanos, List<Entry> records) {
+            this(
+                    schema,
+                    generation,
+                    loadedAtNanos,
+                    records,
+                    new BoundedLruCache<>(MAX_ORDERINGS),
+                    new ConcurrentHashMap<>());
+        }
+
+        /**
+         * The records that may match a query with {@code lookups}, in {@code sort} order: those
+         * found under the operands of the most selective lookup, or every record without one.
+         */
+        private List<Entry> candidates(List<FilterPredicateCompiler.ValueLookup> lookups, Sort sort) {
+            List<List<Entry>> selected = null;
+            int selectedSize = Integer.MAX_VALUE;
+            for (FilterPredicateCompiler.ValueLookup lookup : lookups) {
+                Map<Object, List<Entry>> index = valueIndex(lookup);
+                List<List<Entry>> postings = new ArrayList<>();
+                int size = 0;
+                for (Object value : lookup.values()) {
+                    List<Entry> posting = index.get(value);
+                    if (posting != null) {
+                        postings.add(posting);
+                        size += posting.size();
+                    }
+                }
+                if (size < selectedSize) {
+                    selected = postings;
+                    selectedSize = size;
+                }
+            }
+            if (selected == null) {
+                return ordered(sort).entries();
+            }
+
+            List<Entry> candidates;
+            if (selected.size() == 1) {
+                candidates = selected.getFirst();
+            } else {
+                // A record reaching several operands is listed once.
+                BitSet positions = new BitSet(records.size());
+                selected.forEach(posting -> posting.forEach(entry -> positions.set(entry.position())));
+                candidates = positions.stream().mapToObj(records::get).toList();
+            }
+            if (sort.isUnsorted() || candidates.size() < 2) {
+                return candidates;
+            }
+            int[] ranks = ordered(sort).ranks();
+            return candidates.stream().sorted(Comparator.comparingInt(entry -> ranks[entry.position()])).toList();
+        }
+
+        private Map<Object, List<Entry>> valueIndex(FilterPredicateCompiler.ValueLookup lookup) {
+            return valueIndexes.computeIfAbsent(
+                    lookup.field(),
+                    field -> {
+                        Map<Object, List<Entry>> index = new HashMap<>();
+                        for (Entry entry : records) {
+                            for (Object value : lookup.reachable(entry.data())) {
+                                index.computeIfAbsent(value, ignored -> new ArrayList<>()).add(entry);
+                            }
+                        }
+                        return index;
+                    });
+        }
+
+        private Ordering ordered(Sort sort) {
+            Ordering ordering = orderings.get(sort);
+            if (ordering == null) {
+                List<Entry> entries = records;
+                if (sort.isSorted()) {
+                    Comparator<Map<String, Object>> comparator = InMemorySort.comparator(sort);
+                    entries = records.stream().sorted(Comparator.comparing(Entry::document, comparator)).toList();
+                }
+                int[] ranks = new int[entries.size()];
+                for (int rank = 0; rank < ranks.length; rank++) {
+                    ranks[entries.get(rank).position()] = rank;
+                }
+                ordering = new Ordering(entries, ranks);
+                orderings.put(sort, ordering);
+            }
+            return ordering;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dynapi.service;
+
+import com.dynapi.service.PayloadLimiter.PayloadLimits;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The limits of one request body while it is read. Bytes are counted as the parser pulls them
+ * from the request, so an oversized body is rejected after at most one read buffer beyond the
+ * limit, never after it was read completely.
+ */
+final class PayloadBudget {
+    private final PayloadLimiter limiter;
+    private String entity;
+    private PayloadLimits limits;
+    /**
+     * Whether rejections are counted for the entity: only once it is known to exist or has limits
+     * of its own.
+     */
+    private boolean counted;
+    private long bytesRead;
+
+    PayloadBudget(PayloadLimiter limiter, String entity) {
+        this.limiter = limiter;
+        this.entity = entity;
+        this.limits = limiter.limitsFor(entity);
+        this.counted = limiter.hasOwnLimits(entity);
+    }
+
+    /**
+     * Applies the limits of {@code entity}, which has a published schema, from now on.
+     */
+    void limitTo(String entity) {
+        this.entity = entity;
+        this.limits = limiter.limitsFor(entity);
+        this.counted = true;
+        checkBytes(bytesRead);
+    }
+
+    /**
+     * Rejects a declared content length over the limit before anything is read. Negative lengths
+     * are unknown.
+     */
+    void checkBytes(long bytes) {
+        if (bytes > limits.maxBytes()) {
+            throw limiter.reject(
+                    counted ? entity : null,
+                    PayloadLimiter.MAX_BYTES,
+                    limits.maxBytes(),
+                    "Request body exceeds " + limits.maxBytes() + " bytes");
+        }
+    }
+
+    void checkDepth(int depth) {
+        if (depth > limits.maxDepth()) {
+            throw limiter.reject(
+                    counted ? entity : null,
+                    PayloadLimiter.MAX_DEPTH,
+                    limits.maxDepth(),
+                    "Record data is nested deeper than " + limits.maxDepth() + " levels");
+        }
+    }
+
+    void checkKeys(int keys) {
+        if (keys > limits.maxKeysPerObject()) {
+            throw limiter.reject(
+                    counted ? entity : null,
+                    PayloadLimiter.MAX_KEYS_PER_OBJECT,
+                    limits.maxKeysPerObject(),
+                    "Record data has an object with more than " + limits.maxKeysPerObject() + " fields");
+        }
+    }
+
+    void checkArrayLength(int length) {
+        if (length > limits.maxArrayLength()) {
+            throw limiter.reject(
+                    counted ? entity : null,
+                    PayloadLimiter.MAX_ARRAY_LENGTH,
+                    limits.maxArrayLength(),
+                    "Record data has an array with more than " + limits.maxArrayLength() + " items");
+        }
+    }
+
+    InputStream bound(InputStream body) {
+        return new FilterInputStream(body) {
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                if (read >= 0) {
+                    count(1);
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    count(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private void count(int bytes) {
+        bytesRead += bytes;
+        checkBytes(bytesRead);
+    }
+}
@@ -0,0 +1,89 @@
+package com.dynapi.service;
+
+import com.dynapi.config.PayloadLimitProperties;
+import com.dynapi.config.PayloadLimitProperties.EntityLimits;
+import com.dynapi.domain.exception.PayloadTooLargeException;
+import com.dynapi.dto.PayloadRejectionStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the payload limits of an entity and counts the bodies rejected for exceeding them.
+ * Rejections are counted per entity only for entities with limits of their own or a published
+ * schema, so that arbitrary request paths cannot grow the counters.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadLimiter {
+    static final String MAX_BYTES = "max-bytes";
+    static final String MAX_DEPTH = "max-depth";
+    static final String MAX_KEYS_PER_OBJECT = "max-keys-per-object";
+    static final String MAX_ARRAY_LENGTH = "max-array-length";
+
+    private final PayloadLimitProperties properties;
+    private final LongAdder rejected = new LongAdder();
+    private final Map<String, LongAdder> rejectedByLimit = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejectedByEntity = new ConcurrentHashMap<>();
+
+    /**
+     * A budget for one body, limited as configured for {@code entity}, or by the defaults when it is
+     * null.
+     */
+    PayloadBudget budget(String entity) {
+        return new PayloadBudget(this, entity);
+    }
+
+    boolean hasOwnLimits(String entity) {
+        return entity != null && properties.getEntities().containsKey(entity);
+    }
+
+    PayloadLimits limitsFor(String entity) {
+        EntityLimits overrides = entity == null ? null : properties.getEntities().get(entity);
+        PayloadLimits defaults =
+                new PayloadLimits(
+                        properties.getMaxBytes().toBytes(),
+                        properties.getMaxDepth(),
+                        properties.getMaxKeysPerObject(),
+                        properties.getMaxArrayLength());
+        if (overrides == null) {
+            return defaults;
+        }
+        return new PayloadLimits(
+                overrides.getMaxBytes() == null ? defaults.maxBytes() : overrides.getMaxBytes().toBytes(),
+                overrides.getMaxDepth() == null ? defaults.maxDepth() : overrides.getMaxDepth(),
+                overrides.getMaxKeysPerObject() == null
+                        ? defaults.maxKeysPerObject()
+                        : overrides.getMaxKeysPerObject(),
+                overrides.getMaxArrayLength() == null
+                        ? defaults.maxArrayLength()
+                        : overrides.getMaxArrayLength());
+    }
+
+    PayloadTooLargeException reject(String entity, String limit, long maxValue, String message) {
+        rejected.increment();
+        rejectedByLimit.computeIfAbsent(limit, key -> new LongAdder()).increment();
+        if (entity != null) {
+            rejectedByEntity.computeIfAbsent(entity, key -> new LongAdder()).increment();
+        }
+        return new PayloadTooLargeException(message, limit, maxValue);
+    }
+
+    public PayloadRejectionStats stats() {
+        return new PayloadRejectionStats(rejected.sum(), sums(rejectedByLimit), sums(rejectedByEntity));
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+        return sums;
+    }
+
+    record PayloadLimits(long maxBytes, int maxDepth, int maxKeysPerObject, int maxArrayLength) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryCoalescingProperties;
+import com.dynapi.dto.CoalescingStats;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-flight layer for queries: while a query is running, identical requests (same key) wait
+ * for its result instead of running their own find and count. With {@code resultTtl} the finished
+ * result keeps answering for a short while. A request whose leader was cancelled runs the query
+ * itself.
+ */
+@Service
+public class QueryCoalescer {
+    private static final int MONGO_INTERRUPTED_CODE = 11601;
+
+    private final QueryCoalescingProperties properties;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder resultHits = new LongAdder();
+
+    public QueryCoalescer(QueryCoalescingProperties properties) {
+        this.properties = properties;
+    }
+
+    PaginatedResponse<FormRecordDto> execute(String key, Supplier<PaginatedResponse<FormRecordDto>> query) {
+        if (!properties.isEnabled()) {
+            return query.get();
+        }
+        requests.increment();
+
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight != null && flight.isExpired()) {
+                flights.remove(key, flight);
+                continue;
+            }
+            if (flight != null) {
+                (flight.result.isDone() ? resultHits : coalesced).increment();
+                try {
+                    return await(flight);
+                } catch (RuntimeException ex) {
+                    if (!isCancellation(ex)) {
+                        throw ex;
+                    }
+                    executions.increment();
+                    return query.get();
+                }
+            }
+
+            Flight own = new Flight();
+            if (flights.putIfAbsent(key, own) != null) {
+                continue;
+            }
+            executions.increment();
+            return lead(key, own, query);
+        }
+    }
+
+    public CoalescingStats stats() {
+        long total = requests.sum();
+        long shared = coalesced.sum() + resultHits.sum();
+        int inFlight = (int) flights.values().stream().filter(flight -> !flight.result.isDone()).count();
+        return new CoalescingStats(
+                total,
+                executions.sum(),
+                coalesced.sum(),
+                resultHits.sum(),
+                inFlight,
+                total == 0 ? 0 : (double) shared / total);
+    }
+
+    private PaginatedResponse<FormRecordDto> lead(
+            String key, Flight flight, Supplier<PaginatedResponse<FormRecordDto>> query) {
+        PaginatedResponse<FormRecordDto> result;
+        try {
+            result = query.get();
+        } catch (RuntimeException | Error ex) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(ex);
+            throw ex;
+        }
+
+        long ttlNanos = properties.getResultTtl() == null ? 0 : properties.getResultTtl().toNanos();
+        if (ttlNanos > 0 && retainedCapacityLeft()) {
+            flight.expiresAtNanos = System.nanoTime() + ttlNanos;
+            flight.retained = true;
+        } else {
+            flights.remove(key, flight);
+        }
+        flight.result.complete(result);
+        return result;
+    }
+
+    private boolean retainedCapacityLeft() {
+        if (flights.size() <= properties.getMaxRetainedResults()) {
+            return true;
+        }
+        flights.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        return flights.size() <= properties.getMaxRetainedResults();
+    }
+
+    private PaginatedResponse<FormRecordDto> await(Flight flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Query was cancelled");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Whether the leader failed because it was cancelled (client gone) rather than because of the
+     * query itself, in which case its followers must not inherit the failure.
+     */
+    private boolean isCancellation(Throwable error) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof CancellationException
+                    || current instanceof InterruptedException
+                    || current instanceof MongoInterruptedException
+                    || (current instanceof MongoException mongoException
+                    && mongoException.getCode() == MONGO_INTERRUPTED_CODE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<PaginatedResponse<FormRecordDto>> result = new CompletableFuture<>();
+        private volatile long expiresAtNanos;
+        private volatile boolean retained;
+
+        private boolean isExpired() {
+            return result.isDone() && (!retained || expiresAtNanos - System.nanoTime() < 0);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.config.QueryGuardrailProperties.UnindexedSortPolicy;
+import com.dynapi.domain.exception.QueryCostExceededException;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.MongoCollection;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pre-flight cost check: explains a query shape with the query planner only (nothing is executed)
+ * and rejects shapes whose winning plan is a collection scan over more documents than allowed.
+ * Sorted shapes whose plan sorts in memory are logged or rejected according to
+ * {@code unindexedSort}. Estimates are cached per entity and shape for {@code costCheckTtl}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QueryCostGuard {
+    private static final int MAX_CACHED_ESTIMATES = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryGuardrailProperties guardrailProperties;
+
+    private final Map<String, CostEstimate> estimates = new ConcurrentHashMap<>();
+
+    void check(String entity, QueryShape shape, Document filter, Document sort) {
+        boolean checkCost = guardrailProperties.isCostCheckEnabled();
+        UnindexedSortPolicy sortPolicy = guardrailProperties.getUnindexedSort();
+        // $text results are always sorted in memory, there is no index to suggest.
+        boolean checkSort =
+                sortPolicy != null
+                        && sortPolicy != UnindexedSortPolicy.ALLOW
+                        && !shape.sortFields().isEmpty()
+                        && !filter.containsKey("$text");
+        if (!checkCost && !checkSort) {
+            return;
+        }
+
+        String key = entity + "|" + shape.key();
+        Instant now = Instant.now();
+        CostEstimate estimate = estimates.get(key);
+        boolean fresh = false;
+        if (estimate == null || estimate.expiresAt().isBefore(now)) {
+            estimate = estimate(entity, filter, sort, now);
+            if (estimate == null) {
+                return;
+            }
+            if (estimates.size() >= MAX_CACHED_ESTIMATES) {
+                estimates.clear();
+            }
+            estimates.put(key, estimate);
+            fresh = true;
+        }
+
+        if (checkCost) {
+            checkScan(entity, shape, estimate);
+        }
+        if (checkSort && estimate.inMemorySort()) {
+            String message =
+                    "Sort on '"
+                            + entity
+                            + "' has no supporting index and would run in memory. Add a compound index on: "
+                            + String.join(", ", sortIndexKeys(shape));
+            if (sortPolicy == UnindexedSortPolicy.REJECT) {
+                throw new IllegalArgumentException(message);
+            }
+            if (fresh) {
+                log.warn(message);
+            }
+        }
+    }
+
+    private void checkScan(String entity, QueryShape shape, CostEstimate estimate) {
+        long maxDocuments = guardrailProperties.getMaxScannedDocuments();
+        if (estimate.collectionScan() && estimate.documents() > maxDocuments) {
+            throw new QueryCostExceededException(
+                    "Query on '"
+                            + entity
+                            + "' would scan about "
+                            + estimate.documents()
+                            + " documents without an index (max "
+                            + maxDocuments
+                            + "). "
+                            + hint(shape),
+                    estimate.documents(),
+                    maxDocuments);
+        }
+    }
+
+    /**
+     * Equality fields first, then the sort keys in order: the index that serves both the filter
+     * and the sort.
+     */
+    private List<String> sortIndexKeys(QueryShape shape) {
+        List<String> keys = new ArrayList<>();
+        for (String field : shape.equalityFields()) {
+            keys.add(field + " ASC");
+        }
+        for (QueryShape.SortField sortField : shape.sortFields()) {
+            if (!shape.equalityFields().contains(sortField.field())) {
+                keys.add(sortField.field() + " " + sortField.direction());
+            }
+        }
+        return keys;
+    }
+
+    private String hint(QueryShape shape) {
+        List<String> candidates =
+                shape.equalityFields().isEmpty() ? shape.rangeFields() : shape.equalityFields();
+        if (candidates.isEmpty()) {
+            return "Add a filter on an indexed field.";
+        }
+        return "Narrow the filter or index one of: " + String.join(", ", candidates);
+    }
+
+    private CostEstimate estimate(String entity, Document filter, Document sort, Instant now) {
+        try {
+            MongoCollection<Document> collection = mongoTemplate.getCollection(entity);
+            ExplainPlan plan =
+                    ExplainPlan.of(
+                            collection.find(filter).sort(sort).explain(ExplainVerbosity.QUERY_PLANNER));
+            long documents = plan.collectionScan() ? collection.estimatedDocumentCount() : 0;
+            return new CostEstimate(
+                    plan.collectionScan(),
+                    plan.inMemorySort(),
+                    documents,
+                    now.plus(guardrailProperties.getCostCheckTtl()));
+        } catch (RuntimeException ex) {
+            // The check is advisory; a failing explain must not block the query itself.
+            log.warn("Cost check explain failed for entity '{}': {}", entity, ex.getMessage());
+            return null;
+        }
+    }
+
+    private record CostEstimate(
+            boolean collectionScan, boolean inMemorySort, long documents, Instant expiresAt) {
+    }
+}
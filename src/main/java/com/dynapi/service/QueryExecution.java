@@ -0,0 +1,54 @@
+package com.dynapi.service;
+
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Handle of a query submitted to {@link QueryExecutionService}. {@link #cancel()} interrupts the
+ * worker and kills the server-side operations tagged with {@link #operationId()}.
+ */
+public final class QueryExecution {
+    private final String operationId;
+    private final CompletableFuture<PaginatedResponse<FormRecordDto>> result;
+    private final Consumer<String> killOperations;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile Future<?> task;
+
+    QueryExecution(String operationId, Consumer<String> killOperations) {
+        this.operationId = operationId;
+        this.killOperations = killOperations;
+        this.result = new CompletableFuture<>();
+    }
+
+    public String operationId() {
+        return operationId;
+    }
+
+    public CompletableFuture<PaginatedResponse<FormRecordDto>> result() {
+        return result;
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    public void cancel() {
+        if (result.isDone() || !cancelled.compareAndSet(false, true)) {
+            return;
+        }
+        Future<?> running = task;
+        if (running != null) {
+            running.cancel(true);
+        }
+        killOperations.accept(operationId);
+    }
+
+    void attach(Future<?> task) {
+        this.task = task;
+    }
+}
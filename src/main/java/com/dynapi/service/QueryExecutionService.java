@@ -0,0 +1,114 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+import com.mongodb.client.MongoDatabase;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs dynamic queries on virtual threads so the web layer can cancel them when the client
+ * disconnects or the request times out. Cancellation interrupts the worker and issues
+ * {@code killOp} for every server operation carrying the execution's comment tag. Queries of
+ * memory-resident entities are answered by {@link MemoryResidentEntities} without a worker.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QueryExecutionService {
+    static final String OPERATION_PREFIX = "dynapi-query-";
+
+    private final DynamicQueryService dynamicQueryService;
+    private final MongoTemplate mongoTemplate;
+    private final MemoryResidentEntities memoryResidentEntities;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QueryExecution submit(String entity, DynamicQueryRequest request) {
+        QueryExecution resident = fromMemory(entity, request);
+        return resident != null
+                ? resident
+                : submit(operationId -> dynamicQueryService.query(entity, request, operationId));
+    }
+
+    public QueryExecution submit(
+            String entity, SchemaVersion publishedSchema, DynamicQueryRequest request) {
+        QueryExecution resident = fromMemory(entity, request);
+        return resident != null
+                ? resident
+                : submit(
+                        operationId -> dynamicQueryService.query(entity, publishedSchema, request, operationId));
+    }
+
+    /**
+     * Completes the query on the calling thread when the entity is memory-resident and the
+     * snapshot can answer it; there is nothing to cancel. Returns null otherwise.
+     */
+    private QueryExecution fromMemory(String entity, DynamicQueryRequest request) {
+        if (!memoryResidentEntities.isEnabled(entity)) {
+            return null;
+        }
+        QueryExecution execution =
+                new QueryExecution(OPERATION_PREFIX + UUID.randomUUID(), ignored -> {
+                });
+        try {
+            PaginatedResponse<FormRecordDto> page = memoryResidentEntities.query(entity, request);
+            if (page == null) {
+                return null;
+            }
+            execution.result().complete(page);
+        } catch (RuntimeException ex) {
+            execution.result().completeExceptionally(ex);
+        }
+        return execution;
+    }
+
+    private QueryExecution submit(Function<String, PaginatedResponse<FormRecordDto>> query) {
+        QueryExecution execution =
+                new QueryExecution(OPERATION_PREFIX + UUID.randomUUID(), this::killOperations);
+        execution.attach(
+                executor.submit(
+                        () -> {
+                            try {
+                                execution.result().complete(query.apply(execution.operationId()));
+                            } catch (Throwable ex) {
+                                execution.result().completeExceptionally(ex);
+                            }
+                        }));
+        return execution;
+    }
+
+    void killOperations(String operationId) {
+        try {
+            MongoDatabase admin = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin");
+            List<Document> pipeline =
+                    List.of(
+                            new Document("$currentOp", new Document()),
+                            new Document("$match", new Document("command.comment", operationId)));
+            for (Document operation : admin.aggregate(pipeline)) {
+                admin.runCommand(new Document("killOp", 1).append("op", operation.get("opid")));
+                log.info("Killed query operation {} ({})", operation.get("opid"), operationId);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not kill query operation {}: {}", operationId, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.dynapi.service;
+
+/**
+ * Placeholder for the {@code index}-th request value inside a cached {@link QueryPlan}. The kind
+ * decides how the value is bound: as-is, spliced into the enclosing list, compiled to a pattern,
+ * for DATE fields parsed into a date, for NUMBER fields converted to the type numbers are
+ * stored as (item by item for a list), or, for SEARCH, checked to be a non-blank string.
+ */
+record QueryParameter(int index, Kind kind) {
+
+    enum Kind {
+        SCALAR,
+        DOCUMENT,
+        LIST,
+        PATTERN,
+        DATE,
+        DATE_LIST,
+        NUMBER,
+        NUMBER_LIST,
+        SEARCH
+    }
+
+    boolean scalar() {
+        return kind == Kind.SCALAR || kind == Kind.DATE || kind == Kind.NUMBER;
+    }
+
+    boolean list() {
+        return kind == Kind.LIST || kind == Kind.DATE_LIST || kind == Kind.NUMBER_LIST;
+    }
+}
@@ -0,0 +1,152 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.validation.DateValues;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Validated and optimized filter of one query shape, with {@link QueryParameter} placeholders
+ * where the request values go. Binding copies the template, so a plan can be shared between
+ * threads; NUMBER operands are bound in the stored number type of the entity's
+ * {@link RecordCodec}. Plans with a text search are sorted by relevance unless an explicit sort is given.
+ *
+ * <p>When {@code reoptimize} is set, the optimizer could still rewrite the filter depending on
+ * the values (duplicates, tighter bounds), so callers {@linkplain #bindFilters bind the filter
+ * tree} and optimize it again instead of binding the template.
+ */
+record QueryPlan(
+        QueryShape shape,
+        Document filterTemplate,
+        List<FilterNode> filters,
+        boolean reoptimize,
+        Sort sort,
+        boolean textSearch,
+        int parameterCount) {
+
+    Document bind(List<Object> values, RecordCodec codec) {
+        checkValues(values);
+        return bindDocument(filterTemplate, values, codec);
+    }
+
+    /**
+     * The optimized filter tree with its parameters replaced by the bound values.
+     */
+    List<FilterNode> bindFilters(List<Object> values, RecordCodec codec) {
+        checkValues(values);
+        List<FilterNode> bound = new ArrayList<>(filters.size());
+        for (FilterNode filter : filters) {
+            bound.add(bindNode(filter, values, codec));
+        }
+        return bound;
+    }
+
+    private void checkValues(List<Object> values) {
+        if (values.size() != parameterCount) {
+            throw new IllegalStateException(
+                    "Query plan expects " + parameterCount + " values but got " + values.size());
+        }
+    }
+
+    private static FilterNode bindNode(FilterNode node, List<Object> values, RecordCodec codec) {
+        return switch (node) {
+            case FilterGroupNode groupNode -> {
+                List<FilterNode> rules = new ArrayList<>(groupNode.rules().size());
+                for (FilterNode rule : groupNode.rules()) {
+                    rules.add(bindNode(rule, values, codec));
+                }
+                yield new FilterGroupNode(groupNode.operator(), rules);
+            }
+            case FilterLeafNode leafNode ->
+                    new FilterLeafNode(
+                            leafNode.field(), leafNode.operator(), bindOperand(leafNode.value(), values, codec));
+            case FilterRangeNode rangeNode ->
+                    new FilterRangeNode(
+                            rangeNode.field(),
+                            rangeNode.lowerOperator(),
+                            bindOperand(rangeNode.lowerValue(), values, codec),
+                            rangeNode.upperOperator(),
+                            bindOperand(rangeNode.upperValue(), values, codec));
+        };
+    }
+
+    private static Object bindOperand(Object operand, List<Object> values, RecordCodec codec) {
+        // A list parameter stands for the whole list of an in/nin.
+        return operand instanceof QueryParameter parameter && parameter.list()
+                ? bindValue(List.of(parameter), values, codec)
+                : bindValue(operand, values, codec);
+    }
+
+    private static Document bindDocument(Map<String, Object> template, List<Object> values, RecordCodec codec) {
+        Document bound = new Document();
+        for (Map.Entry<String, Object> entry : template.entrySet()) {
+            bound.put(entry.getKey(), bindValue(entry.getValue(), values, codec));
+        }
+        return bound;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object bindValue(Object template, List<Object> values, RecordCodec codec) {
+        return switch (template) {
+            case QueryParameter parameter -> {
+                Object value = values.get(parameter.index());
+                yield switch (parameter.kind()) {
+                    case PATTERN -> Pattern.compile((String) value);
+                    case DATE -> date(value);
+                    case NUMBER -> codec.queryNumber(value);
+                    case SEARCH -> search(value);
+                    default -> value;
+                };
+            }
+            case Document document -> bindDocument(document, values, codec);
+            case Collection<?> collection -> {
+                List<Object> bound = new ArrayList<>(collection.size());
+                for (Object item : collection) {
+                    if (item instanceof QueryParameter parameter && parameter.list()) {
+                        for (Object value : (Collection<Object>) values.get(parameter.index())) {
+                            bound.add(
+                                    switch (parameter.kind()) {
+                                        case DATE_LIST -> date(value);
+                                        case NUMBER_LIST -> codec.queryNumber(value);
+                                        default -> value;
+                                    });
+                        }
+                    } else {
+                        bound.add(bindValue(item, values, codec));
+                    }
+                }
+                yield bound;
+            }
+            default -> template;
+        };
+    }
+
+    /**
+     * Plans are validated with the values of the first request of their signature, so later
+     * values are checked here.
+     */
+    private static Object search(Object value) {
+        if (!(value instanceof String text) || text.isBlank()) {
+            throw new IllegalArgumentException("SEARCH operator requires non-blank string value");
+        }
+        return text;
+    }
+
+    private static Object date(Object value) {
+        if (!(value instanceof String text)) {
+            return value;
+        }
+        Date date = DateValues.parse(text);
+        if (date == null) {
+            throw new IllegalArgumentException("Not an ISO-8601 date: " + text);
+        }
+        return date;
+    }
+}
@@ -0,0 +1,46 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryPlanCacheProperties;
+import com.dynapi.dto.CacheStats;
+import com.dynapi.infrastructure.cache.BoundedLruCache;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches {@link QueryPlan}s by entity, published schema version and request signature (filter
+ * structure, operators, value kinds and sort). A new schema version produces new keys, so plans of
+ * older versions simply age out.
+ */
+@Service
+public class QueryPlanCache {
+    private final QueryPlanCacheProperties properties;
+    private final BoundedLruCache<String, QueryPlan> plans;
+
+    public QueryPlanCache(QueryPlanCacheProperties properties) {
+        this.properties = properties;
+        this.plans = new BoundedLruCache<>(Math.max(1, properties.getMaxEntries()));
+    }
+
+    QueryPlan get(String entity, Integer schemaVersion, String signature, Supplier<QueryPlan> planner) {
+        if (!properties.isEnabled()) {
+            return planner.get();
+        }
+        String key = entity + "@" + schemaVersion + "|" + signature;
+        QueryPlan plan = plans.get(key);
+        if (plan == null) {
+            plan = planner.get();
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    public CacheStats stats() {
+        return plans.stats();
+    }
+
+    public void clear() {
+        plans.clear();
+    }
+}
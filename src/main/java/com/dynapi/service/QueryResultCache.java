@@ -0,0 +1,131 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryResultCacheProperties;
+import com.dynapi.config.QueryResultCacheProperties.Store;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.WeightedCacheStats;
+import com.dynapi.infrastructure.cache.ByteStore;
+import com.dynapi.infrastructure.cache.CachedBytes;
+import com.dynapi.infrastructure.cache.HeapByteStore;
+import com.dynapi.infrastructure.cache.OffHeapSlabStore;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Query responses of the entities listed in {@code dynapi.query.result-cache.entities}, kept as the
+ * exact response bytes. Keys are the {@linkplain DynamicQueryService#resultKey result keys} of the
+ * requests: the entity, its published schema version and write generation, and the bound filter,
+ * sort and page, so requests spelled differently share an entry, and a write or a publish through
+ * this instance makes older entries unreachable at once; they are then evicted by the byte budget
+ * like any other cold entry. Write generations are local to the process, so entries also expire
+ * after {@code ttl}. With {@code store: OFF_HEAP} the bytes live in direct memory and hits are
+ * written from there.
+ *
+ * <p>The published schema of each entity is kept as well, until a schema of the entity is saved
+ * through this instance or {@code ttl} has passed, so that a hit makes no Mongo round-trip.
+ */
+@Service
+public class QueryResultCache {
+    private final QueryResultCacheProperties properties;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final DynamicQueryService dynamicQueryService;
+    private final JsonMapper jsonMapper;
+    private final ByteStore<String> responses;
+    private final Map<String, PublishedSchema> publishedSchemas = new ConcurrentHashMap<>();
+
+    public QueryResultCache(
+            QueryResultCacheProperties properties,
+            SchemaLifecycleService schemaLifecycleService,
+            DynamicQueryService dynamicQueryService,
+            JsonMapper jsonMapper) {
+        this.properties = properties;
+        this.schemaLifecycleService = schemaLifecycleService;
+        this.dynamicQueryService = dynamicQueryService;
+        this.jsonMapper = jsonMapper;
+        long maxBytes = Math.max(1, properties.getMaxSize().toBytes());
+        this.responses =
+                properties.getStore() == Store.OFF_HEAP
+                        ? new OffHeapSlabStore<>(
+                        maxBytes,
+                        (int) properties.getSlabSize().toBytes(),
+                        (int) properties.getBlockSize().toBytes(),
+                        properties.getTtl())
+                        : new HeapByteStore<>(maxBytes, properties.getTtl());
+    }
+
+    public boolean isEnabled(String entity) {
+        return properties.getEntities() != null && properties.getEntities().contains(entity);
+    }
+
+    /**
+     * Resolves the published schema, validates and binds the request, and looks it up. The
+     * returned lookup is passed back to {@link #store} with the response when it was a miss; the
+     * body of a hit must be released once it has been written.
+     */
+    public Lookup lookup(String entity, DynamicQueryRequest request) {
+        SchemaVersion publishedSchema = publishedSchema(entity);
+        String key = dynamicQueryService.resultKey(entity, publishedSchema, request);
+        return new Lookup(key, publishedSchema, responses.get(key));
+    }
+
+    /**
+     * Drops the published schema kept for an entity whose schema was saved.
+     */
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        if (event.getSource() instanceof SchemaVersion schema && schema.getEntityName() != null) {
+            publishedSchemas.remove(schema.getEntityName());
+        }
+    }
+
+    /**
+     * Serializes {@code response}, caches the bytes under the lookup's key and returns them.
+     */
+    public CachedBytes store(Lookup lookup, Object response) {
+        byte[] body = jsonMapper.writeValueAsBytes(response);
+        responses.put(lookup.key(), body);
+        return CachedBytes.of(body);
+    }
+
+    public WeightedCacheStats stats() {
+        return responses.stats();
+    }
+
+    public void clear() {
+        responses.clear();
+        publishedSchemas.clear();
+    }
+
+    private SchemaVersion publishedSchema(String entity) {
+        PublishedSchema cached = publishedSchemas.get(entity);
+        long now = System.nanoTime();
+        if (cached == null || cached.isExpired(now)) {
+            Duration ttl = properties.getTtl();
+            long expiresAt =
+                    ttl == null || ttl.isZero() || ttl.isNegative() ? Long.MAX_VALUE : now + ttl.toNanos();
+            cached = new PublishedSchema(schemaLifecycleService.latestPublished(entity), expiresAt);
+            publishedSchemas.put(entity, cached);
+        }
+        return cached.schema();
+    }
+
+    private record PublishedSchema(SchemaVersion schema, long expiresAtNanos) {
+        private boolean isExpired(long now) {
+            return expiresAtNanos != Long.MAX_VALUE && now - expiresAtNanos >= 0;
+        }
+    }
+
+    public record Lookup(String key, SchemaVersion publishedSchema, CachedBytes body) {
+        public boolean isHit() {
+            return body != null;
+        }
+    }
+}
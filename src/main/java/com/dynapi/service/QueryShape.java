@@ -0,0 +1,95 @@
+package com.dynapi.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Value-free description of a query: which paths are filtered with which operators and how the
+ * result is sorted. Requests that differ only in their values share a shape.
+ */
+record QueryShape(
+        String key, List<String> equalityFields, List<String> rangeFields, List<SortField> sortFields) {
+    private static final Set<String> EQUALITY_OPERATORS = Set.of("eq", "in");
+
+    static QueryShape of(List<FilterNode> filters, Sort sort) {
+        List<FilterNode> safeFilters = filters == null ? List.of() : filters;
+        Set<String> equalityFields = new LinkedHashSet<>();
+        Set<String> rangeFields = new LinkedHashSet<>();
+        collectConjunctiveFields(safeFilters, equalityFields, rangeFields);
+        rangeFields.removeAll(equalityFields);
+
+        List<SortField> sortFields = new ArrayList<>();
+        if (sort != null) {
+            sort.forEach(
+                    order -> sortFields.add(new SortField(order.getProperty(), order.getDirection())));
+        }
+
+        StringBuilder key = new StringBuilder(conjunctionKey(safeFilters));
+        if (!sortFields.isEmpty()) {
+            key.append("|sort:");
+            key.append(
+                    String.join(
+                            ",",
+                            sortFields.stream()
+                                    .map(sortField -> sortField.field() + ":" + sortField.direction())
+                                    .toList()));
+        }
+
+        return new QueryShape(
+                key.toString(),
+                List.copyOf(equalityFields),
+                List.copyOf(rangeFields),
+                List.copyOf(sortFields));
+    }
+
+    private static String conjunctionKey(List<FilterNode> nodes) {
+        return String.join(",", nodes.stream().map(QueryShape::nodeKey).sorted().toList());
+    }
+
+    private static String nodeKey(FilterNode node) {
+        return switch (node) {
+            case FilterLeafNode leafNode -> leafNode.field() + ":" + leafNode.operator();
+            case FilterRangeNode rangeNode ->
+                    rangeNode.field()
+                            + ":"
+                            + (rangeNode.lowerOperator() == null ? "" : rangeNode.lowerOperator())
+                            + ".."
+                            + (rangeNode.upperOperator() == null ? "" : rangeNode.upperOperator());
+            case FilterGroupNode groupNode ->
+                    groupNode.operator() + "(" + conjunctionKey(groupNode.rules()) + ")";
+        };
+    }
+
+    private static void collectConjunctiveFields(
+            List<FilterNode> nodes, Set<String> equalityFields, Set<String> rangeFields) {
+        for (FilterNode node : nodes) {
+            switch (node) {
+                case FilterLeafNode leafNode -> {
+                    if ("search".equals(leafNode.operator())) {
+                        // Served by the entity text index, not by a regular index on the path.
+                        continue;
+                    }
+                    if (EQUALITY_OPERATORS.contains(leafNode.operator())) {
+                        equalityFields.add(leafNode.field());
+                    } else {
+                        rangeFields.add(leafNode.field());
+                    }
+                }
+                case FilterRangeNode rangeNode -> rangeFields.add(rangeNode.field());
+                case FilterGroupNode groupNode -> {
+                    // Only AND groups narrow the conjunctive predicate an index can serve.
+                    if ("and".equals(groupNode.operator())) {
+                        collectConjunctiveFields(groupNode.rules(), equalityFields, rangeFields);
+                    }
+                }
+            }
+        }
+    }
+
+    record SortField(String field, Sort.Direction direction) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.dto.QueryPlanVerdict;
+import com.dynapi.dto.QueryShapeStats;
+import com.mongodb.ExplainVerbosity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Records how often each {@link QueryShape} is executed per entity and how long it takes, and
+ * periodically runs {@code explain()} on the most frequent shapes to flag collection scans,
+ * in-memory sorts and plans that examine far more documents than they return. The periodic run
+ * only asks the planner; executing the shapes for their document counts is left to the on-demand
+ * admin call. Every explain is bounded by {@code explain-max-time}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QueryShapeStatsService {
+    static final String FLAG_COLLECTION_SCAN = "COLLSCAN";
+    static final String FLAG_IN_MEMORY_SORT = "IN_MEMORY_SORT";
+    static final String FLAG_HIGH_DOCS_EXAMINED_RATIO = "HIGH_DOCS_EXAMINED_RATIO";
+
+    private static final long[] LATENCY_BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryStatsProperties properties;
+
+    private final Map<String, Map<String, ShapeStats>> statsByEntity = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> droppedShapesByEntity = new ConcurrentHashMap<>();
+    private final BackgroundRun runs = new BackgroundRun("query shape explain");
+
+    void recordExecution(
+            String entity,
+            QueryShape shape,
+            Document filter,
+            Document sort,
+            int limit,
+            long elapsedNanos) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Map<String, ShapeStats> shapes =
+                statsByEntity.computeIfAbsent(entity, ignored -> new ConcurrentHashMap<>());
+        ShapeStats stats = shapes.get(shape.key());
+        if (stats == null) {
+            if (shapes.size() >= properties.getMaxShapesPerEntity()) {
+                droppedShapesByEntity.computeIfAbsent(entity, ignored -> new LongAdder()).increment();
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape.key(), ignored -> new ShapeStats(shape));
+        }
+        stats.record(elapsedNanos);
+        stats.sample = new QuerySample(filter, sort, limit);
+    }
+
+    public List<QueryShapeStats> snapshot(String entity) {
+        return trackedShapes(entity).stream().map(ShapeStats::toDto).toList();
+    }
+
+    public long droppedShapes(String entity) {
+        LongAdder dropped = droppedShapesByEntity.get(entity);
+        return dropped == null ? 0 : dropped.sum();
+    }
+
+    /**
+     * Explains the most frequent shapes of {@code entity} now, with execution stats, and returns the
+     * refreshed stats.
+     */
+    public List<QueryShapeStats> explainTopShapes(String entity) {
+        explainTopShapes(entity, ExplainVerbosity.EXECUTION_STATS);
+        return snapshot(entity);
+    }
+
+    /**
+     * Starts a planner-only explain of the most frequent shapes of every entity on a thread of its
+     * own, see {@link BackgroundRun}.
+     */
+    @Scheduled(
+            initialDelayString = "${dynapi.query.stats.explain-interval:PT5M}",
+            fixedDelayString = "${dynapi.query.stats.explain-interval:PT5M}")
+    public void explainTopShapes() {
+        if (properties.isEnabled()) {
+            runs.trigger(this::explainAll);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runs.shutdown();
+    }
+
+    private void explainAll() {
+        for (String entity : statsByEntity.keySet()) {
+            explainTopShapes(entity, ExplainVerbosity.QUERY_PLANNER);
+        }
+    }
+
+    private void explainTopShapes(String entity, ExplainVerbosity verbosity) {
+        trackedShapes(entity).stream()
+                .limit(Math.max(0, properties.getExplainTopShapes()))
+                .forEach(stats -> explain(entity, stats, verbosity));
+    }
+
+    List<ShapeStats> trackedShapes(String entity) {
+        Map<String, ShapeStats> shapes = statsByEntity.get(entity);
+        if (shapes == null) {
+            return List.of();
+        }
+        return shapes.values().stream()
+                .sorted(Comparator.comparingLong(ShapeStats::count).reversed())
+                .toList();
+    }
+
+    private void explain(String entity, ShapeStats stats, ExplainVerbosity verbosity) {
+        QuerySample sample = stats.sample;
+        if (sample == null) {
+            return;
+        }
+        try {
+            Document explain =
+                    mongoTemplate
+                            .getCollection(entity)
+                            .find(sample.filter())
+                            .sort(sample.sort())
+                            .limit(sample.limit())
+                            .maxTime(properties.getExplainMaxTime().toMillis(), TimeUnit.MILLISECONDS)
+                            .explain(verbosity);
+            stats.verdict = toVerdict(explain);
+        } catch (RuntimeException ex) {
+            log.warn(
+                    "Explain failed for entity '{}' shape '{}': {}",
+                    entity,
+                    stats.shape.key(),
+                    ex.getMessage());
+        }
+    }
+
+    /**
+     * Planner-only explains carry no {@code executionStats}; their document counts and ratio are 0.
+     */
+    QueryPlanVerdict toVerdict(Document explain) {
+        ExplainPlan plan = ExplainPlan.of(explain);
+
+        Document executionStats = explain.get("executionStats", Document.class);
+        long docsExamined = longValue(executionStats, "totalDocsExamined");
+        long keysExamined = longValue(executionStats, "totalKeysExamined");
+        long returned = longValue(executionStats, "nReturned");
+        double ratio = (double) docsExamined / Math.max(1, returned);
+
+        List<String> flags = new ArrayList<>();
+        if (plan.collectionScan()) {
+            flags.add(FLAG_COLLECTION_SCAN);
+        }
+        if (plan.inMemorySort()) {
+            flags.add(FLAG_IN_MEMORY_SORT);
+        }
+        if (ratio > properties.getMaxDocsExaminedRatio()) {
+            flags.add(FLAG_HIGH_DOCS_EXAMINED_RATIO);
+        }
+
+        return new QueryPlanVerdict(
+                plan.stages(),
+                plan.indexes(),
+                docsExamined,
+                keysExamined,
+                returned,
+                ratio,
+                List.copyOf(flags),
+                Instant.now());
+    }
+
+    private long longValue(Document document, String key) {
+        if (document != null && document.get(key) instanceof Number number) {
+            return number.longValue();
+        }
+        return 0;
+    }
+
+    private record QuerySample(Document filter, Document sort, int limit) {
+    }
+
+    static final class ShapeStats {
+        private final QueryShape shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS_MILLIS.length + 1];
+        private volatile QuerySample sample;
+        private volatile QueryPlanVerdict verdict;
+
+        private ShapeStats(QueryShape shape) {
+            this.shape = shape;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MILLIS.length && elapsedMillis > LATENCY_BUCKETS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        QueryShape shape() {
+            return shape;
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        QueryPlanVerdict verdict() {
+            return verdict;
+        }
+
+        private QueryShapeStats toDto() {
+            long executions = count.sum();
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+                histogram.put("<=" + LATENCY_BUCKETS_MILLIS[i] + "ms", buckets[i].sum());
+            }
+            histogram.put(
+                    ">" + LATENCY_BUCKETS_MILLIS[LATENCY_BUCKETS_MILLIS.length - 1] + "ms",
+                    buckets[LATENCY_BUCKETS_MILLIS.length].sum());
+            return new QueryShapeStats(
+                    shape.key(),
+                    executions,
+                    executions == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / executions,
+                    maxNanos.get() / 1_000_000.0,
+                    histogram,
+                    verdict);
+        }
+    }
+}
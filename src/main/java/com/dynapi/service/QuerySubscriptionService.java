@@ -0,0 +1,287 @@
+package com.dynapi.service;
+
+import com.dynapi.config.QuerySubscriptionProperties;
+import com.dynapi.config.QuerySubscriptionProperties.Source;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.service.MigrationSteps;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.RecordChange;
+import com.dynapi.infrastructure.cache.BoundedLruCache;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live query subscriptions. All subscribers of an entity share one {@link RecordChangeSource}
+ * watch, opened with the first subscription and closed with the last; every written document is
+ * decoded with the codec of the published schema, upgrading records written before a migration,
+ * and matched in memory against each subscriber's compiled filter. Matching records are sent as
+ * {@code upsert} events, matching soft-deleted records as {@code delete} events.
+ *
+ * <p>Sources deliver only the document after a write, so a record that stops matching is only
+ * recognized when this subscription announced it before: it is then sent as a {@code leave}
+ * event. The last {@code maxTrackedRecords} announced records are remembered per subscriber;
+ * records the client loaded with its own query are not, and leave its view unannounced.
+ *
+ * <p>Each subscriber has its own queue drained on a virtual thread, so a slow client delays only
+ * itself; one that falls {@code maxPendingEvents} behind is disconnected and has to subscribe and
+ * query again. Subscribers are also disconnected when the source breaks.
+ */
+@Slf4j
+@Service
+public class QuerySubscriptionService {
+    static final String UPSERT_EVENT = "upsert";
+    static final String DELETE_EVENT = "delete";
+    static final String LEAVE_EVENT = "leave";
+
+    private final DynamicQueryService dynamicQueryService;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final RecordCodecs recordCodecs;
+    private final QuerySubscriptionProperties properties;
+    private final RecordChangeSource source;
+    private final InProcessRecordChangeSource inProcessSource;
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QuerySubscriptionService(
+            DynamicQueryService dynamicQueryService,
+            SchemaLifecycleService schemaLifecycleService,
+            MongoTemplate mongoTemplate,
+            RecordCodecs recordCodecs,
+            QuerySubscriptionProperties properties) {
+        this.dynamicQueryService = dynamicQueryService;
+        this.schemaLifecycleService = schemaLifecycleService;
+        this.recordCodecs = recordCodecs;
+        this.properties = properties;
+        if (properties.getSource() == Source.IN_PROCESS) {
+            this.inProcessSource = new InProcessRecordChangeSource();
+            this.source = inProcessSource;
+        } else {
+            this.inProcessSource = null;
+            this.source = new ChangeStreamRecordChangeSource(mongoTemplate, properties.getPollInterval());
+        }
+    }
+
+    /**
+     * Validates the request filters against the published schema and opens a subscription.
+     * Sorting and paging of the request are ignored.
+     */
+    public SseEmitter subscribe(String entity, DynamicQueryRequest request) {
+        return subscribe(entity, request, new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String entity, DynamicQueryRequest request, SseEmitter emitter) {
+        SchemaVersion publishedSchema = schemaLifecycleService.latestPublished(entity);
+        Predicate<Map<String, Object>> filter =
+                dynamicQueryService.inMemoryPredicate(
+                        entity, publishedSchema, request == null ? null : request.filters());
+
+        Subscription subscription = new Subscription(filter, emitter);
+        emitter.onCompletion(() -> unsubscribe(entity, subscription));
+        feeds.compute(
+                entity,
+                (ignored, feed) -> {
+                    Feed target = feed == null ? open(entity, publishedSchema) : feed;
+                    target.subscriptions.add(subscription);
+                    return target;
+                });
+        return emitter;
+    }
+
+    public int subscriberCount(String entity) {
+        Feed feed = feeds.get(entity);
+        return feed == null ? 0 : feed.subscriptions.size();
+    }
+
+    /**
+     * Feeds writes made through this instance to the in-process source, when it is the one in use,
+     * and has the feed of an entity whose schema was saved decode with the new version.
+     */
+    @EventListener
+    public void onAfterSave(AfterSaveEvent<?> event) {
+        if (event.getSource() instanceof SchemaVersion schema && schema.getEntityName() != null) {
+            Feed feed = feeds.get(schema.getEntityName());
+            if (feed != null) {
+                feed.codec = null;
+            }
+        }
+        if (inProcessSource != null && event.getDocument() != null) {
+            inProcessSource.publish(event.getCollectionName(), event.getDocument());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${dynapi.query.subscriptions.heartbeat-interval:PT15S}",
+            fixedDelayString = "${dynapi.query.subscriptions.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Feed feed : feeds.values()) {
+            for (Subscription subscription : feed.subscriptions) {
+                subscription.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        feeds.values().forEach(feed -> feed.watch.close());
+        feeds.clear();
+        deliveries.shutdownNow();
+    }
+
+    private Feed open(String entity, SchemaVersion publishedSchema) {
+        Feed feed = new Feed(entity);
+        feed.codec = recordCodecs.forSchema(publishedSchema);
+        feed.watch =
+                source.watch(
+                        entity, document -> dispatch(feed, document), error -> fail(entity, feed, error));
+        return feed;
+    }
+
+    private void dispatch(Feed feed, Map<String, Object> stored) {
+        RecordCodec codec = feed.codec;
+        if (codec == null) {
+            codec = recordCodecs.forSchema(schemaLifecycleService.latestPublished(feed.entity));
+            feed.codec = codec;
+        }
+        // The in-process source hands over the saved document itself, which is not ours to change.
+        Map<String, Object> document = codec.decode(MigrationSteps.deepCopy(stored));
+        Map<String, Object> data = RecordDocuments.data(document);
+        Object id = document.get(SchemaPaths.ID_PATH);
+        boolean deleted = Boolean.TRUE.equals(document.get("deleted"));
+        RecordChange change = null;
+        for (Subscription subscription : feed.subscriptions) {
+            String event;
+            if (subscription.filter.test(data)) {
+                event = deleted ? DELETE_EVENT : UPSERT_EVENT;
+                if (deleted) {
+                    subscription.announced.remove(id);
+                } else {
+                    subscription.announced.put(id, Boolean.TRUE);
+                }
+            } else if (subscription.announced.remove(id) != null) {
+                event = LEAVE_EVENT;
+            } else {
+                continue;
+            }
+            if (change == null) {
+                change = RecordDocuments.toChange(document);
+            }
+            // Builders accumulate their output, so every subscriber gets its own.
+            subscription.offer(SseEmitter.event().name(event).data(change, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void fail(String entity, Feed feed, Throwable error) {
+        log.warn(
+                "Change source for entity '{}' failed, closing its subscriptions: {}",
+                entity,
+                error.getMessage());
+        feeds.remove(entity, feed);
+        if (feed.watch != null) {
+            feed.watch.close();
+        }
+        for (Subscription subscription : feed.subscriptions) {
+            subscription.close();
+        }
+    }
+
+    private void unsubscribe(String entity, Subscription subscription) {
+        feeds.computeIfPresent(
+                entity,
+                (ignored, feed) -> {
+                    feed.subscriptions.remove(subscription);
+                    if (!feed.subscriptions.isEmpty()) {
+                        return feed;
+                    }
+                    feed.watch.close();
+                    return null;
+                });
+    }
+
+    private static final class Feed {
+        private final String entity;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private volatile RecordChangeSource.Watch watch;
+        private volatile RecordCodec codec;
+
+        private Feed(String entity) {
+            this.entity = entity;
+        }
+    }
+
+    private final class Subscription {
+        private final Predicate<Map<String, Object>> filter;
+        private final SseEmitter emitter;
+        private final BoundedLruCache<Object, Boolean> announced =
+                new BoundedLruCache<>(Math.max(1, properties.getMaxTrackedRecords()));
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Predicate<Map<String, Object>> filter, SseEmitter emitter) {
+            this.filter = filter;
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > properties.getMaxPendingEvents()) {
+                log.debug(
+                        "Disconnecting subscriber more than {} events behind",
+                        properties.getMaxPendingEvents());
+                close();
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                deliveries.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException ex) {
+                        // The container reports the broken connection and completes the emitter.
+                        closed = true;
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!closed && !pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close() {
+            closed = true;
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dynapi.service;
+
+import com.dynapi.config.RecordCacheProperties;
+import com.dynapi.dto.CacheStats;
+import com.dynapi.infrastructure.cache.BoundedLruCache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.stereotype.Service;
+
+/**
+ * Near-cache of records read by id. Entries expire after {@code ttl} and are dropped by every
+ * write that goes through {@link DynamicRecordService}. A read only fills the cache if no write
+ * happened since it started, so a slow read cannot put back a record that was just changed.
+ */
+@Service
+public class RecordCache {
+    private final RecordCacheProperties properties;
+    private final BoundedLruCache<String, Entry> records;
+    private long generation;
+
+    public RecordCache(RecordCacheProperties properties) {
+        this.properties = properties;
+        this.records = new BoundedLruCache<>(Math.max(1, properties.getMaxEntries()));
+    }
+
+    CachedRecord get(String entity, String id) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String key = key(entity, id);
+        Entry entry = records.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() < 0) {
+            records.remove(key);
+            return null;
+        }
+        return entry.record();
+    }
+
+    /**
+     * Write generation to pass to {@link #put} once the record has been loaded.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(String entity, String id, CachedRecord record, long readGeneration) {
+        if (!properties.isEnabled() || readGeneration != generation) {
+            return;
+        }
+        records.put(key(entity, id), new Entry(record, System.nanoTime() + properties.getTtl().toNanos()));
+    }
+
+    synchronized void invalidate(String entity, String id) {
+        generation++;
+        records.remove(key(entity, id));
+    }
+
+    public CacheStats stats() {
+        return records.stats();
+    }
+
+    public void clear() {
+        records.clear();
+    }
+
+    /**
+     * Strong ETag over the stored document, including fields that are not returned.
+     */
+    static String etag(Map<String, Object> document) {
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(new Document(document).toJson().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private String key(String entity, String id) {
+        return entity.length() + ":" + entity + "/" + id;
+    }
+
+    private record Entry(CachedRecord record, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.dynapi.service;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Where live subscriptions get record writes from. One watch is opened per entity and shared by
+ * all of its subscribers.
+ */
+interface RecordChangeSource {
+
+    /**
+     * Starts delivering the stored document after every insert, update or replace in
+     * {@code entity} to {@code listener}, until the returned watch is closed. If the source breaks,
+     * {@code onError} is called once and nothing more is delivered.
+     */
+    Watch watch(String entity, Consumer<Map<String, Object>> listener, Consumer<Throwable> onError);
+
+    interface Watch extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
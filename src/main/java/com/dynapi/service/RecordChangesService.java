@@ -0,0 +1,164 @@
+package com.dynapi.service;
+
+import com.dynapi.config.RecordChangesProperties;
+import com.dynapi.dto.RecordChange;
+import com.dynapi.dto.RecordChangesResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Change feed for incremental sync: records written or soft-deleted after a watermark, ordered by
+ * {@code (updatedAt, _id)} and paged with a cursor. Every page of one sync is bounded by the same
+ * upper timestamp, so records written while a client pages are picked up by its next sync.
+ * Records written before timestamps were stamped have no {@code updatedAt} and are not listed.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecordChangesService {
+    private final MongoTemplate mongoTemplate;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final RecordChangesProperties properties;
+    private final RecordCodecs recordCodecs;
+
+    public RecordChangesResponse changes(String entity, Instant since, String cursor, Integer limit) {
+        int pageSize = resolveLimit(limit);
+        RecordCodec codec = recordCodecs.forSchema(schemaLifecycleService.latestPublished(entity));
+
+        Position position;
+        if (cursor != null && !cursor.isBlank()) {
+            if (since != null) {
+                throw new IllegalArgumentException("Use either since or cursor, not both");
+            }
+            position = Position.decode(cursor);
+        } else {
+            Instant until =
+                    Instant.now().minus(properties.getSettleTime()).truncatedTo(ChronoUnit.MILLIS);
+            position = new Position(until, since, null);
+        }
+
+        Query query =
+                new Query(criteria(position))
+                        .with(
+                                Sort.by(
+                                        Sort.Order.asc(RecordDocuments.UPDATED_AT),
+                                        Sort.Order.asc(SchemaPaths.ID_PATH)))
+                        .limit(pageSize + 1);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Map<String, Object>> documents = (List) mongoTemplate.find(query, Document.class, entity);
+        documents.forEach(codec::decode);
+
+        boolean hasMore = documents.size() > pageSize;
+        List<Map<String, Object>> page = hasMore ? documents.subList(0, pageSize) : documents;
+        List<RecordChange> changes = page.stream().map(RecordDocuments::toChange).toList();
+        if (hasMore) {
+            Map<String, Object> last = page.getLast();
+            String nextCursor =
+                    new Position(
+                            position.until(),
+                            RecordDocuments.instant(last.get(RecordDocuments.UPDATED_AT)),
+                            last.get(SchemaPaths.ID_PATH))
+                            .encode();
+            return new RecordChangesResponse(changes, nextCursor, true, null);
+        }
+        Instant watermark =
+                since != null && since.isAfter(position.until()) ? since : position.until();
+        return new RecordChangesResponse(changes, null, false, watermark);
+    }
+
+    private Criteria criteria(Position position) {
+        Criteria upperBound =
+                Criteria.where(RecordDocuments.UPDATED_AT).lte(Date.from(position.until()));
+        if (position.after() == null) {
+            return upperBound;
+        }
+        Date after = Date.from(position.after());
+        if (position.lastId() == null) {
+            return upperBound.gt(after);
+        }
+        return new Criteria()
+                .andOperator(
+                        upperBound,
+                        new Criteria()
+                                .orOperator(
+                                        Criteria.where(RecordDocuments.UPDATED_AT).gt(after),
+                                        Criteria.where(RecordDocuments.UPDATED_AT)
+                                                .is(after)
+                                                .and(SchemaPaths.ID_PATH)
+                                                .gt(position.lastId())));
+    }
+
+    private int resolveLimit(Integer limit) {
+        int resolved = limit == null ? properties.getDefaultLimit() : limit;
+        if (resolved < 1 || resolved > properties.getMaxLimit()) {
+            throw new IllegalArgumentException(
+                    "limit must be between 1 and " + properties.getMaxLimit());
+        }
+        return resolved;
+    }
+
+    /**
+     * Where a sync stands: the fixed upper bound of the sync, and the {@code (updatedAt, _id)} of
+     * the last record returned, if any.
+     */
+    private record Position(Instant until, Instant after, Object lastId) {
+        private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+        private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+        /**
+         * The id keeps its BSON type, so the next page compares {@code _id} against the same value.
+         */
+        private String encode() {
+            String id =
+                    switch (lastId) {
+                        case ObjectId objectId -> "o" + objectId.toHexString();
+                        case String string -> "s" + string;
+                        case Long number -> "l" + number;
+                        case Integer number -> "i" + number;
+                        case Double number -> "d" + number;
+                        case null, default ->
+                                throw new IllegalArgumentException(
+                                        "Change cursors support ObjectId, string, int, long and double ids, not "
+                                                + (lastId == null ? "null" : lastId.getClass().getSimpleName()));
+                    };
+            String value = until.toEpochMilli() + ":" + after.toEpochMilli() + ":" + id;
+            return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Position decode(String cursor) {
+            try {
+                String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+                String id = parts[2];
+                Object lastId =
+                        switch (id.charAt(0)) {
+                            case 'o' -> new ObjectId(id.substring(1));
+                            case 's' -> id.substring(1);
+                            case 'l' -> Long.parseLong(id.substring(1));
+                            case 'i' -> Integer.parseInt(id.substring(1));
+                            case 'd' -> Double.parseDouble(id.substring(1));
+                            default -> throw new IllegalArgumentException("Unknown id type");
+                        };
+                return new Position(
+                        Instant.ofEpochMilli(Long.parseLong(parts[0])),
+                        Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                        lastId);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid changes cursor", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.dynapi.service;
+
+import com.dynapi.config.RecordCodecProperties.NumberStorage;
+import com.dynapi.domain.exception.ValidationException;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaMigration;
+import com.dynapi.domain.service.MigrationSteps;
+import com.dynapi.domain.validation.DateValues;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+
+/**
+ * Converts record data to and from its stored BSON form, compiled once from the published field
+ * definitions. Documents are written and read as {@link Document}s, which MongoTemplate passes
+ * to the driver as they are: no reflective mapping and no {@code _class}.
+ *
+ * <p>Encoding gives every schema field its BSON type: NUMBER values become the smallest of
+ * int32, int64 and double that holds them exactly (a Decimal128 otherwise), or always a
+ * Decimal128 with {@link NumberStorage#DECIMAL128}; DATE values, given as dates, instants or
+ * strings accepted by {@link DateValues}, become BSON dates; objects become embedded documents.
+ * Values of fields outside the schema are stored as they are. Decoding only visits NUMBER paths
+ * and turns Decimal128 back into {@link BigDecimal}, after upgrading records stamped with an
+ * earlier schema version by the {@linkplain MigrationSteps migrations} declared since.
+ *
+ * <p>Request bodies can also be {@linkplain #read read} straight from the token stream into their
+ * stored form: every schema value is type-checked as it arrives, with the paths and messages of
+ * {@link com.dynapi.domain.validation.DynamicValidator}, and no intermediate maps are built.
+ */
+final class RecordCodec {
+    private final Integer version;
+    private final NumberStorage numberStorage;
+    private final Map<String, Field> fields;
+    private final Map<String, Field> numberPaths;
+    private final List<SchemaMigration> migrations;
+    private final int migratedVersion;
+
+    private RecordCodec(
+            Integer version,
+            NumberStorage numberStorage,
+            Map<String, Field> fields,
+            List<SchemaMigration> migrations) {
+        this.version = version;
+        this.numberStorage = numberStorage;
+        this.fields = fields;
+        this.numberPaths = numberPaths(fields);
+        this.migrations = migrations == null ? List.of() : List.copyOf(migrations);
+        this.migratedVersion = version == null ? 0 : MigrationSteps.latestVersion(this.migrations);
+    }
+
+    static RecordCodec compile(
+            Integer version, List<FieldDefinition> definitions, NumberStorage numberStorage) {
+        return compile(version, definitions, numberStorage, null);
+    }
+
+    static RecordCodec compile(
+            Integer version,
+            List<FieldDefinition> definitions,
+            NumberStorage numberStorage,
+            List<SchemaMigration> migrations) {
+        return new RecordCodec(version, numberStorage, compile(definitions), migrations);
+    }
+
+    Integer version() {
+        return version;
+    }
+
+    /**
+     * Returns {@code data} in stored form. Documents this codec {@linkplain #read read} already are
+     * and are returned as they are.
+     */
+    Document encode(Map<String, Object> data) {
+        if (data instanceof IngestedDocument ingested && ingested.codec() == this) {
+            return ingested;
+        }
+        return encodeObject(data, fields);
+    }
+
+    /**
+     * Reads the JSON object {@code parser} is positioned on into {@code target}, encoded as
+     * {@link #encode} would. A value of the wrong type, or an array longer than its field's
+     * {@code max}, fails with a {@link ValidationException} before the rest of the body is read;
+     * structure beyond the limits of {@code budget} fails in the same way.
+     */
+    void read(JsonParser parser, Document target, PayloadBudget budget) {
+        readObject(parser, fields, "", target, budget, 1);
+    }
+
+    /**
+     * Reads the JSON value {@code parser} is positioned on without a schema: objects become
+     * documents, arrays lists and numbers the smallest of int, long and BigInteger, or a double.
+     */
+    static Object readUntyped(JsonParser parser, PayloadBudget budget, int depth) {
+        JsonToken token = parser.currentToken();
+        return switch (token) {
+            case START_OBJECT -> {
+                budget.checkDepth(depth);
+                Document document = new Document();
+                while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                    String key = parser.currentName();
+                    budget.checkKeys(document.size() + 1);
+                    parser.nextToken();
+                    document.put(key, readUntyped(parser, budget, depth + 1));
+                }
+                yield document;
+            }
+            case START_ARRAY -> {
+                budget.checkDepth(depth);
+                List<Object> items = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    budget.checkArrayLength(items.size() + 1);
+                    items.add(readUntyped(parser, budget, depth + 1));
+                }
+                yield items;
+            }
+            case VALUE_STRING -> parser.getString();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE -> false;
+            case VALUE_NULL -> null;
+            default -> throw new IllegalArgumentException("Unexpected JSON token: " + token);
+        };
+    }
+
+    /**
+     * The schema version below which stored records still need migration steps applied; 0 when
+     * no migration was declared.
+     */
+    int migratedVersion() {
+        return migratedVersion;
+    }
+
+    /**
+     * Converts {@code document} in place, as read from the driver, and returns it. A document
+     * stamped with a version older than {@link #migratedVersion} is upgraded first and stamped
+     * with this codec's version, so decoding it again applies no step twice.
+     */
+    Map<String, Object> decode(Map<String, Object> document) {
+        if (document == null) {
+            return null;
+        }
+        int stored = RecordDocuments.schemaVersion(document);
+        if (stored < migratedVersion) {
+            MigrationSteps.upgrade(document, migrations, stored, version);
+            document.put(RecordDocuments.SCHEMA_VERSION, version);
+        }
+        if (!numberPaths.isEmpty()) {
+            decodeObject(document, numberPaths);
+        }
+        return document;
+    }
+
+    private static Map<String, Field> compile(List<FieldDefinition> definitions) {
+        Map<String, Field> compiled = new LinkedHashMap<>();
+        if (definitions == null) {
+            return compiled;
+        }
+        for (FieldDefinition definition : definitions) {
+            if (definition == null || definition.getFieldName() == null || definition.getType() == null) {
+                continue;
+            }
+            boolean nested =
+                    (definition.getType() == FieldType.OBJECT || definition.getType() == FieldType.ARRAY)
+                            && definition.getSubFields() != null
+                            && !definition.getSubFields().isEmpty();
+            Integer maxItems =
+                    definition.getType() == FieldType.ARRAY && definition.getMax() != null
+                            ? definition.getMax().intValue()
+                            : null;
+            compiled.put(
+                    definition.getFieldName(),
+                    new Field(
+                            definition.getType(), nested ? compile(definition.getSubFields()) : null, maxItems));
+        }
+        return compiled;
+    }
+
+    /**
+     * The part of the schema tree that leads to NUMBER fields.
+     */
+    private static Map<String, Field> numberPaths(Map<String, Field> fields) {
+        Map<String, Field> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, Field> entry : fields.entrySet()) {
+            Field field = entry.getValue();
+            if (field.type() == FieldType.NUMBER) {
+                paths.put(entry.getKey(), field);
+            } else if (field.children() != null) {
+                Map<String, Field> children = numberPaths(field.children());
+                if (!children.isEmpty()) {
+                    paths.put(entry.getKey(), new Field(field.type(), children, null));
+                }
+            }
+        }
+        return paths;
+    }
+
+    private Document encodeObject(Map<?, ?> data, Map<String, Field> schema) {
+        Document document = new Document();
+        for (Map.Entry<?, ?> entry : data.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            Field field = schema == null ? null : schema.get(key);
+            Object value = entry.getValue();
+            document.put(key, field == null ? encodeUntyped(value) : encode(value, field));
+        }
+        return document;
+    }
+
+    private Object encode(Object value, Field field) {
+        if (value == null) {
+            return null;
+        }
+        return switch (field.type()) {
+            case NUMBER -> value instanceof Number number ? encodeNumber(number) : encodeUntyped(value);
+            case DATE -> encodeDate(value);
+            case OBJECT ->
+                    value instanceof Map<?, ?> map ? encodeObject(map, field.children()) : encodeUntyped(value);
+            case ARRAY -> {
+                if (!(value instanceof Collection<?> items)) {
+                    yield encodeUntyped(value);
+                }
+                List<Object> encoded = new ArrayList<>(items.size());
+                for (Object item : items) {
+                    encoded.add(
+                            field.children() != null && item instanceof Map<?, ?> map
+                                    ? encodeObject(map, field.children())
+                                    : encodeUntyped(item));
+                }
+                yield encoded;
+            }
+            case STRING, BOOLEAN -> value;
+        };
+    }
+
+    private Object encodeUntyped(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return encodeObject(map, null);
+        }
+        if (value instanceof Collection<?> items) {
+            List<Object> encoded = new ArrayList<>(items.size());
+            for (Object item : items) {
+                encoded.add(encodeUntyped(item));
+            }
+            return encoded;
+        }
+        return value;
+    }
+
+    /**
+     * Returns {@code value}, a query operand compared with a NUMBER field, in the BSON type the
+     * field is stored as. Only {@link NumberStorage#DECIMAL128} needs this: Mongo compares the
+     * native numeric types with each other exactly, but a double operand such as 0.1 never equals
+     * the stored {@code NumberDecimal("0.1")}. Other values are returned as they are.
+     */
+    Object queryNumber(Object value) {
+        return queryNumber(value, numberStorage);
+    }
+
+    static Object queryNumber(Object value, NumberStorage numberStorage) {
+        return numberStorage == NumberStorage.DECIMAL128 && value instanceof Number number
+                ? encodeNumber(number, numberStorage)
+                : value;
+    }
+
+    private Object encodeNumber(Number number) {
+        return encodeNumber(number, numberStorage);
+    }
+
+    private static Object encodeNumber(Number number, NumberStorage numberStorage) {
+        if (numberStorage == NumberStorage.DECIMAL128) {
+            return number instanceof Decimal128 ? number : decimal128(toBigDecimal(number));
+        }
+        return switch (number) {
+            case Integer value -> value;
+            case Short value -> value.intValue();
+            case Byte value -> value.intValue();
+            case Long value -> narrow(value);
+            case Double value -> value;
+            case Float value -> Double.parseDouble(value.toString());
+            case BigInteger value ->
+                    value.bitLength() < Long.SIZE ? narrow(value.longValue()) : exact(new BigDecimal(value));
+            case BigDecimal value -> exact(value);
+            default -> number;
+        };
+    }
+
+    private static Object narrow(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : value;
+    }
+
+    /**
+     * An integral value as int32 or int64, otherwise a double if it holds the value exactly, and a
+     * Decimal128 as the last resort.
+     */
+    private static Object exact(BigDecimal value) {
+        if (value.signum() == 0 || value.stripTrailingZeros().scale() <= 0) {
+            try {
+                return narrow(value.longValueExact());
+            } catch (ArithmeticException ignored) {
+                // Beyond int64; try double, then Decimal128.
+            }
+        }
+        double real = value.doubleValue();
+        if (Double.isFinite(real) && new BigDecimal(Double.toString(real)).compareTo(value) == 0) {
+            return real;
+        }
+        return decimal128(value);
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        return switch (number) {
+            case BigDecimal value -> value;
+            case BigInteger value -> new BigDecimal(value);
+            case Integer value -> BigDecimal.valueOf(value);
+            case Long value -> BigDecimal.valueOf(value);
+            case Short value -> BigDecimal.valueOf(value);
+            case Byte value -> BigDecimal.valueOf(value);
+            default -> new BigDecimal(number.toString());
+        };
+    }
+
+    private static Decimal128 decimal128(BigDecimal value) {
+        return new Decimal128(value.round(MathContext.DECIMAL128));
+    }
+
+    private static Object encodeDate(Object value) {
+        return switch (value) {
+            case Date date -> date;
+            case Instant instant -> Date.from(instant);
+            case OffsetDateTime dateTime -> Date.from(dateTime.toInstant());
+            case ZonedDateTime dateTime -> Date.from(dateTime.toInstant());
+            case String text -> {
+                Date date = DateValues.parse(text);
+                yield date == null ? text : date;
+            }
+            default -> value;
+        };
+    }
+
+    private void readObject(
+            JsonParser parser,
+            Map<String, Field> schema,
+            String path,
+            Document target,
+            PayloadBudget budget,
+            int depth) {
+        budget.checkDepth(depth);
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String key = parser.currentName();
+            budget.checkKeys(target.size() + 1);
+            parser.nextToken();
+            Field field = schema == null ? null : schema.get(key);
+            target.put(
+                    key,
+                    field == null
+                            ? readUntyped(parser, budget, depth + 1)
+                            : read(parser, field, path.isEmpty() ? key : path + "." + key, budget, depth + 1));
+        }
+    }
+
+    private Object read(JsonParser parser, Field field, String path, PayloadBudget budget, int depth) {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return switch (field.type()) {
+            case STRING -> {
+                expect(token == JsonToken.VALUE_STRING, path, "Must be a string");
+                yield parser.getString();
+            }
+            case NUMBER -> {
+                expect(token.isNumeric(), path, "Must be a number");
+                yield encodeNumber(
+                        token == JsonToken.VALUE_NUMBER_INT ? parser.getNumberValue() : parser.getDecimalValue());
+            }
+            case BOOLEAN -> {
+                expect(token.isBoolean(), path, "Must be a boolean");
+                yield token == JsonToken.VALUE_TRUE;
+            }
+            case DATE -> {
+                expect(token == JsonToken.VALUE_STRING, path, "Must be a date string");
+                Date date = DateValues.parse(parser.getString());
+                expect(date != null, path, "Must be an ISO-8601 date or date-time");
+                yield date;
+            }
+            case OBJECT -> {
+                expect(token == JsonToken.START_OBJECT, path, "Must be an object");
+                Document document = new Document();
+                readObject(parser, field.children(), path, document, budget, depth);
+                yield document;
+            }
+            case ARRAY -> {
+                expect(token == JsonToken.START_ARRAY, path, "Must be an array");
+                budget.checkDepth(depth);
+                List<Object> items = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    expect(
+                            field.maxItems() == null || items.size() < field.maxItems(),
+                            path,
+                            "Array size must be <= " + field.maxItems());
+                    budget.checkArrayLength(items.size() + 1);
+                    if (field.children() == null) {
+                        items.add(readUntyped(parser, budget, depth + 1));
+                        continue;
+                    }
+                    String itemPath = path + "[" + items.size() + "]";
+                    expect(parser.currentToken() == JsonToken.START_OBJECT, itemPath, "Must be an object");
+                    Document item = new Document();
+                    readObject(parser, field.children(), itemPath, item, budget, depth + 1);
+                    items.add(item);
+                }
+                yield items;
+            }
+        };
+    }
+
+    private static void expect(boolean condition, String path, String message) {
+        if (!condition) {
+            throw new ValidationException(path, message);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void decodeObject(Map<String, Object> document, Map<String, Field> paths) {
+        for (Map.Entry<String, Field> entry : paths.entrySet()) {
+            Object value = document.get(entry.getKey());
+            Field field = entry.getValue();
+            if (field.type() == FieldType.NUMBER) {
+                if (value instanceof Decimal128) {
+                    document.put(entry.getKey(), decodeNumber(value));
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                decodeObject((Map<String, Object>) map, field.children());
+            } else if (value instanceof List<?> items) {
+                for (Object item : items) {
+                    if (item instanceof Map<?, ?> map) {
+                        decodeObject((Map<String, Object>) map, field.children());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns a Decimal128 read back from Mongo, such as a stored NUMBER or a sum over stored NUMBERs,
+     * into a {@link BigDecimal}; any other value is returned as is.
+     */
+    static Object decodeNumber(Object value) {
+        return value instanceof Decimal128 decimal ? decodeDecimal(decimal) : value;
+    }
+
+    private static Number decodeDecimal(Decimal128 decimal) {
+        if (decimal.isNaN() || decimal.isInfinite()) {
+            return decimal.doubleValue();
+        }
+        try {
+            return decimal.bigDecimalValue();
+        } catch (ArithmeticException ex) {
+            // Negative zero has no BigDecimal form.
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Children are the sub-fields of OBJECT fields and of the items of ARRAY fields; maxItems is
+     * the declared {@code max} of ARRAY fields.
+     */
+    private record Field(FieldType type, Map<String, Field> children, Integer maxItems) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.dynapi.service;
+
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.SchemaVersion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link RecordCodec}s of the published schemas, compiled once per entity and schema version.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecordCodecs {
+    private final RecordCodecProperties properties;
+    private final Map<String, RecordCodec> codecs = new ConcurrentHashMap<>();
+
+    RecordCodec forSchema(SchemaVersion schema) {
+        String entity = schema.getEntityName();
+        Integer version = schema.getVersion();
+        if (entity == null || version == null) {
+            return compile(schema);
+        }
+        RecordCodec codec = codecs.get(entity);
+        if (codec == null || !version.equals(codec.version())) {
+            codec = compile(schema);
+            codecs.put(entity, codec);
+        }
+        return codec;
+    }
+
+    /**
+     * Compiles a codec for {@code schema} without caching it, for schemas that are not published.
+     */
+    RecordCodec compile(SchemaVersion schema) {
+        return RecordCodec.compile(
+                schema.getVersion(), schema.getFields(), properties.getNumberStorage(), schema.getMigrations());
+    }
+}
@@ -0,0 +1,70 @@
+package com.dynapi.service;
+
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.RecordChange;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fields maintained by the service layer on every record document, and the mapping of stored
+ * documents to {@link FormRecordDto}. Timestamps are stored as BSON dates.
+ */
+final class RecordDocuments {
+    static final String CREATED_AT = "createdAt";
+    static final String UPDATED_AT = "updatedAt";
+    /**
+     * Version of the published schema a record was last written under; absent on records written
+     * before versions were stamped, which count as version 0.
+     */
+    static final String SCHEMA_VERSION = "schemaVersion";
+    static final Set<String> SYSTEM_FIELDS =
+            Set.of(
+                    "_id",
+                    "_class",
+                    "deleted",
+                    "deletedAt",
+                    "deletedBy",
+                    CREATED_AT,
+                    UPDATED_AT,
+                    SCHEMA_VERSION);
+
+    private RecordDocuments() {
+    }
+
+    static int schemaVersion(Map<String, Object> document) {
+        return document.get(SCHEMA_VERSION) instanceof Number version ? version.intValue() : 0;
+    }
+
+    static Map<String, Object> data(Map<String, Object> document) {
+        Map<String, Object> data = new LinkedHashMap<>(document);
+        data.keySet().removeAll(SYSTEM_FIELDS);
+        return data;
+    }
+
+    static FormRecordDto toDto(Map<String, Object> document) {
+        String id = document.get("_id") == null ? null : document.get("_id").toString();
+        return new FormRecordDto(
+                id, data(document), instant(document.get(CREATED_AT)), instant(document.get(UPDATED_AT)));
+    }
+
+    /**
+     * Soft-deleted records are reported without their data.
+     */
+    static RecordChange toChange(Map<String, Object> document) {
+        boolean deleted = Boolean.TRUE.equals(document.get("deleted"));
+        return new RecordChange(
+                document.get("_id") == null ? null : document.get("_id").toString(),
+                deleted,
+                instant(document.get(CREATED_AT)),
+                instant(document.get(UPDATED_AT)),
+                deleted ? null : data(document));
+    }
+
+    static Instant instant(Object value) {
+        return value instanceof Date date ? date.toInstant() : null;
+    }
+}
@@ -0,0 +1,127 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.FormSubmissionRequest;
+import com.dynapi.dto.RecordMutationRequest;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Reads form submissions and record mutations from a JSON token stream. When the published schema
+ * of the target entity is known by the time {@code data} starts, the data is type-checked and
+ * encoded while it is read ({@link RecordCodec#read}); otherwise it is read untyped and the
+ * services encode it as before. Either way it arrives as a {@link Document}, without the
+ * intermediate maps of generic data binding.
+ *
+ * <p>Bodies are limited in bytes, and {@code data} in depth, keys per object and array length,
+ * as configured for the entity (see {@link PayloadLimiter}). Limits are checked while reading, so
+ * an oversized body is rejected before it is held in memory.
+ *
+ * <p>The entity of a form is known only if {@code group} precedes {@code data} in the body. Until
+ * then the default limits apply. Record mutations are limited as configured for the entity in
+ * their path from the start.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecordPayloadReader {
+    private final FormSubmissionService formSubmissionService;
+    private final DynamicRecordService dynamicRecordService;
+    private final RecordCodecs recordCodecs;
+    private final PayloadLimiter payloadLimiter;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Reads a form submission. {@code contentLength} is the declared body length, negative if
+     * unknown.
+     */
+    public FormSubmissionRequest readSubmission(InputStream body, long contentLength) {
+        PayloadBudget budget = payloadLimiter.budget(null);
+        budget.checkBytes(contentLength);
+        try (JsonParser parser = jsonMapper.createParser(budget.bound(body))) {
+            startBody(parser);
+            String group = null;
+            Map<String, Object> data = null;
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("group".equals(name)) {
+                    if (token.isStructStart()) {
+                        throw new IllegalArgumentException("group must be a string");
+                    }
+                    group = parser.getValueAsString();
+                } else if ("data".equals(name)) {
+                    String groupName = group;
+                    data =
+                            readData(
+                                    parser,
+                                    budget,
+                                    () ->
+                                            groupName == null || groupName.isBlank()
+                                                    ? null
+                                                    : formSubmissionService.payloadSchema(groupName));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new FormSubmissionRequest(group, data);
+        }
+    }
+
+    /**
+     * Reads a mutation of a record of {@code entity}. {@code contentLength} is the declared body
+     * length, negative if unknown.
+     */
+    public RecordMutationRequest readMutation(InputStream body, long contentLength, String entity) {
+        PayloadBudget budget = payloadLimiter.budget(entity);
+        budget.checkBytes(contentLength);
+        try (JsonParser parser = jsonMapper.createParser(budget.bound(body))) {
+            startBody(parser);
+            Map<String, Object> data = null;
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if ("data".equals(name)) {
+                    data = readData(parser, budget, () -> dynamicRecordService.payloadSchema(entity));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new RecordMutationRequest(data);
+        }
+    }
+
+    private void startBody(JsonParser parser) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Request body must be a JSON object");
+        }
+    }
+
+    private Map<String, Object> readData(
+            JsonParser parser, PayloadBudget budget, Supplier<SchemaVersion> schemaLookup) {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("data must be a JSON object");
+        }
+        SchemaVersion schema = schemaLookup.get();
+        if (schema == null) {
+            return (Document) RecordCodec.readUntyped(parser, budget, 1);
+        }
+        budget.limitTo(schema.getEntityName());
+        RecordCodec codec = recordCodecs.forSchema(schema);
+        IngestedDocument data = new IngestedDocument(codec, schema);
+        codec.read(parser, data, budget);
+        return data;
+    }
+}
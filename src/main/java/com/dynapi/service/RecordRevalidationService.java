@@ -0,0 +1,333 @@
+package com.dynapi.service;
+
+import com.dynapi.config.RecordValidationProperties;
+import com.dynapi.domain.exception.EntityNotFoundException;
+import com.dynapi.domain.exception.ValidationException;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.validation.DynamicValidator;
+import com.dynapi.dto.RevalidationFinding;
+import com.dynapi.dto.RevalidationJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates, in the background, the stored records of an entity against its published schema, for
+ * instance after a rollback or a manual data fix. Active records are streamed from the collection,
+ * read at no more than {@code max-records-per-second}, and checked on the workers of a
+ * {@link RecordValidationPipeline}; the first violation of each invalid record is written to the
+ * {@value #REPORT_COLLECTION} collection in batches.
+ *
+ * <p>Jobs are tracked in memory, one running job per entity, and the reports of finished jobs
+ * beyond {@code retained-jobs} are removed with them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecordRevalidationService {
+    static final String REPORT_COLLECTION = "record_revalidation_reports";
+    private static final int MAX_FINDINGS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final RecordCodecs recordCodecs;
+    private final DynamicValidator dynamicValidator;
+    private final RecordValidationProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private volatile boolean reportsIndexed;
+
+    /**
+     * Starts revalidating the records of {@code entity}; {@code cursorBatchSize} overrides the
+     * configured number of documents fetched per cursor round-trip.
+     */
+    public synchronized RevalidationJobStatus start(String entity, Integer cursorBatchSize) {
+        if (cursorBatchSize != null && cursorBatchSize < 1) {
+            throw new IllegalArgumentException("Cursor batch size must be positive");
+        }
+        for (Job job : jobs.values()) {
+            if (job.entity.equals(entity) && job.state == State.RUNNING) {
+                throw new IllegalArgumentException(
+                        "Revalidation " + job.id + " of entity '" + entity + "' is still running");
+            }
+        }
+        SchemaVersion schema = schemaLifecycleService.latestPublished(entity);
+        ensureReportIndex();
+
+        Job job = new Job(UUID.randomUUID().toString(), entity, schema.getVersion(), properties.getMaxExamples());
+        jobs.put(job.id, job);
+        prune();
+        int batchSize = cursorBatchSize != null ? cursorBatchSize : Math.max(1, properties.getCursorBatchSize());
+        executor.submit(() -> run(job, schema, batchSize));
+        return job.status();
+    }
+
+    public synchronized RevalidationJobStatus status(String jobId) {
+        return job(jobId).status();
+    }
+
+    /**
+     * Every tracked job, most recently started first.
+     */
+    public synchronized List<RevalidationJobStatus> jobs() {
+        return jobs.values().stream().map(Job::status).toList().reversed();
+    }
+
+    /**
+     * Stops a running job after the records already read are validated and reported.
+     */
+    public synchronized RevalidationJobStatus cancel(String jobId) {
+        Job job = job(jobId);
+        job.cancelled.set(true);
+        return job.status();
+    }
+
+    /**
+     * Invalid records reported by a job, in the order they were found.
+     */
+    public List<RevalidationFinding> findings(String jobId, int limit) {
+        if (limit < 1 || limit > MAX_FINDINGS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FINDINGS);
+        }
+        Query query =
+                new Query(Criteria.where("jobId").is(jobId))
+                        .with(Sort.by(SchemaPaths.ID_PATH))
+                        .limit(limit);
+        return mongoTemplate.find(query, Document.class, REPORT_COLLECTION).stream()
+                .map(
+                        report ->
+                                new RevalidationFinding(
+                                        report.getString("recordId"),
+                                        report.getString("path"),
+                                        report.getString("rule")))
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, SchemaVersion schema, int cursorBatchSize) {
+        RecordValidationPipeline pipeline =
+                new RecordValidationPipeline(
+                        dynamicValidator,
+                        recordCodecs.forSchema(schema),
+                        schema.getFields(),
+                        properties.getWorkers(),
+                        properties.getQueueCapacity());
+        ReportWriter reports = new ReportWriter(job);
+        Query query = new Query(Criteria.where("deleted").ne(true)).cursorBatchSize(cursorBatchSize);
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, job.entity)) {
+            pipeline.run(
+                    throttle(documents.iterator()),
+                    job.cancelled::get,
+                    (document, violation) -> {
+                        job.tally.onRecord(document, violation);
+                        if (violation != null) {
+                            reports.add(document, violation);
+                        }
+                        job.scanned.increment();
+                    });
+            reports.flush();
+            job.finish(job.cancelled.get() ? State.CANCELLED : State.COMPLETED, null);
+            log.info(
+                    "Revalidation {} of entity '{}' {}: {} records scanned, {} invalid",
+                    job.id,
+                    job.entity,
+                    job.state.name().toLowerCase(),
+                    job.scanned.sum(),
+                    job.tally.invalid());
+        } catch (RuntimeException ex) {
+            log.warn("Revalidation {} of entity '{}' failed: {}", job.id, job.entity, ex.getMessage());
+            job.finish(State.FAILED, ex.getMessage());
+        }
+    }
+
+    /**
+     * Paces reads from the cursor so that no more than {@code max-records-per-second} records are
+     * read on average since the start; the cursor fetches its next batch only when reading needs
+     * it, so the rate caps Mongo round-trips as well.
+     */
+    private Iterator<Document> throttle(Iterator<Document> documents) {
+        int perSecond = properties.getMaxRecordsPerSecond();
+        if (perSecond <= 0) {
+            return documents;
+        }
+        long started = System.nanoTime();
+        return new Iterator<>() {
+            private long read;
+
+            @Override
+            public boolean hasNext() {
+                return documents.hasNext();
+            }
+
+            @Override
+            public Document next() {
+                long wait = started + read++ * TimeUnit.SECONDS.toNanos(1) / perSecond - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Record revalidation was interrupted", ex);
+                    }
+                }
+                return documents.next();
+            }
+        };
+    }
+
+    private Job job(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Revalidation job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void prune() {
+        int retained = Math.max(0, properties.getRetainedJobs());
+        List<Job> finished = jobs.values().stream().filter(job -> job.state != State.RUNNING).toList();
+        for (Job job : finished.subList(0, Math.max(0, finished.size() - retained))) {
+            jobs.remove(job.id);
+            mongoTemplate.remove(new Query(Criteria.where("jobId").is(job.id)), REPORT_COLLECTION);
+        }
+    }
+
+    private void ensureReportIndex() {
+        if (!reportsIndexed) {
+            mongoTemplate.indexOps(REPORT_COLLECTION).ensureIndex(new Index().on("jobId", Sort.Direction.ASC));
+            reportsIndexed = true;
+        }
+    }
+
+    private enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String entity;
+        private final Integer schemaVersion;
+        private final ViolationTally tally;
+        private final LongAdder scanned = new LongAdder();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private volatile State state = State.RUNNING;
+        private volatile long finishedNanos;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Job(String id, String entity, Integer schemaVersion, int maxExamples) {
+            this.id = id;
+            this.entity = entity;
+            this.schemaVersion = schemaVersion;
+            this.tally = new ViolationTally(maxExamples);
+        }
+
+        void finish(State state, String error) {
+            this.finishedNanos = System.nanoTime();
+            this.finishedAt = LocalDateTime.now();
+            this.error = error;
+            this.state = state;
+        }
+
+        RevalidationJobStatus status() {
+            long scanned = this.scanned.sum();
+            long elapsed = (state == State.RUNNING ? System.nanoTime() : finishedNanos) - startedNanos;
+            double perSecond = elapsed > 0 ? scanned * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+            return new RevalidationJobStatus(
+                    id,
+                    entity,
+                    schemaVersion,
+                    state.name(),
+                    scanned,
+                    tally.invalid(),
+                    Math.round(perSecond * 10) / 10.0,
+                    startedAt,
+                    finishedAt,
+                    error,
+                    tally.summaries());
+        }
+    }
+
+    /**
+     * Buffers the reports of a job's workers and inserts them {@code report-batch-size} at a time.
+     * A full buffer is swapped for an empty one under the lock and inserted after it is released,
+     * so workers keep reporting while a batch is written.
+     */
+    private final class ReportWriter {
+        private final Job job;
+        private List<Document> buffer = new ArrayList<>();
+
+        ReportWriter(Job job) {
+            this.job = job;
+        }
+
+        void add(Document document, ValidationException violation) {
+            Document report =
+                    new Document("jobId", job.id)
+                            .append("entity", job.entity)
+                            .append("schemaVersion", job.schemaVersion)
+                            .append("recordId", String.valueOf(document.get(SchemaPaths.ID_PATH)))
+                            .append("path", violation.getField())
+                            .append("rule", violation.getMessage())
+                            .append("reportedAt", new Date());
+            List<Document> batch = null;
+            synchronized (this) {
+                buffer.add(report);
+                if (buffer.size() >= Math.max(1, properties.getReportBatchSize())) {
+                    batch = swap();
+                }
+            }
+            if (batch != null) {
+                mongoTemplate.insert(batch, REPORT_COLLECTION);
+            }
+        }
+
+        void flush() {
+            List<Document> batch;
+            synchronized (this) {
+                batch = swap();
+            }
+            if (!batch.isEmpty()) {
+                mongoTemplate.insert(batch, REPORT_COLLECTION);
+            }
+        }
+
+        private List<Document> swap() {
+            List<Document> batch = buffer;
+            buffer = new ArrayList<>();
+            return batch;
+        }
+    }
+}
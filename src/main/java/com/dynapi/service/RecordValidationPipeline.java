@@ -0,0 +1,120 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.exception.ValidationException;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.validation.DynamicValidator;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.bson.Document;
+
+/**
+ * Validates stored records against a schema on a fixed number of virtual-thread workers. Records
+ * are handed over through a bounded queue, so the cursor is never read more than
+ * {@code queueCapacity} records ahead of validation. Each record is decoded, and upgraded by the
+ * codec's migrations, before {@link DynamicValidator} checks it; the first violation of a record
+ * is reported with the path and message the validator gives it.
+ */
+final class RecordValidationPipeline {
+    private static final Document END = new Document();
+
+    private final DynamicValidator validator;
+    private final RecordCodec codec;
+    private final List<FieldDefinition> fields;
+    private final int workers;
+    private final int queueCapacity;
+
+    RecordValidationPipeline(
+            DynamicValidator validator,
+            RecordCodec codec,
+            List<FieldDefinition> fields,
+            int workers,
+            int queueCapacity) {
+        this.validator = validator;
+        this.codec = codec;
+        this.fields = fields == null ? List.of() : fields;
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * Called from the worker threads once per record, with its first violation or null when it is
+     * valid. An exception thrown here stops the scan and is rethrown by {@link #run}.
+     */
+    interface Listener {
+        void onRecord(Document document, ValidationException violation);
+    }
+
+    /**
+     * Validates {@code documents} until they run out or {@code cancelled} returns true, and returns
+     * how many were read. Returns once every record read has been reported.
+     */
+    long run(Iterator<Document> documents, BooleanSupplier cancelled, Listener listener) {
+        BlockingQueue<Document> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long read = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < workers; i++) {
+                executor.submit(() -> work(queue, listener, failure));
+            }
+            try {
+                while (failure.get() == null && !cancelled.getAsBoolean() && documents.hasNext()) {
+                    queue.put(documents.next());
+                    read++;
+                }
+                for (int i = 0; i < workers; i++) {
+                    queue.put(END);
+                }
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Record validation was interrupted", ex);
+            } catch (RuntimeException ex) {
+                executor.shutdownNow();
+                throw ex;
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return read;
+    }
+
+    private void work(
+            BlockingQueue<Document> queue, Listener listener, AtomicReference<RuntimeException> failure) {
+        try {
+            for (Document document = queue.take(); document != END; document = queue.take()) {
+                // After a failure the queue is still drained, so that reading never waits on it.
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    listener.onRecord(document, check(document));
+                } catch (RuntimeException ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ValidationException check(Document document) {
+        try {
+            validator.validate(RecordDocuments.data(codec.decode(document)), fields, Locale.ROOT);
+            return null;
+        } catch (ValidationException ex) {
+            return ex;
+        } catch (RuntimeException ex) {
+            return new ValidationException("", "Unreadable record: " + ex.getMessage());
+        }
+    }
+}
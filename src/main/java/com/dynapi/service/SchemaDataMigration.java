@@ -0,0 +1,192 @@
+package com.dynapi.service;
+
+import com.dynapi.config.SchemaMigrationProperties;
+import com.dynapi.domain.model.MigrationCheckpoint;
+import com.dynapi.domain.model.SchemaLifecycleStatus;
+import com.dynapi.domain.model.SchemaVersion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rewrites, in the background, the records stamped with a schema version older than the
+ * migrations declared by the published schema, so that stored data and filters catch up with
+ * what reads already return after the lazy upgrade in {@link RecordCodec#decode}.
+ *
+ * <p>Records are read in {@code _id} order and replaced in unordered bulk writes, each guarded by
+ * the stamp that was read so that concurrent writes win. A {@link MigrationCheckpoint} is saved
+ * after every batch: a restarted migration resumes after the last record read, and a completed
+ * one is not scanned again until a newer version is published. {@code updatedAt} is left alone,
+ * since reads returned the upgraded data before.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchemaDataMigration {
+    private final MongoTemplate mongoTemplate;
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final RecordCodecs recordCodecs;
+    private final RecordCache recordCache;
+    private final EntityWriteGenerations writeGenerations;
+    private final SchemaMigrationProperties properties;
+
+    private final BackgroundRun runs = new BackgroundRun("schema migration");
+
+    /**
+     * Starts a pass over every entity with a published schema on a thread of its own, see
+     * {@link BackgroundRun}.
+     */
+    @Scheduled(
+            initialDelayString = "${dynapi.records.schema-migration.interval:PT1M}",
+            fixedDelayString = "${dynapi.records.schema-migration.interval:PT1M}")
+    public void migrate() {
+        if (properties.isEnabled()) {
+            runs.trigger(this::migrateAll);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runs.shutdown();
+    }
+
+    private void migrateAll() {
+        Query published = new Query(Criteria.where("status").is(SchemaLifecycleStatus.PUBLISHED));
+        List<String> entities =
+                mongoTemplate.findDistinct(published, "entityName", SchemaVersion.class, String.class);
+        for (String entity : entities) {
+            try {
+                migrate(entity);
+            } catch (RuntimeException ex) {
+                log.warn("Schema migration failed for entity '{}': {}", entity, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Upgrades the outdated records of {@code entity}, resuming from its checkpoint, and returns
+     * how many were rewritten.
+     */
+    public long migrate(String entity) {
+        SchemaVersion schema = schemaLifecycleService.latestPublished(entity);
+        RecordCodec codec = recordCodecs.forSchema(schema);
+        if (codec.migratedVersion() == 0) {
+            return 0;
+        }
+        MigrationCheckpoint checkpoint = mongoTemplate.findById(entity, MigrationCheckpoint.class);
+        if (checkpoint == null || !Objects.equals(checkpoint.getTargetVersion(), schema.getVersion())) {
+            checkpoint = new MigrationCheckpoint();
+            checkpoint.setEntity(entity);
+            checkpoint.setTargetVersion(schema.getVersion());
+            checkpoint.setStartedAt(LocalDateTime.now());
+        } else if (checkpoint.getCompletedAt() != null) {
+            return 0;
+        }
+
+        Criteria outdated =
+                new Criteria()
+                        .orOperator(
+                                Criteria.where(RecordDocuments.SCHEMA_VERSION).exists(false),
+                                Criteria.where(RecordDocuments.SCHEMA_VERSION).lt(codec.migratedVersion()));
+        int batchSize = Math.max(1, properties.getBatchSize());
+        long migrated = 0;
+        List<Document> batch;
+        do {
+            Object lastId = checkpoint.getLastId();
+            Criteria criteria =
+                    lastId == null
+                            ? outdated
+                            : new Criteria()
+                                    .andOperator(outdated, Criteria.where(SchemaPaths.ID_PATH).gt(lastId));
+            Query query = new Query(criteria).with(Sort.by(SchemaPaths.ID_PATH)).limit(batchSize);
+            batch = mongoTemplate.find(query, Document.class, entity);
+            if (batch.isEmpty()) {
+                break;
+            }
+            long modified = write(entity, batch, codec);
+            migrated += modified;
+            checkpoint.setMigrated(checkpoint.getMigrated() + modified);
+            checkpoint.setSkipped(checkpoint.getSkipped() + batch.size() - modified);
+            checkpoint.setLastId(batch.getLast().get(SchemaPaths.ID_PATH));
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(checkpoint);
+            if (batch.size() == batchSize) {
+                pause();
+            }
+        } while (batch.size() == batchSize);
+
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getCompletedAt());
+        mongoTemplate.save(checkpoint);
+        if (migrated > 0) {
+            writeGenerations.bump(entity);
+            log.info(
+                    "Migrated {} records of entity '{}' to schema version {}",
+                    migrated,
+                    entity,
+                    schema.getVersion());
+        }
+        return migrated;
+    }
+
+    /**
+     * Checkpoints of every entity's latest migration.
+     */
+    public List<MigrationCheckpoint> checkpoints() {
+        return mongoTemplate.findAll(MigrationCheckpoint.class);
+    }
+
+    private long write(String entity, List<Document> batch, RecordCodec codec) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entity);
+        for (Document document : batch) {
+            Object id = document.get(SchemaPaths.ID_PATH);
+            Object stamp = document.get(RecordDocuments.SCHEMA_VERSION);
+            Document upgraded = codec.encode(RecordDocuments.data(codec.decode(document)));
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (RecordDocuments.SYSTEM_FIELDS.contains(entry.getKey())) {
+                    upgraded.put(entry.getKey(), entry.getValue());
+                }
+            }
+            upgraded.put(RecordDocuments.SCHEMA_VERSION, codec.version());
+            Query current =
+                    new Query(
+                            Criteria.where(SchemaPaths.ID_PATH)
+                                    .is(id)
+                                    .and(RecordDocuments.SCHEMA_VERSION)
+                                    .is(stamp));
+            bulk.replaceOne(current, upgraded);
+        }
+        long modified = bulk.execute().getModifiedCount();
+        for (Document document : batch) {
+            recordCache.invalidate(entity, String.valueOf(document.get(SchemaPaths.ID_PATH)));
+        }
+        return modified;
+    }
+
+    private void pause() {
+        long millis = properties.getBatchPause() == null ? 0 : properties.getBatchPause().toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Schema migration interrupted", ex);
+        }
+    }
+}
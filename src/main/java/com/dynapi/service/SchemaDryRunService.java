@@ -0,0 +1,80 @@
+package com.dynapi.service;
+
+import com.dynapi.config.RecordValidationProperties;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.validation.DynamicValidator;
+import com.dynapi.dto.SchemaDryRunReport;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates the stored records of an entity against the snapshot a publish would create, without
+ * publishing it. The definitions-only checks of {@link SchemaLifecycleService#publish} run first;
+ * then every active record, or a random sample of them, is streamed from the collection and
+ * validated in parallel, after the snapshot's migrations upgrade it as reads would.
+ */
+@Service
+@RequiredArgsConstructor
+public class SchemaDryRunService {
+    private final SchemaLifecycleService schemaLifecycleService;
+    private final RecordCodecs recordCodecs;
+    private final DynamicValidator dynamicValidator;
+    private final MongoTemplate mongoTemplate;
+    private final RecordValidationProperties properties;
+
+    /**
+     * Validates the records of the field group's entity; {@code sampleSize}, when given, limits the
+     * scan to that many randomly chosen records.
+     */
+    public SchemaDryRunReport dryRun(String groupId, List<MigrationStep> migrations, Integer sampleSize) {
+        if (sampleSize != null && (sampleSize < 1 || sampleSize > properties.getMaxSampleSize())) {
+            throw new IllegalArgumentException(
+                    "Sample size must be between 1 and " + properties.getMaxSampleSize());
+        }
+        SchemaVersion candidate = schemaLifecycleService.candidate(groupId, migrations);
+        String entity = candidate.getEntityName();
+        RecordValidationPipeline pipeline =
+                new RecordValidationPipeline(
+                        dynamicValidator,
+                        recordCodecs.compile(candidate),
+                        candidate.getFields(),
+                        properties.getWorkers(),
+                        properties.getQueueCapacity());
+        ViolationTally tally = new ViolationTally(properties.getMaxExamples());
+
+        long started = System.nanoTime();
+        long scanned;
+        try (Stream<Document> documents = stream(entity, sampleSize)) {
+            scanned = pipeline.run(documents.iterator(), () -> false, tally);
+        }
+        return new SchemaDryRunReport(
+                entity,
+                candidate.getVersion(),
+                sampleSize != null,
+                scanned,
+                tally.invalid(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                tally.summaries());
+    }
+
+    private Stream<Document> stream(String entity, Integer sampleSize) {
+        Criteria active = Criteria.where("deleted").ne(true);
+        if (sampleSize == null) {
+            Query query = new Query(active).cursorBatchSize(Math.max(1, properties.getCursorBatchSize()));
+            return mongoTemplate.stream(query, Document.class, entity);
+        }
+        Aggregation sample = Aggregation.newAggregation(Aggregation.match(active), Aggregation.sample(sampleSize));
+        return mongoTemplate.aggregateStream(sample, entity, Document.class);
+    }
+}
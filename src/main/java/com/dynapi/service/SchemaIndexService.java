@@ -1,29 +1,46 @@
 package com.dynapi.service;
 
+import com.dynapi.domain.model.CompoundIndexDefinition;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
 import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.SchemaIndexPlanAction;
 import com.dynapi.dto.SchemaIndexSyncResult;
+import com.mongodb.MongoException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
 import org.springframework.data.mongodb.core.index.IndexInfo;
 import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SchemaIndexService {
+    static final String MANAGED_INDEX_PREFIX = "dynapi_";
+    static final String TEXT_INDEX_SUFFIX = "text";
+    static final String CHANGES_INDEX_SUFFIX = "changes";
+
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
     private static final Set<FieldType> INDEX_SUPPORTED_TYPES =
             Set.of(FieldType.STRING, FieldType.NUMBER, FieldType.BOOLEAN, FieldType.DATE);
 
@@ -31,65 +48,370 @@ public class SchemaIndexService {
     private final MongoTemplate mongoTemplate;
 
     public SchemaIndexSyncResult syncIndexes(String entity) {
-        SchemaVersion published = schemaLifecycleService.latestPublished(entity);
-        List<IndexSpec> indexSpecs = collectIndexSpecs(published.getFields());
+        return syncIndexes(entity, false);
+    }
 
-        if (indexSpecs.isEmpty()) {
-            return new SchemaIndexSyncResult(entity, published.getVersion(), 0, 0, List.of(), List.of());
-        }
+    /**
+     * Reconciles the entity collection with the indexes declared by the latest published schema,
+     * plus the {@code updatedAt, _id} index serving change feeds. Missing indexes are created,
+     * matching ones are kept and stale {@code dynapi_*} indexes are dropped. With {@code dryRun}
+     * the plan is computed and returned without touching Mongo.
+     */
+    public SchemaIndexSyncResult syncIndexes(String entity, boolean dryRun) {
+        return syncIndexes(entity, dryRun, List.of());
+    }
+
+    /**
+     * Same as {@link #syncIndexes(String, boolean)}, with {@code additionalIndexes} planned as if
+     * they were declared by the published schema. Used to preview advisor recommendations.
+     */
+    public SchemaIndexSyncResult syncIndexes(
+            String entity, boolean dryRun, List<CompoundIndexDefinition> additionalIndexes) {
+        SchemaVersion published = schemaLifecycleService.latestPublished(entity);
+        List<IndexSpec> indexSpecs = collectIndexSpecs(entity, published, additionalIndexes);
 
         IndexOperations indexOperations = mongoTemplate.indexOps(entity);
         List<IndexInfo> existingIndexes = indexOperations.getIndexInfo();
+        List<PlannedAction> plan = planActions(indexSpecs, existingIndexes);
+
+        if (plan.stream().anyMatch(action -> action.type() != ActionType.KEEP)) {
+            log.info(
+                    "Index plan for entity '{}' (schema v{}, dryRun={}): {}",
+                    entity,
+                    published.getVersion(),
+                    dryRun,
+                    plan.stream().map(this::describe).collect(Collectors.joining(", ")));
+        }
+
+        if (!dryRun) {
+            execute(indexOperations, plan);
+        }
+
+        int kept = (int) plan.stream().filter(action -> action.type() == ActionType.KEEP).count();
+        List<String> uniqueFields =
+                indexSpecs.stream()
+                        .filter(indexSpec -> !indexSpec.compound() && indexSpec.unique())
+                        .map(IndexSpec::firstPath)
+                        .toList();
+        List<String> indexedFields =
+                indexSpecs.stream()
+                        .filter(
+                                indexSpec ->
+                                        !indexSpec.compound() && !indexSpec.unique() && !indexSpec.text())
+                        .map(IndexSpec::firstPath)
+                        .toList();
+        List<String> compoundIndexes =
+                indexSpecs.stream()
+                        .filter(indexSpec -> indexSpec.compound() && !indexSpec.system())
+                        .map(IndexSpec::name)
+                        .toList();
+        List<String> searchableFields =
+                indexSpecs.stream()
+                        .filter(IndexSpec::text)
+                        .flatMap(indexSpec -> indexSpec.keys().stream().map(IndexKey::path))
+                        .toList();
+
+        return new SchemaIndexSyncResult(
+                entity,
+                published.getVersion(),
+                indexSpecs.size(),
+                dryRun ? kept : indexSpecs.size(),
+                uniqueFields,
+                indexedFields,
+                compoundIndexes,
+                searchableFields,
+                dryRun,
+                plan.stream().map(this::toPlanAction).toList());
+    }
+
+    private List<PlannedAction> planActions(
+            List<IndexSpec> indexSpecs, List<IndexInfo> existingIndexes) {
+        List<IndexInfo> existing = existingIndexes == null ? List.of() : existingIndexes;
+        List<PlannedAction> replacements = new ArrayList<>();
+        List<PlannedAction> creates = new ArrayList<>();
+        List<PlannedAction> keeps = new ArrayList<>();
+        List<PlannedAction> replaced = new ArrayList<>();
+        List<PlannedAction> stale = new ArrayList<>();
+        Set<String> claimed = new HashSet<>();
 
-        int ensured = 0;
         for (IndexSpec indexSpec : indexSpecs) {
-            IndexInfo existing = findSingleFieldIndex(existingIndexes, indexSpec.path());
-            if (existing != null) {
-                if (!isCompatible(existing, indexSpec)) {
+            IndexInfo match = findByKeys(existing, indexSpec);
+            if (match == null && indexSpec.text()) {
+                // A collection holds at most one text index, so the old one must go first.
+                IndexInfo previous = existing.stream().filter(this::isTextIndex).findFirst().orElse(null);
+                if (previous != null && !isManaged(previous)) {
                     throw new IllegalArgumentException(
-                            "Index sync conflict for field '"
-                                    + indexSpec.path()
-                                    + "': existing index is non-unique but schema requires unique");
+                            "Index sync conflict for searchable fields: unmanaged text index '"
+                                    + previous.getName()
+                                    + "' already exists");
                 }
-                ensured++;
+                if (previous != null) {
+                    claimed.add(previous.getName());
+                    replacements.add(
+                            PlannedAction.drop(previous, "Searchable fields changed in published schema"));
+                }
+            }
+            if (match == null) {
+                creates.add(
+                        PlannedAction.create(
+                                indexSpec,
+                                indexSpec.system() ? "Maintained for change feeds" : "Declared by published schema"));
                 continue;
             }
 
-            Index index =
-                    new Index()
-                            .on(indexSpec.path(), Sort.Direction.ASC)
-                            .named(indexName(entity, indexSpec.path(), indexSpec.unique()))
-                            .partial(PartialIndexFilter.of(Criteria.where("deleted").ne(true)));
-            if (indexSpec.unique()) {
-                index.unique();
+            claimed.add(match.getName());
+            if (isManaged(match)) {
+                if (match.isUnique() == indexSpec.unique()) {
+                    keeps.add(PlannedAction.keep(match.getName(), indexSpec));
+                } else {
+                    // The replacement is built first, so queries keep an index until it is ready.
+                    creates.add(PlannedAction.replace(indexSpec, match.getName()));
+                    replaced.add(PlannedAction.drop(match, "Uniqueness changed in published schema"));
+                }
+                continue;
             }
 
-            indexOperations.ensureIndex(index);
-            ensured++;
+            if (indexSpec.unique() && !match.isUnique()) {
+                String subject =
+                        indexSpec.compound()
+                                ? "compound index '" + indexSpec.name()
+                                : "field '" + indexSpec.firstPath();
+                throw new IllegalArgumentException(
+                        "Index sync conflict for "
+                                + subject
+                                + "': existing index is non-unique but schema requires unique");
+            }
+            keeps.add(PlannedAction.keep(match.getName(), indexSpec));
         }
 
-        List<String> uniqueFields =
-                indexSpecs.stream().filter(IndexSpec::unique).map(IndexSpec::path).toList();
-        List<String> indexedFields =
-                indexSpecs.stream().filter(indexSpec -> !indexSpec.unique()).map(IndexSpec::path).toList();
+        for (IndexInfo indexInfo : existing) {
+            if (isManaged(indexInfo) && !claimed.contains(indexInfo.getName())) {
+                stale.add(PlannedAction.drop(indexInfo, "No longer declared by published schema"));
+            }
+        }
 
-        return new SchemaIndexSyncResult(
-                entity, published.getVersion(), indexSpecs.size(), ensured, uniqueFields, indexedFields);
+        List<PlannedAction> plan = new ArrayList<>(replacements);
+        plan.addAll(creates);
+        plan.addAll(keeps);
+        plan.addAll(replaced);
+        plan.addAll(stale);
+        return plan;
     }
 
-    private List<IndexSpec> collectIndexSpecs(List<FieldDefinition> fields) {
+    /**
+     * Runs the plan in order. An index whose uniqueness changed is dropped only after its
+     * replacement was created; a failed create stops the sync before that drop.
+     */
+    private void execute(IndexOperations indexOperations, List<PlannedAction> plan) {
+        Set<String> dropped = new HashSet<>();
+        for (PlannedAction action : plan) {
+            switch (action.type()) {
+                case DROP -> {
+                    if (dropped.add(action.name())) {
+                        indexOperations.dropIndex(action.name());
+                    }
+                }
+                case CREATE -> {
+                    if (action.replaces() == null) {
+                        indexOperations.ensureIndex(toIndex(action.spec()));
+                    } else if (replace(indexOperations, action)) {
+                        dropped.add(action.replaces());
+                    }
+                }
+                case KEEP -> {
+                    // Nothing to do.
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the replacement next to the index it replaces. Servers that refuse two indexes on one
+     * key pattern differing only in uniqueness get drop-then-create instead, and the replaced index
+     * is rebuilt when the replacement cannot be created. Returns whether the replaced index is
+     * already gone; otherwise the planned drop removes it.
+     */
+    private boolean replace(IndexOperations indexOperations, PlannedAction action) {
+        try {
+            indexOperations.ensureIndex(toIndex(action.spec()));
+            return false;
+        } catch (RuntimeException ex) {
+            if (!isKeyPatternConflict(ex)) {
+                throw ex;
+            }
+            log.info(
+                    "Index '{}' cannot sit next to '{}' on the same keys; dropping it first",
+                    action.name(),
+                    action.replaces());
+        }
+
+        IndexSpec spec = action.spec();
+        indexOperations.dropIndex(action.replaces());
+        try {
+            indexOperations.ensureIndex(toIndex(spec));
+        } catch (RuntimeException ex) {
+            indexOperations.ensureIndex(
+                    toIndex(
+                            new IndexSpec(
+                                    action.replaces(),
+                                    spec.keys(),
+                                    !spec.unique(),
+                                    spec.compound(),
+                                    spec.text(),
+                                    spec.system())));
+            throw ex;
+        }
+        return true;
+    }
+
+    private static boolean isKeyPatternConflict(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && (mongoException.getCode() == INDEX_OPTIONS_CONFLICT
+                    || mongoException.getCode() == INDEX_KEY_SPECS_CONFLICT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private IndexDefinition toIndex(IndexSpec indexSpec) {
+        if (indexSpec.text()) {
+            TextIndexDefinition.TextIndexDefinitionBuilder builder =
+                    new TextIndexDefinition.TextIndexDefinitionBuilder().named(indexSpec.name());
+            for (IndexKey key : indexSpec.keys()) {
+                builder.onField(key.path());
+            }
+            return builder.partial(PartialIndexFilter.of(Criteria.where("deleted").ne(true))).build();
+        }
+
+        Index index = new Index().named(indexSpec.name());
+        for (IndexKey key : indexSpec.keys()) {
+            index.on(key.path(), key.direction());
+        }
+        if (!indexSpec.system()) {
+            index.partial(PartialIndexFilter.of(Criteria.where("deleted").ne(true)));
+        }
+        if (indexSpec.unique()) {
+            index.unique();
+        }
+        return index;
+    }
+
+    private List<IndexSpec> collectIndexSpecs(
+            String entity,
+            SchemaVersion published,
+            List<CompoundIndexDefinition> additionalIndexes) {
         Map<String, Boolean> uniqueByPath = new LinkedHashMap<>();
-        collectIndexSpecs(fields, "", uniqueByPath);
+        List<String> searchablePaths = new ArrayList<>();
+        collectIndexSpecs(published.getFields(), "", uniqueByPath, searchablePaths);
 
-        List<IndexSpec> specs = new ArrayList<>(uniqueByPath.size());
+        Map<List<IndexKey>, IndexSpec> specsByKeys = new LinkedHashMap<>();
         for (Map.Entry<String, Boolean> entry : uniqueByPath.entrySet()) {
-            specs.add(new IndexSpec(entry.getKey(), entry.getValue()));
+            List<IndexKey> keys = List.of(new IndexKey(entry.getKey(), Sort.Direction.ASC));
+            String name = indexName(entity, entry.getKey(), entry.getValue());
+            specsByKeys.put(keys, new IndexSpec(name, keys, entry.getValue(), false, false, false));
+        }
+        if (!searchablePaths.isEmpty()) {
+            List<IndexKey> keys =
+                    searchablePaths.stream().map(path -> new IndexKey(path, null)).toList();
+            String name = MANAGED_INDEX_PREFIX + normalize(entity) + "_" + TEXT_INDEX_SUFFIX;
+            specsByKeys.put(keys, new IndexSpec(name, keys, false, false, true, false));
+        }
+        // Change feeds page through every record, deleted ones included, by (updatedAt, _id).
+        List<IndexKey> changeKeys =
+                List.of(
+                        new IndexKey(RecordDocuments.UPDATED_AT, Sort.Direction.ASC),
+                        new IndexKey(SchemaPaths.ID_PATH, Sort.Direction.ASC));
+        specsByKeys.put(
+                changeKeys,
+                new IndexSpec(
+                        MANAGED_INDEX_PREFIX + normalize(entity) + "_" + CHANGES_INDEX_SUFFIX,
+                        changeKeys,
+                        false,
+                        true,
+                        false,
+                        true));
+
+        List<CompoundIndexDefinition> compoundIndexes = new ArrayList<>();
+        if (published.getCompoundIndexes() != null) {
+            compoundIndexes.addAll(published.getCompoundIndexes());
+        }
+        if (additionalIndexes != null) {
+            compoundIndexes.addAll(additionalIndexes);
+        }
+        if (!compoundIndexes.isEmpty()) {
+            Map<String, FieldType> fieldTypes = SchemaPaths.fieldTypesByPath(published.getFields());
+            for (CompoundIndexDefinition compoundIndex : compoundIndexes) {
+                IndexSpec compoundSpec = toCompoundSpec(entity, compoundIndex, fieldTypes);
+                specsByKeys.merge(
+                        compoundSpec.keys(),
+                        compoundSpec,
+                        (existing, incoming) ->
+                                new IndexSpec(
+                                        existing.name(),
+                                        existing.keys(),
+                                        existing.unique() || incoming.unique(),
+                                        existing.compound(),
+                                        existing.text(),
+                                        existing.system()));
+            }
         }
-        return specs;
+
+        return new ArrayList<>(specsByKeys.values());
+    }
+
+    private IndexSpec toCompoundSpec(
+            String entity, CompoundIndexDefinition definition, Map<String, FieldType> fieldTypes) {
+        if (definition == null || definition.getKeys() == null || definition.getKeys().isEmpty()) {
+            throw new IllegalArgumentException("Compound index requires at least one key");
+        }
+
+        List<IndexKey> keys = new ArrayList<>();
+        for (CompoundIndexDefinition.IndexKey key : definition.getKeys()) {
+            String path = key.getField() == null ? null : key.getField().trim();
+            if (path == null || !(SchemaPaths.ID_PATH.equals(path) || fieldTypes.containsKey(path))) {
+                throw new IllegalArgumentException(
+                        "Compound index references unknown field path '" + key.getField() + "'");
+            }
+            if (!SchemaPaths.ID_PATH.equals(path)) {
+                ensureIndexSupported(path, fieldTypes.get(path));
+            }
+            keys.add(new IndexKey(path, resolveDirection(path, key.getDirection())));
+        }
+
+        String baseName =
+                definition.getName() == null || definition.getName().isBlank()
+                        ? keys.stream()
+                        .map(key -> key.path() + "_" + (key.direction().isAscending() ? "1" : "-1"))
+                        .collect(Collectors.joining("_"))
+                        : definition.getName();
+        String name =
+                MANAGED_INDEX_PREFIX
+                        + normalize(entity)
+                        + "_"
+                        + normalize(baseName)
+                        + "_"
+                        + (definition.isUnique() ? "cuniq" : "cidx");
+        return new IndexSpec(name, List.copyOf(keys), definition.isUnique(), true, false, false);
+    }
+
+    private Sort.Direction resolveDirection(String path, String direction) {
+        if (direction == null || direction.isBlank() || "ASC".equalsIgnoreCase(direction.trim())) {
+            return Sort.Direction.ASC;
+        }
+        if ("DESC".equalsIgnoreCase(direction.trim())) {
+            return Sort.Direction.DESC;
+        }
+        throw new IllegalArgumentException(
+                "Unsupported compound index direction for field '" + path + "': " + direction);
     }
 
     private void collectIndexSpecs(
-            List<FieldDefinition> fields, String parentPath, Map<String, Boolean> uniqueByPath) {
+            List<FieldDefinition> fields,
+            String parentPath,
+            Map<String, Boolean> uniqueByPath,
+            List<String> searchablePaths) {
         if (fields == null || fields.isEmpty()) {
             return;
         }
@@ -107,10 +429,18 @@ public class SchemaIndexService {
                 uniqueByPath.merge(path, field.isUnique(), (existing, incoming) -> existing || incoming);
             }
 
+            if (field.isSearchable()) {
+                if (field.getType() != FieldType.STRING) {
+                    throw new IllegalArgumentException(
+                            "Text search is only supported for STRING fields: '" + path + "'");
+                }
+                searchablePaths.add(path);
+            }
+
             if ((field.getType() == FieldType.OBJECT || field.getType() == FieldType.ARRAY)
                     && field.getSubFields() != null
                     && !field.getSubFields().isEmpty()) {
-                collectIndexSpecs(field.getSubFields(), path, uniqueByPath);
+                collectIndexSpecs(field.getSubFields(), path, uniqueByPath, searchablePaths);
             }
         }
     }
@@ -122,29 +452,81 @@ public class SchemaIndexService {
         }
     }
 
-    private IndexInfo findSingleFieldIndex(List<IndexInfo> indexInfos, String fieldPath) {
-        if (indexInfos == null || indexInfos.isEmpty()) {
-            return null;
-        }
-
+    private IndexInfo findByKeys(List<IndexInfo> indexInfos, IndexSpec indexSpec) {
         return indexInfos.stream()
-                .filter(indexInfo -> indexInfo.getIndexFields().size() == 1)
-                .filter(indexInfo -> fieldPath.equals(indexInfo.getIndexFields().getFirst().getKey()))
+                .filter(
+                        indexInfo ->
+                                indexSpec.text()
+                                        ? matchesTextKeys(indexInfo, indexSpec.keys())
+                                        : matchesKeys(indexInfo, indexSpec.keys()))
                 .findFirst()
                 .orElse(null);
     }
 
-    private boolean isCompatible(IndexInfo existing, IndexSpec requested) {
-        if (requested.unique()) {
-            return existing.isUnique();
+    private boolean matchesTextKeys(IndexInfo indexInfo, List<IndexKey> keys) {
+        Set<String> textPaths = textPaths(indexInfo);
+        return !textPaths.isEmpty()
+                && textPaths.equals(keys.stream().map(IndexKey::path).collect(Collectors.toSet()));
+    }
+
+    private boolean isTextIndex(IndexInfo indexInfo) {
+        return !textPaths(indexInfo).isEmpty();
+    }
+
+    private Set<String> textPaths(IndexInfo indexInfo) {
+        if (indexInfo.getIndexFields() == null) {
+            return Set.of();
+        }
+        return indexInfo.getIndexFields().stream()
+                .filter(IndexField::isText)
+                .map(IndexField::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private boolean matchesKeys(IndexInfo indexInfo, List<IndexKey> keys) {
+        List<IndexField> fields = indexInfo.getIndexFields();
+        if (fields == null || fields.size() != keys.size()) {
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            IndexField field = fields.get(i);
+            IndexKey key = keys.get(i);
+            if (field.isText() || field.isGeo() || field.isHashed() || field.isWildcard()) {
+                return false;
+            }
+            if (!key.path().equals(field.getKey())) {
+                return false;
+            }
+            // Single-field indexes serve both sort directions.
+            if (keys.size() > 1 && key.direction() != field.getDirection()) {
+                return false;
+            }
         }
         return true;
     }
 
+    private boolean isManaged(IndexInfo indexInfo) {
+        return indexInfo.getName() != null && indexInfo.getName().startsWith(MANAGED_INDEX_PREFIX);
+    }
+
+    private SchemaIndexPlanAction toPlanAction(PlannedAction action) {
+        return new SchemaIndexPlanAction(
+                action.type().name(), action.name(), action.keys(), action.unique(), action.reason());
+    }
+
+    private String describe(PlannedAction action) {
+        return action.type() + " " + action.name() + " " + action.keys();
+    }
+
     private String indexName(String entity, String path, boolean unique) {
         String normalizedEntity = normalize(entity);
         String normalizedPath = normalize(path);
-        return "dynapi_" + normalizedEntity + "_" + normalizedPath + "_" + (unique ? "uniq" : "idx");
+        return MANAGED_INDEX_PREFIX
+                + normalizedEntity
+                + "_"
+                + normalizedPath
+                + "_"
+                + (unique ? "uniq" : "idx");
     }
 
     private String normalize(String value) {
@@ -154,6 +536,91 @@ public class SchemaIndexService {
         return value.replaceAll("[^A-Za-z0-9]+", "_");
     }
 
-    private record IndexSpec(String path, boolean unique) {
+    private enum ActionType {
+        CREATE,
+        KEEP,
+        DROP
+    }
+
+    /**
+     * Key of an index; a {@code null} direction marks a text key.
+     */
+    private record IndexKey(String path, Sort.Direction direction) {
+        private String describe() {
+            return path + ":" + (direction == null ? "TEXT" : direction.name());
+        }
+    }
+
+    /**
+     * {@code system} marks indexes maintained for every entity; they also cover deleted records.
+     */
+    private record IndexSpec(
+            String name,
+            List<IndexKey> keys,
+            boolean unique,
+            boolean compound,
+            boolean text,
+            boolean system) {
+        private String firstPath() {
+            return keys.getFirst().path();
+        }
+    }
+
+    /**
+     * {@code replaces} names the existing index a create takes over from, dropped later in the plan.
+     */
+    private record PlannedAction(
+            ActionType type,
+            String name,
+            List<String> keys,
+            boolean unique,
+            String reason,
+            IndexSpec spec,
+            String replaces) {
+        private static PlannedAction create(IndexSpec spec, String reason) {
+            return new PlannedAction(
+                    ActionType.CREATE, spec.name(), describeKeys(spec.keys()), spec.unique(), reason, spec, null);
+        }
+
+        private static PlannedAction replace(IndexSpec spec, String replaces) {
+            return new PlannedAction(
+                    ActionType.CREATE,
+                    spec.name(),
+                    describeKeys(spec.keys()),
+                    spec.unique(),
+                    "Replaces " + replaces,
+                    spec,
+                    replaces);
+        }
+
+        private static PlannedAction keep(String existingName, IndexSpec spec) {
+            return new PlannedAction(
+                    ActionType.KEEP,
+                    existingName,
+                    describeKeys(spec.keys()),
+                    spec.unique(),
+                    "Already matches published schema",
+                    spec,
+                    null);
+        }
+
+        private static PlannedAction drop(IndexInfo indexInfo, String reason) {
+            List<String> keys =
+                    indexInfo.getIndexFields().stream()
+                            .map(
+                                    field ->
+                                            field.getKey()
+                                                    + ":"
+                                                    + (field.getDirection() == null
+                                                    ? field.isText() ? "TEXT" : "SPECIAL"
+                                                    : field.getDirection().name()))
+                            .toList();
+            return new PlannedAction(
+                    ActionType.DROP, indexInfo.getName(), keys, indexInfo.isUnique(), reason, null, null);
+        }
+
+        private static List<String> describeKeys(List<IndexKey> keys) {
+            return keys.stream().map(IndexKey::describe).toList();
+        }
     }
 }
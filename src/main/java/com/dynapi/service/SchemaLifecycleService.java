@@ -1,9 +1,13 @@
 package com.dynapi.service;
 
 import com.dynapi.domain.event.DomainEvent;
+import com.dynapi.domain.model.CompoundIndexDefinition;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldGroup;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
 import com.dynapi.domain.model.SchemaLifecycleStatus;
+import com.dynapi.domain.model.SchemaMigration;
 import com.dynapi.domain.model.SchemaVersion;
 import com.dynapi.infrastructure.messaging.EventPublisher;
 import com.dynapi.repository.FieldDefinitionRepository;
@@ -35,43 +39,23 @@ public class SchemaLifecycleService {
     private final EventPublisher eventPublisher;
 
     public SchemaVersion publish(String groupId) {
-        FieldGroup group =
-                resolveGroup(groupId)
-                        .orElseThrow(() -> new IllegalArgumentException("Field group not found: " + groupId));
-        List<FieldDefinition> draftFields = loadDraftFields(group);
+        return publish(groupId, null);
+    }
 
+    /**
+     * Publishes the field group as the next schema version of its entity. {@code migrations}
+     * upgrade the records written under earlier versions; they may justify changes that are
+     * otherwise breaking: a renamed, moved or dropped path may be removed, a COERCE step allows its
+     * type change and a DEFAULT step lets its field become required.
+     */
+    public SchemaVersion publish(String groupId, List<MigrationStep> migrations) {
+        FieldGroup group = requireGroup(groupId);
         Optional<SchemaVersion> latestPublishedOpt =
                 schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
                         group.getEntity(), SchemaLifecycleStatus.PUBLISHED);
-        latestPublishedOpt.ifPresent(previous -> ensureCompatible(previous, draftFields));
-
-        LocalDateTime now = LocalDateTime.now();
-        String actor = currentActor();
-
-        latestPublishedOpt.ifPresent(
-                previous -> {
-                    previous.setStatus(SchemaLifecycleStatus.DEPRECATED);
-                    previous.setDeprecatedAt(now);
-                    previous.setModifiedBy(actor);
-                    previous.setModifiedAt(now);
-                    schemaVersionRepository.save(previous);
-                });
-
-        int nextVersion = latestPublishedOpt.map(version -> version.getVersion() + 1).orElse(1);
-
-        SchemaVersion snapshot = new SchemaVersion();
-        snapshot.setEntityName(group.getEntity());
-        snapshot.setGroupName(group.getName());
-        snapshot.setVersion(nextVersion);
-        snapshot.setStatus(SchemaLifecycleStatus.PUBLISHED);
-        snapshot.setFields(copyFieldDefinitions(draftFields));
-        snapshot.setPublishedAt(now);
-        snapshot.setCreatedAt(now);
-        snapshot.setCreatedBy(actor);
-        snapshot.setModifiedAt(now);
-        snapshot.setModifiedBy(actor);
+        SchemaVersion snapshot = snapshot(group, latestPublishedOpt, migrations);
 
-        SchemaVersion saved = schemaVersionRepository.save(snapshot);
+        SchemaVersion saved = publishSnapshot(latestPublishedOpt, snapshot);
         publishSchemaEvent(
                 "SCHEMA_PUBLISHED",
                 group.getEntity(),
@@ -86,6 +70,67 @@ public class SchemaLifecycleService {
         return saved;
     }
 
+    /**
+     * The {@code DRAFT} snapshot that {@link #publish(String, List)} would publish, checked the same
+     * way but not saved.
+     */
+    public SchemaVersion candidate(String groupId, List<MigrationStep> migrations) {
+        FieldGroup group = requireGroup(groupId);
+        SchemaVersion snapshot =
+                snapshot(
+                        group,
+                        schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                                group.getEntity(), SchemaLifecycleStatus.PUBLISHED),
+                        migrations);
+        snapshot.setStatus(SchemaLifecycleStatus.DRAFT);
+        return snapshot;
+    }
+
+    private FieldGroup requireGroup(String groupId) {
+        return resolveGroup(groupId)
+                .orElseThrow(() -> new IllegalArgumentException("Field group not found: " + groupId));
+    }
+
+    private SchemaVersion snapshot(
+            FieldGroup group, Optional<SchemaVersion> latestPublishedOpt, List<MigrationStep> migrations) {
+        List<FieldDefinition> draftFields = loadDraftFields(group);
+        validateCompoundIndexes(group.getCompoundIndexes(), draftFields);
+
+        List<MigrationStep> steps =
+                migrations == null ? List.of() : migrations.stream().map(this::normalizeStep).toList();
+        if (latestPublishedOpt.isEmpty() && !steps.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Migrations require a published schema for entity: " + group.getEntity());
+        }
+        latestPublishedOpt.ifPresent(
+                previous -> {
+                    validateMigrations(previous, draftFields, steps);
+                    ensureCompatible(previous, draftFields, steps);
+                });
+
+        int nextVersion = latestPublishedOpt.map(version -> version.getVersion() + 1).orElse(1);
+
+        SchemaVersion snapshot = new SchemaVersion();
+        snapshot.setEntityName(group.getEntity());
+        snapshot.setGroupName(group.getName());
+        snapshot.setVersion(nextVersion);
+        snapshot.setFields(copyFieldDefinitions(draftFields));
+        // Indexes applied to the previous version are kept while their paths still exist.
+        List<CompoundIndexDefinition> applied =
+                appliedCompoundIndexes(
+                        latestPublishedOpt.map(SchemaVersion::getAppliedCompoundIndexes).orElse(null),
+                        draftFields);
+        snapshot.setCompoundIndexes(
+                applied.isEmpty()
+                        ? copyCompoundIndexes(group.getCompoundIndexes())
+                        : mergeCompoundIndexes(group.getCompoundIndexes(), applied));
+        snapshot.setAppliedCompoundIndexes(applied.isEmpty() ? null : applied);
+        snapshot.setMigrations(
+                migrationHistory(
+                        latestPublishedOpt.map(SchemaVersion::getMigrations).orElse(null), nextVersion, steps));
+        return snapshot;
+    }
+
     public SchemaVersion deprecate(String entity) {
         SchemaVersion published =
                 schemaVersionRepository
@@ -156,6 +201,12 @@ public class SchemaLifecycleService {
         rolledBack.setVersion(nextVersion);
         rolledBack.setStatus(SchemaLifecycleStatus.PUBLISHED);
         rolledBack.setFields(copyFieldDefinitions(target.getFields()));
+        rolledBack.setCompoundIndexes(copyCompoundIndexes(target.getCompoundIndexes()));
+        rolledBack.setAppliedCompoundIndexes(copyCompoundIndexes(target.getAppliedCompoundIndexes()));
+        // Records keep the shape the current version's migrations gave them.
+        rolledBack.setMigrations(
+                migrationHistory(
+                        currentPublishedOpt.orElse(target).getMigrations(), nextVersion, List.of()));
         rolledBack.setPublishedAt(now);
         rolledBack.setCreatedAt(now);
         rolledBack.setCreatedBy(actor);
@@ -184,6 +235,77 @@ public class SchemaLifecycleService {
                         () -> new IllegalArgumentException("No published schema found for entity: " + entity));
     }
 
+    /**
+     * Publishes the latest published schema of {@code entity} again as the next version, with
+     * {@code compoundIndexes} added. The field group is left as it is; later publishes of the group
+     * keep the added indexes while the fields they reference exist. Definitions whose name is
+     * already declared are skipped.
+     */
+    public SchemaVersion addCompoundIndexes(
+            String entity, List<CompoundIndexDefinition> compoundIndexes) {
+        Optional<SchemaVersion> latestPublishedOpt =
+                schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                        entity, SchemaLifecycleStatus.PUBLISHED);
+        SchemaVersion published =
+                latestPublishedOpt.orElseThrow(
+                        () -> new IllegalArgumentException("No published schema found for entity: " + entity));
+        validateCompoundIndexes(compoundIndexes, published.getFields());
+
+        int nextVersion =
+                schemaVersionRepository
+                        .findTopByEntityNameOrderByVersionDesc(entity)
+                        .map(this::schemaVersionNumber)
+                        .orElse(0)
+                        + 1;
+        SchemaVersion draft = new SchemaVersion();
+        draft.setEntityName(published.getEntityName());
+        draft.setGroupName(published.getGroupName());
+        draft.setVersion(nextVersion);
+        draft.setStatus(SchemaLifecycleStatus.DRAFT);
+        draft.setFields(copyFieldDefinitions(published.getFields()));
+        draft.setCompoundIndexes(mergeCompoundIndexes(published.getCompoundIndexes(), compoundIndexes));
+        draft.setAppliedCompoundIndexes(
+                mergeCompoundIndexes(published.getAppliedCompoundIndexes(), compoundIndexes));
+        draft.setMigrations(migrationHistory(published.getMigrations(), nextVersion, List.of()));
+
+        SchemaVersion saved = publishSnapshot(latestPublishedOpt, draft);
+        publishSchemaEvent(
+                "SCHEMA_INDEXES_CHANGED",
+                entity,
+                saved,
+                Map.of(
+                        "version",
+                        String.valueOf(saved.getVersion()),
+                        "added",
+                        compoundIndexes.stream()
+                                .map(CompoundIndexDefinition::getName)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.joining(","))));
+        return saved;
+    }
+
+    private SchemaVersion publishSnapshot(Optional<SchemaVersion> latestPublishedOpt, SchemaVersion snapshot) {
+        LocalDateTime now = LocalDateTime.now();
+        String actor = currentActor();
+
+        latestPublishedOpt.ifPresent(
+                previous -> {
+                    previous.setStatus(SchemaLifecycleStatus.DEPRECATED);
+                    previous.setDeprecatedAt(now);
+                    previous.setModifiedBy(actor);
+                    previous.setModifiedAt(now);
+                    schemaVersionRepository.save(previous);
+                });
+
+        snapshot.setStatus(SchemaLifecycleStatus.PUBLISHED);
+        snapshot.setPublishedAt(now);
+        snapshot.setCreatedAt(now);
+        snapshot.setCreatedBy(actor);
+        snapshot.setModifiedAt(now);
+        snapshot.setModifiedBy(actor);
+        return schemaVersionRepository.save(snapshot);
+    }
+
     private List<FieldDefinition> loadDraftFields(FieldGroup group) {
         List<String> fieldNames = group.getFieldNames();
         if (fieldNames == null || fieldNames.isEmpty()) {
@@ -222,13 +344,158 @@ public class SchemaLifecycleService {
         return ordered;
     }
 
+    private void validateCompoundIndexes(
+            List<CompoundIndexDefinition> compoundIndexes, List<FieldDefinition> fields) {
+        if (compoundIndexes == null || compoundIndexes.isEmpty()) {
+            return;
+        }
+
+        Map<String, FieldDescriptor> descriptors = flattenDescriptors(fields);
+        for (CompoundIndexDefinition compoundIndex : compoundIndexes) {
+            if (compoundIndex == null
+                    || compoundIndex.getKeys() == null
+                    || compoundIndex.getKeys().isEmpty()) {
+                throw new IllegalArgumentException("Compound index requires at least one key");
+            }
+
+            List<String> seenPaths = new ArrayList<>();
+            for (CompoundIndexDefinition.IndexKey key : compoundIndex.getKeys()) {
+                String path = key == null ? null : normalize(key.getField());
+                if (path == null || !descriptors.containsKey(path)) {
+                    throw new IllegalArgumentException(
+                            "Compound index references unknown field path '"
+                                    + (key == null ? null : key.getField())
+                                    + "'");
+                }
+                if (seenPaths.contains(path)) {
+                    throw new IllegalArgumentException(
+                            "Compound index repeats field path '" + path + "'");
+                }
+                String direction = normalize(key.getDirection());
+                if (direction != null
+                        && !"ASC".equalsIgnoreCase(direction)
+                        && !"DESC".equalsIgnoreCase(direction)) {
+                    throw new IllegalArgumentException(
+                            "Unsupported compound index direction for field '" + path + "': " + direction);
+                }
+                seenPaths.add(path);
+            }
+        }
+    }
+
+    private void validateMigrations(
+            SchemaVersion previousPublished, List<FieldDefinition> candidateFields, List<MigrationStep> steps) {
+        Map<String, FieldDescriptor> previous = flattenDescriptors(previousPublished.getFields());
+        Map<String, FieldDescriptor> candidate = flattenDescriptors(candidateFields);
+
+        for (MigrationStep step : steps) {
+            MigrationStep.Operation operation = step.getOperation();
+            String path = step.getField();
+            String to = step.getTo();
+            switch (operation) {
+                case RENAME -> {
+                    requirePath(previous, step, path);
+                    if (to == null || to.contains(".")) {
+                        throw new IllegalArgumentException(
+                                "RENAME of '" + path + "' requires a new field name without dots");
+                    }
+                    requirePath(candidate, step, renamedPath(path, to));
+                }
+                case MOVE -> {
+                    requirePath(previous, step, path);
+                    if (to == null) {
+                        throw new IllegalArgumentException("MOVE of '" + path + "' requires a target path");
+                    }
+                    requirePath(candidate, step, to);
+                    if (crossesArray(previous, path) || crossesArray(candidate, to)) {
+                        throw new IllegalArgumentException(
+                                "MOVE of '" + path + "' cannot cross ARRAY fields");
+                    }
+                }
+                case DEFAULT -> {
+                    requirePath(candidate, step, path);
+                    if (step.getValue() == null) {
+                        throw new IllegalArgumentException("DEFAULT for '" + path + "' requires a value");
+                    }
+                }
+                case DROP -> requirePath(previous, step, path);
+                case COERCE -> {
+                    requirePath(candidate, step, path);
+                    FieldType type = candidate.get(path).type();
+                    if (step.getType() != type || type == FieldType.OBJECT || type == FieldType.ARRAY) {
+                        throw new IllegalArgumentException(
+                                "COERCE of '" + path + "' requires the field's new scalar type");
+                    }
+                }
+            }
+        }
+    }
+
+    private void requirePath(Map<String, FieldDescriptor> descriptors, MigrationStep step, String path) {
+        if (!descriptors.containsKey(path)) {
+            throw new IllegalArgumentException(
+                    "Migration step " + step.getOperation() + " references unknown field path '" + path + "'");
+        }
+    }
+
+    private boolean crossesArray(Map<String, FieldDescriptor> descriptors, String path) {
+        for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+            FieldDescriptor parent = descriptors.get(path.substring(0, dot));
+            if (parent != null && parent.type() == FieldType.ARRAY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MigrationStep normalizeStep(MigrationStep source) {
+        if (source == null || source.getOperation() == null) {
+            throw new IllegalArgumentException("Migration step requires an operation");
+        }
+        MigrationStep step = new MigrationStep();
+        step.setOperation(source.getOperation());
+        step.setField(normalize(source.getField()));
+        step.setTo(normalize(source.getTo()));
+        step.setValue(source.getValue());
+        step.setType(source.getType());
+        if (step.getField() == null) {
+            throw new IllegalArgumentException("Migration step " + step.getOperation() + " requires a field");
+        }
+        return step;
+    }
+
+    private List<SchemaMigration> migrationHistory(
+            List<SchemaMigration> previous, int version, List<MigrationStep> steps) {
+        List<SchemaMigration> history = new ArrayList<>();
+        if (previous != null) {
+            for (SchemaMigration migration : previous) {
+                SchemaMigration copy = new SchemaMigration();
+                copy.setVersion(migration.getVersion());
+                copy.setSteps(
+                        migration.getSteps() == null
+                                ? null
+                                : migration.getSteps().stream().map(this::normalizeStep).toList());
+                history.add(copy);
+            }
+        }
+        if (!steps.isEmpty()) {
+            SchemaMigration migration = new SchemaMigration();
+            migration.setVersion(version);
+            migration.setSteps(steps);
+            history.add(migration);
+        }
+        return history;
+    }
+
     private void ensureCompatible(
-            SchemaVersion previousPublished, List<FieldDefinition> candidateFields) {
+            SchemaVersion previousPublished,
+            List<FieldDefinition> candidateFields,
+            List<MigrationStep> steps) {
         Map<String, FieldDescriptor> previous = flattenDescriptors(previousPublished.getFields());
         Map<String, FieldDescriptor> candidate = flattenDescriptors(candidateFields);
 
         for (String previousPath : previous.keySet()) {
-            if (!candidate.containsKey(previousPath)) {
+            if (!candidate.containsKey(previousPath) && !migratedAway(previousPath, steps)) {
                 throw new IllegalArgumentException(
                         "Breaking change: removed field path '" + previousPath + "'");
             }
@@ -240,18 +507,18 @@ public class SchemaLifecycleService {
             FieldDescriptor prev = previous.get(path);
 
             if (prev == null) {
-                if (next.required) {
+                if (next.required && !migratedInto(path, steps)) {
                     throw new IllegalArgumentException("Breaking change: new required field '" + path + "'");
                 }
                 continue;
             }
 
-            if (prev.type != next.type) {
+            if (prev.type != next.type && !hasStep(steps, MigrationStep.Operation.COERCE, path)) {
                 throw new IllegalArgumentException(
                         "Breaking change: type changed for field '" + path + "'");
             }
 
-            if (!prev.required && next.required) {
+            if (!prev.required && next.required && !hasStep(steps, MigrationStep.Operation.DEFAULT, path)) {
                 throw new IllegalArgumentException(
                         "Breaking change: optional field became required '" + path + "'");
             }
@@ -278,6 +545,41 @@ public class SchemaLifecycleService {
         }
     }
 
+    private boolean migratedAway(String path, List<MigrationStep> steps) {
+        return steps.stream()
+                .anyMatch(
+                        step ->
+                                step.getOperation() != MigrationStep.Operation.DEFAULT
+                                        && step.getOperation() != MigrationStep.Operation.COERCE
+                                        && isWithin(path, step.getField()));
+    }
+
+    private boolean migratedInto(String path, List<MigrationStep> steps) {
+        return steps.stream()
+                .anyMatch(
+                        step ->
+                                switch (step.getOperation()) {
+                                    case DEFAULT -> path.equals(step.getField());
+                                    case RENAME -> isWithin(path, renamedPath(step.getField(), step.getTo()));
+                                    case MOVE -> isWithin(path, step.getTo());
+                                    default -> false;
+                                });
+    }
+
+    private boolean hasStep(List<MigrationStep> steps, MigrationStep.Operation operation, String path) {
+        return steps.stream()
+                .anyMatch(step -> step.getOperation() == operation && path.equals(step.getField()));
+    }
+
+    private boolean isWithin(String path, String root) {
+        return path.equals(root) || path.startsWith(root + ".");
+    }
+
+    private String renamedPath(String path, String name) {
+        int dot = path.lastIndexOf('.');
+        return dot < 0 ? name : path.substring(0, dot + 1) + name;
+    }
+
     private boolean isEnumNarrowed(List<Object> previous, List<Object> next) {
         if (previous == null || previous.isEmpty()) {
             return false;
@@ -417,6 +719,7 @@ public class SchemaLifecycleService {
         target.setRequired(source.isRequired());
         target.setUnique(source.isUnique());
         target.setIndexed(source.isIndexed());
+        target.setSearchable(source.isSearchable());
         target.setMin(source.getMin());
         target.setMax(source.getMax());
         target.setRegex(source.getRegex());
@@ -435,6 +738,67 @@ public class SchemaLifecycleService {
         return target;
     }
 
+    private List<CompoundIndexDefinition> copyCompoundIndexes(List<CompoundIndexDefinition> source) {
+        if (source == null) {
+            return null;
+        }
+        return source.stream().map(this::copyCompoundIndex).collect(Collectors.toList());
+    }
+
+    private List<CompoundIndexDefinition> appliedCompoundIndexes(
+            List<CompoundIndexDefinition> applied, List<FieldDefinition> fields) {
+        if (applied == null || applied.isEmpty()) {
+            return List.of();
+        }
+        Map<String, FieldDescriptor> descriptors = flattenDescriptors(fields);
+        return applied.stream()
+                .filter(
+                        index ->
+                                index.getKeys().stream()
+                                        .allMatch(key -> descriptors.containsKey(normalize(key.getField()))))
+                .map(this::copyCompoundIndex)
+                .collect(Collectors.toList());
+    }
+
+    private List<CompoundIndexDefinition> mergeCompoundIndexes(
+            List<CompoundIndexDefinition> current, List<CompoundIndexDefinition> additions) {
+        List<CompoundIndexDefinition> merged = new ArrayList<>();
+        if (current != null) {
+            merged.addAll(copyCompoundIndexes(current));
+        }
+        for (CompoundIndexDefinition addition : additions) {
+            boolean declared =
+                    merged.stream()
+                            .anyMatch(
+                                    existing ->
+                                            addition.getName() != null
+                                                    && addition.getName().equals(existing.getName()));
+            if (!declared) {
+                merged.add(copyCompoundIndex(addition));
+            }
+        }
+        return merged;
+    }
+
+    private CompoundIndexDefinition copyCompoundIndex(CompoundIndexDefinition source) {
+        CompoundIndexDefinition target = new CompoundIndexDefinition();
+        target.setName(source.getName());
+        target.setUnique(source.isUnique());
+        target.setKeys(
+                source.getKeys() == null
+                        ? null
+                        : source.getKeys().stream()
+                        .map(
+                                key -> {
+                                    CompoundIndexDefinition.IndexKey copy = new CompoundIndexDefinition.IndexKey();
+                                    copy.setField(key.getField());
+                                    copy.setDirection(key.getDirection());
+                                    return copy;
+                                })
+                        .collect(Collectors.toList()));
+        return target;
+    }
+
     private FieldDefinition.RequiredIfRule copyRequiredIf(FieldDefinition.RequiredIfRule requiredIf) {
         if (requiredIf == null) {
             return null;
@@ -469,7 +833,7 @@ public class SchemaLifecycleService {
     }
 
     private record FieldDescriptor(
-            com.dynapi.domain.model.FieldType type,
+            FieldType type,
             boolean required,
             List<Object> enumValues,
             Double min,
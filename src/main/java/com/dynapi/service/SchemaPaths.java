@@ -0,0 +1,64 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Flattens schema field definitions into dotted paths ({@code address.city}) with their types.
+ */
+final class SchemaPaths {
+    /**
+     * Document id; sortable and indexable even though no schema field declares it.
+     */
+    static final String ID_PATH = "_id";
+
+    private SchemaPaths() {
+    }
+
+    static Map<String, FieldType> fieldTypesByPath(List<FieldDefinition> fields) {
+        Map<String, FieldType> fieldTypes = new LinkedHashMap<>();
+        visit(fields, "", (path, field) -> fieldTypes.put(path, field.getType()));
+        return fieldTypes;
+    }
+
+    /**
+     * Paths of fields flagged {@code searchable}, i.e. covered by the entity text index.
+     */
+    static Set<String> searchablePaths(List<FieldDefinition> fields) {
+        Set<String> paths = new LinkedHashSet<>();
+        visit(
+                fields,
+                "",
+                (path, field) -> {
+                    if (field.isSearchable()) {
+                        paths.add(path);
+                    }
+                });
+        return paths;
+    }
+
+    private static void visit(
+            List<FieldDefinition> fields, String parentPath, BiConsumer<String, FieldDefinition> visitor) {
+        if (fields == null) {
+            return;
+        }
+        for (FieldDefinition field : fields) {
+            if (field == null || field.getFieldName() == null || field.getFieldName().isBlank()) {
+                continue;
+            }
+            String path =
+                    parentPath.isEmpty() ? field.getFieldName() : parentPath + "." + field.getFieldName();
+            visitor.accept(path, field);
+            if (field.getType() == FieldType.OBJECT || field.getType() == FieldType.ARRAY) {
+                visit(field.getSubFields(), path, visitor);
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.dynapi.service;
 
+import com.dynapi.config.RecordCodecProperties;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.validation.DateValues;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,6 +24,7 @@ public class UniqueFieldConstraintService {
             Set.of(FieldType.STRING, FieldType.NUMBER, FieldType.BOOLEAN, FieldType.DATE);
 
     private final MongoTemplate mongoTemplate;
+    private final RecordCodecProperties codecProperties;
 
     public void validateForCreate(String entity, Map<String, Object> data, List<FieldDefinition> schema) {
         validate(entity, data, schema, null);
@@ -45,6 +49,14 @@ public class UniqueFieldConstraintService {
             if (value == null) {
                 continue;
             }
+            if (uniqueField.type() == FieldType.DATE && value instanceof String text) {
+                // Compared with the stored BSON date.
+                Date date = DateValues.parse(text);
+                value = date == null ? text : date;
+            } else if (uniqueField.type() == FieldType.NUMBER) {
+                // Compared with the number as stored, which may be a Decimal128.
+                value = RecordCodec.queryNumber(value, codecProperties.getNumberStorage());
+            }
 
             Query query = new Query();
             query.addCriteria(Criteria.where(uniqueField.path()).is(value));
@@ -80,7 +92,7 @@ public class UniqueFieldConstraintService {
 
             if (field.isUnique()) {
                 ensureUniqueSupported(path, field.getType());
-                uniqueFields.add(new UniqueField(path));
+                uniqueFields.add(new UniqueField(path, field.getType()));
             }
 
             if ((field.getType() == FieldType.OBJECT || field.getType() == FieldType.ARRAY)
@@ -119,6 +131,6 @@ public class UniqueFieldConstraintService {
         return current;
     }
 
-    private record UniqueField(String path) {
+    private record UniqueField(String path, FieldType type) {
     }
 }
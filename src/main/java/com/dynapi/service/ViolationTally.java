@@ -0,0 +1,87 @@
+package com.dynapi.service;
+
+import com.dynapi.domain.exception.ValidationException;
+import com.dynapi.dto.SchemaViolationSummary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+
+/**
+ * Counts the violations reported by a {@link RecordValidationPipeline} per field path and rule,
+ * keeping a few record ids of each. Array indexes are collapsed ({@code items[3].qty} counts as
+ * {@code items[].qty}) so that violations in different items add up. Safe for concurrent use.
+ */
+final class ViolationTally implements RecordValidationPipeline.Listener {
+    private final int maxExamples;
+    private final LongAdder invalid = new LongAdder();
+    private final ConcurrentMap<Key, Tally> tallies = new ConcurrentHashMap<>();
+
+    ViolationTally(int maxExamples) {
+        this.maxExamples = Math.max(0, maxExamples);
+    }
+
+    @Override
+    public void onRecord(Document document, ValidationException violation) {
+        if (violation == null) {
+            return;
+        }
+        invalid.increment();
+        Tally tally =
+                tallies.computeIfAbsent(
+                        new Key(path(violation.getField()), violation.getMessage()), key -> new Tally());
+        tally.count.increment();
+        tally.addExample(String.valueOf(document.get(SchemaPaths.ID_PATH)), maxExamples);
+    }
+
+    long invalid() {
+        return invalid.sum();
+    }
+
+    /**
+     * Violations by path and rule, most frequent first.
+     */
+    List<SchemaViolationSummary> summaries() {
+        return tallies.entrySet().stream()
+                .map(
+                        entry ->
+                                new SchemaViolationSummary(
+                                        entry.getKey().path(),
+                                        entry.getKey().rule(),
+                                        entry.getValue().count.sum(),
+                                        entry.getValue().examples()))
+                .sorted(
+                        Comparator.comparingLong(SchemaViolationSummary::count)
+                                .reversed()
+                                .thenComparing(SchemaViolationSummary::path)
+                                .thenComparing(SchemaViolationSummary::rule))
+                .toList();
+    }
+
+    static String path(String fieldPath) {
+        return fieldPath == null ? "" : fieldPath.replaceAll("\\[\\d+]", "[]");
+    }
+
+    private record Key(String path, String rule) {
+    }
+
+    private static final class Tally {
+        private final LongAdder count = new LongAdder();
+        private final List<String> examples = new ArrayList<>();
+
+        synchronized void addExample(String id, int maxExamples) {
+            if (examples.size() < maxExamples) {
+                examples.add(id);
+            }
+        }
+
+        synchronized List<String> examples() {
+            return List.copyOf(examples);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.dynapi.domain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaMigration;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MigrationStepsTest {
+
+    @Test
+    void apply_renamesDropsAndCoercesInEveryArrayItem() {
+        Map<String, Object> record =
+                map(
+                        "items",
+                        new ArrayList<>(
+                                List.of(map("qty", "2", "sku", "a", "old", 1), map("qty", "x", "sku", "b"))));
+
+        MigrationSteps.apply(record, step(MigrationStep.Operation.RENAME, "items.sku", "code"));
+        MigrationSteps.apply(record, step(MigrationStep.Operation.DROP, "items.old", null));
+        MigrationSteps.apply(record, coerce("items.qty", FieldType.NUMBER));
+
+        assertEquals(
+                List.of(map("qty", new BigDecimal("2"), "code", "a"), map("qty", "x", "code", "b")),
+                record.get("items"));
+    }
+
+    @Test
+    void apply_movesValuesCreatingMissingObjects() {
+        Map<String, Object> record = map("city", "Oslo", "title", "Ship");
+
+        MigrationSteps.apply(record, step(MigrationStep.Operation.MOVE, "city", "address.city"));
+        MigrationSteps.apply(record, step(MigrationStep.Operation.MOVE, "missing", "address.zip"));
+
+        assertEquals(map("title", "Ship", "address", map("city", "Oslo")), record);
+    }
+
+    @Test
+    void apply_setsDefaultsOnlyWhereMissingOrNull() {
+        Map<String, Object> record = map("status", null, "priority", 3);
+        MigrationStep status = step(MigrationStep.Operation.DEFAULT, "status", null);
+        status.setValue("open");
+        MigrationStep priority = step(MigrationStep.Operation.DEFAULT, "priority", null);
+        priority.setValue(1);
+
+        MigrationSteps.apply(record, status);
+        MigrationSteps.apply(record, priority);
+
+        assertEquals(map("status", "open", "priority", 3), record);
+    }
+
+    @Test
+    void apply_coercesScalarsAndLeavesUnconvertibleValues() {
+        Map<String, Object> record =
+                map("done", "TRUE", "count", 12L, "dueAt", "2026-05-01", "flag", "maybe");
+
+        MigrationSteps.apply(record, coerce("done", FieldType.BOOLEAN));
+        MigrationSteps.apply(record, coerce("count", FieldType.STRING));
+        MigrationSteps.apply(record, coerce("dueAt", FieldType.DATE));
+        MigrationSteps.apply(record, coerce("flag", FieldType.BOOLEAN));
+
+        assertEquals(true, record.get("done"));
+        assertEquals("12", record.get("count"));
+        assertEquals(Date.from(Instant.parse("2026-05-01T00:00:00Z")), record.get("dueAt"));
+        assertEquals("maybe", record.get("flag"));
+    }
+
+    @Test
+    void upgrade_appliesOnlyMigrationsAfterTheStoredVersion() {
+        List<SchemaMigration> migrations =
+                List.of(
+                        migration(2, step(MigrationStep.Operation.RENAME, "fullName", "name")),
+                        migration(4, step(MigrationStep.Operation.RENAME, "nick", "fullName")));
+        Map<String, Object> stampedAtTwo = map("name", "Ada", "nick", "ad");
+        Map<String, Object> unstamped = map("fullName", "Ada");
+
+        assertTrue(MigrationSteps.upgrade(stampedAtTwo, migrations, 2, 4));
+        assertTrue(MigrationSteps.upgrade(unstamped, migrations, 0, 4));
+        assertFalse(MigrationSteps.upgrade(map("name", "Ada"), migrations, 4, 4));
+
+        assertEquals(map("name", "Ada", "fullName", "ad"), stampedAtTwo);
+        assertEquals(map("name", "Ada"), unstamped);
+        assertEquals(4, MigrationSteps.latestVersion(migrations));
+    }
+
+    @Test
+    void deepCopy_leavesTheSourceUntouched() {
+        Map<String, Object> source = Map.of("profile", Map.of("age", "30"));
+
+        Map<String, Object> copy = MigrationSteps.deepCopy(source);
+        MigrationSteps.apply(copy, coerce("profile.age", FieldType.NUMBER));
+
+        assertEquals(new BigDecimal("30"), ((Map<?, ?>) copy.get("profile")).get("age"));
+        assertEquals("30", source.get("profile") instanceof Map<?, ?> profile ? profile.get("age") : null);
+    }
+
+    private static SchemaMigration migration(int version, MigrationStep... steps) {
+        SchemaMigration migration = new SchemaMigration();
+        migration.setVersion(version);
+        migration.setSteps(List.of(steps));
+        return migration;
+    }
+
+    private static MigrationStep step(MigrationStep.Operation operation, String field, String to) {
+        MigrationStep step = new MigrationStep();
+        step.setOperation(operation);
+        step.setField(field);
+        step.setTo(to);
+        return step;
+    }
+
+    private static MigrationStep coerce(String field, FieldType type) {
+        MigrationStep step = step(MigrationStep.Operation.COERCE, field, null);
+        step.setType(type);
+        return step;
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put((String) entries[i], entries[i + 1]);
+        }
+        return map;
+    }
+}
@@ -9,6 +9,7 @@ import com.dynapi.domain.exception.ValidationException;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -171,6 +172,28 @@ class DynamicValidatorTest {
         assertEquals("items[0].qty", ex.getField());
     }
 
+    @Test
+    void validate_acceptsIsoDatesAndStoredDates_rejectsOtherStrings() {
+        FieldDefinition dueAt = field("dueAt", FieldType.DATE, true);
+
+        assertDoesNotThrow(() -> dynamicValidator.validate(Map.of("dueAt", "2026-05-01"), List.of(dueAt), Locale.US));
+        assertDoesNotThrow(
+                () ->
+                        dynamicValidator.validate(
+                                Map.of("dueAt", "2026-05-01T10:15:30.5+02:00"), List.of(dueAt), Locale.US));
+        assertDoesNotThrow(() -> dynamicValidator.validate(Map.of("dueAt", new Date()), List.of(dueAt), Locale.US));
+
+        ValidationException ex =
+                assertThrows(
+                        ValidationException.class,
+                        () -> dynamicValidator.validate(Map.of("dueAt", "2026-02-30"), List.of(dueAt), Locale.US));
+
+        assertEquals("dueAt", ex.getField());
+        assertThrows(
+                ValidationException.class,
+                () -> dynamicValidator.validate(Map.of("dueAt", "01/05/2026"), List.of(dueAt), Locale.US));
+    }
+
     private FieldDefinition field(String name, FieldType type, boolean required) {
         FieldDefinition definition = new FieldDefinition();
         definition.setFieldName(name);
@@ -0,0 +1,100 @@
+package com.dynapi.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.dynapi.dto.WeightedCacheStats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapSlabStoreTest {
+
+    @Test
+    void get_returnsValueSpanningSeveralBlocksAndSlabs() throws IOException {
+        OffHeapSlabStore<String> store = new OffHeapSlabStore<>(64, 16, 8);
+        byte[] value = "a value longer than one slab of sixteen bytes".getBytes(StandardCharsets.UTF_8);
+        store.put("a", new byte[8]);
+        store.put("b", value);
+
+        CachedBytes cached = store.get("b");
+        assertNotNull(cached);
+        assertEquals(value.length, cached.length());
+        assertArrayEquals(value, read(cached));
+        cached.release();
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedValuesWhenBlocksRunOut() {
+        OffHeapSlabStore<String> store = new OffHeapSlabStore<>(32, 32, 8);
+        store.put("a", new byte[16]);
+        store.put("b", new byte[16]);
+        store.get("a").release();
+        store.put("c", new byte[9]);
+
+        assertNull(store.get("b"));
+        assertNotNull(store.get("a"));
+        assertNotNull(store.get("c"));
+
+        WeightedCacheStats stats = store.stats();
+        assertEquals(2, stats.size());
+        assertEquals(25, stats.weight());
+        assertEquals(32, stats.maxWeight());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void put_doesNotReuseBlocksOfValueStillBeingWritten() throws IOException {
+        OffHeapSlabStore<String> store = new OffHeapSlabStore<>(16, 16, 8);
+        byte[] value = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        store.put("a", value);
+        CachedBytes pinned = store.get("a");
+
+        store.put("b", new byte[8]);
+        assertNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertArrayEquals(value, read(pinned));
+
+        pinned.release();
+        store.put("b", new byte[8]);
+        assertNotNull(store.get("b"));
+    }
+
+    @Test
+    void get_dropsValuesOlderThanTheTtl() throws InterruptedException {
+        OffHeapSlabStore<String> store = new OffHeapSlabStore<>(16, 16, 8, Duration.ofMillis(50));
+        store.put("a", new byte[16]);
+        store.get("a").release();
+
+        Thread.sleep(60);
+
+        assertNull(store.get("a"));
+        WeightedCacheStats stats = store.stats();
+        assertEquals(0, stats.size());
+        assertEquals(0, stats.weight());
+        assertEquals(1, stats.misses());
+        store.put("b", new byte[16]);
+        assertNotNull(store.get("b"));
+    }
+
+    @Test
+    void put_skipsValuesLargerThanTheStore() {
+        OffHeapSlabStore<String> store = new OffHeapSlabStore<>(16, 16, 8);
+        store.put("a", new byte[17]);
+
+        assertNull(store.get("a"));
+        assertEquals(0, store.stats().weight());
+    }
+
+    private byte[] read(CachedBytes cached) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cached.writeTo(out);
+        return out.toByteArray();
+    }
+}
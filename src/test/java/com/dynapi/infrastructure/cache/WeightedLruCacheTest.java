@@ -0,0 +1,38 @@
+package com.dynapi.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.dynapi.dto.WeightedCacheStats;
+import org.junit.jupiter.api.Test;
+
+class WeightedLruCacheTest {
+
+    @Test
+    void put_evictsLeastRecentlyUsedEntriesBeyondMaxWeight() {
+        WeightedLruCache<String, byte[]> cache = new WeightedLruCache<>(10, bytes -> bytes.length);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+        cache.put("c", new byte[4]);
+
+        assertNull(cache.get("b"));
+        assertEquals(4, cache.get("a").length);
+        assertEquals(4, cache.get("c").length);
+
+        WeightedCacheStats stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(8, stats.weight());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void put_skipsValuesHeavierThanTheWholeBudget() {
+        WeightedLruCache<String, byte[]> cache = new WeightedLruCache<>(10, bytes -> bytes.length);
+        cache.put("a", new byte[4]);
+        cache.put("a", new byte[11]);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.stats().weight());
+    }
+}
@@ -0,0 +1,198 @@
+package com.dynapi.integration;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.dynapi.DynapiApplication;
+import com.dynapi.controller.QueryAdminController;
+import com.dynapi.dto.CacheStats;
+import com.dynapi.dto.CoalescingStats;
+import com.dynapi.dto.IndexRecommendation;
+import com.dynapi.dto.QueryShapeStats;
+import com.dynapi.dto.SchemaIndexSyncResult;
+import com.dynapi.dto.WeightedCacheStats;
+import com.dynapi.exception.GlobalExceptionHandler;
+import com.dynapi.service.IndexAdvisorService;
+import com.dynapi.service.QueryCoalescer;
+import com.dynapi.service.QueryPlanCache;
+import com.dynapi.service.QueryResultCache;
+import com.dynapi.service.QueryShapeStatsService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = {
+                DynapiApplication.class,
+                QueryAdminControllerSecurityIntegrationTest.QueryAdminControllerTestConfig.class
+        })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryAdminControllerSecurityIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private QueryShapeStatsService queryShapeStatsService;
+
+    @MockitoBean
+    private IndexAdvisorService indexAdvisorService;
+
+    @MockitoBean
+    private QueryPlanCache queryPlanCache;
+
+    @MockitoBean
+    private QueryCoalescer queryCoalescer;
+
+    @MockitoBean
+    private QueryResultCache queryResultCache;
+
+    @Value("${security.jwt.secret}")
+    private String jwtSecret;
+
+    @BeforeEach
+    void setUp() {
+        QueryShapeStats shapeStats =
+                new QueryShapeStats(
+                        "status:eq|sort:priority:DESC", 42, 3.5, 12.0, Map.of("<=5ms", 42L), null);
+        when(queryShapeStatsService.snapshot(anyString())).thenReturn(List.of(shapeStats));
+        when(queryShapeStatsService.explainTopShapes(anyString())).thenReturn(List.of(shapeStats));
+        when(indexAdvisorService.recommend(anyString()))
+                .thenReturn(
+                        List.of(
+                                new IndexRecommendation(
+                                        "COMPOUND",
+                                        List.of("status:ASC", "priority:DESC"),
+                                        42,
+                                        List.of("status:eq|sort:priority:DESC"),
+                                        "NOT_EXPLAINED")));
+        when(indexAdvisorService.apply(anyString(), anyBoolean()))
+                .thenReturn(new SchemaIndexSyncResult("tasks", 1, 1, 1, List.of(), List.of()));
+        when(queryPlanCache.stats()).thenReturn(new CacheStats(3, 1000, 9, 3, 0, 0.75));
+        when(queryCoalescer.stats()).thenReturn(new CoalescingStats(10, 4, 5, 1, 0, 0.6));
+        when(queryResultCache.stats())
+                .thenReturn(new WeightedCacheStats(2, 4096, 33554432, 6, 2, 0, 0.75));
+    }
+
+    @ParameterizedTest
+    @MethodSource("adminQueryRequests")
+    void queryAdminEndpoints_forbidWithoutAdminRole(String method, String path) throws Exception {
+        performRequest(method, path, null).andExpect(status().isForbidden());
+
+        performRequest(method, path, tokenWithRoles("USER")).andExpect(status().isForbidden());
+    }
+
+    @ParameterizedTest
+    @MethodSource("adminQueryRequests")
+    void queryAdminEndpoints_allowAdminRole(String method, String path) throws Exception {
+        performRequest(method, path, tokenWithRoles("ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void planCacheStats_returnHitRate() throws Exception {
+        performRequest("GET", "/api/admin/query/plan-cache", tokenWithRoles("ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hits").value(9))
+                .andExpect(jsonPath("$.data.hitRate").value(0.75));
+    }
+
+    @Test
+    void indexRecommendations_returnOrderedKeys() throws Exception {
+        performRequest(
+                "GET", "/api/admin/query/entities/tasks/index-recommendations", tokenWithRoles("ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].type").value("COMPOUND"))
+                .andExpect(jsonPath("$.data[0].keys[0]").value("status:ASC"))
+                .andExpect(jsonPath("$.data[0].keys[1]").value("priority:DESC"));
+    }
+
+    private ResultActions performRequest(String method, String path, String token)
+            throws Exception {
+        MockHttpServletRequestBuilder builder =
+                request(HttpMethod.valueOf(method), path).contextPath("/api");
+        if (token != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return mockMvc.perform(builder);
+    }
+
+    private String tokenWithRoles(String... roles) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return Jwts.builder()
+                .subject("integration-user")
+                .claim("roles", List.of(roles))
+                .signWith(key)
+                .compact();
+    }
+
+    private static Stream<Arguments> adminQueryRequests() {
+        return Stream.of(
+                Arguments.of("GET", "/api/admin/query/entities/tasks/shapes"),
+                Arguments.of("POST", "/api/admin/query/entities/tasks/shapes/explain"),
+                Arguments.of("GET", "/api/admin/query/entities/tasks/index-recommendations"),
+                Arguments.of("POST", "/api/admin/query/entities/tasks/index-recommendations/apply"),
+                Arguments.of(
+                        "POST", "/api/admin/query/entities/tasks/index-recommendations/apply?dryRun=true"),
+                Arguments.of("GET", "/api/admin/query/plan-cache"),
+                Arguments.of("GET", "/api/admin/query/coalescing"),
+                Arguments.of("DELETE", "/api/admin/query/plan-cache"),
+                Arguments.of("GET", "/api/admin/query/result-cache"),
+                Arguments.of("DELETE", "/api/admin/query/result-cache"));
+    }
+
+    @TestConfiguration
+    static class QueryAdminControllerTestConfig {
+        @Bean
+        QueryAdminController queryAdminController(
+                QueryShapeStatsService queryShapeStatsService,
+                IndexAdvisorService indexAdvisorService,
+                QueryPlanCache queryPlanCache,
+                QueryCoalescer queryCoalescer,
+                QueryResultCache queryResultCache) {
+            return new QueryAdminController(
+                    queryShapeStatsService,
+                    indexAdvisorService,
+                    queryPlanCache,
+                    queryCoalescer,
+                    queryResultCache);
+        }
+
+        @Bean
+        GlobalExceptionHandler globalExceptionHandler(MessageSource messageSource) {
+            return new GlobalExceptionHandler(messageSource);
+        }
+    }
+}
@@ -1,36 +1,67 @@
 package com.dynapi.integration;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.dynapi.DynapiApplication;
 import com.dynapi.controller.QueryController;
+import com.dynapi.domain.exception.QueryCostExceededException;
+import com.dynapi.domain.exception.QueryTimeoutException;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.AggregationRequest;
+import com.dynapi.dto.AggregationResponse;
+import com.dynapi.dto.AggregationRow;
+import com.dynapi.dto.BatchQueryRequest;
+import com.dynapi.dto.BatchQueryResponse;
+import com.dynapi.dto.BatchQueryResult;
 import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FacetRequest;
+import com.dynapi.dto.FacetResponse;
+import com.dynapi.dto.FacetValue;
 import com.dynapi.dto.FormRecordDto;
 import com.dynapi.dto.PaginatedResponse;
 import com.dynapi.exception.GlobalExceptionHandler;
+import com.dynapi.infrastructure.cache.CachedBytes;
+import com.dynapi.infrastructure.cache.OffHeapSlabStore;
+import com.dynapi.service.AggregationService;
+import com.dynapi.service.BatchQueryService;
 import com.dynapi.service.DynamicQueryService;
+import com.dynapi.service.QueryExecutionService;
+import com.dynapi.service.QueryResultCache;
+import com.dynapi.service.QuerySubscriptionService;
+import com.dynapi.service.SchemaLifecycleService;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @SpringBootTest(
         webEnvironment = SpringBootTest.WebEnvironment.MOCK,
@@ -45,16 +76,34 @@ class QueryControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuerySubscriptionService querySubscriptionService;
+
     @MockitoBean
     private DynamicQueryService dynamicQueryService;
 
+    @MockitoBean
+    private AggregationService aggregationService;
+
+    @MockitoBean
+    private BatchQueryService batchQueryService;
+
+    @MockitoBean
+    private QueryResultCache queryResultCache;
+
+    @MockitoBean
+    private SchemaLifecycleService schemaLifecycleService;
+
     @Test
     void query_returnsPaginatedResponseEnvelope_withDefaultApiVersionFallback() throws Exception {
         FormRecordDto record = new FormRecordDto("record-1", Map.of("name", "Alice"));
         PaginatedResponse<FormRecordDto> result =
                 new PaginatedResponse<>(0, 10, 1L, List.of(record), "name", "ASC");
 
-        when(dynamicQueryService.query(eq("customers"), any(DynamicQueryRequest.class)))
+        when(dynamicQueryService.query(eq("customers"), any(DynamicQueryRequest.class), anyString()))
                 .thenReturn(result);
 
         String requestBody =
@@ -70,12 +119,18 @@ class QueryControllerIntegrationTest {
                         }
                         """;
 
+        MvcResult asyncResult =
+                mockMvc
+                        .perform(
+                                post("/api/query/customers")
+                                        .contextPath("/api")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(requestBody))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
         mockMvc
-                .perform(
-                        post("/api/query/customers")
-                                .contextPath("/api")
-                                .contentType(MediaType.APPLICATION_JSON)
-                                .content(requestBody))
+                .perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Query successful"))
@@ -85,7 +140,8 @@ class QueryControllerIntegrationTest {
                 .andExpect(jsonPath("$.data.content[0].id").value("record-1"))
                 .andExpect(jsonPath("$.data.content[0].data.name").value("Alice"));
 
-        verify(dynamicQueryService).query(eq("customers"), any(DynamicQueryRequest.class));
+        verify(dynamicQueryService)
+                .query(eq("customers"), any(DynamicQueryRequest.class), anyString());
     }
 
     @Test
@@ -94,7 +150,7 @@ class QueryControllerIntegrationTest {
         PaginatedResponse<FormRecordDto> result =
                 new PaginatedResponse<>(0, 10, 1L, List.of(record), "name", "ASC");
 
-        when(dynamicQueryService.query(eq("customers"), any(DynamicQueryRequest.class)))
+        when(dynamicQueryService.query(eq("customers"), any(DynamicQueryRequest.class), anyString()))
                 .thenReturn(result);
 
         String requestBody =
@@ -110,18 +166,25 @@ class QueryControllerIntegrationTest {
                         }
                         """;
 
+        MvcResult asyncResult =
+                mockMvc
+                        .perform(
+                                post("/api/query/customers?api-version=1")
+                                        .contextPath("/api")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(requestBody))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
         mockMvc
-                .perform(
-                        post("/api/query/customers?api-version=1")
-                                .contextPath("/api")
-                                .contentType(MediaType.APPLICATION_JSON)
-                                .content(requestBody))
+                .perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Query successful"))
                 .andExpect(jsonPath("$.data.page").value(0));
 
-        verify(dynamicQueryService).query(eq("customers"), any(DynamicQueryRequest.class));
+        verify(dynamicQueryService)
+                .query(eq("customers"), any(DynamicQueryRequest.class), anyString());
     }
 
     @Test
@@ -172,11 +235,295 @@ class QueryControllerIntegrationTest {
         verifyNoInteractions(dynamicQueryService);
     }
 
+    @Test
+    void query_returnsUnprocessableContentWhenCostCheckRejectsQuery() throws Exception {
+        when(dynamicQueryService.query(eq("customers"), any(DynamicQueryRequest.class), anyString()))
+                .thenThrow(
+                        new QueryCostExceededException(
+                                "Query on 'customers' would scan about 500000 documents", 500_000, 100_000));
+
+        MvcResult asyncResult =
+                mockMvc
+                        .perform(
+                                post("/api/query/customers")
+                                        .contextPath("/api")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"page\": 0, \"size\": 10}"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isUnprocessableContent())
+                .andExpect(jsonPath("$.title").value("Query Too Expensive"))
+                .andExpect(jsonPath("$.estimatedDocuments").value(500_000))
+                .andExpect(jsonPath("$.maxDocuments").value(100_000));
+    }
+
+    @Test
+    void query_returnsGatewayTimeoutWhenQueryExceedsMaxTime() throws Exception {
+        when(dynamicQueryService.query(eq("customers"), any(DynamicQueryRequest.class), anyString()))
+                .thenThrow(
+                        new QueryTimeoutException(
+                                "Query on 'customers' exceeded the time limit of 5000 ms", null));
+
+        MvcResult asyncResult =
+                mockMvc
+                        .perform(
+                                post("/api/query/customers")
+                                        .contextPath("/api")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"page\": 0, \"size\": 10}"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.title").value("Query Timeout"));
+    }
+
+    @Test
+    void query_servesCachedResponseWithoutRunningQuery() throws Exception {
+        OffHeapSlabStore<String> store = new OffHeapSlabStore<>(1024, 256, 16);
+        store.put(
+                "key",
+                "{\"success\":true,\"message\":\"Query successful\",\"data\":{\"totalElements\":7}}"
+                        .getBytes(StandardCharsets.UTF_8));
+        CachedBytes cached = store.get("key");
+        when(queryResultCache.isEnabled("customers")).thenReturn(true);
+        when(queryResultCache.lookup(eq("customers"), any(DynamicQueryRequest.class)))
+                .thenReturn(new QueryResultCache.Lookup("key", new SchemaVersion(), cached));
+
+        MvcResult asyncResult =
+                mockMvc
+                        .perform(
+                                post("/api/query/customers")
+                                        .contextPath("/api")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"page\": 0, \"size\": 10}"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.totalElements").value(7));
+
+        verifyNoInteractions(dynamicQueryService);
+    }
+
+    @Test
+    void query_storesResponseOnCacheMiss() throws Exception {
+        SchemaVersion publishedSchema = new SchemaVersion();
+        QueryResultCache.Lookup lookup = new QueryResultCache.Lookup("key", publishedSchema, null);
+        PaginatedResponse<FormRecordDto> result =
+                new PaginatedResponse<>(
+                        0, 10, 1L, List.of(new FormRecordDto("record-1", Map.of("name", "Alice"))), null, null);
+        when(queryResultCache.isEnabled("customers")).thenReturn(true);
+        when(queryResultCache.lookup(eq("customers"), any(DynamicQueryRequest.class))).thenReturn(lookup);
+        when(dynamicQueryService.query(
+                eq("customers"), eq(publishedSchema), any(DynamicQueryRequest.class), anyString()))
+                .thenReturn(result);
+        when(queryResultCache.store(eq(lookup), any()))
+                .thenReturn(
+                        CachedBytes.of(
+                                "{\"success\":true,\"data\":{\"totalElements\":1}}"
+                                        .getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult asyncResult =
+                mockMvc
+                        .perform(
+                                post("/api/query/customers")
+                                        .contextPath("/api")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"page\": 0, \"size\": 10}"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(1));
+
+        verify(queryResultCache).store(eq(lookup), any());
+    }
+
+    @Test
+    void aggregate_returnsAggregatedRows() throws Exception {
+        when(aggregationService.aggregate(eq("customers"), any(AggregationRequest.class)))
+                .thenReturn(
+                        new AggregationResponse(
+                                "customers",
+                                List.of("status"),
+                                List.of(
+                                        new AggregationRow(
+                                                Map.of("status", "active"), Map.of("count", 12, "avg_age", 41.5)))));
+
+        mockMvc
+                .perform(
+                        post("/api/query/customers/aggregate")
+                                .contextPath("/api")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        """
+                                                {
+                                                  "groupBy": ["status"],
+                                                  "metrics": [{"operator": "count"}, {"operator": "avg", "field": "age"}]
+                                                }
+                                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.rows[0].group.status").value("active"))
+                .andExpect(jsonPath("$.data.rows[0].metrics.count").value(12))
+                .andExpect(jsonPath("$.data.rows[0].metrics.avg_age").value(41.5));
+    }
+
+    @Test
+    void aggregate_returnsBadRequestWithoutMetrics() throws Exception {
+        mockMvc
+                .perform(
+                        post("/api/query/customers/aggregate")
+                                .contextPath("/api")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"groupBy\": [\"status\"], \"metrics\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.metrics").exists());
+
+        verifyNoInteractions(aggregationService);
+    }
+
+    @Test
+    void facets_returnsTopValuesPerPath() throws Exception {
+        when(aggregationService.facets(eq("customers"), any(FacetRequest.class)))
+                .thenReturn(
+                        new FacetResponse(
+                                "customers",
+                                Map.of("status", List.of(new FacetValue("active", 12), new FacetValue("blocked", 3))),
+                                false,
+                                null));
+
+        mockMvc
+                .perform(
+                        post("/api/query/customers/facets")
+                                .contextPath("/api")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"facets\": [\"status\"], \"limit\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.facets.status[0].value").value("active"))
+                .andExpect(jsonPath("$.data.facets.status[0].count").value(12))
+                .andExpect(jsonPath("$.data.approximate").value(false));
+    }
+
+    @Test
+    void batch_returnsIndependentResultPerQuery() throws Exception {
+        PaginatedResponse<FormRecordDto> page =
+                new PaginatedResponse<>(
+                        0, 10, 1L, List.of(new FormRecordDto("record-1", Map.of("name", "Alice"))), null, null);
+        when(batchQueryService.execute(any(BatchQueryRequest.class)))
+                .thenReturn(
+                        new BatchQueryResponse(
+                                List.of(
+                                        new BatchQueryResult("customers", "customers", 200, page, null),
+                                        new BatchQueryResult(
+                                                "1", "orders", 400, null, "Sorting by field is not allowed: x")),
+                                1,
+                                1));
+
+        String requestBody =
+                """
+                        {
+                          "queries": [
+                            { "id": "customers", "entity": "customers", "query": { "page": 0, "size": 10 } },
+                            { "entity": "orders", "query": { "sortBy": "x" } }
+                          ]
+                        }
+                        """;
+
+        mockMvc
+                .perform(
+                        post("/api/query")
+                                .contextPath("/api")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.results[0].status").value(200))
+                .andExpect(jsonPath("$.data.results[0].result.content[0].id").value("record-1"))
+                .andExpect(jsonPath("$.data.results[1].status").value(400))
+                .andExpect(jsonPath("$.data.results[1].error").value("Sorting by field is not allowed: x"))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(1));
+    }
+
+    @Test
+    void batch_returnsBadRequestWithoutQueries() throws Exception {
+        mockMvc
+                .perform(
+                        post("/api/query")
+                                .contextPath("/api")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"queries\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(batchQueryService);
+    }
+
+    @Test
+    void subscribe_streamsWritesOfEntityAsServerSentEvents() throws Exception {
+        when(schemaLifecycleService.latestPublished("tickets")).thenReturn(new SchemaVersion());
+        when(dynamicQueryService.inMemoryPredicate(eq("tickets"), any(), any())).thenReturn(data -> true);
+
+        MvcResult result =
+                mockMvc
+                        .perform(
+                                post("/api/query/tickets/subscribe")
+                                        .contextPath("/api")
+                                        .accept(MediaType.TEXT_EVENT_STREAM)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"filters\": []}"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        Document saved = new Document("_id", "t-1").append("status", "open");
+        eventPublisher.publishEvent(new AfterSaveEvent<>(saved, saved, "tickets"));
+        eventPublisher.publishEvent(
+                new AfterSaveEvent<>(saved, new Document(saved).append("deleted", true), "tickets"));
+
+        String stream = awaitContent(result, "event:delete");
+        assertThat(stream)
+                .contains("event:upsert\ndata:{\"id\":\"t-1\",\"deleted\":false")
+                .contains("\"status\":\"open\"")
+                .contains("event:delete\ndata:{\"id\":\"t-1\",\"deleted\":true");
+        assertThat(querySubscriptionService.subscriberCount("tickets"))
+                .isEqualTo(1);
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        return content;
+    }
+
     @TestConfiguration
     static class QueryControllerTestConfig {
         @Bean
-        QueryController queryController(DynamicQueryService dynamicQueryService) {
-            return new QueryController(dynamicQueryService);
+        QueryController queryController(
+                QueryExecutionService queryExecutionService,
+                AggregationService aggregationService,
+                BatchQueryService batchQueryService,
+                QueryResultCache queryResultCache,
+                QuerySubscriptionService querySubscriptionService) {
+            return new QueryController(
+                    queryExecutionService,
+                    aggregationService,
+                    batchQueryService,
+                    queryResultCache,
+                    querySubscriptionService);
         }
 
         @Bean
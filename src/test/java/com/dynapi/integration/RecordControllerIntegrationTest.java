@@ -3,12 +3,16 @@ package com.dynapi.integration;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -16,10 +20,16 @@ import com.dynapi.DynapiApplication;
 import com.dynapi.controller.RecordController;
 import com.dynapi.domain.exception.EntityNotFoundException;
 import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.RecordChange;
+import com.dynapi.dto.RecordChangesResponse;
 import com.dynapi.dto.RecordMutationRequest;
 import com.dynapi.exception.GlobalExceptionHandler;
+import com.dynapi.service.CachedRecord;
 import com.dynapi.service.DynamicRecordService;
+import com.dynapi.service.RecordChangesService;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -51,6 +61,85 @@ class RecordControllerIntegrationTest {
     @MockitoBean
     private DynamicRecordService dynamicRecordService;
 
+    @MockitoBean
+    private RecordChangesService recordChangesService;
+
+    @Test
+    void changes_returnsPageWithCursor() throws Exception {
+        Instant since = Instant.parse("2026-03-01T12:00:00Z");
+        Instant updatedAt = Instant.parse("2026-03-01T12:00:05Z");
+        when(recordChangesService.changes("tasks", since, null, 2))
+                .thenReturn(
+                        new RecordChangesResponse(
+                                List.of(
+                                        new RecordChange(
+                                                "record-1", false, updatedAt, updatedAt, Map.of("name", "Alice")),
+                                        new RecordChange("record-2", true, null, updatedAt, null)),
+                                "next-page",
+                                true,
+                                null));
+
+        mockMvc
+                .perform(
+                        get("/api/records/tasks/_changes")
+                                .contextPath("/api")
+                                .param("since", "2026-03-01T12:00:00Z")
+                                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.changes[0].data.name").value("Alice"))
+                .andExpect(jsonPath("$.data.changes[1].deleted").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").value("next-page"))
+                .andExpect(jsonPath("$.data.hasMore").value(true));
+
+        verifyNoInteractions(dynamicRecordService);
+    }
+
+    @Test
+    void getRecord_returnsEtagAndNotModifiedWhenUnchanged() throws Exception {
+        when(dynamicRecordService.get("tasks", "record-1"))
+                .thenReturn(
+                        new CachedRecord(new FormRecordDto("record-1", Map.of("name", "Alice")), "\"abc123\""));
+
+        mockMvc
+                .perform(get("/api/records/tasks/record-1").contextPath("/api"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(jsonPath("$.message").value("Record fetched successfully"))
+                .andExpect(jsonPath("$.data.data.name").value("Alice"));
+
+        mockMvc
+                .perform(
+                        get("/api/records/tasks/record-1")
+                                .contextPath("/api")
+                                .header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getRecord_servesRecordWhoseIdIsChanges() throws Exception {
+        when(dynamicRecordService.get("tasks", "changes"))
+                .thenReturn(
+                        new CachedRecord(new FormRecordDto("changes", Map.of("name", "Alice")), "\"abc123\""));
+
+        mockMvc
+                .perform(get("/api/records/tasks/changes").contextPath("/api"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value("changes"));
+
+        verifyNoInteractions(recordChangesService);
+    }
+
+    @Test
+    void getRecord_returnsNotFoundWhenMissing() throws Exception {
+        when(dynamicRecordService.get("tasks", "missing"))
+                .thenThrow(new EntityNotFoundException("Record not found for entity 'tasks' and id 'missing'"));
+
+        mockMvc
+                .perform(get("/api/records/tasks/missing").contextPath("/api"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void patchRecord_returnsSuccessEnvelope() throws Exception {
         when(dynamicRecordService.patch(eq("tasks"), eq("record-1"), any(RecordMutationRequest.class), any(Locale.class)))
@@ -123,6 +212,25 @@ class RecordControllerIntegrationTest {
         verify(dynamicRecordService).softDelete("tasks", "record-1");
     }
 
+    @Test
+    void patchRecord_rejectsDataNestedBeyondTheLimitWhileReading() throws Exception {
+        String nested = "{\"a\": ".repeat(20) + "1" + "}".repeat(20);
+
+        mockMvc
+                .perform(
+                        patch("/api/records/tasks/record-1")
+                                .contextPath("/api")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"data\": " + nested + "}"))
+                .andExpect(status().isContentTooLarge())
+                .andExpect(jsonPath("$.title").value("Payload Too Large"))
+                .andExpect(jsonPath("$.limit").value("max-depth"))
+                .andExpect(jsonPath("$.maxValue").value(16));
+
+        verify(dynamicRecordService, never())
+                .patch(any(), any(), any(RecordMutationRequest.class), any(Locale.class));
+    }
+
     @Test
     void patchRecord_returnsNotFoundWhenServiceThrowsEntityNotFound() throws Exception {
         doThrow(new EntityNotFoundException("Record not found"))
@@ -175,8 +283,9 @@ class RecordControllerIntegrationTest {
     @TestConfiguration
     static class RecordControllerTestConfig {
         @Bean
-        RecordController recordController(DynamicRecordService dynamicRecordService) {
-            return new RecordController(dynamicRecordService);
+        RecordController recordController(
+                DynamicRecordService dynamicRecordService, RecordChangesService recordChangesService) {
+            return new RecordController(dynamicRecordService, recordChangesService);
         }
 
         @Bean
@@ -1,6 +1,7 @@
 package com.dynapi.integration;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -14,10 +15,12 @@ import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldGroup;
 import com.dynapi.domain.model.SchemaLifecycleStatus;
 import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.SchemaDryRunReport;
 import com.dynapi.dto.SchemaIndexSyncResult;
 import com.dynapi.exception.GlobalExceptionHandler;
 import com.dynapi.repository.FieldDefinitionRepository;
 import com.dynapi.repository.FieldGroupRepository;
+import com.dynapi.service.SchemaDryRunService;
 import com.dynapi.service.SchemaIndexService;
 import com.dynapi.service.SchemaLifecycleService;
 import io.jsonwebtoken.Jwts;
@@ -73,6 +76,8 @@ class SchemaAdminControllerSecurityIntegrationTest {
     private SchemaLifecycleService schemaLifecycleService;
     @MockitoBean
     private SchemaIndexService schemaIndexService;
+    @MockitoBean
+    private SchemaDryRunService schemaDryRunService;
 
     @Value("${security.jwt.secret}")
     private String jwtSecret;
@@ -99,7 +104,7 @@ class SchemaAdminControllerSecurityIntegrationTest {
 
         when(fieldDefinitionRepository.findAll()).thenReturn(List.of());
         when(fieldGroupRepository.findAll()).thenReturn(List.of());
-        when(schemaLifecycleService.publish(anyString()))
+        when(schemaLifecycleService.publish(anyString(), any()))
                 .thenReturn(schemaVersion("users", 1, SchemaLifecycleStatus.PUBLISHED));
         when(schemaLifecycleService.deprecate(anyString()))
                 .thenReturn(schemaVersion("users", 1, SchemaLifecycleStatus.DEPRECATED));
@@ -107,7 +112,9 @@ class SchemaAdminControllerSecurityIntegrationTest {
                 .thenReturn(schemaVersion("users", 2, SchemaLifecycleStatus.PUBLISHED));
         when(schemaLifecycleService.listVersions(anyString()))
                 .thenReturn(List.of(schemaVersion("users", 1, SchemaLifecycleStatus.PUBLISHED)));
-        when(schemaIndexService.syncIndexes(anyString()))
+        when(schemaDryRunService.dryRun(anyString(), any(), any()))
+                .thenReturn(new SchemaDryRunReport("users", 2, true, 100, 0, 5, List.of()));
+        when(schemaIndexService.syncIndexes(anyString(), anyBoolean()))
                 .thenReturn(
                         new SchemaIndexSyncResult("users", 1, 2, 2, List.of("email"), List.of("priority")));
     }
@@ -201,10 +208,12 @@ class SchemaAdminControllerSecurityIntegrationTest {
                 Arguments.of("DELETE", "/api/admin/schema/field-groups/profile", null),
                 Arguments.of("GET", "/api/admin/schema/field-groups", null),
                 Arguments.of("POST", "/api/admin/schema/field-groups/profile/publish", null),
+                Arguments.of("POST", "/api/admin/schema/field-groups/profile/publish/dry-run?sample=100", null),
                 Arguments.of("POST", "/api/admin/schema/entities/users/deprecate", null),
                 Arguments.of("POST", "/api/admin/schema/entities/users/rollback/1", null),
                 Arguments.of("GET", "/api/admin/schema/entities/users/versions", null),
-                Arguments.of("POST", "/api/admin/schema/entities/users/indexes/sync", null));
+                Arguments.of("POST", "/api/admin/schema/entities/users/indexes/sync", null),
+                Arguments.of("POST", "/api/admin/schema/entities/users/indexes/sync?dryRun=true", null));
     }
 
     private static SchemaVersion schemaVersion(
@@ -224,12 +233,14 @@ class SchemaAdminControllerSecurityIntegrationTest {
                 FieldDefinitionRepository fieldDefinitionRepository,
                 FieldGroupRepository fieldGroupRepository,
                 SchemaLifecycleService schemaLifecycleService,
-                SchemaIndexService schemaIndexService) {
+                SchemaIndexService schemaIndexService,
+                SchemaDryRunService schemaDryRunService) {
             return new SchemaAdminController(
                     fieldDefinitionRepository,
                     fieldGroupRepository,
                     schemaLifecycleService,
-                    schemaIndexService);
+                    schemaIndexService,
+                    schemaDryRunService);
         }
 
         @Bean
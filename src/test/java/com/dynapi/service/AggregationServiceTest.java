@@ -0,0 +1,344 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QueryCoalescingProperties;
+import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.config.QueryPlanCacheProperties;
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaLifecycleStatus;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.AggregationMetric;
+import com.dynapi.dto.AggregationRequest;
+import com.dynapi.dto.AggregationResponse;
+import com.dynapi.dto.AggregationRow;
+import com.dynapi.dto.FacetRequest;
+import com.dynapi.dto.FacetResponse;
+import com.dynapi.dto.FacetValue;
+import com.dynapi.dto.FilterRule;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+@ExtendWith(MockitoExtension.class)
+class AggregationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    private QueryGuardrailProperties guardrails;
+    private RecordCodecProperties codecProperties;
+
+    private AggregationService aggregationService;
+
+    @BeforeEach
+    void setUp() {
+        guardrails = new QueryGuardrailProperties();
+        codecProperties = new RecordCodecProperties();
+        DynamicQueryService dynamicQueryService =
+                new DynamicQueryService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        guardrails,
+                        new QueryShapeStatsService(mongoTemplate, new QueryStatsProperties()),
+                        new QueryCostGuard(mongoTemplate, guardrails),
+                        new QueryPlanCache(new QueryPlanCacheProperties()),
+                        new QueryCoalescer(new QueryCoalescingProperties()),
+                        new EntityWriteGenerations(),
+                        new RecordCodecs(codecProperties));
+        aggregationService =
+                new AggregationService(mongoTemplate, schemaLifecycleService, dynamicQueryService, guardrails);
+
+        FieldDefinition profile = field("profile", FieldType.OBJECT);
+        profile.setSubFields(List.of(field("age", FieldType.NUMBER)));
+        SchemaVersion published = new SchemaVersion();
+        published.setEntityName("tasks");
+        published.setVersion(1);
+        published.setStatus(SchemaLifecycleStatus.PUBLISHED);
+        published.setFields(
+                List.of(
+                        field("status", FieldType.STRING),
+                        field("title", FieldType.STRING),
+                        field("priority", FieldType.NUMBER),
+                        profile));
+        lenient().when(schemaLifecycleService.latestPublished("tasks")).thenReturn(published);
+    }
+
+    @Test
+    void aggregate_compilesGroupPipelineAndMapsRows() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(
+                        results(
+                                new Document("_id", new Document("g0", "open"))
+                                        .append("count", 3)
+                                        .append("avgPriority", 2.5),
+                                new Document("_id", new Document("g0", "done"))
+                                        .append("count", 1)
+                                        .append("avgPriority", 1.0)));
+
+        AggregationResponse response =
+                aggregationService.aggregate(
+                        "tasks",
+                        new AggregationRequest(
+                                List.of(new FilterRule("priority", "gte", 1, null)),
+                                List.of("status"),
+                                List.of(
+                                        new AggregationMetric("count", null, null),
+                                        new AggregationMetric("avg", "priority", "avgPriority"))));
+
+        ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq("tasks"), eq(Document.class));
+        Aggregation aggregation = aggregationCaptor.getValue();
+        assertTrue(aggregation.getOptions().isAllowDiskUse());
+
+        List<Document> pipeline = aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(4, pipeline.size());
+        String match = pipeline.get(0).toJson();
+        assertTrue(match.contains("\"deleted\": {\"$ne\": true}"), match);
+        assertTrue(match.contains("\"priority\": {\"$gte\": 1}"), match);
+        assertEquals(
+                new Document("_id", new Document("g0", "$status"))
+                        .append("count", new Document("$sum", 1))
+                        .append("avgPriority", new Document("$avg", "$priority")),
+                pipeline.get(1).get("$group"));
+        assertEquals(1001, pipeline.get(3).get("$limit"));
+
+        assertEquals(List.of("status"), response.groupBy());
+        assertEquals(2, response.rows().size());
+        assertEquals(Map.of("status", "open"), response.rows().get(0).group());
+        assertEquals(3, response.rows().get(0).metrics().get("count"));
+        assertEquals(2.5, response.rows().get(0).metrics().get("avgPriority"));
+    }
+
+    @Test
+    void aggregate_andFacets_returnDecimal128MetricsAndKeysAsBigDecimal() {
+        codecProperties.setNumberStorage(RecordCodecProperties.NumberStorage.DECIMAL128);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(
+                        results(
+                                new Document("_id", new Document("g0", new Decimal128(new BigDecimal("2"))))
+                                        .append("sum_priority", new Decimal128(new BigDecimal("4.20")))
+                                        .append("avg_priority", new Decimal128(new BigDecimal("2.10")))
+                                        .append("min_priority", new Decimal128(new BigDecimal("2")))
+                                        .append("max_priority", new Decimal128(new BigDecimal("2")))))
+                .thenReturn(
+                        results(
+                                new Document(
+                                        "f0",
+                                        List.of(
+                                                new Document("_id", new Decimal128(new BigDecimal("2.5")))
+                                                        .append("count", 3)))));
+
+        AggregationResponse response =
+                aggregationService.aggregate(
+                        "tasks",
+                        new AggregationRequest(
+                                List.of(new FilterRule("priority", "gte", 1, null)),
+                                List.of("priority"),
+                                List.of(
+                                        new AggregationMetric("sum", "priority", null),
+                                        new AggregationMetric("avg", "priority", null),
+                                        new AggregationMetric("min", "priority", null),
+                                        new AggregationMetric("max", "priority", null))));
+        FacetResponse facets =
+                aggregationService.facets("tasks", new FacetRequest(null, List.of("priority"), null, null));
+
+        ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate, times(2))
+                .aggregate(aggregationCaptor.capture(), eq("tasks"), eq(Document.class));
+        Document match =
+                aggregationCaptor.getAllValues().getFirst().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0);
+        assertEquals(
+                new Decimal128(1),
+                match.get("$match", Document.class).get("priority", Document.class).get("$gte"));
+
+        AggregationRow row = response.rows().getFirst();
+        assertEquals(new BigDecimal("2"), row.group().get("priority"));
+        assertEquals(new BigDecimal("4.20"), row.metrics().get("sum_priority"));
+        assertEquals(new BigDecimal("2.10"), row.metrics().get("avg_priority"));
+        assertEquals(new BigDecimal("2"), row.metrics().get("min_priority"));
+        assertEquals(new BigDecimal("2"), row.metrics().get("max_priority"));
+        assertEquals(new BigDecimal("2.5"), facets.facets().get("priority").getFirst().value());
+    }
+
+    @Test
+    void aggregate_usesDefaultAliasesForNestedNumberPaths() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(results(new Document("_id", null).append("max_profile_age", 70)));
+
+        AggregationResponse response =
+                aggregationService.aggregate(
+                        "tasks",
+                        new AggregationRequest(
+                                null, null, List.of(new AggregationMetric("MAX", "profile.age", null))));
+
+        assertEquals(Map.of(), response.rows().get(0).group());
+        assertEquals(70, response.rows().get(0).metrics().get("max_profile_age"));
+    }
+
+    @Test
+    void aggregate_rejectsNumericMetricOnNonNumberField() {
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                aggregationService.aggregate(
+                                        "tasks",
+                                        new AggregationRequest(
+                                                null, List.of("status"), List.of(new AggregationMetric("sum", "title", null)))));
+
+        assertTrue(ex.getMessage().contains("requires a NUMBER field: title"));
+    }
+
+    @Test
+    void aggregate_rejectsGroupingByObjectOrUnknownField() {
+        List<AggregationMetric> count = List.of(new AggregationMetric("count", null, null));
+
+        IllegalArgumentException objectEx =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                aggregationService.aggregate(
+                                        "tasks", new AggregationRequest(null, List.of("profile"), count)));
+        IllegalArgumentException unknownEx =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                aggregationService.aggregate(
+                                        "tasks", new AggregationRequest(null, List.of("secret"), count)));
+
+        assertTrue(objectEx.getMessage().contains("of type OBJECT is not supported"));
+        assertTrue(unknownEx.getMessage().contains("Grouping by field is not allowed: secret"));
+    }
+
+    @Test
+    void aggregate_rejectsResultsAboveGroupCardinalityLimit() {
+        guardrails.setMaxAggregationGroups(2);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(
+                        results(
+                                new Document("_id", new Document("g0", "a")).append("count", 1),
+                                new Document("_id", new Document("g0", "b")).append("count", 1),
+                                new Document("_id", new Document("g0", "c")).append("count", 1)));
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                aggregationService.aggregate(
+                                        "tasks",
+                                        new AggregationRequest(
+                                                null, List.of("title"), List.of(new AggregationMetric("count", null, null)))));
+
+        assertTrue(ex.getMessage().contains("more than 2 groups"));
+    }
+
+    @Test
+    void facets_compilesSingleFacetPipelineWithTopValuesPerPath() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(
+                        results(
+                                new Document(
+                                        "f0",
+                                        List.of(
+                                                new Document("_id", "open").append("count", 7),
+                                                new Document("_id", "done").append("count", 2)))
+                                        .append("f1", List.of(new Document("_id", 3).append("count", 4)))));
+
+        FacetResponse response =
+                aggregationService.facets(
+                        "tasks", new FacetRequest(null, List.of("status", "priority"), 5, null));
+
+        ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq("tasks"), eq(Document.class));
+        List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(2, pipeline.size());
+        Document facets = pipeline.get(1).get("$facet", Document.class);
+        assertEquals(List.of("f0", "f1"), List.copyOf(facets.keySet()));
+        List<Document> statusFacet = facets.getList("f0", Document.class);
+        assertEquals(new Document("status", new Document("$ne", null)), statusFacet.get(0).get("$match"));
+        assertEquals(5, statusFacet.get(3).get("$limit"));
+
+        assertEquals(List.of("status", "priority"), List.copyOf(response.facets().keySet()));
+        assertEquals(new FacetValue("open", 7), response.facets().get("status").get(0));
+        assertEquals(new FacetValue(3, 4), response.facets().get("priority").get(0));
+        assertFalse(response.approximate());
+        assertNull(response.sampledRecords());
+    }
+
+    @Test
+    void facets_samplesMatchingRecordsInApproximateMode() {
+        guardrails.setFacetSampleSize(500);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(
+                        results(
+                                new Document("f0", List.of(new Document("_id", true).append("count", 450)))
+                                        .append("sampled", List.of(new Document("records", 500)))));
+        FieldDefinition done = field("done", FieldType.BOOLEAN);
+        SchemaVersion published = schemaLifecycleService.latestPublished("tasks");
+        published.setFields(List.of(done));
+
+        FacetResponse response =
+                aggregationService.facets("tasks", new FacetRequest(null, List.of("done"), null, true));
+
+        ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq("tasks"), eq(Document.class));
+        List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("size", 500), pipeline.get(1).get("$sample"));
+        assertTrue(response.approximate());
+        assertEquals(500L, response.sampledRecords());
+        assertEquals(450, response.facets().get("done").get(0).count());
+    }
+
+    @Test
+    void facets_rejectsObjectFields() {
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                aggregationService.facets(
+                                        "tasks", new FacetRequest(null, List.of("profile"), null, null)));
+
+        assertTrue(ex.getMessage().contains("of type OBJECT is not supported"));
+    }
+
+    private AggregationResults<Document> results(Document... documents) {
+        return new AggregationResults<>(List.of(documents), new Document());
+    }
+
+    private FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QueryBatchProperties;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.BatchQueryItem;
+import com.dynapi.dto.BatchQueryRequest;
+import com.dynapi.dto.BatchQueryResponse;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class BatchQueryServiceTest {
+
+    @Mock
+    private DynamicQueryService dynamicQueryService;
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MemoryResidentEntities memoryResidentEntities;
+
+    private final SchemaVersion tasksSchema = new SchemaVersion();
+    private final PaginatedResponse<FormRecordDto> page =
+            new PaginatedResponse<>(0, 10, 0L, List.of(), null, null);
+
+    private QueryBatchProperties properties;
+    private QueryExecutionService queryExecutionService;
+    private BatchQueryService batchQueryService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QueryBatchProperties();
+        queryExecutionService =
+                new QueryExecutionService(dynamicQueryService, mongoTemplate, memoryResidentEntities);
+        batchQueryService =
+                new BatchQueryService(queryExecutionService, schemaLifecycleService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchQueryService.shutdown();
+        queryExecutionService.shutdown();
+    }
+
+    @Test
+    void execute_resolvesSchemaOncePerEntityAndReportsEachQueryIndependently() {
+        DynamicQueryRequest invalid = new DynamicQueryRequest(null, 0, 10, "unknown", null);
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(tasksSchema);
+        when(schemaLifecycleService.latestPublished("missing"))
+                .thenThrow(new IllegalArgumentException("No published schema found for entity: missing"));
+        when(dynamicQueryService.query(eq("tasks"), eq(tasksSchema), any(), anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            if (invocation.getArgument(2) == invalid) {
+                                throw new IllegalArgumentException("Sorting by field is not allowed: unknown");
+                            }
+                            return page;
+                        });
+
+        BatchQueryResponse response =
+                batchQueryService.execute(
+                        new BatchQueryRequest(
+                                List.of(
+                                        new BatchQueryItem("open", "tasks", null),
+                                        new BatchQueryItem(null, "tasks", invalid),
+                                        new BatchQueryItem(null, "missing", null))));
+
+        assertEquals(List.of("open", "1", "2"), response.results().stream().map(r -> r.id()).toList());
+        assertEquals(List.of(200, 400, 400), response.results().stream().map(r -> r.status()).toList());
+        assertEquals(page, response.results().get(0).result());
+        assertNull(response.results().get(0).error());
+        assertEquals("Sorting by field is not allowed: unknown", response.results().get(1).error());
+        assertEquals(1, response.succeeded());
+        assertEquals(2, response.failed());
+        verify(schemaLifecycleService, times(1)).latestPublished("tasks");
+    }
+
+    @Test
+    void execute_reportsTimeoutForSlowQueryWithoutFailingBatch() {
+        properties.setQueryTimeout(Duration.ofMillis(100));
+        DynamicQueryRequest slow = new DynamicQueryRequest(null, 0, 5, null, null);
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(tasksSchema);
+        when(dynamicQueryService.query(eq("tasks"), eq(tasksSchema), any(), anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            if (invocation.getArgument(2) == slow) {
+                                Thread.sleep(5_000);
+                            }
+                            return page;
+                        });
+
+        BatchQueryResponse response =
+                batchQueryService.execute(
+                        new BatchQueryRequest(
+                                List.of(new BatchQueryItem("slow", "tasks", slow), new BatchQueryItem("fast", "tasks", null))));
+
+        assertEquals(504, response.results().get(0).status());
+        assertTrue(response.results().get(0).error().contains("batch time limit of 100 ms"));
+        assertEquals(200, response.results().get(1).status());
+    }
+
+    @Test
+    void execute_limitsConcurrentQueriesPerBatch() {
+        properties.setMaxConcurrency(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(tasksSchema);
+        when(dynamicQueryService.query(eq("tasks"), eq(tasksSchema), any(), anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            Thread.sleep(50);
+                            running.decrementAndGet();
+                            return page;
+                        });
+
+        BatchQueryResponse response =
+                batchQueryService.execute(
+                        new BatchQueryRequest(
+                                IntStream.range(0, 6).mapToObj(i -> new BatchQueryItem(null, "tasks", null)).toList()));
+
+        assertEquals(6, response.succeeded());
+        assertTrue(maxRunning.get() <= 2, "max concurrent queries was " + maxRunning.get());
+    }
+
+    @Test
+    void execute_rejectsEmptyAndOversizedBatches() {
+        properties.setMaxQueries(2);
+
+        IllegalArgumentException empty =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> batchQueryService.execute(new BatchQueryRequest(Collections.emptyList())));
+        IllegalArgumentException oversized =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                batchQueryService.execute(
+                                        new BatchQueryRequest(
+                                                Collections.nCopies(3, new BatchQueryItem(null, "tasks", null)))));
+
+        assertTrue(empty.getMessage().contains("at least one query"));
+        assertTrue(oversized.getMessage().contains("Batch exceeds max queries: 2"));
+    }
+}
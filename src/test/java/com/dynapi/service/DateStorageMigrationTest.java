@@ -0,0 +1,128 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.DateMigrationProperties;
+import com.dynapi.config.RecordCacheProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaVersion;
+import com.mongodb.client.result.UpdateResult;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+class DateStorageMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    private final EntityWriteGenerations writeGenerations = new EntityWriteGenerations();
+    private final DateMigrationProperties properties = new DateMigrationProperties();
+    private DateStorageMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration =
+                new DateStorageMigration(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        new RecordCodecs(new RecordCodecProperties()),
+                        new RecordCache(new RecordCacheProperties()),
+                        writeGenerations,
+                        properties);
+
+        FieldDefinition shifts = field("shifts", FieldType.ARRAY);
+        shifts.setSubFields(List.of(field("start", FieldType.DATE)));
+        SchemaVersion schema = new SchemaVersion();
+        schema.setEntityName("tasks");
+        schema.setVersion(2);
+        schema.setFields(List.of(field("title", FieldType.STRING), field("dueAt", FieldType.DATE), shifts));
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(schema);
+    }
+
+    @Test
+    void migrate_convertsStringDatesInBatchesOncePerSchemaVersion() {
+        properties.setBatchSize(1);
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        Document convertible = new Document("_id", first).append("title", "Ship").append("dueAt", "2026-05-01");
+        Document invalid = new Document("_id", second).append("dueAt", "someday");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(List.of(convertible))
+                .thenReturn(List.of(invalid))
+                .thenReturn(List.of());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("tasks")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertEquals(1, migration.migrate("tasks"));
+        assertEquals(0, migration.migrate("tasks"));
+
+        ArgumentCaptor<Query> reads = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).find(reads.capture(), eq(Document.class), eq("tasks"));
+        String firstRead = reads.getAllValues().getFirst().getQueryObject().toJson();
+        assertTrue(firstRead.contains("\"dueAt\": {\"$type\": [\"string\"]}"));
+        assertTrue(firstRead.contains("\"shifts.start\": {\"$type\": [\"string\"]}"));
+        assertTrue(reads.getAllValues().get(1).getQueryObject().toJson().contains(first.toHexString()));
+
+        ArgumentCaptor<Query> target = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(target.capture(), update.capture(), eq("tasks"));
+        assertEquals(new Document("_id", first).append("dueAt", "2026-05-01"), target.getValue().getQueryObject());
+        assertEquals(
+                new Document("$set", new Document("dueAt", Date.from(Instant.parse("2026-05-01T00:00:00Z")))),
+                update.getValue().getUpdateObject());
+        assertEquals(1, writeGenerations.current("tasks"));
+    }
+
+    @Test
+    void migrate_setsWholeArrayWhenAnItemDateChanges() {
+        ObjectId id = new ObjectId();
+        List<Document> shifts =
+                List.of(new Document("start", "2026-05-01T08:00:00Z"), new Document("start", "2026-05-02T08:00:00Z"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(List.of(new Document("_id", id).append("shifts", shifts)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("tasks")))
+                .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        // Nothing modified: the record changed after it was read.
+        assertEquals(0, migration.migrate("tasks"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq("tasks"));
+        List<?> stored = update.getValue().getUpdateObject().get("$set", Document.class).getList("shifts", Object.class);
+        assertEquals(new Document("start", Date.from(Instant.parse("2026-05-01T08:00:00Z"))), stored.getFirst());
+        assertEquals(0, writeGenerations.current("tasks"));
+    }
+
+    private FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
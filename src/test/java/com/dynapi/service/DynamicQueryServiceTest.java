@@ -1,35 +1,51 @@
 package com.dynapi.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dynapi.config.QueryCoalescingProperties;
 import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.config.QueryPlanCacheProperties;
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.exception.QueryTimeoutException;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
 import com.dynapi.domain.model.SchemaLifecycleStatus;
 import com.dynapi.domain.model.SchemaVersion;
 import com.dynapi.dto.DynamicQueryRequest;
 import com.dynapi.dto.FilterRule;
+import com.dynapi.dto.SortRule;
 import com.dynapi.dto.FormRecordDto;
 import com.dynapi.dto.PaginatedResponse;
+import com.dynapi.dto.QueryShapeStats;
+import com.mongodb.MongoExecutionTimeoutException;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 
@@ -42,6 +58,12 @@ class DynamicQueryServiceTest {
     @Mock
     private SchemaLifecycleService schemaLifecycleService;
 
+    private QueryShapeStatsService queryShapeStatsService;
+
+    private QueryPlanCache queryPlanCache;
+
+    private final RecordCodecProperties codecProperties = new RecordCodecProperties();
+
     private DynamicQueryService dynamicQueryService;
 
     @BeforeEach
@@ -51,24 +73,38 @@ class DynamicQueryServiceTest {
         guardrails.setMaxFilterDepth(3);
         guardrails.setMaxRuleCount(20);
 
+        queryShapeStatsService = new QueryShapeStatsService(mongoTemplate, new QueryStatsProperties());
+        queryPlanCache = new QueryPlanCache(new QueryPlanCacheProperties());
         dynamicQueryService =
-                new DynamicQueryService(mongoTemplate, schemaLifecycleService, guardrails);
+                new DynamicQueryService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        guardrails,
+                        queryShapeStatsService,
+                        new QueryCostGuard(mongoTemplate, guardrails),
+                        queryPlanCache,
+                        new QueryCoalescer(new QueryCoalescingProperties()),
+                        new EntityWriteGenerations(),
+                        new RecordCodecs(codecProperties));
 
         FieldDefinition title = field("title", FieldType.STRING);
+        title.setSearchable(true);
+        FieldDefinition status = field("status", FieldType.STRING);
         FieldDefinition priority = field("priority", FieldType.NUMBER);
         FieldDefinition profile = field("profile", FieldType.OBJECT);
         FieldDefinition age = field("age", FieldType.NUMBER);
         profile.setSubFields(List.of(age));
+        FieldDefinition dueAt = field("dueAt", FieldType.DATE);
 
         SchemaVersion published = new SchemaVersion();
         published.setEntityName("tasks");
         published.setVersion(1);
         published.setStatus(SchemaLifecycleStatus.PUBLISHED);
         published.setCreatedAt(LocalDateTime.now());
-        published.setFields(List.of(title, priority, profile));
+        published.setFields(List.of(title, status, priority, profile, dueAt));
 
         lenient().when(schemaLifecycleService.latestPublished("tasks")).thenReturn(published);
-        lenient().when(mongoTemplate.find(any(), eq(Map.class), eq("tasks"))).thenReturn(List.of());
+        lenient().when(mongoTemplate.find(any(), eq(Document.class), eq("tasks"))).thenReturn(List.of());
         lenient().when(mongoTemplate.count(any(), eq("tasks"))).thenReturn(0L);
     }
 
@@ -219,6 +255,92 @@ class DynamicQueryServiceTest {
         assertEquals(10, response.size());
     }
 
+    @Test
+    void query_bindsDateOperandsAsDates() {
+        DynamicQueryRequest range =
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("dueAt", "gte", "2026-05-01"),
+                                filter("dueAt", "lt", "2026-06-01T02:00:00+02:00")),
+                        0,
+                        10,
+                        null,
+                        null);
+        DynamicQueryRequest members =
+                new DynamicQueryRequest(
+                        List.of(filter("dueAt", "in", List.of("2026-05-01T10:00:00Z", "2026-05-02"))),
+                        0,
+                        10,
+                        null,
+                        null);
+
+        dynamicQueryService.query("tasks", range);
+        dynamicQueryService.query("tasks", members);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        Document bounds = queryCaptor.getAllValues().getFirst().getQueryObject().get("dueAt", Document.class);
+        assertEquals(Date.from(Instant.parse("2026-05-01T00:00:00Z")), bounds.get("$gte"));
+        assertEquals(Date.from(Instant.parse("2026-06-01T00:00:00Z")), bounds.get("$lt"));
+        Document in = queryCaptor.getAllValues().getLast().getQueryObject().get("dueAt", Document.class);
+        assertEquals(
+                List.of(
+                        Date.from(Instant.parse("2026-05-01T10:00:00Z")),
+                        Date.from(Instant.parse("2026-05-02T00:00:00Z"))),
+                in.get("$in"));
+    }
+
+    @Test
+    void query_bindsNumberOperandsAsDecimal128WhenNumbersAreStoredSo() {
+        codecProperties.setNumberStorage(RecordCodecProperties.NumberStorage.DECIMAL128);
+        DynamicQueryRequest equality =
+                new DynamicQueryRequest(List.of(filter("priority", "eq", 0.1)), 0, 10, null, null);
+        DynamicQueryRequest range =
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("priority", "gte", 0.1),
+                                filter("priority", "lte", 2),
+                                filter("profile.age", "in", List.of(30, 40.5))),
+                        0,
+                        10,
+                        null,
+                        null);
+
+        dynamicQueryService.query("tasks", equality);
+        dynamicQueryService.query("tasks", range);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(Decimal128.parse("0.1"), queryCaptor.getAllValues().getFirst().getQueryObject().get("priority"));
+        assertEquals(
+                List.of(
+                        new Document(
+                                "priority",
+                                new Document("$gte", Decimal128.parse("0.1")).append("$lte", Decimal128.parse("2"))),
+                        new Document(
+                                "profile.age",
+                                new Document("$in", List.of(Decimal128.parse("30"), Decimal128.parse("40.5"))))),
+                queryCaptor.getAllValues().getLast().getQueryObject().get("$and"));
+    }
+
+    @Test
+    void query_rejectsDateOperandsThatAreNotIsoDates() {
+        DynamicQueryRequest valid =
+                new DynamicQueryRequest(List.of(filter("dueAt", "gt", "2026-05-01")), 0, 10, null, null);
+        DynamicQueryRequest sameShape =
+                new DynamicQueryRequest(List.of(filter("dueAt", "gt", "May 1st")), 0, 10, null, null);
+        DynamicQueryRequest number =
+                new DynamicQueryRequest(List.of(filter("dueAt", "eq", 20260501)), 0, 10, null, null);
+
+        dynamicQueryService.query("tasks", valid);
+
+        // The plan of the first request is reused, so the value is checked while binding.
+        assertThrows(IllegalArgumentException.class, () -> dynamicQueryService.query("tasks", sameShape));
+        IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> dynamicQueryService.query("tasks", number));
+        assertTrue(ex.getMessage().contains("requires ISO-8601 date value"));
+    }
+
     @Test
     void query_excludesSoftDeletedRecordsByDefault() {
         DynamicQueryRequest request = new DynamicQueryRequest(null, 0, 10, null, null);
@@ -226,7 +348,7 @@ class DynamicQueryServiceTest {
         dynamicQueryService.query("tasks", request);
 
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
-        verify(mongoTemplate).find(queryCaptor.capture(), eq(Map.class), eq("tasks"));
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
         String queryJson = queryCaptor.getValue().getQueryObject().toJson();
         assertTrue(queryJson.contains("\"deleted\""));
         assertTrue(queryJson.contains("\"$ne\""));
@@ -242,13 +364,12 @@ class DynamicQueryServiceTest {
                         "priority",
                         "DESC");
 
-        when(mongoTemplate.find(any(), eq(Map.class), eq("tasks")))
+        when(mongoTemplate.find(any(), eq(Document.class), eq("tasks")))
                 .thenReturn(
                         List.of(
-                                Map.of(
-                                        "_id", "id-1",
-                                        "title", "Task",
-                                        "priority", 2)));
+                                new Document("_id", "id-1")
+                                        .append("title", "Task")
+                                        .append("priority", 2)));
         when(mongoTemplate.count(any(), eq("tasks"))).thenReturn(1L);
 
         PaginatedResponse<FormRecordDto> response = dynamicQueryService.query("tasks", request);
@@ -260,10 +381,401 @@ class DynamicQueryServiceTest {
         assertEquals("id-1", response.content().get(0).id());
         assertEquals(2, response.content().get(0).data().get("priority"));
 
-        verify(mongoTemplate).find(any(), eq(Map.class), eq("tasks"));
+        verify(mongoTemplate).find(any(), eq(Document.class), eq("tasks"));
         verify(mongoTemplate).count(any(), eq("tasks"));
     }
 
+    @Test
+    void query_recordsValueFreeShapeForRepeatedRequests() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(filter("title", "eq", "A"), filter("priority", "gte", 1)),
+                        0,
+                        10,
+                        "priority",
+                        "DESC"));
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(filter("priority", "gte", 5), filter("title", "eq", "B")),
+                        1,
+                        20,
+                        "priority",
+                        "DESC"));
+
+        List<QueryShapeStats> shapes = queryShapeStatsService.snapshot("tasks");
+
+        assertEquals(1, shapes.size());
+        assertEquals("priority:gte,title:eq|sort:priority:DESC,_id:DESC", shapes.get(0).shape());
+        assertEquals(2, shapes.get(0).count());
+    }
+
+    @Test
+    void query_sendsOptimizedFilterToMongo() {
+        DynamicQueryRequest request =
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("priority", "gte", 1),
+                                filter("priority", "lt", 5),
+                                new FilterRule(
+                                        null,
+                                        "or",
+                                        null,
+                                        List.of(filter("title", "eq", "A"), filter("title", "eq", "B")))),
+                        0,
+                        10,
+                        null,
+                        null);
+
+        dynamicQueryService.query("tasks", request);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        String queryJson = queryCaptor.getValue().getQueryObject().toJson();
+        assertTrue(queryJson.contains("\"priority\": {\"$gte\": 1, \"$lt\": 5}"), queryJson);
+        assertTrue(queryJson.contains("\"title\": {\"$in\": [\"A\", \"B\"]}"), queryJson);
+        assertFalse(queryJson.contains("$or"), queryJson);
+    }
+
+    @Test
+    void query_appliesValueDependentRewritesToEveryBindingOfAPlan() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("priority", "gt", 1),
+                                filter("priority", "gte", 3),
+                                filter("status", "in", List.of("open", "open")),
+                                filter("title", "nin", List.of("A", "B", "A"))),
+                        0,
+                        10,
+                        null,
+                        null));
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("priority", "gt", 5),
+                                filter("priority", "gte", 3),
+                                filter("status", "in", List.of("open", "new")),
+                                filter("title", "nin", List.of("A"))),
+                        0,
+                        10,
+                        null,
+                        null));
+
+        assertEquals(1, queryPlanCache.stats().hits());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(
+                List.of(
+                        new Document("priority", new Document("$gte", 3)),
+                        new Document("status", "open"),
+                        new Document("title", new Document("$nin", List.of("A", "B")))),
+                queryCaptor.getAllValues().getFirst().getQueryObject().get("$and"));
+        assertEquals(
+                List.of(
+                        new Document("priority", new Document("$gt", 5)),
+                        new Document("status", new Document("$in", List.of("open", "new"))),
+                        new Document("title", new Document("$ne", "A"))),
+                queryCaptor.getAllValues().getLast().getQueryObject().get("$and"));
+    }
+
+    @Test
+    void query_reusesPlanForRequestsThatDifferOnlyInValues() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("title", "regex", "^A"),
+                                filter("priority", "in", List.of(1, 2)),
+                                filter("priority", "gte", 0)),
+                        0,
+                        10,
+                        "priority",
+                        "DESC"));
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("title", "regex", "^B"),
+                                filter("priority", "in", List.of(3, 4, 5)),
+                                filter("priority", "gte", 2)),
+                        1,
+                        20,
+                        "priority",
+                        "DESC"));
+
+        assertEquals(1, queryPlanCache.stats().hits());
+        assertEquals(1, queryPlanCache.stats().misses());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        Query second = queryCaptor.getAllValues().get(1);
+        String queryJson = second.getQueryObject().toJson();
+        assertTrue(queryJson.contains("\"pattern\": \"^B\""), queryJson);
+        assertTrue(queryJson.contains("\"$in\": [3, 4, 5]"), queryJson);
+        assertTrue(queryJson.contains("\"$gte\": 2"), queryJson);
+        assertEquals(-1, second.getSortObject().getInteger("priority"));
+    }
+
+    @Test
+    void query_validatesAgainWhenValueKindsDiffer() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(List.of(filter("priority", "gte", 1)), null, null, null, null));
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                dynamicQueryService.query(
+                                        "tasks",
+                                        new DynamicQueryRequest(
+                                                List.of(filter("priority", "gte", "1")), null, null, null, null)));
+
+        assertTrue(ex.getMessage().contains("requires numeric value"));
+        assertEquals(0, queryPlanCache.stats().hits());
+    }
+
+    @Test
+    void query_plansAgainForNewSchemaVersion() {
+        DynamicQueryRequest request =
+                new DynamicQueryRequest(List.of(filter("title", "eq", "A")), null, null, null, null);
+        dynamicQueryService.query("tasks", request);
+
+        SchemaVersion next = new SchemaVersion();
+        next.setEntityName("tasks");
+        next.setVersion(2);
+        next.setStatus(SchemaLifecycleStatus.PUBLISHED);
+        next.setFields(List.of(field("priority", FieldType.NUMBER)));
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(next);
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class, () -> dynamicQueryService.query("tasks", request));
+
+        assertTrue(ex.getMessage().contains("Filtering by field is not allowed: title"));
+        assertEquals(2, queryPlanCache.stats().misses());
+    }
+
+    @Test
+    void query_sortsByOrderedKeysWithIdTieBreaker() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        null,
+                        0,
+                        10,
+                        null,
+                        null,
+                        List.of(new SortRule("status", null), new SortRule("profile.age", "desc"))));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(
+                new Document("status", 1).append("profile.age", -1).append("_id", -1),
+                queryCaptor.getValue().getSortObject());
+    }
+
+    @Test
+    void query_keepsExplicitIdSortKey() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        null,
+                        0,
+                        10,
+                        null,
+                        null,
+                        List.of(new SortRule("_id", "DESC"), new SortRule("priority", "ASC"))));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(
+                new Document("_id", -1).append("priority", 1), queryCaptor.getValue().getSortObject());
+    }
+
+    @Test
+    void query_rejectsInvalidSortLists() {
+        assertSortRejected(
+                new DynamicQueryRequest(null, 0, 10, "priority", null, List.of(new SortRule("title", null))),
+                "Use either sortBy/sortDirection or sort");
+        assertSortRejected(
+                new DynamicQueryRequest(
+                        null, 0, 10, null, null, List.of(new SortRule("title", null), new SortRule("title", "DESC"))),
+                "Duplicate sort field: title");
+        assertSortRejected(
+                new DynamicQueryRequest(null, 0, 10, null, null, List.of(new SortRule("unknown", null))),
+                "Sorting by field is not allowed: unknown");
+        assertSortRejected(
+                new DynamicQueryRequest(
+                        null,
+                        0,
+                        10,
+                        null,
+                        null,
+                        List.of(
+                                new SortRule("title", null),
+                                new SortRule("status", null),
+                                new SortRule("priority", null),
+                                new SortRule("profile.age", null),
+                                new SortRule("_id", null))),
+                "Sort exceeds max sort fields: 4");
+    }
+
+    private void assertSortRejected(DynamicQueryRequest request, String message) {
+        IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> dynamicQueryService.query("tasks", request));
+        assertTrue(ex.getMessage().contains(message), ex.getMessage());
+    }
+
+    @Test
+    void query_compilesSearchToTopLevelTextAndSortsByScore() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(
+                        List.of(
+                                filter("status", "eq", "open"),
+                                new FilterRule(null, "and", null, List.of(filter("title", "search", "quarterly report")))),
+                        0,
+                        10,
+                        null,
+                        null));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        Document queryObject = queryCaptor.getValue().getQueryObject();
+        assertEquals(new Document("$search", "quarterly report"), queryObject.get("$text"));
+        assertEquals("open", queryObject.get("status"));
+        assertEquals(
+                new Document("score", new Document("$meta", "textScore")).append("_id", 1),
+                queryCaptor.getValue().getSortObject());
+    }
+
+    @Test
+    void query_rejectsBlankSearchValuesWhenThePlanIsReused() {
+        dynamicQueryService.query(
+                "tasks", new DynamicQueryRequest(List.of(filter("title", "search", "report")), 0, 10, null, null));
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                dynamicQueryService.query(
+                                        "tasks",
+                                        new DynamicQueryRequest(
+                                                List.of(filter("title", "search", "  ")), 0, 10, null, null)));
+
+        assertTrue(ex.getMessage().contains("requires non-blank string value"));
+        assertEquals(1, queryPlanCache.stats().hits());
+        verify(mongoTemplate, times(1)).find(any(), eq(Document.class), eq("tasks"));
+    }
+
+    @Test
+    void query_keepsExplicitSortWithSearch() {
+        dynamicQueryService.query(
+                "tasks",
+                new DynamicQueryRequest(List.of(filter("title", "search", "report")), 0, 10, "priority", "DESC"));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(
+                new Document("priority", -1).append("_id", -1), queryCaptor.getValue().getSortObject());
+    }
+
+    @Test
+    void query_rejectsSearchOnNonSearchableFieldOrUnderOr() {
+        IllegalArgumentException notSearchable =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                dynamicQueryService.query(
+                                        "tasks",
+                                        new DynamicQueryRequest(
+                                                List.of(filter("status", "search", "open")), null, null, null, null)));
+        IllegalArgumentException underOr =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                dynamicQueryService.query(
+                                        "tasks",
+                                        new DynamicQueryRequest(
+                                                List.of(
+                                                        new FilterRule(
+                                                                null,
+                                                                "or",
+                                                                null,
+                                                                List.of(
+                                                                        filter("title", "search", "report"),
+                                                                        filter("status", "eq", "open")))),
+                                                null,
+                                                null,
+                                                null,
+                                                null)));
+
+        assertTrue(notSearchable.getMessage().contains("Field is not searchable: status"));
+        assertTrue(underOr.getMessage().contains("cannot be nested under OR or NOT"));
+    }
+
+    @Test
+    void query_appliesMaxTimeAndOperationCommentToFindAndCount() {
+        dynamicQueryService.query(
+                "tasks", new DynamicQueryRequest(null, 0, 10, null, null), "dynapi-query-1");
+
+        ArgumentCaptor<Query> findCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Query> countCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(findCaptor.capture(), eq(Document.class), eq("tasks"));
+        verify(mongoTemplate).count(countCaptor.capture(), eq("tasks"));
+        for (Query query : List.of(findCaptor.getValue(), countCaptor.getValue())) {
+            assertEquals(5_000L, query.getMeta().getMaxTimeMsec().longValue());
+            assertEquals("dynapi-query-1", query.getMeta().getComment());
+        }
+    }
+
+    @Test
+    void query_translatesServerTimeoutIntoQueryTimeoutException() {
+        when(mongoTemplate.find(any(), eq(Document.class), eq("tasks")))
+                .thenThrow(
+                        new UncategorizedMongoDbException(
+                                "operation exceeded time limit",
+                                new MongoExecutionTimeoutException("operation exceeded time limit")));
+
+        QueryTimeoutException ex =
+                assertThrows(
+                        QueryTimeoutException.class,
+                        () -> dynamicQueryService.query("tasks", new DynamicQueryRequest(null, 0, 10, null, null)));
+
+        assertTrue(ex.getMessage().contains("5000 ms"));
+    }
+
+    @Test
+    void inMemoryPredicate_comparesByFieldTypeAndRejectsSearch() {
+        SchemaVersion published = schemaLifecycleService.latestPublished("tasks");
+
+        Predicate<Map<String, Object>> predicate =
+                dynamicQueryService.inMemoryPredicate(
+                        "tasks",
+                        published,
+                        List.of(filter("priority", "in", List.of(1, 2)), filter("profile.age", "gt", 20)));
+
+        assertTrue(predicate.test(Map.of("priority", 2.0, "profile", Map.of("age", 21L))));
+        assertFalse(predicate.test(Map.of("priority", 3, "profile", Map.of("age", 21L))));
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        dynamicQueryService.inMemoryPredicate(
+                                "tasks", published, List.of(filter("unknown", "eq", "x"))));
+        IllegalArgumentException search =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                dynamicQueryService.inMemoryPredicate(
+                                        "tasks", published, List.of(filter("title", "search", "report"))));
+        assertTrue(search.getMessage().contains("SEARCH operator is not supported"));
+    }
+
     private FieldDefinition field(String name, FieldType type) {
         FieldDefinition definition = new FieldDefinition();
         definition.setFieldName(name);
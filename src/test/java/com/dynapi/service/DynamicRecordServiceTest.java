@@ -1,14 +1,21 @@
 package com.dynapi.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dynapi.config.RecordCacheProperties;
+import com.dynapi.config.RecordCodecProperties;
 import com.dynapi.domain.exception.EntityNotFoundException;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
@@ -19,11 +26,12 @@ import com.dynapi.dto.FormRecordDto;
 import com.dynapi.dto.RecordMutationRequest;
 
 import java.time.LocalDateTime;
-import java.util.LinkedHashMap;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,6 +54,8 @@ class DynamicRecordServiceTest {
     @Mock
     private UniqueFieldConstraintService uniqueFieldConstraintService;
 
+    private final EntityWriteGenerations writeGenerations = new EntityWriteGenerations();
+    private final RecordCodecs recordCodecs = new RecordCodecs(new RecordCodecProperties());
     private DynamicRecordService dynamicRecordService;
 
     @BeforeEach
@@ -55,21 +65,109 @@ class DynamicRecordServiceTest {
                         mongoTemplate,
                         schemaLifecycleService,
                         dynamicValidator,
-                        uniqueFieldConstraintService);
+                        uniqueFieldConstraintService,
+                        new RecordCache(new RecordCacheProperties()),
+                        writeGenerations,
+                        recordCodecs);
+    }
+
+    @Test
+    void get_servesRepeatedReadsFromNearCache() {
+        ObjectId objectId = new ObjectId();
+        Document existing = new Document();
+        existing.put("_id", objectId);
+        existing.put("title", "Cached");
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(publishedSchema());
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(existing);
+
+        CachedRecord first = dynamicRecordService.get("tasks", objectId.toHexString());
+        CachedRecord second = dynamicRecordService.get("tasks", objectId.toHexString());
+
+        assertEquals(objectId.toHexString(), first.record().id());
+        assertEquals("Cached", first.record().data().get("title"));
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+        assertSame(first, second);
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Document.class), eq("tasks"));
+    }
+
+    @Test
+    void patch_invalidatesCachedRecordAndChangesEtag() {
+        ObjectId objectId = new ObjectId();
+        Document existing = new Document();
+        existing.put("_id", objectId);
+        existing.put("title", "Old");
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(publishedSchema());
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenAnswer(invocation -> new Document(existing));
+        when(mongoTemplate.save(any(Map.class), eq("tasks")))
+                .thenAnswer(
+                        invocation -> {
+                            @SuppressWarnings("unchecked")
+                            Map<String, Object> saved = invocation.getArgument(0);
+                            existing.clear();
+                            existing.putAll(saved);
+                            return saved;
+                        });
+
+        CachedRecord before = dynamicRecordService.get("tasks", objectId.toHexString());
+        dynamicRecordService.patch(
+                "tasks", objectId.toHexString(), new RecordMutationRequest(Map.of("title", "New")), Locale.US);
+        CachedRecord after = dynamicRecordService.get("tasks", objectId.toHexString());
+
+        assertEquals("New", after.record().data().get("title"));
+        assertNotEquals(before.etag(), after.etag());
+    }
+
+    @Test
+    void get_doesNotCacheReadThatOverlappedWithWrite() {
+        RecordCache recordCache = new RecordCache(new RecordCacheProperties());
+        dynamicRecordService =
+                new DynamicRecordService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        dynamicValidator,
+                        uniqueFieldConstraintService,
+                        recordCache,
+                        writeGenerations,
+                        new RecordCodecs(new RecordCodecProperties()));
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(publishedSchema());
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenAnswer(
+                        invocation -> {
+                            recordCache.invalidate("tasks", "record-1");
+                            return new Document(Map.of("_id", "record-1", "title", "Stale"));
+                        });
+
+        dynamicRecordService.get("tasks", "record-1");
+        dynamicRecordService.get("tasks", "record-1");
+
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(Document.class), eq("tasks"));
+    }
+
+    @Test
+    void get_rejectsEntityWithoutPublishedSchema() {
+        when(schemaLifecycleService.latestPublished("schema_versions"))
+                .thenThrow(new IllegalArgumentException("No published schema found for entity: schema_versions"));
+
+        assertThrows(IllegalArgumentException.class, () -> dynamicRecordService.get("schema_versions", "any"));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Document.class), eq("schema_versions"));
     }
 
     @Test
     void patch_mergesDataAndValidatesAgainstPublishedSchema() {
         ObjectId objectId = new ObjectId();
-        Map<String, Object> existing = new LinkedHashMap<>();
+        Document existing = new Document();
         existing.put("_id", objectId);
         existing.put("title", "Old");
         existing.put("profile", Map.of("age", 30, "city", "Istanbul"));
+        Date createdAt = new Date(0);
+        existing.put("createdAt", createdAt);
+        existing.put("updatedAt", createdAt);
 
         SchemaVersion published = publishedSchema();
         Map<String, Object> patchPayload = Map.of("profile", Map.of("age", 31));
 
-        when(mongoTemplate.findOne(any(Query.class), eq(Map.class), eq("tasks"))).thenReturn(existing);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(existing);
         when(schemaLifecycleService.latestPublished("tasks")).thenReturn(published);
         when(mongoTemplate.save(any(Map.class), eq("tasks")))
                 .thenAnswer(invocation -> invocation.getArgument(0));
@@ -92,19 +190,24 @@ class DynamicRecordServiceTest {
         assertTrue(validatedPayload.get("profile") instanceof Map<?, ?>);
         assertEquals(31, ((Map<?, ?>) validatedPayload.get("profile")).get("age"));
 
+        assertFalse(validatedPayload.containsKey("updatedAt"));
+
         assertEquals(objectId.toHexString(), result.id());
         assertEquals("Old", result.data().get("title"));
         assertEquals(31, ((Map<?, ?>) result.data().get("profile")).get("age"));
+        assertEquals(createdAt.toInstant(), result.createdAt());
+        assertTrue(result.updatedAt().isAfter(createdAt.toInstant()));
+        assertFalse(result.data().containsKey("createdAt"));
     }
 
     @Test
     void replace_overwritesRecordAndValidatesAgainstPublishedSchema() {
         ObjectId objectId = new ObjectId();
-        Map<String, Object> existing = Map.of("_id", objectId, "title", "Old", "priority", 1);
+        Document existing = new Document(Map.of("_id", objectId, "title", "Old", "priority", 1));
         Map<String, Object> replacement = Map.of("title", "New", "priority", 5);
         SchemaVersion published = publishedSchema();
 
-        when(mongoTemplate.findOne(any(Query.class), eq(Map.class), eq("tasks"))).thenReturn(existing);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(existing);
         when(schemaLifecycleService.latestPublished("tasks")).thenReturn(published);
         when(mongoTemplate.save(any(Map.class), eq("tasks")))
                 .thenAnswer(invocation -> invocation.getArgument(0));
@@ -121,14 +224,35 @@ class DynamicRecordServiceTest {
         assertEquals(5, result.data().get("priority"));
     }
 
+    @Test
+    void replace_storesDataReadAgainstThePublishedSchemaAsIs() {
+        ObjectId objectId = new ObjectId();
+        Document existing = new Document("_id", objectId).append("title", "Old");
+        SchemaVersion published = publishedSchema();
+        IngestedDocument replacement = new IngestedDocument(recordCodecs.forSchema(published), published);
+        replacement.append("title", "New").append("priority", 5);
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(existing);
+        when(mongoTemplate.save(any(Map.class), eq("tasks")))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        dynamicRecordService.replace(
+                "tasks", objectId.toHexString(), new RecordMutationRequest(replacement), Locale.US);
+
+        verify(schemaLifecycleService, never()).latestPublished("tasks");
+        verify(dynamicValidator).validate(replacement, published.getFields(), Locale.US);
+        verify(mongoTemplate).save(replacement, "tasks");
+        assertEquals(objectId, replacement.get("_id"));
+    }
+
     @Test
     void softDelete_marksRecordAsDeleted() {
         ObjectId objectId = new ObjectId();
-        Map<String, Object> existing = new LinkedHashMap<>();
+        Document existing = new Document();
         existing.put("_id", objectId);
         existing.put("title", "Delete me");
 
-        when(mongoTemplate.findOne(any(Query.class), eq(Map.class), eq("tasks"))).thenReturn(existing);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(existing);
 
         dynamicRecordService.softDelete("tasks", objectId.toHexString());
 
@@ -136,12 +260,13 @@ class DynamicRecordServiceTest {
         verify(mongoTemplate).save(savedCaptor.capture(), eq("tasks"));
         Map<String, Object> saved = savedCaptor.getValue();
         assertEquals(Boolean.TRUE, saved.get("deleted"));
-        assertTrue(saved.get("deletedAt") instanceof String);
+        assertTrue(saved.get("deletedAt") instanceof Date);
+        assertEquals(saved.get("deletedAt"), saved.get("updatedAt"));
     }
 
     @Test
     void patch_throwsNotFoundWhenRecordMissing() {
-        when(mongoTemplate.findOne(any(Query.class), eq(Map.class), eq("tasks"))).thenReturn(null);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(null);
 
         assertThrows(
                 EntityNotFoundException.class,
@@ -156,13 +281,13 @@ class DynamicRecordServiceTest {
     @Test
     void patch_throwsWhenUniqueConstraintFails() {
         ObjectId objectId = new ObjectId();
-        Map<String, Object> existing = new LinkedHashMap<>();
+        Document existing = new Document();
         existing.put("_id", objectId);
         existing.put("title", "Old");
         SchemaVersion published = publishedSchema();
         Map<String, Object> patchPayload = Map.of("title", "Duplicate");
 
-        when(mongoTemplate.findOne(any(Query.class), eq(Map.class), eq("tasks"))).thenReturn(existing);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(existing);
         when(schemaLifecycleService.latestPublished("tasks")).thenReturn(published);
         doThrow(
                 new IllegalArgumentException(
@@ -0,0 +1,230 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dynapi.domain.model.FieldType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Conformance cases for {@link FilterPredicateCompiler}: each expected result is what Mongo
+ * returns for the equivalent query against the same document.
+ */
+class FilterPredicateCompilerTest {
+    private static final Map<String, FieldType> FIELD_TYPES =
+            Map.of(
+                    "n", FieldType.NUMBER,
+                    "s", FieldType.STRING,
+                    "d", FieldType.DATE,
+                    "ok", FieldType.BOOLEAN,
+                    "tags", FieldType.ARRAY,
+                    "profile", FieldType.OBJECT,
+                    "profile.age", FieldType.NUMBER,
+                    "items", FieldType.ARRAY,
+                    "items.qty", FieldType.NUMBER);
+
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @MethodSource("conformanceCases")
+    void compile_matchesLikeMongo(String document, FilterNode filter, boolean expected) {
+        Predicate<Map<String, Object>> predicate =
+                FilterPredicateCompiler.compile(List.of(filter), FIELD_TYPES);
+
+        assertEquals(expected, predicate.test(Document.parse(document)));
+    }
+
+    static Stream<Arguments> conformanceCases() {
+        return Stream.of(
+                // eq
+                Arguments.of("{n: 1}", leaf("n", "eq", 1), true),
+                Arguments.of("{n: 1}", leaf("n", "eq", 1.0), true),
+                Arguments.of("{n: {$numberLong: '1'}}", leaf("n", "eq", 1), true),
+                Arguments.of("{n: 1.5}", leaf("n", "eq", 1), false),
+                Arguments.of("{s: '1'}", leaf("s", "eq", 1), false),
+                Arguments.of("{tags: ['a', 'b']}", leaf("tags", "eq", "b"), true),
+                Arguments.of("{tags: ['a', 'b']}", leaf("tags", "eq", List.of("a", "b")), true),
+                Arguments.of("{tags: ['a', 'b']}", leaf("tags", "eq", List.of("b", "a")), false),
+                Arguments.of("{tags: [['a', 'b']]}", leaf("tags", "eq", List.of("a", "b")), true),
+                Arguments.of("{profile: {age: 30}}", leaf("profile.age", "eq", 30), true),
+                Arguments.of("{items: [{qty: 1}, {qty: 2}]}", leaf("items.qty", "eq", 2), true),
+                Arguments.of("{items: [{qty: [3, 4]}]}", leaf("items.qty", "eq", 4), true),
+                Arguments.of("{tags: ['a', 'b']}", leaf("tags.1", "eq", "b"), true),
+                Arguments.of("{tags: ['a', 'b']}", leaf("tags.0", "eq", "b"), false),
+                Arguments.of("{items: [{qty: 1}, {qty: 2}]}", leaf("items.1.qty", "eq", 2), true),
+                Arguments.of("{items: [{qty: 1}, {qty: 2}]}", leaf("items.1.qty", "eq", 1), false),
+                Arguments.of("{ok: true}", leaf("ok", "eq", true), true),
+                Arguments.of("{}", leaf("s", "eq", null), true),
+                Arguments.of("{s: null}", leaf("s", "eq", null), true),
+                Arguments.of("{s: 'x'}", leaf("s", "eq", null), false),
+                Arguments.of("{profile: {name: 'x'}}", leaf("profile.age", "eq", null), true),
+                Arguments.of("{profile: 'x'}", leaf("profile.age", "eq", null), true),
+                // ne
+                Arguments.of("{n: 1}", leaf("n", "ne", 2), true),
+                Arguments.of("{n: 2.0}", leaf("n", "ne", 2), false),
+                Arguments.of("{tags: ['a', 'b']}", leaf("tags", "ne", "b"), false),
+                Arguments.of("{items: [{qty: 1}, {qty: 2}]}", leaf("items.qty", "ne", 1), false),
+                Arguments.of("{}", leaf("n", "ne", 1), true),
+                Arguments.of("{}", leaf("n", "ne", null), false),
+                Arguments.of("{n: 1}", leaf("n", "ne", null), true),
+                // in / nin
+                Arguments.of("{n: 2}", leaf("n", "in", List.of(1, 2)), true),
+                Arguments.of("{n: 2.0}", leaf("n", "in", List.of(1, 2)), true),
+                Arguments.of("{n: 3}", leaf("n", "in", List.of(1, 2)), false),
+                Arguments.of("{tags: ['x', 'b']}", leaf("tags", "in", List.of("a", "b")), true),
+                Arguments.of("{}", leaf("n", "in", Arrays.asList(1, null)), true),
+                Arguments.of("{}", leaf("n", "in", List.of(1)), false),
+                Arguments.of("{n: 3}", leaf("n", "nin", List.of(1, 2)), true),
+                Arguments.of("{tags: ['x', 'a']}", leaf("tags", "nin", List.of("a", "b")), false),
+                Arguments.of("{}", leaf("n", "nin", List.of(1)), true),
+                Arguments.of("{}", leaf("n", "nin", Arrays.asList(1, null)), false),
+                // gt / gte / lt / lte
+                Arguments.of("{n: 5}", leaf("n", "gt", 4), true),
+                Arguments.of("{n: 5}", leaf("n", "gt", 5), false),
+                Arguments.of("{n: 5}", leaf("n", "gte", 5.0), true),
+                Arguments.of("{n: 4.5}", leaf("n", "lt", 5), true),
+                Arguments.of(
+                        "{n: {$numberLong: '9007199254740993'}}",
+                        leaf("n", "gt", 9007199254740992L),
+                        true),
+                Arguments.of("{s: 'b'}", leaf("s", "gt", "a"), true),
+                Arguments.of("{s: '5'}", leaf("s", "gt", 4), false),
+                Arguments.of("{n: '5'}", leaf("n", "gt", 4), false),
+                Arguments.of("{}", leaf("n", "lt", 10), false),
+                Arguments.of("{n: null}", leaf("n", "lt", 10), false),
+                Arguments.of("{items: [{qty: 1}, {qty: 20}]}", leaf("items.qty", "gt", 10), true),
+                Arguments.of("{items: [{qty: 1}, {qty: 2}]}", leaf("items.qty", "gt", 10), false),
+                Arguments.of("{profile: {age: 30}}", leaf("profile.age", "lte", 30), true),
+                // range bounds may be met by different elements
+                Arguments.of(
+                        "{items: [{qty: 1}, {qty: 20}]}",
+                        new FilterRangeNode("items.qty", "gt", 5, "lt", 10),
+                        true),
+                Arguments.of("{n: 20}", new FilterRangeNode("n", "gt", 5, "lt", 10), false),
+                Arguments.of("{n: 7}", new FilterRangeNode("n", "gte", 7, null, null), true),
+                // DATE operands compare as dates, never with strings
+                Arguments.of("{d: {$date: '2026-05-01T00:00:00Z'}}", leaf("d", "eq", "2026-05-01"), true),
+                Arguments.of(
+                        "{d: {$date: '2026-05-01T00:00:00Z'}}",
+                        leaf("d", "gt", "2026-04-30T23:59:59Z"),
+                        true),
+                Arguments.of("{d: {$date: '2026-05-01T00:00:00Z'}}", leaf("d", "lt", "2026-05-01"), false),
+                Arguments.of(
+                        "{d: {$date: '2026-05-01T10:00:00Z'}}",
+                        leaf("d", "in", List.of("2026-05-01T12:00:00+02:00")),
+                        true),
+                Arguments.of("{d: '2026-05-01'}", leaf("d", "eq", "2026-05-01"), false),
+                Arguments.of("{d: '2026-05-02'}", leaf("d", "gt", "2026-05-01"), false),
+                // exists
+                Arguments.of("{n: null}", leaf("n", "exists", true), true),
+                Arguments.of("{}", leaf("n", "exists", true), false),
+                Arguments.of("{}", leaf("n", "exists", false), true),
+                Arguments.of("{items: [{qty: 1}, {sku: 'x'}]}", leaf("items.qty", "exists", true), true),
+                Arguments.of("{items: [{sku: 'x'}]}", leaf("items.qty", "exists", false), true),
+                Arguments.of("{profile: 5}", leaf("profile.age", "exists", true), false),
+                // regex
+                Arguments.of("{s: 'Alice'}", leaf("s", "regex", "^Al"), true),
+                Arguments.of("{s: 'Alice'}", leaf("s", "regex", "^al"), false),
+                Arguments.of("{tags: ['x', 'Alice']}", leaf("tags", "regex", "ice$"), true),
+                Arguments.of("{n: 5}", leaf("n", "regex", "5"), false),
+                Arguments.of("{}", leaf("s", "regex", ".*"), false),
+                // combinators
+                Arguments.of(
+                        "{n: 1, s: 'x'}",
+                        group("and", leaf("n", "eq", 1), leaf("s", "eq", "y")),
+                        false),
+                Arguments.of(
+                        "{n: 1, s: 'x'}",
+                        group("or", leaf("n", "eq", 2), leaf("s", "eq", "x")),
+                        true),
+                Arguments.of("{n: 1}", group("not", leaf("n", "gt", 5)), true),
+                Arguments.of("{}", group("not", leaf("n", "gt", 5)), true),
+                Arguments.of(
+                        "{n: 1, s: 'x'}",
+                        group(
+                                "and",
+                                group("or", leaf("n", "lt", 0), leaf("n", "gt", 0)),
+                                group("not", leaf("s", "in", List.of("y", "z")))),
+                        true));
+    }
+
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @MethodSource("conformanceCases")
+    void lookups_findEveryMatchingDocumentUnderAnOperand(String document, FilterNode filter, boolean expected) {
+        Map<String, Object> data = Document.parse(document);
+
+        for (FilterPredicateCompiler.ValueLookup lookup :
+                FilterPredicateCompiler.lookups(List.of(filter), FIELD_TYPES)) {
+            Set<Object> reachable = lookup.reachable(data);
+            if (expected) {
+                assertTrue(lookup.values().stream().anyMatch(reachable::contains), lookup.toString());
+            }
+        }
+    }
+
+    @Test
+    void lookups_onlyCoverScalarEqAndInRulesOfTheTopLevelAnd() {
+        List<FilterPredicateCompiler.ValueLookup> lookups =
+                FilterPredicateCompiler.lookups(
+                        List.of(
+                                group("and", leaf("s", "eq", "x"), leaf("n", "in", List.of(1, 2.0))),
+                                group("or", leaf("ok", "eq", true), leaf("ok", "eq", false)),
+                                leaf("tags", "eq", List.of("a")),
+                                leaf("s", "in", Arrays.asList("y", null)),
+                                leaf("n", "gt", 3)),
+                        FIELD_TYPES);
+
+        assertEquals(
+                List.of(
+                        new FilterPredicateCompiler.ValueLookup("s", FieldType.STRING, Set.of("x")),
+                        new FilterPredicateCompiler.ValueLookup("n", FieldType.NUMBER, Set.of(1L, 2L))),
+                lookups);
+    }
+
+    @Test
+    void compile_matchesEverythingWithoutFilters() {
+        assertTrue(FilterPredicateCompiler.compile(List.of(), FIELD_TYPES).test(Map.of()));
+        assertTrue(FilterPredicateCompiler.compile(null, FIELD_TYPES).test(Map.of("n", 1)));
+    }
+
+    @Test
+    void compile_treatsImplicitTopLevelListAsAnd() {
+        Predicate<Map<String, Object>> predicate =
+                FilterPredicateCompiler.compile(
+                        List.of(leaf("n", "gte", 1), leaf("s", "eq", "x")), FIELD_TYPES);
+
+        assertTrue(predicate.test(Map.of("n", 1, "s", "x")));
+        assertFalse(predicate.test(Map.of("n", 1, "s", "y")));
+    }
+
+    @Test
+    void compile_keepsStringFieldsLiteralAndComparesUntypedPathsByOperand() {
+        Map<String, Object> record = Map.of("s", "10", "x", 10L);
+
+        assertFalse(
+                FilterPredicateCompiler.compile(List.of(leaf("s", "in", List.of(10))), FIELD_TYPES)
+                        .test(record));
+        assertTrue(
+                FilterPredicateCompiler.compile(List.of(leaf("x", "in", List.of(10.0))), FIELD_TYPES)
+                        .test(record));
+    }
+
+    private static FilterLeafNode leaf(String field, String operator, Object value) {
+        return new FilterLeafNode(field, operator, value);
+    }
+
+    private static FilterGroupNode group(String operator, FilterNode... rules) {
+        return new FilterGroupNode(operator, List.of(rules));
+    }
+}
@@ -0,0 +1,145 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class FilterTreeOptimizerTest {
+
+    @Test
+    void optimize_flattensNestedAndGroupsAndRemovesDuplicates() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(
+                                leaf("title", "eq", "A"),
+                                and(leaf("status", "eq", "open"), and(leaf("title", "eq", "A")))));
+
+        assertEquals(List.of(leaf("title", "eq", "A"), leaf("status", "eq", "open")), optimized);
+    }
+
+    @Test
+    void optimize_foldsOrOfEqualitiesOnSamePathIntoIn() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(
+                                or(
+                                        leaf("status", "eq", "open"),
+                                        leaf("priority", "gt", 3),
+                                        or(leaf("status", "eq", "blocked"), leaf("status", "in", List.of("open", "new"))))));
+
+        assertEquals(
+                List.of(
+                        or(
+                                leaf("status", "in", List.of("open", "blocked", "new")),
+                                leaf("priority", "gt", 3))),
+                optimized);
+    }
+
+    @Test
+    void optimize_mergesNumericBoundsIntoSingleRangeKeepingTighterBound() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(
+                                leaf("priority", "gte", 1),
+                                leaf("title", "eq", "A"),
+                                leaf("priority", "gt", 2),
+                                leaf("priority", "lte", 10),
+                                leaf("priority", "lt", 10)));
+
+        assertEquals(
+                List.of(new FilterRangeNode("priority", "gt", 2, "lt", 10), leaf("title", "eq", "A")),
+                optimized);
+    }
+
+    @Test
+    void optimize_keepsIncomparableBoundsAsSeparateRules() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(
+                                leaf("dueDate", "gte", "2026-01-01"),
+                                leaf("dueDate", "gte", "01/02/2026"),
+                                leaf("dueDate", "lt", "2027-01-01")));
+
+        assertEquals(
+                List.of(
+                        new FilterRangeNode("dueDate", "gte", "2026-01-01", "lt", "2027-01-01"),
+                        leaf("dueDate", "gte", "01/02/2026")),
+                optimized);
+    }
+
+    @Test
+    void optimize_pushesNotIntoComplementaryLeavesAndRemovesDoubleNegation() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(
+                                not(leaf("status", "in", List.of("done", "archived"))),
+                                not(not(leaf("title", "regex", "^A"))),
+                                not(leaf("priority", "gt", 5))));
+
+        assertEquals(
+                List.of(
+                        leaf("status", "nin", List.of("done", "archived")),
+                        leaf("title", "regex", "^A"),
+                        not(leaf("priority", "gt", 5))),
+                optimized);
+    }
+
+    @Test
+    void optimize_dropsTautologies() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(
+                                leaf("status", "nin", List.of()),
+                                or(leaf("profile", "exists", true), leaf("profile", "exists", false)),
+                                leaf("title", "eq", "A")));
+
+        assertEquals(List.of(leaf("title", "eq", "A")), optimized);
+        assertTrue(FilterTreeOptimizer.optimize(List.of(leaf("status", "nin", List.of()))).isEmpty());
+    }
+
+    @Test
+    void optimize_collapsesSingleValueInAndDuplicateValues() {
+        List<FilterNode> optimized =
+                FilterTreeOptimizer.optimize(
+                        List.of(leaf("status", "in", List.of("open", "open")), leaf("priority", "in", List.of(1, 2, 1))));
+
+        assertEquals(
+                List.of(leaf("status", "eq", "open"), leaf("priority", "in", List.of(1, 2))), optimized);
+    }
+
+    @Test
+    void comparesValues_onlyWhenBoundValuesCouldBeRewritten() {
+        QueryParameter first = new QueryParameter(0, QueryParameter.Kind.NUMBER);
+        QueryParameter second = new QueryParameter(1, QueryParameter.Kind.NUMBER);
+        QueryParameter list = new QueryParameter(2, QueryParameter.Kind.LIST);
+
+        assertFalse(
+                FilterTreeOptimizer.comparesValues(
+                        List.of(new FilterRangeNode("priority", "gte", first, "lt", second), leaf("status", "eq", list))));
+        assertTrue(FilterTreeOptimizer.comparesValues(List.of(leaf("priority", "gt", first), leaf("priority", "gte", second))));
+        assertTrue(FilterTreeOptimizer.comparesValues(List.of(leaf("status", "in", list))));
+        assertTrue(
+                FilterTreeOptimizer.comparesValues(
+                        List.of(or(and(leaf("a", "eq", first), leaf("b", "eq", second)), and(leaf("a", "eq", first), leaf("b", "eq", first))))));
+    }
+
+    private static FilterLeafNode leaf(String field, String operator, Object value) {
+        return new FilterLeafNode(field, operator, value);
+    }
+
+    private static FilterGroupNode and(FilterNode... rules) {
+        return new FilterGroupNode("and", List.of(rules));
+    }
+
+    private static FilterGroupNode or(FilterNode... rules) {
+        return new FilterGroupNode("or", List.of(rules));
+    }
+
+    private static FilterGroupNode not(FilterNode rule) {
+        return new FilterGroupNode("not", List.of(rule));
+    }
+}
@@ -1,12 +1,15 @@
 package com.dynapi.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dynapi.config.RecordCodecProperties;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldGroup;
 import com.dynapi.domain.model.FieldType;
@@ -16,14 +19,17 @@ import com.dynapi.dto.FormSubmissionRequest;
 import com.dynapi.repository.FieldGroupRepository;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.MessageSource;
@@ -56,7 +62,9 @@ class FormSubmissionServiceTest {
                         messageSource,
                         dynamicValidator,
                         schemaLifecycleService,
-                        uniqueFieldConstraintService);
+                        uniqueFieldConstraintService,
+                        new EntityWriteGenerations(),
+                        new RecordCodecs(new RecordCodecProperties()));
     }
 
     @Test
@@ -104,7 +112,12 @@ class FormSubmissionServiceTest {
 
         verify(dynamicValidator).validate(eq(payload), eq(List.of(title)), any(Locale.class));
         verify(uniqueFieldConstraintService).validateForCreate("tasks", payload, List.of(title));
-        verify(mongoTemplate).save(payload, "tasks");
+        ArgumentCaptor<Document> savedCaptor = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).save(savedCaptor.capture(), eq("tasks"));
+        Document saved = savedCaptor.getValue();
+        assertEquals("Ship v1", saved.get("title"));
+        assertTrue(saved.get("createdAt") instanceof Date);
+        assertEquals(saved.get("createdAt"), saved.get("updatedAt"));
     }
 
     @Test
@@ -137,7 +150,7 @@ class FormSubmissionServiceTest {
 
         verify(dynamicValidator).validate(eq(payload), eq(List.of(title)), any(Locale.class));
         verify(uniqueFieldConstraintService).validateForCreate("tasks", payload, List.of(title));
-        verify(mongoTemplate).save(payload, "tasks");
+        verify(mongoTemplate).save(any(Document.class), eq("tasks"));
     }
 
     @Test
@@ -0,0 +1,158 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.domain.model.CompoundIndexDefinition;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaLifecycleStatus;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.IndexRecommendation;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+@ExtendWith(MockitoExtension.class)
+class IndexAdvisorServiceTest {
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+    @Mock
+    private SchemaIndexService schemaIndexService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private IndexOperations indexOperations;
+
+    private QueryShapeStatsService queryShapeStatsService;
+    private IndexAdvisorService indexAdvisorService;
+
+    @BeforeEach
+    void setUp() {
+        QueryStatsProperties properties = new QueryStatsProperties();
+        properties.setMinRecommendationCount(2);
+        queryShapeStatsService = new QueryShapeStatsService(mongoTemplate, properties);
+        indexAdvisorService =
+                new IndexAdvisorService(
+                        queryShapeStatsService,
+                        schemaLifecycleService,
+                        schemaIndexService,
+                        mongoTemplate,
+                        properties);
+
+        SchemaVersion published = new SchemaVersion();
+        published.setEntityName("tasks");
+        published.setVersion(1);
+        published.setStatus(SchemaLifecycleStatus.PUBLISHED);
+        published.setFields(
+                List.of(
+                        field("status", FieldType.STRING),
+                        field("priority", FieldType.NUMBER),
+                        field("dueDate", FieldType.DATE),
+                        field("meta", FieldType.OBJECT)));
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(published);
+        when(mongoTemplate.indexOps("tasks")).thenReturn(indexOperations);
+    }
+
+    @Test
+    void recommend_ordersKeysByEqualitySortRangeAndMergesPrefixShapes() {
+        QueryShape full =
+                QueryShape.of(
+                        List.of(
+                                new FilterLeafNode("dueDate", "lt", "2026-01-01"),
+                                new FilterLeafNode("status", "eq", "open"),
+                                new FilterLeafNode("meta", "exists", true)),
+                        Sort.by(Sort.Direction.DESC, "priority"));
+        QueryShape prefix = QueryShape.of(List.of(new FilterLeafNode("status", "eq", "done")), null);
+        record(full, 5);
+        record(prefix, 3);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+
+        List<IndexRecommendation> recommendations = indexAdvisorService.recommend("tasks");
+
+        assertEquals(1, recommendations.size());
+        IndexRecommendation recommendation = recommendations.get(0);
+        assertEquals("COMPOUND", recommendation.type());
+        assertEquals(List.of("status:ASC", "priority:DESC", "dueDate:ASC"), recommendation.keys());
+        assertEquals(8, recommendation.frequency());
+        assertEquals(2, recommendation.shapes().size());
+        assertEquals("NOT_EXPLAINED", recommendation.reason());
+    }
+
+    @Test
+    void recommend_skipsRareShapesAndShapesServedByExistingIndex() {
+        record(QueryShape.of(List.of(new FilterLeafNode("status", "eq", "open")), null), 5);
+        record(QueryShape.of(List.of(new FilterLeafNode("priority", "gt", 1)), null), 1);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(
+                                new IndexInfo(
+                                        List.of(
+                                                IndexField.create("status", Sort.Direction.ASC),
+                                                IndexField.create("priority", Sort.Direction.ASC)),
+                                        "dynapi_tasks_status_priority_cidx",
+                                        false,
+                                        false,
+                                        null)));
+
+        assertTrue(indexAdvisorService.recommend("tasks").isEmpty());
+    }
+
+    @Test
+    void apply_declaresRecommendationsOnSchemaBeforeSync() {
+        record(QueryShape.of(List.of(new FilterLeafNode("status", "eq", "open")), null), 5);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+
+        indexAdvisorService.apply("tasks", false);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompoundIndexDefinition>> definitions = ArgumentCaptor.forClass(List.class);
+        verify(schemaLifecycleService).addCompoundIndexes(eq("tasks"), definitions.capture());
+        assertEquals("advisor_status", definitions.getValue().get(0).getName());
+        assertEquals("status", definitions.getValue().get(0).getKeys().get(0).getField());
+        verify(schemaIndexService).syncIndexes("tasks", false);
+    }
+
+    @Test
+    void apply_dryRunPreviewsPlanWithoutChangingSchema() {
+        record(QueryShape.of(List.of(new FilterLeafNode("status", "eq", "open")), null), 5);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+
+        indexAdvisorService.apply("tasks", true);
+
+        verify(schemaIndexService).syncIndexes(eq("tasks"), eq(true), anyList());
+        verify(schemaLifecycleService, never()).addCompoundIndexes(eq("tasks"), anyList());
+    }
+
+    private void record(QueryShape shape, int times) {
+        for (int i = 0; i < times; i++) {
+            queryShapeStatsService.recordExecution("tasks", shape, new Document(), new Document(), 10, 1);
+        }
+    }
+
+    private FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
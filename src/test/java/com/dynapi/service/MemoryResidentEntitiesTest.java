@@ -0,0 +1,277 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.MemoryResidentProperties;
+import com.dynapi.config.QueryCoalescingProperties;
+import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.config.QueryPlanCacheProperties;
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FilterRule;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+import com.dynapi.dto.SortRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+class MemoryResidentEntitiesTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    private final EntityWriteGenerations writeGenerations = new EntityWriteGenerations();
+    private final RecordCodecs recordCodecs = new RecordCodecs(new RecordCodecProperties());
+    private final SchemaVersion schema = new SchemaVersion();
+    private MemoryResidentProperties properties;
+    private MemoryResidentEntities memoryResidentEntities;
+
+    @BeforeEach
+    void setUp() {
+        QueryGuardrailProperties guardrails = new QueryGuardrailProperties();
+        DynamicQueryService dynamicQueryService =
+                new DynamicQueryService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        guardrails,
+                        new QueryShapeStatsService(mongoTemplate, new QueryStatsProperties()),
+                        new QueryCostGuard(mongoTemplate, guardrails),
+                        new QueryPlanCache(new QueryPlanCacheProperties()),
+                        new QueryCoalescer(new QueryCoalescingProperties()),
+                        writeGenerations,
+                        recordCodecs);
+        properties = new MemoryResidentProperties();
+        properties.setEntities(Set.of("countries"));
+        memoryResidentEntities =
+                new MemoryResidentEntities(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        dynamicQueryService,
+                        writeGenerations,
+                        properties,
+                        recordCodecs);
+
+        FieldDefinition name = field("name", FieldType.STRING);
+        name.setSearchable(true);
+        schema.setEntityName("countries");
+        schema.setVersion(1);
+        schema.setFields(
+                List.of(
+                        name,
+                        field("region", FieldType.STRING),
+                        field("population", FieldType.NUMBER),
+                        field("languages", FieldType.ARRAY)));
+        when(schemaLifecycleService.latestPublished("countries")).thenReturn(schema);
+    }
+
+    @Test
+    void query_filtersSortsAndPagesSnapshotWithoutFurtherRoundTrips() {
+        stubRecords(
+                country("fr", "France", "europe", 68, List.of("fr")),
+                country("ch", "Switzerland", "europe", 9, List.of("de", "fr", "it")),
+                country("jp", "Japan", "asia", 124, List.of("ja")),
+                country("de", "Germany", "europe", 84, List.of("de")));
+
+        DynamicQueryRequest europeByPopulation =
+                new DynamicQueryRequest(
+                        List.of(new FilterRule("region", "eq", "europe", null)),
+                        0,
+                        2,
+                        null,
+                        null,
+                        List.of(new SortRule("population", "DESC")));
+        PaginatedResponse<FormRecordDto> first = memoryResidentEntities.query("countries", europeByPopulation);
+        PaginatedResponse<FormRecordDto> second =
+                memoryResidentEntities.query(
+                        "countries",
+                        new DynamicQueryRequest(
+                                List.of(new FilterRule("languages", "eq", "fr", null)), 1, 1, null, null));
+
+        assertEquals(3, first.totalElements());
+        assertEquals(List.of("de", "fr"), ids(first));
+        assertEquals(2, second.totalElements());
+        assertEquals(List.of("fr"), ids(second));
+        assertEquals("France", second.content().getFirst().data().get("name"));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("countries"));
+        verify(mongoTemplate, never()).count(any(Query.class), anyString());
+        verify(schemaLifecycleService, times(1)).latestPublished("countries");
+    }
+
+    @Test
+    void query_sortsLikeMongoAcrossArraysAndMissingValues() {
+        Document unknown = new Document("_id", "xx").append("name", "Unknown");
+        stubRecords(
+                country("a", "A", "europe", 5, List.of("it", "de")),
+                unknown,
+                country("b", "B", "europe", 5, List.of("fr")));
+
+        PaginatedResponse<FormRecordDto> ascending =
+                memoryResidentEntities.query(
+                        "countries", new DynamicQueryRequest(null, 0, 10, "languages", "ASC"));
+        PaginatedResponse<FormRecordDto> descending =
+                memoryResidentEntities.query(
+                        "countries", new DynamicQueryRequest(null, 0, 10, "languages", "DESC"));
+        PaginatedResponse<FormRecordDto> tieBreak =
+                memoryResidentEntities.query(
+                        "countries", new DynamicQueryRequest(null, 0, 10, "population", "DESC"));
+
+        assertEquals(List.of("xx", "a", "b"), ids(ascending));
+        assertEquals(List.of("a", "b", "xx"), ids(descending));
+        assertEquals(List.of("b", "a", "xx"), ids(tieBreak));
+    }
+
+    @Test
+    void query_findsEqAndInOperandsThroughValueIndexes() {
+        stubRecords(
+                country("fr", "France", "europe", 68, List.of("fr")),
+                country("ch", "Switzerland", "europe", 9, List.of("de", "fr", "it")),
+                country("jp", "Japan", "asia", 124, List.of("ja")),
+                country("de", "Germany", "europe", 84, List.of("de")),
+                new Document("_id", "xx").append("name", "Unknown"));
+
+        PaginatedResponse<FormRecordDto> speakers =
+                memoryResidentEntities.query(
+                        "countries",
+                        new DynamicQueryRequest(
+                                List.of(
+                                        new FilterRule("languages", "eq", "de", null),
+                                        new FilterRule("region", "in", List.of("europe", "asia"), null)),
+                                0,
+                                10,
+                                "population",
+                                "ASC"));
+        PaginatedResponse<FormRecordDto> byPopulation =
+                memoryResidentEntities.query(
+                        "countries",
+                        new DynamicQueryRequest(
+                                List.of(new FilterRule("population", "in", List.of(68.0, 124L), null)),
+                                0,
+                                10,
+                                null,
+                                null));
+        PaginatedResponse<FormRecordDto> asia =
+                memoryResidentEntities.query(
+                        "countries",
+                        new DynamicQueryRequest(
+                                List.of(new FilterRule("region", "in", List.of("asia", "oceania"), null)),
+                                0,
+                                10,
+                                null,
+                                null));
+        PaginatedResponse<FormRecordDto> unknownLanguage =
+                memoryResidentEntities.query(
+                        "countries",
+                        new DynamicQueryRequest(
+                                List.of(new FilterRule("languages", "eq", "pt", null)), 0, 10, null, null));
+
+        assertEquals(List.of("ch", "de"), ids(speakers));
+        assertEquals(2, speakers.totalElements());
+        assertEquals(List.of("fr", "jp"), ids(byPopulation));
+        assertEquals(List.of("jp"), ids(asia));
+        assertEquals(0, unknownLanguage.totalElements());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("countries"));
+    }
+
+    @Test
+    void query_reloadsAfterWriteOrSchemaSave() {
+        stubRecords(country("fr", "France", "europe", 68, List.of("fr")));
+        DynamicQueryRequest all = new DynamicQueryRequest(null, null, null, null, null);
+
+        memoryResidentEntities.query("countries", all);
+        memoryResidentEntities.query("countries", all);
+        writeGenerations.bump("countries");
+        memoryResidentEntities.query("countries", all);
+        memoryResidentEntities.onAfterSave(
+                new AfterSaveEvent<>(schema, new Document("entityName", "countries"), "schema_versions"));
+        memoryResidentEntities.query("countries", all);
+
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(Document.class), eq("countries"));
+    }
+
+    @Test
+    void query_leavesSearchAndOversizedEntitiesToMongo() {
+        stubRecords(
+                country("fr", "France", "europe", 68, List.of("fr")),
+                country("de", "Germany", "europe", 84, List.of("de")));
+
+        assertNull(
+                memoryResidentEntities.query(
+                        "countries",
+                        new DynamicQueryRequest(
+                                List.of(new FilterRule("name", "search", "france", null)), null, null, null, null)));
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        memoryResidentEntities.query(
+                                "countries",
+                                new DynamicQueryRequest(
+                                        List.of(new FilterRule("capital", "eq", "Paris", null)),
+                                        null,
+                                        null,
+                                        null,
+                                        null)));
+
+        properties.setMaxRecords(1);
+        writeGenerations.bump("countries");
+        assertNull(
+                memoryResidentEntities.query("countries", new DynamicQueryRequest(null, null, null, null, null)));
+        ArgumentCaptor<Query> load = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(load.capture(), eq(Document.class), eq("countries"));
+        assertEquals(2, load.getValue().getLimit());
+    }
+
+    private void stubRecords(Document... records) {
+        List<Document> documents = new ArrayList<>(List.of(records));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("countries"))).thenReturn(documents);
+    }
+
+    private Document country(String id, String name, String region, int population, List<String> languages) {
+        return new Document("_id", id)
+                .append("name", name)
+                .append("region", region)
+                .append("population", population)
+                .append("languages", languages);
+    }
+
+    private List<String> ids(PaginatedResponse<FormRecordDto> page) {
+        return page.content().stream().map(FormRecordDto::id).toList();
+    }
+
+    private FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
@@ -0,0 +1,173 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.dynapi.config.QueryCoalescingProperties;
+import com.dynapi.dto.CoalescingStats;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryCoalescerTest {
+    private final PaginatedResponse<FormRecordDto> page =
+            new PaginatedResponse<>(0, 10, 0L, List.of(), null, null);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private QueryCoalescingProperties properties;
+    private QueryCoalescer queryCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QueryCoalescingProperties();
+        queryCoalescer = new QueryCoalescer(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_sharesInFlightExecutionWithIdenticalRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<PaginatedResponse<FormRecordDto>> query =
+                () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return page;
+                };
+
+        List<Future<PaginatedResponse<FormRecordDto>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> queryCoalescer.execute("tasks|q", query)));
+        waitFor(() -> queryCoalescer.stats().inFlight() == 1);
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> queryCoalescer.execute("tasks|q", query)));
+        }
+        waitFor(() -> queryCoalescer.stats().coalesced() == 4);
+        release.countDown();
+
+        for (Future<PaginatedResponse<FormRecordDto>> result : results) {
+            assertSame(page, result.get(5, TimeUnit.SECONDS));
+        }
+        CoalescingStats stats = queryCoalescer.stats();
+        assertEquals(1, executions.get());
+        assertEquals(5, stats.requests());
+        assertEquals(1, stats.executions());
+        assertEquals(0.8, stats.coalescingRatio(), 1e-9);
+        assertEquals(0, stats.inFlight());
+    }
+
+    @Test
+    void execute_runsAgainOnceFinishedWithoutResultTtl() {
+        AtomicInteger executions = new AtomicInteger();
+
+        queryCoalescer.execute("tasks|q", () -> count(executions));
+        queryCoalescer.execute("tasks|q", () -> count(executions));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_reusesFinishedResultWithinTtl() {
+        properties.setResultTtl(Duration.ofMinutes(1));
+        AtomicInteger executions = new AtomicInteger();
+
+        queryCoalescer.execute("tasks|q", () -> count(executions));
+        queryCoalescer.execute("tasks|q", () -> count(executions));
+        queryCoalescer.execute("tasks|other", () -> count(executions));
+
+        assertEquals(2, executions.get());
+        assertEquals(1, queryCoalescer.stats().resultHits());
+    }
+
+    @Test
+    void execute_doesNotKeepFailures() {
+        properties.setResultTtl(Duration.ofMinutes(1));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> queryCoalescer.execute("tasks|q", () -> {
+                    throw new IllegalArgumentException("bad filter");
+                }));
+
+        assertSame(page, queryCoalescer.execute("tasks|q", () -> page));
+    }
+
+    @Test
+    void execute_followerRunsItselfWhenLeaderIsCancelled() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PaginatedResponse<FormRecordDto> followerPage =
+                new PaginatedResponse<>(1, 10, 0L, List.of(), null, null);
+
+        Future<PaginatedResponse<FormRecordDto>> leader =
+                executor.submit(
+                        () ->
+                                queryCoalescer.execute(
+                                        "tasks|q",
+                                        () -> {
+                                            await(release);
+                                            throw new CancellationException("client disconnected");
+                                        }));
+        waitFor(() -> queryCoalescer.stats().inFlight() == 1);
+        Future<PaginatedResponse<FormRecordDto>> follower =
+                executor.submit(() -> queryCoalescer.execute("tasks|q", () -> followerPage));
+        waitFor(() -> queryCoalescer.stats().coalesced() == 1);
+        release.countDown();
+
+        assertSame(followerPage, follower.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queryCoalescer.stats().executions());
+    }
+
+    @Test
+    void execute_bypassesLayerWhenDisabled() {
+        properties.setEnabled(false);
+        AtomicInteger executions = new AtomicInteger();
+
+        queryCoalescer.execute("tasks|q", () -> count(executions));
+
+        assertEquals(1, executions.get());
+        assertEquals(0, queryCoalescer.stats().requests());
+    }
+
+    private PaginatedResponse<FormRecordDto> count(AtomicInteger executions) {
+        executions.incrementAndGet();
+        return page;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitFor(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.config.QueryGuardrailProperties.UnindexedSortPolicy;
+import com.dynapi.domain.exception.QueryCostExceededException;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCostGuardTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    private QueryGuardrailProperties guardrails;
+    private QueryCostGuard queryCostGuard;
+
+    private final QueryShape shape =
+            QueryShape.of(List.of(new FilterLeafNode("title", "regex", "^a")), null);
+    private final QueryShape sortedShape =
+            QueryShape.of(
+                    List.of(new FilterLeafNode("status", "eq", "open")),
+                    Sort.by(Sort.Order.desc("priority"), Sort.Order.desc("_id")));
+
+    @BeforeEach
+    void setUp() {
+        guardrails = new QueryGuardrailProperties();
+        guardrails.setCostCheckEnabled(true);
+        guardrails.setMaxScannedDocuments(1_000);
+        queryCostGuard = new QueryCostGuard(mongoTemplate, guardrails);
+    }
+
+    @Test
+    void check_rejectsCollectionScanAboveLimitAndCachesEstimate() {
+        stubExplain("COLLSCAN");
+        when(collection.estimatedDocumentCount()).thenReturn(50_000L);
+
+        QueryCostExceededException ex =
+                assertThrows(
+                        QueryCostExceededException.class,
+                        () -> queryCostGuard.check("tasks", shape, new Document(), new Document()));
+        assertThrows(
+                QueryCostExceededException.class,
+                () -> queryCostGuard.check("tasks", shape, new Document(), new Document()));
+
+        assertEquals(50_000L, ex.getEstimatedDocuments());
+        assertTrue(ex.getMessage().contains("index one of: title"));
+        verify(findIterable, times(1)).explain(ExplainVerbosity.QUERY_PLANNER);
+    }
+
+    @Test
+    void check_allowsIndexedPlan() {
+        stubExplain("IXSCAN");
+
+        assertDoesNotThrow(() -> queryCostGuard.check("tasks", shape, new Document(), new Document()));
+    }
+
+    @Test
+    void check_allowsSmallCollectionScan() {
+        stubExplain("COLLSCAN");
+        when(collection.estimatedDocumentCount()).thenReturn(10L);
+
+        assertDoesNotThrow(() -> queryCostGuard.check("tasks", shape, new Document(), new Document()));
+    }
+
+    @Test
+    void check_rejectsInMemorySortUnderRejectPolicy() {
+        guardrails.setCostCheckEnabled(false);
+        guardrails.setUnindexedSort(UnindexedSortPolicy.REJECT);
+        stubExplain("SORT");
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> queryCostGuard.check("tasks", sortedShape, new Document(), new Document()));
+
+        assertTrue(ex.getMessage().contains("Add a compound index on: status ASC, priority DESC, _id DESC"));
+    }
+
+    @Test
+    void check_onlyWarnsAboutInMemorySortByDefault() {
+        guardrails.setCostCheckEnabled(false);
+        stubExplain("SORT");
+
+        assertDoesNotThrow(() -> queryCostGuard.check("tasks", sortedShape, new Document(), new Document()));
+        verify(findIterable, times(1)).explain(ExplainVerbosity.QUERY_PLANNER);
+    }
+
+    @Test
+    void check_allowsIndexedSortUnderRejectPolicy() {
+        guardrails.setCostCheckEnabled(false);
+        guardrails.setUnindexedSort(UnindexedSortPolicy.REJECT);
+        stubExplain("IXSCAN");
+
+        assertDoesNotThrow(() -> queryCostGuard.check("tasks", sortedShape, new Document(), new Document()));
+    }
+
+    @Test
+    void check_skipsExplainWhenDisabled() {
+        guardrails.setCostCheckEnabled(false);
+
+        queryCostGuard.check("tasks", shape, new Document(), new Document());
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private void stubExplain(String stage) {
+        when(mongoTemplate.getCollection("tasks")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.sort(any())).thenReturn(findIterable);
+        when(findIterable.explain(ExplainVerbosity.QUERY_PLANNER))
+                .thenReturn(
+                        new Document(
+                                "queryPlanner",
+                                new Document(
+                                        "winningPlan",
+                                        new Document("stage", "FETCH")
+                                                .append("inputStage", new Document("stage", stage)))));
+    }
+}
@@ -0,0 +1,138 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FormRecordDto;
+import com.dynapi.dto.PaginatedResponse;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class QueryExecutionServiceTest {
+
+    @Mock
+    private DynamicQueryService dynamicQueryService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MemoryResidentEntities memoryResidentEntities;
+    @Mock
+    private MongoDatabaseFactory mongoDatabaseFactory;
+    @Mock
+    private MongoDatabase adminDatabase;
+    @Mock
+    private AggregateIterable<Document> currentOps;
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    private QueryExecutionService queryExecutionService;
+
+    @BeforeEach
+    void setUp() {
+        queryExecutionService =
+                new QueryExecutionService(dynamicQueryService, mongoTemplate, memoryResidentEntities);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryExecutionService.shutdown();
+    }
+
+    @Test
+    void submit_completesWithQueryResultAndTaggedOperationId() throws Exception {
+        PaginatedResponse<FormRecordDto> page = new PaginatedResponse<>(0, 10, 0L, List.of(), null, null);
+        when(dynamicQueryService.query(eq("tasks"), any(), anyString())).thenReturn(page);
+
+        QueryExecution execution =
+                queryExecutionService.submit("tasks", new DynamicQueryRequest(null, 0, 10, null, null));
+
+        assertEquals(page, execution.result().get(5, TimeUnit.SECONDS));
+        assertTrue(execution.operationId().startsWith(QueryExecutionService.OPERATION_PREFIX));
+        verify(dynamicQueryService).query(eq("tasks"), any(), eq(execution.operationId()));
+    }
+
+    @Test
+    void submit_answersMemoryResidentEntityWithoutWorkerAndFallsBackWhenSnapshotDeclines()
+            throws Exception {
+        PaginatedResponse<FormRecordDto> resident = new PaginatedResponse<>(0, 10, 1L, List.of(), null, null);
+        PaginatedResponse<FormRecordDto> fromMongo = new PaginatedResponse<>(0, 10, 2L, List.of(), null, null);
+        DynamicQueryRequest plain = new DynamicQueryRequest(null, 0, 10, null, null);
+        DynamicQueryRequest unsupported = new DynamicQueryRequest(null, 1, 10, null, null);
+        when(memoryResidentEntities.isEnabled("countries")).thenReturn(true);
+        when(memoryResidentEntities.query("countries", plain)).thenReturn(resident);
+        when(memoryResidentEntities.query("countries", unsupported)).thenReturn(null);
+        when(dynamicQueryService.query(eq("countries"), eq(unsupported), anyString())).thenReturn(fromMongo);
+
+        QueryExecution fromMemory = queryExecutionService.submit("countries", plain);
+        QueryExecution declined = queryExecutionService.submit("countries", unsupported);
+
+        assertTrue(fromMemory.result().isDone());
+        assertEquals(resident, fromMemory.result().get());
+        assertEquals(fromMongo, declined.result().get(5, TimeUnit.SECONDS));
+        verify(dynamicQueryService, never()).query(eq("countries"), eq(plain), anyString());
+    }
+
+    @Test
+    void cancel_interruptsWorkerAndKillsTaggedServerOperations() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(dynamicQueryService.query(eq("tasks"), any(), anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            started.countDown();
+                            try {
+                                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                            } catch (InterruptedException ex) {
+                                interrupted.countDown();
+                                throw ex;
+                            }
+                            return null;
+                        });
+        when(mongoTemplate.getMongoDatabaseFactory()).thenReturn(mongoDatabaseFactory);
+        when(mongoDatabaseFactory.getMongoDatabase("admin")).thenReturn(adminDatabase);
+        when(adminDatabase.aggregate(anyList())).thenReturn(currentOps);
+        when(currentOps.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(new Document("opid", 42));
+
+        QueryExecution execution =
+                queryExecutionService.submit("tasks", new DynamicQueryRequest(null, 0, 10, null, null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        execution.cancel();
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(execution.isCancelled());
+        ArgumentCaptor<Bson> command = ArgumentCaptor.forClass(Bson.class);
+        verify(adminDatabase).runCommand(command.capture());
+        assertEquals(new Document("killOp", 1).append("op", 42), command.getValue());
+        assertThrows(ExecutionException.class, () -> execution.result().get(5, TimeUnit.SECONDS));
+    }
+}
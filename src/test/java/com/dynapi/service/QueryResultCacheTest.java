@@ -0,0 +1,180 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QueryCoalescingProperties;
+import com.dynapi.config.QueryGuardrailProperties;
+import com.dynapi.config.QueryPlanCacheProperties;
+import com.dynapi.config.QueryResultCacheProperties;
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.FilterRule;
+import com.dynapi.infrastructure.cache.CachedBytes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+@ExtendWith(MockitoExtension.class)
+class QueryResultCacheTest {
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final EntityWriteGenerations writeGenerations = new EntityWriteGenerations();
+    private final SchemaVersion published = new SchemaVersion();
+    private DynamicQueryService dynamicQueryService;
+    private final DynamicQueryRequest request = new DynamicQueryRequest(List.of(), 0, 10, null, null);
+    private QueryResultCacheProperties properties;
+    private QueryResultCache queryResultCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QueryResultCacheProperties();
+        properties.setEntities(Set.of("countries"));
+        FieldDefinition name = new FieldDefinition();
+        name.setFieldName("name");
+        name.setType(FieldType.STRING);
+        published.setEntityName("countries");
+        published.setVersion(3);
+        published.setFields(List.of(name));
+        when(schemaLifecycleService.latestPublished("countries")).thenReturn(published);
+        QueryGuardrailProperties guardrails = new QueryGuardrailProperties();
+        dynamicQueryService =
+                new DynamicQueryService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        guardrails,
+                        new QueryShapeStatsService(mongoTemplate, new QueryStatsProperties()),
+                        new QueryCostGuard(mongoTemplate, guardrails),
+                        new QueryPlanCache(new QueryPlanCacheProperties()),
+                        new QueryCoalescer(new QueryCoalescingProperties()),
+                        writeGenerations,
+                        new RecordCodecs(new RecordCodecProperties()));
+        queryResultCache = newCache();
+    }
+
+    @Test
+    void lookup_returnsStoredBytesForSameRequest() throws IOException {
+        assertTrue(queryResultCache.isEnabled("countries"));
+        assertFalse(queryResultCache.isEnabled("orders"));
+
+        assertStoredBytesAreServed();
+    }
+
+    @Test
+    void lookup_returnsStoredBytesFromOffHeapStore() throws IOException {
+        properties.setStore(QueryResultCacheProperties.Store.OFF_HEAP);
+        properties.setBlockSize(DataSize.ofBytes(16));
+        queryResultCache = newCache();
+
+        assertStoredBytesAreServed();
+    }
+
+    @Test
+    void lookup_sharesEntriesBetweenRequestsThatBindAlike() {
+        DynamicQueryRequest spelled =
+                new DynamicQueryRequest(
+                        List.of(new FilterRule(" name ", "EQ", "France", null)), null, null, null, null);
+        DynamicQueryRequest plain =
+                new DynamicQueryRequest(
+                        List.of(new FilterRule("name", "eq", "France", null)), 0, 10, null, null);
+
+        queryResultCache.store(queryResultCache.lookup("countries", spelled), Map.of("total", 1));
+
+        assertTrue(queryResultCache.lookup("countries", plain).isHit());
+        assertFalse(queryResultCache.lookup("countries", request).isHit());
+    }
+
+    @Test
+    void lookup_readsThePublishedSchemaAgainOnlyAfterItIsSaved() {
+        queryResultCache.store(queryResultCache.lookup("countries", request), Map.of("total", 1));
+        assertTrue(queryResultCache.lookup("countries", request).isHit());
+        verify(schemaLifecycleService, times(1)).latestPublished("countries");
+
+        queryResultCache.onAfterSave(
+                new AfterSaveEvent<>(published, new Document("entityName", "countries"), "schema_versions"));
+        queryResultCache.lookup("countries", request);
+
+        verify(schemaLifecycleService, times(2)).latestPublished("countries");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void lookup_missesAfterWriteToEntity() {
+        QueryResultCache.Lookup before = queryResultCache.lookup("countries", request);
+        queryResultCache.store(before, Map.of("total", 1));
+
+        writeGenerations.bump("countries");
+
+        QueryResultCache.Lookup after = queryResultCache.lookup("countries", request);
+        assertFalse(after.isHit());
+        assertNotEquals(before.key(), after.key());
+    }
+
+    @Test
+    void lookup_missesOnceTheTtlHasPassed() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(50));
+        queryResultCache = newCache();
+        queryResultCache.store(queryResultCache.lookup("countries", request), Map.of("total", 1));
+        assertTrue(queryResultCache.lookup("countries", request).isHit());
+
+        Thread.sleep(60);
+
+        assertFalse(queryResultCache.lookup("countries", request).isHit());
+        assertEquals(0, queryResultCache.stats().size());
+    }
+
+    private QueryResultCache newCache() {
+        return new QueryResultCache(
+                properties, schemaLifecycleService, dynamicQueryService, JsonMapper.builder().build());
+    }
+
+    private void assertStoredBytesAreServed() throws IOException {
+        QueryResultCache.Lookup miss = queryResultCache.lookup("countries", request);
+        assertNull(miss.body());
+        byte[] stored =
+                read(queryResultCache.store(miss, Map.of("total", 1, "name", "a longer response body")));
+
+        QueryResultCache.Lookup hit = queryResultCache.lookup("countries", request);
+        assertTrue(hit.isHit());
+        assertArrayEquals(stored, read(hit.body()));
+        hit.body().release();
+    }
+
+    private byte[] read(CachedBytes cached) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cached.writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,203 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QueryStatsProperties;
+import com.dynapi.dto.QueryPlanVerdict;
+import com.dynapi.dto.QueryShapeStats;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class QueryShapeStatsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    private QueryStatsProperties properties;
+    private QueryShapeStatsService queryShapeStatsService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QueryStatsProperties();
+        queryShapeStatsService = new QueryShapeStatsService(mongoTemplate, properties);
+    }
+
+    @Test
+    void recordExecution_aggregatesCountLatencyAndHistogramPerShape() {
+        QueryShape shape = QueryShape.of(List.of(new FilterLeafNode("status", "eq", "open")), null);
+
+        record(shape, 3);
+        record(shape, 40);
+        record(shape, 2_000);
+
+        List<QueryShapeStats> shapes = queryShapeStatsService.snapshot("tasks");
+
+        assertEquals(1, shapes.size());
+        QueryShapeStats stats = shapes.get(0);
+        assertEquals("status:eq", stats.shape());
+        assertEquals(3, stats.count());
+        assertEquals(2_000.0, stats.maxMillis());
+        assertEquals(681.0, stats.avgMillis());
+        assertEquals(1L, stats.latencyHistogram().get("<=5ms"));
+        assertEquals(1L, stats.latencyHistogram().get("<=50ms"));
+        assertEquals(1L, stats.latencyHistogram().get(">1000ms"));
+        assertNull(stats.plan());
+    }
+
+    @Test
+    void recordExecution_dropsShapesBeyondPerEntityLimit() {
+        properties.setMaxShapesPerEntity(1);
+
+        record(QueryShape.of(List.of(new FilterLeafNode("status", "eq", "open")), null), 1);
+        record(QueryShape.of(List.of(new FilterLeafNode("priority", "gt", 1)), null), 1);
+
+        assertEquals(1, queryShapeStatsService.snapshot("tasks").size());
+        assertEquals(1, queryShapeStatsService.droppedShapes("tasks"));
+    }
+
+    @Test
+    void explainTopShapes_flagsCollectionScanInMemorySortAndHighRatio() {
+        QueryShape shape =
+                QueryShape.of(
+                        List.of(new FilterLeafNode("status", "eq", "open")),
+                        Sort.by(Sort.Direction.DESC, "priority"));
+        record(shape, 5);
+
+        when(mongoTemplate.getCollection("tasks")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.sort(any())).thenReturn(findIterable);
+        when(findIterable.limit(anyInt())).thenReturn(findIterable);
+        when(findIterable.maxTime(5_000, TimeUnit.MILLISECONDS)).thenReturn(findIterable);
+        when(findIterable.explain(ExplainVerbosity.EXECUTION_STATS))
+                .thenReturn(
+                        explain(
+                                new Document("stage", "SORT")
+                                        .append("inputStage", new Document("stage", "COLLSCAN")),
+                                5_000,
+                                0,
+                                10));
+
+        List<QueryShapeStats> shapes = queryShapeStatsService.explainTopShapes("tasks");
+
+        QueryPlanVerdict verdict = shapes.get(0).plan();
+        assertEquals(List.of("SORT", "COLLSCAN"), verdict.stages());
+        assertEquals(
+                List.of(
+                        QueryShapeStatsService.FLAG_COLLECTION_SCAN,
+                        QueryShapeStatsService.FLAG_IN_MEMORY_SORT,
+                        QueryShapeStatsService.FLAG_HIGH_DOCS_EXAMINED_RATIO),
+                verdict.flags());
+        assertEquals(500.0, verdict.docsExaminedRatio());
+    }
+
+    @Test
+    void explainTopShapes_scheduledRunOnlyAsksThePlannerOffTheSchedulerThread() {
+        properties.setExplainMaxTime(Duration.ofMillis(250));
+        record(QueryShape.of(List.of(new FilterLeafNode("status", "eq", "open")), null), 5);
+
+        Thread schedulerThread = Thread.currentThread();
+        AtomicReference<Thread> explainThread = new AtomicReference<>();
+        when(mongoTemplate.getCollection("tasks")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.sort(any())).thenReturn(findIterable);
+        when(findIterable.limit(anyInt())).thenReturn(findIterable);
+        when(findIterable.maxTime(250, TimeUnit.MILLISECONDS)).thenReturn(findIterable);
+        when(findIterable.explain(ExplainVerbosity.QUERY_PLANNER))
+                .thenAnswer(
+                        invocation -> {
+                            explainThread.set(Thread.currentThread());
+                            return new Document(
+                                    "queryPlanner",
+                                    new Document("winningPlan", new Document("stage", "COLLSCAN")));
+                        });
+
+        queryShapeStatsService.explainTopShapes();
+
+        verify(findIterable, timeout(5000)).explain(ExplainVerbosity.QUERY_PLANNER);
+        verify(findIterable, never()).explain(ExplainVerbosity.EXECUTION_STATS);
+        assertNotEquals(schedulerThread, explainThread.get());
+        QueryPlanVerdict verdict = awaitVerdict();
+        assertEquals(List.of(QueryShapeStatsService.FLAG_COLLECTION_SCAN), verdict.flags());
+        assertEquals(0, verdict.docsExamined());
+    }
+
+    @Test
+    void toVerdict_acceptsIndexedPlanWrappedBySlotBasedEngine() {
+        Document winningPlan =
+                new Document(
+                        "queryPlan",
+                        new Document("stage", "FETCH")
+                                .append(
+                                        "inputStage",
+                                        new Document("stage", "IXSCAN")
+                                                .append("indexName", "dynapi_tasks_status_idx")));
+
+        QueryPlanVerdict verdict = queryShapeStatsService.toVerdict(explain(winningPlan, 10, 10, 10));
+
+        assertEquals(List.of("FETCH", "IXSCAN"), verdict.stages());
+        assertEquals(List.of("dynapi_tasks_status_idx"), verdict.indexesUsed());
+        assertTrue(verdict.flags().isEmpty());
+    }
+
+    private void record(QueryShape shape, long millis) {
+        queryShapeStatsService.recordExecution(
+                "tasks",
+                shape,
+                new Document("status", "open"),
+                new Document(),
+                10,
+                TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private QueryPlanVerdict awaitVerdict() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            QueryPlanVerdict verdict = queryShapeStatsService.snapshot("tasks").get(0).plan();
+            if (verdict != null) {
+                return verdict;
+            }
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("no verdict recorded");
+    }
+
+    private Document explain(
+            Document winningPlan, long docsExamined, long keysExamined, long returned) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan))
+                .append(
+                        "executionStats",
+                        new Document("totalDocsExamined", docsExamined)
+                                .append("totalKeysExamined", keysExamined)
+                                .append("nReturned", returned));
+    }
+}
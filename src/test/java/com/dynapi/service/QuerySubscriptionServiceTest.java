@@ -0,0 +1,307 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.QuerySubscriptionProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaMigration;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.DynamicQueryRequest;
+import com.dynapi.dto.RecordChange;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class QuerySubscriptionServiceTest {
+    private static final DynamicQueryRequest REQUEST = new DynamicQueryRequest(List.of(), null, null, null, null);
+
+    @Mock
+    private DynamicQueryService dynamicQueryService;
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final SchemaVersion schema = new SchemaVersion();
+    private QuerySubscriptionProperties properties;
+    private QuerySubscriptionService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QuerySubscriptionProperties();
+        properties.setSource(QuerySubscriptionProperties.Source.IN_PROCESS);
+        schema.setEntityName("tickets");
+        schema.setVersion(1);
+        when(schemaLifecycleService.latestPublished("tickets")).thenReturn(schema);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void subscribe_sendsMatchingWritesOnlyToMatchingSubscribers() throws InterruptedException {
+        service = newService();
+        RecordingEmitter open = subscribe(List.of(new FilterLeafNode("status", "eq", "open")));
+        RecordingEmitter urgent = subscribe(List.of(new FilterLeafNode("priority", "gte", 3)));
+
+        save(record("t-1", "open", 1, false));
+        save(record("t-2", "closed", 5, false));
+        save(record("t-1", "open", 1, true));
+
+        Event first = open.next();
+        assertEquals(QuerySubscriptionService.UPSERT_EVENT, first.name());
+        assertEquals("t-1", first.change().id());
+        assertEquals("open", first.change().data().get("status"));
+        Event deleted = open.next();
+        assertEquals(QuerySubscriptionService.DELETE_EVENT, deleted.name());
+        assertTrue(deleted.change().deleted());
+        assertNull(deleted.change().data());
+        assertEquals("t-2", urgent.next().change().id());
+
+        assertNull(open.events.poll(100, TimeUnit.MILLISECONDS));
+        assertNull(urgent.events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, service.subscriberCount("tickets"));
+    }
+
+    @Test
+    void subscribe_sendsLeaveWhenAnAnnouncedRecordStopsMatching() throws InterruptedException {
+        service = newService();
+        RecordingEmitter open = subscribe(List.of(new FilterLeafNode("status", "eq", "open")));
+
+        save(record("t-1", "open", 1, false));
+        save(record("t-1", "closed", 1, false));
+        save(record("t-1", "closed", 2, false));
+        save(record("t-2", "closed", 1, false));
+
+        assertEquals(QuerySubscriptionService.UPSERT_EVENT, open.next().name());
+        Event left = open.next();
+        assertEquals(QuerySubscriptionService.LEAVE_EVENT, left.name());
+        assertEquals("closed", left.change().data().get("status"));
+        assertNull(open.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_matchesAndSendsRecordsUpgradedByTheSchemaMigrations() throws InterruptedException {
+        MigrationStep rename = new MigrationStep();
+        rename.setOperation(MigrationStep.Operation.RENAME);
+        rename.setField("priority");
+        rename.setTo("urgency");
+        SchemaMigration renamePriority = new SchemaMigration();
+        renamePriority.setVersion(2);
+        renamePriority.setSteps(List.of(rename));
+        FieldDefinition urgency = new FieldDefinition();
+        urgency.setFieldName("urgency");
+        urgency.setType(FieldType.NUMBER);
+        schema.setVersion(2);
+        schema.setFields(List.of(urgency));
+        schema.setMigrations(List.of(renamePriority));
+        service = newService();
+        RecordingEmitter urgent = subscribe(List.of(new FilterLeafNode("urgency", "gte", 3)));
+
+        Map<String, Object> written = record("t-1", "open", 5, false);
+        written.put("schemaVersion", 1);
+        save(written);
+
+        Event event = urgent.next();
+        assertEquals("t-1", event.change().id());
+        assertEquals(5, event.change().data().get("urgency"));
+        assertFalse(event.change().data().containsKey("priority"));
+        assertEquals(5, written.get("priority"));
+    }
+
+    @Test
+    void subscribe_sharesOneChangeStreamPerEntityUntilLastSubscriberLeaves() {
+        properties.setSource(QuerySubscriptionProperties.Source.CHANGE_STREAM);
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream();
+        service = newService();
+
+        RecordingEmitter first = subscribe(List.of());
+        RecordingEmitter second = subscribe(List.of());
+        verify(mongoTemplate, times(1)).getCollection("tickets");
+        assertEquals(2, service.subscriberCount("tickets"));
+
+        first.complete();
+        assertEquals(1, service.subscriberCount("tickets"));
+        second.complete();
+        assertEquals(0, service.subscriberCount("tickets"));
+        verify(cursor, timeout(2_000)).close();
+    }
+
+    @Test
+    void subscribe_disconnectsSubscriberThatFallsTooFarBehind() throws InterruptedException {
+        properties.setMaxPendingEvents(2);
+        service = newService();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = subscribe(List.of(), release);
+        RecordingEmitter fast = subscribe(List.of());
+
+        for (int i = 0; i < 5; i++) {
+            save(record("t-" + i, "open", i, false));
+            assertEquals("t-" + i, fast.next().change().id());
+        }
+
+        assertTrue(slow.completed);
+        assertFalse(fast.completed);
+        release.countDown();
+        assertEquals(1, service.subscriberCount("tickets"));
+    }
+
+    private QuerySubscriptionService newService() {
+        return new QuerySubscriptionService(
+                dynamicQueryService,
+                schemaLifecycleService,
+                mongoTemplate,
+                new RecordCodecs(new RecordCodecProperties()),
+                properties);
+    }
+
+    private RecordingEmitter subscribe(List<FilterNode> filters) {
+        return subscribe(filters, null);
+    }
+
+    private RecordingEmitter subscribe(List<FilterNode> filters, CountDownLatch release) {
+        when(dynamicQueryService.inMemoryPredicate(eq("tickets"), any(), any()))
+                .thenReturn(FilterPredicateCompiler.compile(filters, Map.of()));
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        service.subscribe("tickets", REQUEST, emitter);
+        return emitter;
+    }
+
+    private void save(Map<String, Object> document) {
+        service.onAfterSave(new AfterSaveEvent<>(document, new Document(document), "tickets"));
+    }
+
+    private Map<String, Object> record(String id, String status, int priority, boolean deleted) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("_id", id);
+        document.put("status", status);
+        document.put("priority", priority);
+        if (deleted) {
+            document.put("deleted", true);
+        }
+        return document;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> changeStream() {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        ChangeStreamIterable<Document> iterable = mock(ChangeStreamIterable.class);
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mock(MongoChangeStreamCursor.class);
+        when(mongoTemplate.getCollection("tickets")).thenReturn(collection);
+        when(collection.watch(anyList())).thenReturn(iterable);
+        when(iterable.fullDocument(any())).thenReturn(iterable);
+        when(iterable.maxAwaitTime(anyLong(), any())).thenReturn(iterable);
+        when(iterable.cursor()).thenReturn(cursor);
+        when(cursor.tryNext())
+                .thenAnswer(
+                        invocation -> {
+                            Thread.sleep(10);
+                            return null;
+                        });
+        return cursor;
+    }
+
+    private record Event(String name, RecordChange change) {
+    }
+
+    /**
+     * Captures sent events; completion runs the registered callback like the container would.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch release;
+        private Runnable completion;
+        private volatile boolean completed;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            String name = null;
+            RecordChange change = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : parts) {
+                if (part.getData() instanceof RecordChange recordChange) {
+                    change = recordChange;
+                } else if (part.getData() instanceof String text && text.startsWith("event:")) {
+                    name = text.substring("event:".length(), text.indexOf('\n'));
+                }
+            }
+            if (change != null) {
+                events.add(new Event(name, change));
+            }
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            this.completion = callback;
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            completion.run();
+        }
+
+        private Event next() throws InterruptedException {
+            Event event = events.poll(2, TimeUnit.SECONDS);
+            assertFalse(event == null, "Expected an event");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.RecordChangesProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.RecordChangesResponse;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+class RecordChangesServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    private RecordChangesService recordChangesService;
+
+    @BeforeEach
+    void setUp() {
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(new SchemaVersion());
+        recordChangesService =
+                new RecordChangesService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        new RecordChangesProperties(),
+                        new RecordCodecs(new RecordCodecProperties()));
+    }
+
+    @Test
+    void changes_pagesByUpdatedAtAndIdUntilLastPageReturnsWatermark() {
+        Instant since = Instant.parse("2026-03-01T12:00:00Z");
+        Date updatedAt = Date.from(since.plusSeconds(5));
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        ObjectId third = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(
+                        List.of(
+                                record(first, updatedAt, false),
+                                record(second, updatedAt, true),
+                                record(third, updatedAt, false)))
+                .thenReturn(List.of(record(third, updatedAt, false)));
+
+        RecordChangesResponse firstPage = recordChangesService.changes("tasks", since, null, 2);
+
+        assertEquals(2, firstPage.changes().size());
+        assertTrue(firstPage.hasMore());
+        assertNull(firstPage.watermark());
+        assertEquals("Alice", firstPage.changes().getFirst().data().get("name"));
+        assertFalse(firstPage.changes().getFirst().data().containsKey("updatedAt"));
+        assertTrue(firstPage.changes().get(1).deleted());
+        assertNull(firstPage.changes().get(1).data());
+
+        RecordChangesResponse lastPage =
+                recordChangesService.changes("tasks", null, firstPage.nextCursor(), 2);
+
+        assertFalse(lastPage.hasMore());
+        assertNull(lastPage.nextCursor());
+        assertNotNull(lastPage.watermark());
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(captor.capture(), eq(Document.class), eq("tasks"));
+        Query firstQuery = captor.getAllValues().getFirst();
+        Query secondQuery = captor.getAllValues().getLast();
+        assertEquals(new Document("updatedAt", 1).append("_id", 1), firstQuery.getSortObject());
+        assertEquals(3, firstQuery.getLimit());
+        Document firstBound = firstQuery.getQueryObject().get("updatedAt", Document.class);
+        assertEquals(Date.from(since), firstBound.get("$gt"));
+
+        // The next page continues after the last returned (updatedAt, _id) within the same upper bound.
+        List<?> clauses = secondQuery.getQueryObject().getList("$and", Object.class);
+        Document upperBound = ((Document) clauses.getFirst()).get("updatedAt", Document.class);
+        assertEquals(firstBound.get("$lte"), upperBound.get("$lte"));
+        Document tieBreak = ((Document) clauses.get(1)).getList("$or", Document.class).get(1);
+        assertEquals(updatedAt, tieBreak.get("updatedAt"));
+        assertEquals(second, tieBreak.get("_id", Document.class).get("$gt"));
+        assertEquals(lastPage.watermark(), ((Date) firstBound.get("$lte")).toInstant());
+    }
+
+    @Test
+    void changes_cursorKeepsTheBsonTypeOfTheLastId() {
+        Date updatedAt = Date.from(Instant.parse("2026-03-01T12:00:05Z"));
+        for (Object id : List.of(7L, 7, 7.5, "7", new ObjectId())) {
+            when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                    .thenReturn(List.of(record(id, updatedAt, false), record(id, updatedAt, false)))
+                    .thenReturn(List.of());
+            String cursor = recordChangesService.changes("tasks", null, null, 1).nextCursor();
+
+            recordChangesService.changes("tasks", null, cursor, 1);
+
+            ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+            verify(mongoTemplate, atLeastOnce()).find(captor.capture(), eq(Document.class), eq("tasks"));
+            List<?> clauses = captor.getValue().getQueryObject().getList("$and", Object.class);
+            Document tieBreak = ((Document) clauses.get(1)).getList("$or", Document.class).get(1);
+            assertEquals(id, tieBreak.get("_id", Document.class).get("$gt"));
+            clearInvocations(mongoTemplate);
+        }
+    }
+
+    @Test
+    void changes_rejectsPagingPastAnIdTypeTheCursorCannotCarry() {
+        Date updatedAt = Date.from(Instant.parse("2026-03-01T12:00:05Z"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(List.of(record(updatedAt, updatedAt, false), record(updatedAt, updatedAt, false)));
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> recordChangesService.changes("tasks", null, null, 1));
+        assertTrue(ex.getMessage().contains("Date"));
+    }
+
+    @Test
+    void changes_rejectsInvalidCursorAndLimit() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> recordChangesService.changes("tasks", null, "not-a-cursor", null));
+        assertThrows(
+                IllegalArgumentException.class, () -> recordChangesService.changes("tasks", null, null, 0));
+    }
+
+    private Document record(Object id, Date updatedAt, boolean deleted) {
+        Document document = new Document();
+        document.put("_id", id);
+        document.put("name", "Alice");
+        document.put("createdAt", updatedAt);
+        document.put("updatedAt", updatedAt);
+        if (deleted) {
+            document.put("deleted", true);
+            document.put("deletedAt", updatedAt);
+        }
+        return document;
+    }
+}
@@ -0,0 +1,165 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.config.RecordCodecProperties.NumberStorage;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaMigration;
+import com.dynapi.domain.model.SchemaVersion;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+class RecordCodecTest {
+    private static final List<FieldDefinition> FIELDS =
+            List.of(
+                    field("count", FieldType.NUMBER),
+                    field("price", FieldType.NUMBER),
+                    field("dueAt", FieldType.DATE),
+                    object("profile", FieldType.OBJECT, field("age", FieldType.NUMBER)),
+                    object("items", FieldType.ARRAY, field("qty", FieldType.NUMBER)));
+
+    @Test
+    void encode_storesNumbersInTheSmallestExactBsonType() {
+        RecordCodec codec = RecordCodec.compile(1, FIELDS, NumberStorage.NATIVE);
+
+        assertEquals(5, codec.encode(Map.of("count", 5L)).get("count"));
+        assertEquals(5_000_000_000L, codec.encode(Map.of("count", 5_000_000_000L)).get("count"));
+        assertEquals(7, codec.encode(Map.of("count", new BigDecimal("7.00"))).get("count"));
+        assertEquals(7, codec.encode(Map.of("count", BigInteger.valueOf(7))).get("count"));
+        assertEquals(19.99, codec.encode(Map.of("price", new BigDecimal("19.99"))).get("price"));
+        assertEquals(0.1, codec.encode(Map.of("price", 0.1f)).get("price"));
+        assertEquals(
+                new Decimal128(new BigDecimal("0.10000000000000000001")),
+                codec.encode(Map.of("price", new BigDecimal("0.10000000000000000001"))).get("price"));
+        assertEquals(
+                new Decimal128(new BigDecimal("123456789012345678901234567890")),
+                codec.encode(Map.of("count", new BigInteger("123456789012345678901234567890"))).get("count"));
+    }
+
+    @Test
+    void encode_withDecimal128StoresEveryNumberAsDecimal() {
+        RecordCodec codec = RecordCodec.compile(1, FIELDS, NumberStorage.DECIMAL128);
+
+        Document document = codec.encode(Map.of("count", 5, "price", 19.99));
+
+        assertEquals(new Decimal128(5), document.get("count"));
+        assertEquals(new Decimal128(new BigDecimal("19.99")), document.get("price"));
+        assertEquals(new BigDecimal("19.99"), codec.decode(document).get("price"));
+    }
+
+    @Test
+    void encodeAndDecode_roundTripNestedObjectsAndArrayItems() {
+        RecordCodec codec = RecordCodec.compile(1, FIELDS, NumberStorage.NATIVE);
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("age", 30L);
+        profile.put("nickname", "al");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("profile", profile);
+        data.put("items", List.of(Map.of("qty", new BigDecimal("0.10000000000000000001"))));
+        data.put("notes", Map.of("pinned", true));
+
+        Document document = codec.encode(data);
+
+        Document storedProfile = document.get("profile", Document.class);
+        assertEquals(30, storedProfile.get("age"));
+        assertEquals("al", storedProfile.get("nickname"));
+        assertInstanceOf(Decimal128.class, document.getList("items", Document.class).getFirst().get("qty"));
+        assertInstanceOf(Document.class, document.get("notes"));
+        assertFalse(document.containsKey("_class"));
+
+        Map<String, Object> decoded = codec.decode(document);
+        assertSame(document, decoded);
+        assertEquals(
+                new BigDecimal("0.10000000000000000001"),
+                document.getList("items", Document.class).getFirst().get("qty"));
+    }
+
+    @Test
+    void encode_convertsDateValuesAndLeavesOtherFieldsAsGiven() {
+        RecordCodec codec = RecordCodec.compile(1, FIELDS, NumberStorage.NATIVE);
+        Instant due = Instant.parse("2026-05-01T10:00:00Z");
+
+        Document typed = codec.encode(Map.of("dueAt", due, "count", "many", "extra", 5L));
+        Document text = codec.encode(Map.of("dueAt", "2026-05-01T12:00:00+02:00"));
+        Document invalid = codec.encode(Map.of("dueAt", "soon"));
+
+        assertEquals(Date.from(due), typed.get("dueAt"));
+        assertEquals("many", typed.get("count"));
+        assertEquals(5L, typed.get("extra"));
+        assertEquals(Date.from(due), text.get("dueAt"));
+        assertEquals("soon", invalid.get("dueAt"));
+    }
+
+    @Test
+    void decode_upgradesRecordsStampedBeforeTheLatestMigrationOnce() {
+        MigrationStep rename = new MigrationStep();
+        rename.setOperation(MigrationStep.Operation.RENAME);
+        rename.setField("qty");
+        rename.setTo("count");
+        SchemaMigration migration = new SchemaMigration();
+        migration.setVersion(2);
+        migration.setSteps(List.of(rename));
+        RecordCodec codec = RecordCodec.compile(3, FIELDS, NumberStorage.NATIVE, List.of(migration));
+        Document unstamped = new Document("qty", new Decimal128(new BigDecimal("0.10000000000000000001")));
+        Document current = new Document("qty", 1).append("schemaVersion", 2);
+
+        codec.decode(unstamped);
+        codec.decode(unstamped);
+        codec.decode(current);
+
+        assertEquals(2, codec.migratedVersion());
+        assertEquals(new BigDecimal("0.10000000000000000001"), unstamped.get("count"));
+        assertEquals(3, unstamped.get("schemaVersion"));
+        assertEquals(new Document("qty", 1).append("schemaVersion", 2), current);
+    }
+
+    @Test
+    void forSchema_recompilesWhenThePublishedVersionChanges() {
+        RecordCodecs codecs = new RecordCodecs(new RecordCodecProperties());
+        SchemaVersion first = schema(1, field("count", FieldType.NUMBER));
+        SchemaVersion second = schema(2, field("count", FieldType.STRING));
+
+        RecordCodec compiled = codecs.forSchema(first);
+
+        assertSame(compiled, codecs.forSchema(first));
+        assertEquals(2, codecs.forSchema(second).version());
+        assertEquals(5L, codecs.forSchema(second).encode(Map.of("count", 5L)).get("count"));
+    }
+
+    private static SchemaVersion schema(int version, FieldDefinition... fields) {
+        SchemaVersion schema = new SchemaVersion();
+        schema.setEntityName("tasks");
+        schema.setVersion(version);
+        schema.setFields(List.of(fields));
+        return schema;
+    }
+
+    private static FieldDefinition object(String name, FieldType type, FieldDefinition... subFields) {
+        FieldDefinition definition = field(name, type);
+        definition.setSubFields(List.of(subFields));
+        return definition;
+    }
+
+    private static FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
@@ -0,0 +1,256 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.PayloadLimitProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.domain.exception.PayloadTooLargeException;
+import com.dynapi.domain.exception.ValidationException;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.FormSubmissionRequest;
+import com.dynapi.dto.RecordMutationRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+@ExtendWith(MockitoExtension.class)
+class RecordPayloadReaderTest {
+    @Mock
+    private FormSubmissionService formSubmissionService;
+    @Mock
+    private DynamicRecordService dynamicRecordService;
+
+    private final RecordCodecs recordCodecs = new RecordCodecs(new RecordCodecProperties());
+    private final PayloadLimitProperties limits = new PayloadLimitProperties();
+    private final PayloadLimiter limiter = new PayloadLimiter(limits);
+    private RecordPayloadReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader =
+                new RecordPayloadReader(
+                        formSubmissionService,
+                        dynamicRecordService,
+                        recordCodecs,
+                        limiter,
+                        JsonMapper.builder().build());
+    }
+
+    @Test
+    void readMutation_encodesDataAgainstThePublishedSchemaWhileReading() {
+        SchemaVersion schema = schema();
+        when(dynamicRecordService.payloadSchema("tasks")).thenReturn(schema);
+
+        RecordMutationRequest request =
+                reader.readMutation(
+                        body(
+                                """
+                                        {"ignored": [1, {"a": 2}], "data": {
+                                          "count": 5, "price": 0.10000000000000000001,
+                                          "dueAt": "2026-05-01T12:00:00+02:00",
+                                          "profile": {"age": 30, "nickname": "al"},
+                                          "items": [{"qty": 1.50}], "extra": 5000000000
+                                        }}
+                                        """),
+                        -1,
+                        "tasks");
+
+        IngestedDocument data = assertInstanceOf(IngestedDocument.class, request.data());
+        assertSame(schema, data.schema());
+        assertEquals(5, data.get("count"));
+        assertEquals(new Decimal128(new BigDecimal("0.10000000000000000001")), data.get("price"));
+        assertEquals(Date.from(Instant.parse("2026-05-01T10:00:00Z")), data.get("dueAt"));
+        assertEquals(new Document("age", 30).append("nickname", "al"), data.get("profile"));
+        assertEquals(List.of(new Document("qty", 1.5)), data.get("items"));
+        assertEquals(5_000_000_000L, data.get("extra"));
+        assertSame(data, recordCodecs.forSchema(schema).encode(data));
+    }
+
+    @Test
+    void readMutation_rejectsMistypedValueByPathBeforeReadingOn() {
+        when(dynamicRecordService.payloadSchema("tasks")).thenReturn(schema());
+
+        ValidationException ex =
+                assertThrows(
+                        ValidationException.class,
+                        () ->
+                                reader.readMutation(
+                                        body("{\"data\": {\"items\": [{\"qty\": 1}, {\"qty\": \"2\"}], \"x\": [}"),
+                                        -1,
+                                        "tasks"));
+
+        assertEquals("items[1].qty", ex.getField());
+        assertEquals("Must be a number", ex.getMessage());
+    }
+
+    @Test
+    void readMutation_rejectsDatesThatAreNotIsoDates() {
+        when(dynamicRecordService.payloadSchema("tasks")).thenReturn(schema());
+
+        ValidationException ex =
+                assertThrows(
+                        ValidationException.class,
+                        () -> reader.readMutation(body("{\"data\": {\"dueAt\": \"soon\"}}"), -1, "tasks"));
+
+        assertEquals("dueAt", ex.getField());
+        assertEquals("Must be an ISO-8601 date or date-time", ex.getMessage());
+    }
+
+    @Test
+    void readSubmission_readsDataUntypedWhenTheGroupIsNotKnownYet() {
+        FormSubmissionRequest request =
+                reader.readSubmission(
+                        body("{\"data\": {\"count\": 1.0, \"tags\": [\"a\"]}, \"group\": \"task-form\"}"), -1);
+
+        assertEquals("task-form", request.group());
+        assertFalse(request.data() instanceof IngestedDocument);
+        assertEquals(new Document("count", 1.0).append("tags", List.of("a")), request.data());
+    }
+
+    @Test
+    void readSubmission_readsDataTypedWhenTheGroupComesFirst() {
+        when(formSubmissionService.payloadSchema("task-form")).thenReturn(schema());
+
+        FormSubmissionRequest request =
+                reader.readSubmission(body("{\"group\": \"task-form\", \"data\": {\"count\": 1.0}}"), -1);
+
+        assertInstanceOf(IngestedDocument.class, request.data());
+        assertEquals(1, request.data().get("count"));
+    }
+
+    @Test
+    void readSubmission_keepsMissingFieldsNullForBeanValidation() {
+        FormSubmissionRequest request = reader.readSubmission(body("{\"data\": null}"), -1);
+
+        assertNull(request.group());
+        assertNull(request.data());
+    }
+
+    @Test
+    void readMutation_rejectsDeclaredLengthOverTheEntityLimitBeforeReading() {
+        PayloadLimitProperties.EntityLimits tasks = new PayloadLimitProperties.EntityLimits();
+        tasks.setMaxBytes(DataSize.ofBytes(64));
+        limits.setEntities(Map.of("tasks", tasks));
+
+        PayloadTooLargeException ex =
+                assertThrows(
+                        PayloadTooLargeException.class,
+                        () -> reader.readMutation(InputStream.nullInputStream(), 65, "tasks"));
+
+        assertEquals("max-bytes", ex.getLimit());
+        assertEquals(64, ex.getMaxValue());
+        assertEquals(Map.of("tasks", 1L), limiter.stats().byEntity());
+    }
+
+    @Test
+    void readSubmission_rejectsBodyGrowingPastMaxBytesWhileReading() {
+        limits.setMaxBytes(DataSize.ofKilobytes(1));
+        String body = "{\"group\": \"task-form\", \"data\": {\"notes\": \"" + "x".repeat(64_000) + "\"}}";
+
+        PayloadTooLargeException ex =
+                assertThrows(PayloadTooLargeException.class, () -> reader.readSubmission(body(body), -1));
+
+        assertEquals("max-bytes", ex.getLimit());
+        assertEquals(1, limiter.stats().rejected());
+        assertEquals(Map.of(), limiter.stats().byEntity());
+    }
+
+    @Test
+    void readMutation_enforcesDepthKeyAndArrayLimitsWhileReading() {
+        limits.setMaxDepth(2);
+        limits.setMaxKeysPerObject(2);
+        limits.setMaxArrayLength(2);
+
+        assertEquals(
+                "max-depth",
+                assertThrows(
+                                PayloadTooLargeException.class,
+                                () -> reader.readMutation(body("{\"data\": {\"a\": {\"b\": [1]}}}"), -1, "tasks"))
+                        .getLimit());
+        assertEquals(
+                "max-keys-per-object",
+                assertThrows(
+                                PayloadTooLargeException.class,
+                                () -> reader.readMutation(body("{\"data\": {\"a\": 1, \"b\": 2, \"c\": 3}}"), -1, "tasks"))
+                        .getLimit());
+        assertEquals(
+                "max-array-length",
+                assertThrows(
+                                PayloadTooLargeException.class,
+                                () -> reader.readMutation(body("{\"data\": {\"a\": [1, 2, 3]}}"), -1, "tasks"))
+                        .getLimit());
+        assertEquals(
+                Map.of("max-array-length", 1L, "max-depth", 1L, "max-keys-per-object", 1L),
+                limiter.stats().byLimit());
+    }
+
+    @Test
+    void readMutation_rejectsArrayLongerThanItsDeclaredMax() {
+        SchemaVersion schema = schema();
+        schema.getFields().get(4).setMax(1.0);
+        when(dynamicRecordService.payloadSchema("tasks")).thenReturn(schema);
+
+        ValidationException ex =
+                assertThrows(
+                        ValidationException.class,
+                        () ->
+                                reader.readMutation(
+                                        body("{\"data\": {\"items\": [{\"qty\": 1}, {\"qty\": 2}]}}"), -1, "tasks"));
+
+        assertEquals("items", ex.getField());
+        assertEquals("Array size must be <= 1", ex.getMessage());
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SchemaVersion schema() {
+        FieldDefinition profile = field("profile", FieldType.OBJECT);
+        profile.setSubFields(List.of(field("age", FieldType.NUMBER)));
+        FieldDefinition items = field("items", FieldType.ARRAY);
+        items.setSubFields(List.of(field("qty", FieldType.NUMBER)));
+        SchemaVersion schema = new SchemaVersion();
+        schema.setEntityName("tasks");
+        schema.setVersion(1);
+        schema.setFields(
+                List.of(
+                        field("count", FieldType.NUMBER),
+                        field("price", FieldType.NUMBER),
+                        field("dueAt", FieldType.DATE),
+                        profile,
+                        items));
+        return schema;
+    }
+
+    private static FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
@@ -0,0 +1,217 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.config.RecordValidationProperties;
+import com.dynapi.domain.exception.EntityNotFoundException;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.validation.DynamicValidator;
+import com.dynapi.dto.RevalidationJobStatus;
+import com.dynapi.dto.SchemaViolationSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+class RecordRevalidationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @Captor
+    private ArgumentCaptor<Collection<Document>> reports;
+
+    private final RecordValidationProperties properties = new RecordValidationProperties();
+    private final SchemaVersion schema = new SchemaVersion();
+    private RecordRevalidationService service;
+
+    @BeforeEach
+    void setUp() {
+        service =
+                new RecordRevalidationService(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        new RecordCodecs(new RecordCodecProperties()),
+                        new DynamicValidator(),
+                        properties);
+        properties.setWorkers(3);
+        properties.setQueueCapacity(2);
+        properties.setMaxRecordsPerSecond(0);
+
+        FieldDefinition title = new FieldDefinition();
+        title.setFieldName("title");
+        title.setType(FieldType.STRING);
+        title.setRequired(true);
+        schema.setEntityName("tasks");
+        schema.setVersion(4);
+        schema.setFields(List.of(title));
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(schema);
+        when(mongoTemplate.indexOps(RecordRevalidationService.REPORT_COLLECTION)).thenReturn(indexOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void start_reportsInvalidRecordsInBatchesAndCompletes() throws InterruptedException {
+        properties.setReportBatchSize(2);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(
+                        Stream.concat(
+                                IntStream.range(0, 7).mapToObj(i -> new Document("_id", "ok-" + i).append("title", "Ship")),
+                                IntStream.range(0, 3).mapToObj(i -> new Document("_id", "untitled-" + i))));
+
+        RevalidationJobStatus status = await(service.start("tasks", 50).id());
+
+        assertEquals("COMPLETED", status.state());
+        assertEquals(4, status.schemaVersion());
+        assertEquals(10, status.scanned());
+        assertEquals(3, status.invalid());
+        assertEquals(
+                List.of("title", "Field is required", 3L),
+                List.of(
+                        status.violations().getFirst().path(),
+                        status.violations().getFirst().rule(),
+                        status.violations().getFirst().count()));
+        assertTrue(status.recordsPerSecond() > 0);
+
+        verify(mongoTemplate, times(2)).insert(reports.capture(), eq(RecordRevalidationService.REPORT_COLLECTION));
+        List<Document> written = reports.getAllValues().stream().flatMap(Collection::stream).toList();
+        assertEquals(3, written.size());
+        Document report = written.getFirst();
+        assertEquals(status.id(), report.getString("jobId"));
+        assertEquals("tasks", report.getString("entity"));
+        assertTrue(report.getString("recordId").startsWith("untitled-"));
+        assertEquals("Field is required", report.getString("rule"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(50, query.getValue().getMeta().getCursorBatchSize());
+        assertTrue(query.getValue().getQueryObject().toJson().contains("\"deleted\": {\"$ne\": true}"));
+    }
+
+    @Test
+    void start_insertsReportBatchesWithoutHoldingUpOtherWorkers() throws InterruptedException {
+        properties.setReportBatchSize(1);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(IntStream.range(0, 2).mapToObj(i -> new Document("_id", "untitled-" + i)));
+        CountDownLatch inserting = new CountDownLatch(2);
+        AtomicInteger overlapping = new AtomicInteger();
+        when(mongoTemplate.insert(any(Collection.class), eq(RecordRevalidationService.REPORT_COLLECTION)))
+                .thenAnswer(
+                        invocation -> {
+                            inserting.countDown();
+                            if (inserting.await(5, TimeUnit.SECONDS)) {
+                                overlapping.incrementAndGet();
+                            }
+                            return invocation.getArgument(0);
+                        });
+
+        RevalidationJobStatus status = await(service.start("tasks", null).id());
+
+        assertEquals(2, status.invalid());
+        assertEquals(2, overlapping.get());
+    }
+
+    @Test
+    void cancel_stopsARunningJobAndOnlyOneJobRunsPerEntity() throws InterruptedException {
+        properties.setMaxRecordsPerSecond(1000);
+        AtomicInteger ids = new AtomicInteger();
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(Stream.generate(() -> new Document("_id", ids.incrementAndGet()).append("title", "Ship")));
+
+        RevalidationJobStatus started = service.start("tasks", null);
+        assertEquals("RUNNING", started.state());
+        assertThrows(IllegalArgumentException.class, () -> service.start("tasks", null));
+
+        service.cancel(started.id());
+        RevalidationJobStatus status = await(started.id());
+
+        assertEquals("CANCELLED", status.state());
+        assertEquals(0, status.invalid());
+        assertEquals(List.of(status), service.jobs());
+        verify(mongoTemplate, never()).insert(any(Collection.class), eq(RecordRevalidationService.REPORT_COLLECTION));
+    }
+
+    @Test
+    void start_capsTheRateRecordsAreReadAt() throws InterruptedException {
+        properties.setMaxRecordsPerSecond(20);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(IntStream.range(0, 6).mapToObj(i -> new Document("_id", i).append("title", "Ship")));
+
+        long started = System.nanoTime();
+        RevalidationJobStatus status = await(service.start("tasks", null).id());
+
+        // Six records at twenty per second: the last is read 250 ms after the first.
+        assertEquals(6, status.scanned());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 250);
+        assertTrue(status.recordsPerSecond() <= 24, "throughput " + status.recordsPerSecond());
+    }
+
+    @Test
+    void start_dropsTheOldestFinishedJobsWithTheirReports() throws InterruptedException {
+        properties.setRetainedJobs(1);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenAnswer(invocation -> Stream.of(new Document("_id", "untitled")));
+
+        String first = await(service.start("tasks", null).id()).id();
+        String second = await(service.start("tasks", null).id()).id();
+        String third = service.start("tasks", null).id();
+        await(third);
+
+        assertThrows(EntityNotFoundException.class, () -> service.status(first));
+        assertEquals(List.of(third, second), service.jobs().stream().map(RevalidationJobStatus::id).toList());
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(RecordRevalidationService.REPORT_COLLECTION));
+        assertEquals(first, removed.getValue().getQueryObject().getString("jobId"));
+        List<SchemaViolationSummary> violations = service.status(second).violations();
+        assertEquals(List.of("untitled"), violations.getFirst().exampleIds());
+    }
+
+    private RevalidationJobStatus await(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        RevalidationJobStatus status = service.status(jobId);
+        while ("RUNNING".equals(status.state()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.status(jobId);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,202 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.RecordCacheProperties;
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.config.SchemaMigrationProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationCheckpoint;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaMigration;
+import com.dynapi.domain.model.SchemaVersion;
+import com.mongodb.bulk.BulkWriteResult;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaDataMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final EntityWriteGenerations writeGenerations = new EntityWriteGenerations();
+    private final SchemaMigrationProperties properties = new SchemaMigrationProperties();
+    private final SchemaVersion schema = new SchemaVersion();
+    private SchemaDataMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration =
+                new SchemaDataMigration(
+                        mongoTemplate,
+                        schemaLifecycleService,
+                        new RecordCodecs(new RecordCodecProperties()),
+                        new RecordCache(new RecordCacheProperties()),
+                        writeGenerations,
+                        properties);
+        properties.setBatchPause(Duration.ZERO);
+
+        MigrationStep rename = new MigrationStep();
+        rename.setOperation(MigrationStep.Operation.RENAME);
+        rename.setField("qty");
+        rename.setTo("count");
+        SchemaMigration renameQty = new SchemaMigration();
+        renameQty.setVersion(2);
+        renameQty.setSteps(List.of(rename));
+        schema.setEntityName("tasks");
+        schema.setVersion(3);
+        schema.setFields(List.of(field("count", FieldType.NUMBER)));
+        schema.setMigrations(List.of(renameQty));
+        when(schemaLifecycleService.latestPublished("tasks")).thenReturn(schema);
+    }
+
+    @Test
+    void migrate_replacesOutdatedRecordsInBulkAndCompletesTheCheckpoint() {
+        properties.setBatchSize(1);
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        Date created = new Date();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(List.of(new Document("_id", first).append("qty", 5).append("createdAt", created)))
+                .thenReturn(List.of(new Document("_id", second).append("qty", 6).append("schemaVersion", 1)))
+                .thenReturn(List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "tasks")).thenReturn(bulkOperations);
+        BulkWriteResult changed = mock(BulkWriteResult.class);
+        when(changed.getModifiedCount()).thenReturn(1);
+        BulkWriteResult raced = mock(BulkWriteResult.class);
+        when(bulkOperations.execute()).thenReturn(changed).thenReturn(raced);
+
+        assertEquals(1, migration.migrate("tasks"));
+
+        ArgumentCaptor<Query> targets = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Object> replacements = ArgumentCaptor.forClass(Object.class);
+        verify(bulkOperations, times(2)).replaceOne(targets.capture(), replacements.capture());
+        assertEquals(
+                new Document("_id", first).append("schemaVersion", null),
+                targets.getAllValues().getFirst().getQueryObject());
+        assertEquals(
+                new Document("_id", second).append("schemaVersion", 1),
+                targets.getAllValues().get(1).getQueryObject());
+        assertEquals(
+                new Document("count", 5).append("_id", first).append("createdAt", created).append("schemaVersion", 3),
+                replacements.getAllValues().getFirst());
+
+        ArgumentCaptor<MigrationCheckpoint> checkpoints = ArgumentCaptor.forClass(MigrationCheckpoint.class);
+        verify(mongoTemplate, times(3)).save(checkpoints.capture());
+        MigrationCheckpoint completed = checkpoints.getValue();
+        assertEquals(3, completed.getTargetVersion());
+        assertEquals(second, completed.getLastId());
+        assertEquals(1, completed.getMigrated());
+        assertEquals(1, completed.getSkipped());
+        assertNotNull(completed.getCompletedAt());
+        assertEquals(1, writeGenerations.current("tasks"));
+
+        String firstRead = readQueries().getFirst().getQueryObject().toJson();
+        assertTrue(firstRead.contains("\"schemaVersion\": {\"$exists\": false}"));
+        assertTrue(firstRead.contains("\"schemaVersion\": {\"$lt\": 2}"));
+    }
+
+    @Test
+    void migrate_resumesAfterTheCheckpointOfThePublishedVersion() {
+        ObjectId lastId = new ObjectId();
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+        checkpoint.setEntity("tasks");
+        checkpoint.setTargetVersion(3);
+        checkpoint.setLastId(lastId);
+        checkpoint.setMigrated(7);
+        when(mongoTemplate.findById("tasks", MigrationCheckpoint.class)).thenReturn(checkpoint);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks"))).thenReturn(List.of());
+
+        assertEquals(0, migration.migrate("tasks"));
+
+        assertTrue(readQueries().getFirst().getQueryObject().toJson().contains(lastId.toHexString()));
+        verify(mongoTemplate).save(checkpoint);
+        assertEquals(7, checkpoint.getMigrated());
+        assertNotNull(checkpoint.getCompletedAt());
+
+        // A completed checkpoint is not scanned again for the same version.
+        assertEquals(0, migration.migrate("tasks"));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("tasks"));
+    }
+
+    @Test
+    void migrate_runsOffTheSchedulerThreadAndSkipsTriggersWhileRunning() {
+        properties.setBatchSize(1);
+        properties.setBatchPause(Duration.ofMinutes(1));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("entityName"), eq(SchemaVersion.class), eq(String.class)))
+                .thenReturn(List.of("tasks"));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(List.of(new Document("_id", new ObjectId()).append("qty", 5)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "tasks")).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(mock(BulkWriteResult.class));
+
+        long started = System.nanoTime();
+        migration.migrate();
+        // The first batch is written and the run pauses before the next one.
+        verify(mongoTemplate, timeout(5000)).save(any(MigrationCheckpoint.class));
+        migration.migrate();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(30)) < 0);
+        verify(mongoTemplate, times(1))
+                .findDistinct(any(Query.class), eq("entityName"), eq(SchemaVersion.class), eq(String.class));
+        migration.shutdown();
+    }
+
+    @Test
+    void migrate_skipsEntitiesWithoutDeclaredMigrations() {
+        schema.setMigrations(List.of());
+
+        assertEquals(0, migration.migrate("tasks"));
+
+        verifyNoInteractions(mongoTemplate);
+        verify(bulkOperations, never()).execute();
+    }
+
+    private List<Query> readQueries() {
+        ArgumentCaptor<Query> reads = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce())
+                .find(reads.capture(), eq(Document.class), eq("tasks"));
+        return reads.getAllValues();
+    }
+
+    private FieldDefinition field(String name, FieldType type) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        return definition;
+    }
+}
@@ -0,0 +1,150 @@
+package com.dynapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dynapi.config.RecordCodecProperties;
+import com.dynapi.config.RecordValidationProperties;
+import com.dynapi.domain.model.FieldDefinition;
+import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
+import com.dynapi.domain.model.SchemaMigration;
+import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.domain.validation.DynamicValidator;
+import com.dynapi.dto.SchemaDryRunReport;
+import com.dynapi.dto.SchemaViolationSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaDryRunServiceTest {
+
+    @Mock
+    private SchemaLifecycleService schemaLifecycleService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final RecordValidationProperties properties = new RecordValidationProperties();
+    private final SchemaVersion candidate = new SchemaVersion();
+    private SchemaDryRunService service;
+
+    @BeforeEach
+    void setUp() {
+        service =
+                new SchemaDryRunService(
+                        schemaLifecycleService,
+                        new RecordCodecs(new RecordCodecProperties()),
+                        new DynamicValidator(),
+                        mongoTemplate,
+                        properties);
+        properties.setWorkers(3);
+        properties.setQueueCapacity(2);
+        properties.setMaxExamples(2);
+
+        FieldDefinition qty = field("qty", FieldType.NUMBER, true);
+        FieldDefinition items = field("items", FieldType.ARRAY, false);
+        items.setSubFields(List.of(qty));
+        candidate.setEntityName("tasks");
+        candidate.setVersion(3);
+        candidate.setFields(List.of(field("title", FieldType.STRING, true), items));
+    }
+
+    @Test
+    void dryRun_validatesEveryRecordInParallelAndAggregatesViolations() {
+        when(schemaLifecycleService.candidate("task-form", null)).thenReturn(candidate);
+        List<Document> documents = new ArrayList<>();
+        IntStream.range(0, 20).forEach(i -> documents.add(new Document("_id", "ok-" + i).append("title", "Ship")));
+        IntStream.range(0, 5).forEach(i -> documents.add(new Document("_id", "untitled-" + i)));
+        documents.add(
+                new Document("_id", "bad-item")
+                        .append("title", "Ship")
+                        .append("items", List.of(new Document("qty", 1), new Document("qty", "two"))));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tasks")))
+                .thenReturn(documents.stream());
+
+        SchemaDryRunReport report = service.dryRun("task-form", null, null);
+
+        assertEquals("tasks", report.entity());
+        assertEquals(3, report.candidateVersion());
+        assertFalse(report.sampled());
+        assertEquals(26, report.scanned());
+        assertEquals(6, report.invalid());
+        SchemaViolationSummary missingTitle = report.violations().getFirst();
+        assertEquals("title", missingTitle.path());
+        assertEquals("Field is required", missingTitle.rule());
+        assertEquals(5, missingTitle.count());
+        assertEquals(2, missingTitle.exampleIds().size());
+        assertEquals(
+                new SchemaViolationSummary("items[].qty", "Must be a number", 1, List.of("bad-item")),
+                report.violations().get(1));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq("tasks"));
+        assertEquals(new Document("deleted", new Document("$ne", true)), query.getValue().getQueryObject());
+    }
+
+    @Test
+    void dryRun_validatesSampledRecordsAfterTheCandidateMigrations() {
+        MigrationStep rename = new MigrationStep();
+        rename.setOperation(MigrationStep.Operation.RENAME);
+        rename.setField("name");
+        rename.setTo("title");
+        SchemaMigration migration = new SchemaMigration();
+        migration.setVersion(3);
+        migration.setSteps(List.of(rename));
+        candidate.setMigrations(List.of(migration));
+        when(schemaLifecycleService.candidate("task-form", List.of(rename))).thenReturn(candidate);
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+                .thenReturn(Stream.of(new Document("_id", 1).append("name", "Ship").append("schemaVersion", 2)));
+
+        SchemaDryRunReport report = service.dryRun("task-form", List.of(rename), 10);
+
+        assertTrue(report.sampled());
+        assertEquals(1, report.scanned());
+        assertEquals(0, report.invalid());
+        ArgumentCaptor<Aggregation> sample = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregateStream(sample.capture(), eq("tasks"), eq(Document.class));
+        Document stage = sample.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(1);
+        assertEquals(10L, stage.get("$sample", Document.class).get("size", Number.class).longValue());
+    }
+
+    @Test
+    void dryRun_rejectsSampleSizesOutOfRange() {
+        properties.setMaxSampleSize(100);
+
+        assertThrows(IllegalArgumentException.class, () -> service.dryRun("task-form", null, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.dryRun("task-form", null, 101));
+
+        verifyNoInteractions(schemaLifecycleService, mongoTemplate);
+    }
+
+    private FieldDefinition field(String name, FieldType type, boolean required) {
+        FieldDefinition definition = new FieldDefinition();
+        definition.setFieldName(name);
+        definition.setType(type);
+        definition.setRequired(required);
+        return definition;
+    }
+}
@@ -1,22 +1,30 @@
 package com.dynapi.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dynapi.domain.model.CompoundIndexDefinition;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
 import com.dynapi.domain.model.SchemaLifecycleStatus;
 import com.dynapi.domain.model.SchemaVersion;
+import com.dynapi.dto.SchemaIndexPlanAction;
 import com.dynapi.dto.SchemaIndexSyncResult;
+import com.mongodb.MongoException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.bson.Document;
@@ -24,9 +32,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.IndexDefinition;
 import org.springframework.data.mongodb.core.index.IndexField;
@@ -60,17 +70,27 @@ class SchemaIndexServiceTest {
         SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
 
         ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
-        verify(indexOperations, times(3)).ensureIndex(captor.capture());
+        verify(indexOperations, times(4)).ensureIndex(captor.capture());
 
         boolean emailUniqueSeen = false;
         boolean priorityIndexSeen = false;
         boolean cityIndexSeen = false;
+        boolean changesIndexSeen = false;
 
         for (IndexDefinition definition : captor.getAllValues()) {
             Document keys = definition.getIndexKeys();
             String key = keys.keySet().iterator().next();
             Document options = definition.getIndexOptions();
 
+            if ("updatedAt".equals(key)) {
+                // Change feeds must also see deleted records, so this index is not partial.
+                changesIndexSeen = true;
+                assertEquals(new Document("updatedAt", 1).append("_id", 1), keys);
+                assertEquals("dynapi_users_changes", options.get("name"));
+                assertFalse(options.containsKey("partialFilterExpression"));
+                continue;
+            }
+
             if ("email".equals(key)) {
                 emailUniqueSeen = true;
                 assertEquals(1, keys.get("email"));
@@ -89,11 +109,12 @@ class SchemaIndexServiceTest {
         assertTrue(emailUniqueSeen);
         assertTrue(priorityIndexSeen);
         assertTrue(cityIndexSeen);
+        assertTrue(changesIndexSeen);
 
         assertEquals("users", result.entity());
         assertEquals(2, result.schemaVersion());
-        assertEquals(3, result.requestedIndexes());
-        assertEquals(3, result.ensuredIndexes());
+        assertEquals(4, result.requestedIndexes());
+        assertEquals(4, result.ensuredIndexes());
         assertEquals(List.of("email"), result.uniqueFields());
         assertEquals(List.of("priority", "profile.city"), result.indexedFields());
     }
@@ -121,17 +142,304 @@ class SchemaIndexServiceTest {
     }
 
     @Test
-    void syncIndexes_returnsEmptyWhenSchemaHasNoIndexedFields() {
+    void syncIndexes_dropsStaleManagedIndexesWhenSchemaHasNoIndexedFields() {
         when(schemaLifecycleService.latestPublished("users"))
                 .thenReturn(publishedSchemaWithoutIndexFlags());
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(
+                                indexInfo("_id_", false, "_id"),
+                                indexInfo("dynapi_users_priority_idx", false, "priority"),
+                                indexInfo("legacy_name_1", false, "name"),
+                                changesIndexInfo()));
+
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
+
+        assertEquals(1, result.requestedIndexes());
+        assertEquals(1, result.ensuredIndexes());
+        assertEquals(
+                List.of("KEEP", "DROP"),
+                result.plan().stream().map(SchemaIndexPlanAction::action).toList());
+        assertEquals("dynapi_users_priority_idx", result.plan().getLast().name());
+        verify(indexOperations).dropIndex("dynapi_users_priority_idx");
+        verify(indexOperations, never()).dropIndex("_id_");
+        verify(indexOperations, never()).dropIndex("legacy_name_1");
+        verify(indexOperations, never()).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void syncIndexes_dryRunReportsPlanWithoutTouchingIndexes() {
+        when(schemaLifecycleService.latestPublished("users")).thenReturn(publishedSchemaWithIndexes());
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(
+                                indexInfo("dynapi_users_email_uniq", true, "email"),
+                                indexInfo("dynapi_users_old_idx", false, "old"),
+                                changesIndexInfo()));
+
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users", true);
+
+        assertTrue(result.dryRun());
+        assertEquals(4, result.requestedIndexes());
+        assertEquals(2, result.ensuredIndexes());
+        assertEquals(
+                List.of("CREATE", "CREATE", "KEEP", "KEEP", "DROP"),
+                result.plan().stream().map(SchemaIndexPlanAction::action).toList());
+        assertEquals("dynapi_users_old_idx", result.plan().getLast().name());
+        verify(indexOperations, never()).ensureIndex(any(IndexDefinition.class));
+        verify(indexOperations, never()).dropIndex(anyString());
+    }
+
+    @Test
+    void syncIndexes_recreatesManagedIndexWhenUniquenessChanged() {
+        when(schemaLifecycleService.latestPublished("users"))
+                .thenReturn(publishedSchemaWithUniqueEmailOnly());
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(indexInfo("dynapi_users_email_idx", false, "email"), changesIndexInfo()));
+        when(indexOperations.ensureIndex(any(IndexDefinition.class))).thenReturn("ok");
+
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
+
+        assertEquals(
+                List.of("CREATE", "KEEP", "DROP"),
+                result.plan().stream().map(SchemaIndexPlanAction::action).toList());
+        InOrder inOrder = inOrder(indexOperations);
+        inOrder.verify(indexOperations).ensureIndex(any(IndexDefinition.class));
+        inOrder.verify(indexOperations).dropIndex("dynapi_users_email_idx");
+    }
+
+    @Test
+    void syncIndexes_keepsReplacedIndexWhenReplacementCannotBeCreated() {
+        when(schemaLifecycleService.latestPublished("users"))
+                .thenReturn(publishedSchemaWithUniqueEmailOnly());
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(indexInfo("dynapi_users_email_idx", false, "email"), changesIndexInfo()));
+        when(indexOperations.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(new UncategorizedMongoDbException("E11000 duplicate key", new MongoException(11000, "dup")));
+
+        assertThrows(
+                UncategorizedMongoDbException.class, () -> schemaIndexService.syncIndexes("users"));
+
+        verify(indexOperations, never()).dropIndex(anyString());
+    }
+
+    @Test
+    void syncIndexes_dropsFirstAndRestoresWhenServerRefusesIndexesDifferingOnlyInUniqueness() {
+        when(schemaLifecycleService.latestPublished("users"))
+                .thenReturn(publishedSchemaWithUniqueEmailOnly());
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(indexInfo("dynapi_users_email_idx", false, "email"), changesIndexInfo()));
+        UncategorizedMongoDbException conflict =
+                new UncategorizedMongoDbException("conflict", new MongoException(85, "IndexOptionsConflict"));
+        UncategorizedMongoDbException duplicates =
+                new UncategorizedMongoDbException("E11000 duplicate key", new MongoException(11000, "dup"));
+        when(indexOperations.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(conflict)
+                .thenThrow(duplicates)
+                .thenReturn("dynapi_users_email_idx");
+
+        UncategorizedMongoDbException thrown =
+                assertThrows(
+                        UncategorizedMongoDbException.class, () -> schemaIndexService.syncIndexes("users"));
+
+        assertEquals(duplicates, thrown);
+        ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+        InOrder inOrder = inOrder(indexOperations);
+        inOrder.verify(indexOperations).ensureIndex(captor.capture());
+        inOrder.verify(indexOperations).dropIndex("dynapi_users_email_idx");
+        inOrder.verify(indexOperations, times(2)).ensureIndex(captor.capture());
+        verify(indexOperations, times(1)).dropIndex(anyString());
+        List<IndexDefinition> created = captor.getAllValues();
+        assertEquals("dynapi_users_email_uniq", created.get(0).getIndexOptions().get("name"));
+        assertEquals("dynapi_users_email_idx", created.get(2).getIndexOptions().get("name"));
+        assertFalse(created.get(2).getIndexOptions().containsKey("unique"));
+    }
+
+    @Test
+    void syncIndexes_createsCompoundIndexWithOrderedKeysAndPartialFilter() {
+        SchemaVersion published = publishedSchemaWithIndexes();
+        published.setCompoundIndexes(
+                List.of(compoundIndex("status-priority", "priority", "DESC", "profile.city", "ASC")));
+        when(schemaLifecycleService.latestPublished("users")).thenReturn(published);
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+        when(indexOperations.ensureIndex(any(IndexDefinition.class))).thenReturn("ok");
 
         SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
 
-        assertEquals(0, result.requestedIndexes());
-        assertEquals(0, result.ensuredIndexes());
+        ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations, times(5)).ensureIndex(captor.capture());
+        IndexDefinition compound = captor.getAllValues().getLast();
+        assertEquals(
+                List.of("priority", "profile.city"), List.copyOf(compound.getIndexKeys().keySet()));
+        assertEquals(-1, compound.getIndexKeys().get("priority"));
+        assertEquals(1, compound.getIndexKeys().get("profile.city"));
+        assertEquals("dynapi_users_status_priority_cidx", compound.getIndexOptions().get("name"));
+        assertTrue(compound.getIndexOptions().containsKey("partialFilterExpression"));
+        assertEquals(List.of("dynapi_users_status_priority_cidx"), result.compoundIndexes());
+    }
+
+    @Test
+    void syncIndexes_rejectsCompoundIndexOnUnknownPath() {
+        SchemaVersion published = publishedSchemaWithIndexes();
+        published.setCompoundIndexes(List.of(compoundIndex(null, "missing", "ASC", "priority", "ASC")));
+        when(schemaLifecycleService.latestPublished("users")).thenReturn(published);
+
+        IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> schemaIndexService.syncIndexes("users"));
+
+        assertTrue(ex.getMessage().contains("unknown field path"));
         verify(mongoTemplate, never()).indexOps(eq("users"));
     }
 
+    @Test
+    void syncIndexes_createsTextIndexOverSearchableFields() {
+        when(schemaLifecycleService.latestPublished("users"))
+                .thenReturn(publishedSchemaWithSearchableFields("bio", "notes"));
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+        when(indexOperations.ensureIndex(any(IndexDefinition.class))).thenReturn("ok");
+
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
+
+        ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations, times(3)).ensureIndex(captor.capture());
+        IndexDefinition text =
+                captor.getAllValues().stream()
+                        .filter(definition -> definition.getIndexKeys().containsKey("bio"))
+                        .findFirst()
+                        .orElseThrow();
+        assertEquals(new Document("bio", "text").append("notes", "text"), text.getIndexKeys());
+        assertEquals("dynapi_users_text", text.getIndexOptions().get("name"));
+        assertTrue(text.getIndexOptions().containsKey("partialFilterExpression"));
+        assertEquals(List.of("bio", "notes"), result.searchableFields());
+        assertEquals(List.of(), result.indexedFields());
+    }
+
+    @Test
+    void syncIndexes_dropsPreviousTextIndexBeforeCreatingNewOne() {
+        when(schemaLifecycleService.latestPublished("users"))
+                .thenReturn(publishedSchemaWithSearchableFields("bio", "notes"));
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(
+                                indexInfo("dynapi_users_email_uniq", true, "email"),
+                                textIndexInfo("dynapi_users_text", "bio"),
+                                changesIndexInfo()));
+        when(indexOperations.ensureIndex(any(IndexDefinition.class))).thenReturn("ok");
+
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
+
+        assertEquals(
+                List.of("DROP", "CREATE", "KEEP", "KEEP"),
+                result.plan().stream().map(SchemaIndexPlanAction::action).toList());
+        InOrder inOrder = inOrder(indexOperations);
+        inOrder.verify(indexOperations).dropIndex("dynapi_users_text");
+        inOrder.verify(indexOperations).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void syncIndexes_keepsTextIndexWithSameSearchableFields() {
+        when(schemaLifecycleService.latestPublished("users"))
+                .thenReturn(publishedSchemaWithSearchableFields("bio", "notes"));
+        when(mongoTemplate.indexOps("users")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo())
+                .thenReturn(
+                        List.of(
+                                indexInfo("dynapi_users_email_uniq", true, "email"),
+                                textIndexInfo("dynapi_users_text", "notes", "bio"),
+                                changesIndexInfo()));
+
+        SchemaIndexSyncResult result = schemaIndexService.syncIndexes("users");
+
+        assertEquals(
+                List.of("KEEP", "KEEP", "KEEP"),
+                result.plan().stream().map(SchemaIndexPlanAction::action).toList());
+        verify(indexOperations, never()).ensureIndex(any(IndexDefinition.class));
+        verify(indexOperations, never()).dropIndex(anyString());
+    }
+
+    @Test
+    void syncIndexes_rejectsSearchableNonStringField() {
+        SchemaVersion published = publishedSchemaWithSearchableFields("bio");
+        FieldDefinition priority = new FieldDefinition();
+        priority.setFieldName("priority");
+        priority.setType(FieldType.NUMBER);
+        priority.setSearchable(true);
+        published.setFields(List.of(priority));
+        when(schemaLifecycleService.latestPublished("users")).thenReturn(published);
+
+        IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> schemaIndexService.syncIndexes("users"));
+
+        assertTrue(ex.getMessage().contains("Text search is only supported for STRING fields"));
+    }
+
+    private IndexInfo textIndexInfo(String name, String... fields) {
+        Document weights = new Document();
+        for (String field : fields) {
+            weights.append(field, 1);
+        }
+        return IndexInfo.indexInfoOf(
+                new Document("key", new Document("_fts", "text").append("_ftsx", 1))
+                        .append("name", name)
+                        .append("weights", weights));
+    }
+
+    private SchemaVersion publishedSchemaWithSearchableFields(String... searchableFields) {
+        SchemaVersion published = publishedSchemaWithUniqueEmailOnly();
+        List<FieldDefinition> fields = new ArrayList<>(published.getFields());
+        for (String fieldName : searchableFields) {
+            FieldDefinition field = new FieldDefinition();
+            field.setFieldName(fieldName);
+            field.setType(FieldType.STRING);
+            field.setSearchable(true);
+            fields.add(field);
+        }
+        published.setFields(fields);
+        return published;
+    }
+
+    private IndexInfo changesIndexInfo() {
+        return indexInfo("dynapi_users_changes", false, "updatedAt", "_id");
+    }
+
+    private IndexInfo indexInfo(String name, boolean unique, String... fields) {
+        List<IndexField> indexFields =
+                Arrays.stream(fields)
+                        .map(field -> IndexField.create(field, Sort.Direction.ASC))
+                        .toList();
+        return new IndexInfo(indexFields, name, unique, false, "en");
+    }
+
+    private CompoundIndexDefinition compoundIndex(
+            String name,
+            String firstField,
+            String firstDirection,
+            String secondField,
+            String secondDirection) {
+        CompoundIndexDefinition.IndexKey first = new CompoundIndexDefinition.IndexKey();
+        first.setField(firstField);
+        first.setDirection(firstDirection);
+        CompoundIndexDefinition.IndexKey second = new CompoundIndexDefinition.IndexKey();
+        second.setField(secondField);
+        second.setDirection(secondDirection);
+
+        CompoundIndexDefinition definition = new CompoundIndexDefinition();
+        definition.setName(name);
+        definition.setKeys(List.of(first, second));
+        return definition;
+    }
+
     private SchemaVersion publishedSchemaWithIndexes() {
         FieldDefinition email = new FieldDefinition();
         email.setFieldName("email");
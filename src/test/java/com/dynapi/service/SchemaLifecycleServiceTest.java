@@ -5,21 +5,26 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.dynapi.domain.event.DomainEvent;
+import com.dynapi.domain.model.CompoundIndexDefinition;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldGroup;
 import com.dynapi.domain.model.FieldType;
+import com.dynapi.domain.model.MigrationStep;
 import com.dynapi.domain.model.SchemaLifecycleStatus;
+import com.dynapi.domain.model.SchemaMigration;
 import com.dynapi.domain.model.SchemaVersion;
 import com.dynapi.infrastructure.messaging.EventPublisher;
 import com.dynapi.repository.FieldDefinitionRepository;
 import com.dynapi.repository.FieldGroupRepository;
 import com.dynapi.repository.SchemaVersionRepository;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -129,6 +134,122 @@ class SchemaLifecycleServiceTest {
         assertEquals(SchemaLifecycleStatus.PUBLISHED, saved.get(1).getStatus());
     }
 
+    @Test
+    void publish_copiesCompoundIndexesIntoSnapshot() {
+        FieldGroup group = group("task-form", "tasks", List.of("title", "priority"));
+        group.setCompoundIndexes(List.of(compoundIndex("title", "priority")));
+
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(
+                        List.of(
+                                field("title", FieldType.STRING, true),
+                                field("priority", FieldType.NUMBER, false)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.empty());
+
+        SchemaVersion published = schemaLifecycleService.publish("task-form");
+
+        assertEquals(1, published.getCompoundIndexes().size());
+        assertEquals(
+                List.of("title", "priority"),
+                published.getCompoundIndexes().getFirst().getKeys().stream()
+                        .map(CompoundIndexDefinition.IndexKey::getField)
+                        .toList());
+    }
+
+    @Test
+    void publish_rejectsCompoundIndexOnUnknownPath() {
+        FieldGroup group = group("task-form", "tasks", List.of("title"));
+        group.setCompoundIndexes(List.of(compoundIndex("title", "missing")));
+
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(List.of(field("title", FieldType.STRING, true)));
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class, () -> schemaLifecycleService.publish("task-form"));
+
+        assertTrue(ex.getMessage().contains("unknown field path 'missing'"));
+    }
+
+    @Test
+    void addCompoundIndexes_publishesANewVersionAndLeavesTheFieldGroupAlone() {
+        SchemaVersion published =
+                schemaVersion(
+                        2,
+                        List.of(
+                                field("title", FieldType.STRING, true),
+                                field("priority", FieldType.NUMBER, false)));
+        CompoundIndexDefinition existing = compoundIndex("title");
+        existing.setName("by_title");
+        published.setCompoundIndexes(List.of(existing));
+        CompoundIndexDefinition recommended = compoundIndex("title", "priority");
+        recommended.setName("advisor_title_priority");
+
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(published));
+        when(schemaVersionRepository.findTopByEntityNameOrderByVersionDesc("tasks"))
+                .thenReturn(Optional.of(published));
+
+        SchemaVersion saved =
+                schemaLifecycleService.addCompoundIndexes("tasks", List.of(recommended, existing));
+
+        assertEquals(3, saved.getVersion());
+        assertEquals(SchemaLifecycleStatus.PUBLISHED, saved.getStatus());
+        assertEquals(
+                List.of("by_title", "advisor_title_priority"),
+                saved.getCompoundIndexes().stream().map(CompoundIndexDefinition::getName).toList());
+        assertEquals(
+                List.of("advisor_title_priority", "by_title"),
+                saved.getAppliedCompoundIndexes().stream().map(CompoundIndexDefinition::getName).toList());
+        assertEquals(SchemaLifecycleStatus.DEPRECATED, published.getStatus());
+        assertEquals(List.of(existing), published.getCompoundIndexes());
+        verify(fieldGroupRepository, never()).save(any(FieldGroup.class));
+        verify(eventPublisher).publishSchemaChange(any());
+    }
+
+    @Test
+    void publish_keepsAppliedCompoundIndexesWhileTheirFieldsExist() {
+        FieldGroup group = group("task-form", "tasks", List.of("title", "priority"));
+        CompoundIndexDefinition declared = compoundIndex("title");
+        declared.setName("by_title");
+        group.setCompoundIndexes(List.of(declared));
+        CompoundIndexDefinition applied = compoundIndex("title", "priority");
+        applied.setName("advisor_title_priority");
+        CompoundIndexDefinition orphaned = compoundIndex("owner");
+        orphaned.setName("advisor_owner");
+        SchemaVersion previous =
+                schemaVersion(
+                        2,
+                        List.of(
+                                field("title", FieldType.STRING, true),
+                                field("priority", FieldType.NUMBER, false)));
+        previous.setAppliedCompoundIndexes(List.of(applied, orphaned));
+
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(
+                        List.of(
+                                field("title", FieldType.STRING, true),
+                                field("priority", FieldType.NUMBER, false)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(previous));
+
+        SchemaVersion published = schemaLifecycleService.publish("task-form");
+
+        assertEquals(
+                List.of("by_title", "advisor_title_priority"),
+                published.getCompoundIndexes().stream().map(CompoundIndexDefinition::getName).toList());
+        assertEquals(
+                List.of("advisor_title_priority"),
+                published.getAppliedCompoundIndexes().stream().map(CompoundIndexDefinition::getName).toList());
+    }
+
     @Test
     void publish_rejectsRemovedFieldPath() {
         runBreakingPublishScenario(
@@ -216,6 +337,140 @@ class SchemaLifecycleServiceTest {
         runBreakingPublishScenario(List.of(previous), List.of(candidate), "regex changed");
     }
 
+    @Test
+    void publish_acceptsBreakingChangesJustifiedByMigrations() {
+        SchemaVersion previous =
+                schemaVersion(
+                        1,
+                        List.of(
+                                field("fullName", FieldType.STRING, true),
+                                field("priority", FieldType.STRING, false),
+                                field("legacy", FieldType.STRING, false)));
+        List<FieldDefinition> candidate =
+                List.of(
+                        field("name", FieldType.STRING, true),
+                        field("priority", FieldType.NUMBER, false),
+                        field("status", FieldType.STRING, true));
+        FieldGroup group = group("task-form", "tasks", List.of("name", "priority", "status"));
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames())).thenReturn(candidate);
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(previous));
+
+        SchemaVersion published =
+                schemaLifecycleService.publish(
+                        "task-form",
+                        List.of(
+                                step(MigrationStep.Operation.RENAME, " fullName ", "name"),
+                                coerce("priority", FieldType.NUMBER),
+                                defaultValue("status", "open"),
+                                step(MigrationStep.Operation.DROP, "legacy", null)));
+
+        SchemaMigration migration = published.getMigrations().getFirst();
+        assertEquals(2, migration.getVersion());
+        assertEquals(4, migration.getSteps().size());
+        assertEquals("fullName", migration.getSteps().getFirst().getField());
+    }
+
+    @Test
+    void publish_carriesEarlierMigrationsIntoTheNextVersion() {
+        SchemaMigration earlier = new SchemaMigration();
+        earlier.setVersion(2);
+        earlier.setSteps(List.of(step(MigrationStep.Operation.RENAME, "fullName", "title")));
+        SchemaVersion previous = schemaVersion(2, List.of(field("title", FieldType.STRING, true)));
+        previous.setMigrations(List.of(earlier));
+        FieldGroup group = group("task-form", "tasks", List.of("title"));
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(List.of(field("title", FieldType.STRING, true)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(previous));
+
+        SchemaVersion published = schemaLifecycleService.publish("task-form");
+
+        assertEquals(3, published.getVersion());
+        assertEquals(1, published.getMigrations().size());
+        assertEquals(2, published.getMigrations().getFirst().getVersion());
+    }
+
+    @Test
+    void publish_rejectsMigrationOfUnknownPath() {
+        SchemaVersion previous = schemaVersion(1, List.of(field("title", FieldType.STRING, true)));
+        FieldGroup group = group("task-form", "tasks", List.of("title"));
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(List.of(field("title", FieldType.STRING, true)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(previous));
+
+        IllegalArgumentException ex =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                schemaLifecycleService.publish(
+                                        "task-form", List.of(step(MigrationStep.Operation.DROP, "notes", null))));
+
+        assertTrue(ex.getMessage().contains("unknown field path 'notes'"));
+        verify(schemaVersionRepository, times(0)).save(any(SchemaVersion.class));
+    }
+
+    @Test
+    void publish_rejectsCoercionToAnotherTypeThanTheField() {
+        SchemaVersion previous = schemaVersion(1, List.of(field("priority", FieldType.STRING, false)));
+        FieldGroup group = group("task-form", "tasks", List.of("priority"));
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(List.of(field("priority", FieldType.NUMBER, false)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(previous));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        schemaLifecycleService.publish(
+                                "task-form", List.of(coerce("priority", FieldType.BOOLEAN))));
+    }
+
+    @Test
+    void publish_rejectsMigrationsForTheFirstVersion() {
+        FieldGroup group = group("task-form", "tasks", List.of("title"));
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(List.of(field("title", FieldType.STRING, true)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.empty());
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> schemaLifecycleService.publish("task-form", List.of(defaultValue("title", "untitled"))));
+    }
+
+    @Test
+    void candidate_checksTheSnapshotWithoutSavingIt() {
+        SchemaVersion previous = schemaVersion(1, List.of(field("title", FieldType.STRING, true)));
+        FieldGroup group = group("task-form", "tasks", List.of("title", "notes"));
+        when(fieldGroupRepository.findById("task-form")).thenReturn(Optional.of(group));
+        when(fieldDefinitionRepository.findByFieldNameIn(group.getFieldNames()))
+                .thenReturn(List.of(field("title", FieldType.STRING, true), field("notes", FieldType.STRING, false)));
+        when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
+                "tasks", SchemaLifecycleStatus.PUBLISHED))
+                .thenReturn(Optional.of(previous));
+
+        SchemaVersion candidate = schemaLifecycleService.candidate("task-form", null);
+
+        assertEquals(2, candidate.getVersion());
+        assertEquals(SchemaLifecycleStatus.DRAFT, candidate.getStatus());
+        assertEquals(2, candidate.getFields().size());
+        assertEquals(SchemaLifecycleStatus.PUBLISHED, previous.getStatus());
+        verify(schemaVersionRepository, times(0)).save(any(SchemaVersion.class));
+        verify(eventPublisher, times(0)).publishSchemaChange(any());
+    }
+
     @Test
     void deprecate_rejectsWhenNoPublishedSchemaExists() {
         when(schemaVersionRepository.findTopByEntityNameAndStatusOrderByVersionDesc(
@@ -358,6 +613,20 @@ class SchemaLifecycleServiceTest {
                 "Expected message to contain: " + expectedMessage);
     }
 
+    private CompoundIndexDefinition compoundIndex(String... fields) {
+        CompoundIndexDefinition definition = new CompoundIndexDefinition();
+        definition.setKeys(
+                Arrays.stream(fields)
+                        .map(
+                                fieldName -> {
+                                    CompoundIndexDefinition.IndexKey key = new CompoundIndexDefinition.IndexKey();
+                                    key.setField(fieldName);
+                                    return key;
+                                })
+                        .toList());
+        return definition;
+    }
+
     private FieldGroup group(String name, String entity, List<String> fieldNames) {
         FieldGroup group = new FieldGroup();
         group.setName(name);
@@ -376,6 +645,26 @@ class SchemaLifecycleServiceTest {
         return previous;
     }
 
+    private MigrationStep step(MigrationStep.Operation operation, String field, String to) {
+        MigrationStep step = new MigrationStep();
+        step.setOperation(operation);
+        step.setField(field);
+        step.setTo(to);
+        return step;
+    }
+
+    private MigrationStep coerce(String field, FieldType type) {
+        MigrationStep step = step(MigrationStep.Operation.COERCE, field, null);
+        step.setType(type);
+        return step;
+    }
+
+    private MigrationStep defaultValue(String field, Object value) {
+        MigrationStep step = step(MigrationStep.Operation.DEFAULT, field, null);
+        step.setValue(value);
+        return step;
+    }
+
     private FieldDefinition field(String name, FieldType type, boolean required) {
         FieldDefinition definition = new FieldDefinition();
         definition.setFieldName(name);
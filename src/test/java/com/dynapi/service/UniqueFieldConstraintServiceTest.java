@@ -6,16 +6,21 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dynapi.config.RecordCodecProperties;
 import com.dynapi.domain.model.FieldDefinition;
 import com.dynapi.domain.model.FieldType;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,11 +37,12 @@ class UniqueFieldConstraintServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    private final RecordCodecProperties codecProperties = new RecordCodecProperties();
     private UniqueFieldConstraintService uniqueFieldConstraintService;
 
     @BeforeEach
     void setUp() {
-        uniqueFieldConstraintService = new UniqueFieldConstraintService(mongoTemplate);
+        uniqueFieldConstraintService = new UniqueFieldConstraintService(mongoTemplate, codecProperties);
     }
 
     @Test
@@ -83,6 +89,35 @@ class UniqueFieldConstraintServiceTest {
         assertEquals(objectId, ((Document) query.get("_id")).get("$ne"));
     }
 
+    @Test
+    void validateForCreate_comparesDateFieldsAsDates() {
+        FieldDefinition day = uniqueStringField("day");
+        day.setType(FieldType.DATE);
+
+        uniqueFieldConstraintService.validateForCreate("shifts", Map.of("day", "2026-05-01"), List.of(day));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(queryCaptor.capture(), eq("shifts"));
+        assertEquals(
+                Date.from(Instant.parse("2026-05-01T00:00:00Z")),
+                queryCaptor.getValue().getQueryObject().get("day"));
+    }
+
+    @Test
+    void validateForCreate_comparesNumbersInTheirStoredType() {
+        FieldDefinition rate = uniqueStringField("rate");
+        rate.setType(FieldType.NUMBER);
+
+        uniqueFieldConstraintService.validateForCreate("plans", Map.of("rate", 0.1), List.of(rate));
+        codecProperties.setNumberStorage(RecordCodecProperties.NumberStorage.DECIMAL128);
+        uniqueFieldConstraintService.validateForCreate("plans", Map.of("rate", 0.1), List.of(rate));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).exists(queryCaptor.capture(), eq("plans"));
+        assertEquals(0.1, queryCaptor.getAllValues().getFirst().getQueryObject().get("rate"));
+        assertEquals(Decimal128.parse("0.1"), queryCaptor.getAllValues().getLast().getQueryObject().get("rate"));
+    }
+
     @Test
     void validateForCreate_rejectsUnsupportedUniqueType() {
         FieldDefinition objectField = new FieldDefinition();